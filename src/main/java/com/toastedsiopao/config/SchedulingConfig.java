@@ -1,12 +1,30 @@
 package com.toastedsiopao.config;
 
 import com.toastedsiopao.service.CustomerService; 
+import com.toastedsiopao.service.DashboardEventService;
+import com.toastedsiopao.service.DashboardService;
+import com.toastedsiopao.service.DemandForecastService;
+import com.toastedsiopao.service.InventoryValuationService;
+import com.toastedsiopao.service.ProducibilityService;
+import com.toastedsiopao.service.RecipeCostService;
+import com.toastedsiopao.service.ReportJobService;
+import com.toastedsiopao.service.SalesRollupService;
+import com.toastedsiopao.service.StockAlertService;
+import com.toastedsiopao.service.StockLotService;
+import com.toastedsiopao.service.UploadCleanupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs on the auto-configured scheduler, sized by {@code spring.task.scheduling.pool.size}
+ * so the frequent jobs (snapshot refresh, heartbeat, index checks) keep their
+ * cadence while a nightly job is running.
+ */
 @Configuration
 public class SchedulingConfig {
 
@@ -15,6 +33,39 @@ public class SchedulingConfig {
 	@Autowired
 	private CustomerService customerService; 
 
+	@Autowired
+	private UploadCleanupService uploadCleanupService;
+
+	@Autowired
+	private StockLotService stockLotService;
+
+	@Autowired
+	private InventoryValuationService inventoryValuationService;
+
+	@Autowired
+	private DemandForecastService demandForecastService;
+
+	@Autowired
+	private ReportJobService reportJobService;
+
+	@Autowired
+	private DashboardService dashboardService;
+
+	@Autowired
+	private SalesRollupService salesRollupService;
+
+	@Autowired
+	private DashboardEventService dashboardEventService;
+
+	@Autowired
+	private RecipeCostService recipeCostService;
+
+	@Autowired
+	private StockAlertService stockAlertService;
+
+	@Autowired
+	private ProducibilityService producibilityService;
+
 	@Scheduled(cron = "0 0 3 * * ?")
 	public void runDailyInactivityCheck() {
 		log.info("--- [SCHEDULER] Starting daily inactivity check... ---");
@@ -25,4 +76,109 @@ public class SchedulingConfig {
 		}
 		log.info("--- [SCHEDULER] Finished daily inactivity check. ---");
 	}
-}
\ No newline at end of file
+
+	@Scheduled(cron = "${file.gc.cron:0 30 3 * * ?}")
+	public void runUploadGarbageCollection() {
+		log.info("--- [SCHEDULER] Starting orphaned upload cleanup... ---");
+		try {
+			uploadCleanupService.collectOrphanedUploads();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during orphaned upload cleanup: {} ---", e.getMessage(), e);
+		}
+		log.info("--- [SCHEDULER] Finished orphaned upload cleanup. ---");
+	}
+
+	@Scheduled(cron = "${inventory.expiry-sweep.cron:0 15 0 * * ?}")
+	public void runExpiredLotSweep() {
+		log.info("--- [SCHEDULER] Starting expired stock lot sweep... ---");
+		try {
+			stockLotService.sweepExpiredLots();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during expired stock lot sweep: {} ---", e.getMessage(), e);
+		}
+		log.info("--- [SCHEDULER] Finished expired stock lot sweep. ---");
+	}
+
+	@Scheduled(cron = "${inventory.valuation.cron:0 55 23 * * ?}")
+	public void runInventoryValuationSnapshot() {
+		log.info("--- [SCHEDULER] Starting inventory valuation snapshot... ---");
+		try {
+			inventoryValuationService.recordDailySnapshot();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during inventory valuation snapshot: {} ---", e.getMessage(), e);
+		}
+		log.info("--- [SCHEDULER] Finished inventory valuation snapshot. ---");
+	}
+
+	@Scheduled(cron = "${forecast.cron:0 30 0 * * ?}")
+	public void runDemandForecastUpdate() {
+		log.info("--- [SCHEDULER] Starting demand forecast update... ---");
+		try {
+			demandForecastService.advanceForecasts();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during demand forecast update: {} ---", e.getMessage(), e);
+		}
+		// Same nightly pass over yesterday's sales
+		try {
+			producibilityService.refreshBestSellers();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during best-seller refresh: {} ---", e.getMessage(), e);
+		}
+		log.info("--- [SCHEDULER] Finished demand forecast update. ---");
+	}
+
+	@Scheduled(cron = "${report.jobs.cleanup-cron:0 */10 * * * ?}")
+	public void runReportJobCleanup() {
+		log.info("--- [SCHEDULER] Starting expired report job cleanup... ---");
+		try {
+			reportJobService.purgeExpiredJobs();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during expired report job cleanup: {} ---", e.getMessage(), e);
+		}
+		log.info("--- [SCHEDULER] Finished expired report job cleanup. ---");
+	}
+
+	@Scheduled(cron = "${chart.rollup.rebuild-cron:0 45 3 * * ?}")
+	public void runSalesRollupRebuild() {
+		log.info("--- [SCHEDULER] Starting sales rollup rebuild... ---");
+		try {
+			salesRollupService.rebuild();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during sales rollup rebuild: {} ---", e.getMessage(), e);
+		}
+		log.info("--- [SCHEDULER] Finished sales rollup rebuild. ---");
+	}
+
+	// In-memory indexes catch up with writes made on other nodes
+	@Scheduled(fixedDelayString = "${index.version-check-seconds:30}", timeUnit = TimeUnit.SECONDS)
+	public void runIndexVersionCheck() {
+		try {
+			recipeCostService.rebuildIfChanged();
+			stockAlertService.rebuildIfChanged();
+			producibilityService.rebuildIfChanged();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during index version check: {} ---", e.getMessage(), e);
+		}
+	}
+
+	// Runs every few seconds, so only failures are logged above debug
+	@Scheduled(fixedDelayString = "${dashboard.snapshot.refresh-seconds:30}", timeUnit = TimeUnit.SECONDS)
+	public void runDashboardSnapshotRefresh() {
+		log.debug("--- [SCHEDULER] Starting dashboard snapshot refresh... ---");
+		try {
+			dashboardService.refresh();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during dashboard snapshot refresh: {} ---", e.getMessage(), e);
+		}
+		log.debug("--- [SCHEDULER] Finished dashboard snapshot refresh. ---");
+	}
+
+	@Scheduled(fixedDelayString = "${dashboard.events.heartbeat-seconds:20}", timeUnit = TimeUnit.SECONDS)
+	public void runDashboardEventHeartbeat() {
+		try {
+			dashboardEventService.sendHeartbeat();
+		} catch (Exception e) {
+			log.error("--- [SCHEDULER] Error during dashboard event heartbeat: {} ---", e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.toastedsiopao.controller;
+
+import com.toastedsiopao.service.ChartDataService;
+import com.toastedsiopao.service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/api/charts")
+@PreAuthorize("hasAuthority('VIEW_DASHBOARD')")
+public class AdminChartController {
+
+	private static final Logger log = LoggerFactory.getLogger(AdminChartController.class);
+
+	private static final int MAX_TOP_PRODUCTS = 20;
+	private static final int MAX_VALUATION_DAYS = 3650;
+
+	@Autowired
+	private ChartDataService chartDataService;
+
+	@Autowired
+	private Clock clock;
+
+	/**
+	 * Delivered sales per hour, day, week or month. {@code start} and {@code end}
+	 * are inclusive ISO dates; when left out the range ends today and covers 2
+	 * days, 30 days, 26 weeks or 12 months depending on the bucket.
+	 */
+	@GetMapping("/sales")
+	public ResponseEntity<?> sales(@RequestParam(defaultValue = SalesRollupService.BUCKET_DAY) String bucket,
+			@RequestParam(required = false) String start, @RequestParam(required = false) String end,
+			@RequestParam(defaultValue = "false") boolean compareYear) {
+		try {
+			LocalDate endDate = StringUtils.hasText(end) ? LocalDate.parse(end) : LocalDate.now(clock);
+			LocalDate startDate = StringUtils.hasText(start) ? LocalDate.parse(start)
+					: defaultStart(bucket, endDate);
+			return ResponseEntity.ok(chartDataService.getSalesChart(bucket, startDate, endDate, compareYear));
+		} catch (DateTimeParseException e) {
+			return ResponseEntity.badRequest().body(Map.of("error", "Dates must be in yyyy-MM-dd format."));
+		} catch (IllegalArgumentException e) {
+			log.warn("Rejected sales chart request (bucket={}, start={}, end={}): {}", bucket, start, end,
+					e.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+		}
+	}
+
+	@GetMapping("/order-status")
+	public ChartDataService.StatusSeries orderStatus() {
+		return chartDataService.getOrderStatusChart();
+	}
+
+	@GetMapping("/top-products")
+	public ChartDataService.ChartSeries topProducts(@RequestParam(defaultValue = "5") int limit) {
+		return chartDataService.getTopProductsChart(Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS)));
+	}
+
+	@GetMapping("/valuation")
+	public ChartDataService.ChartSeries valuation(@RequestParam(defaultValue = "90") int days) {
+		return chartDataService.getValuationChart(Math.max(1, Math.min(days, MAX_VALUATION_DAYS)));
+	}
+
+	private static LocalDate defaultStart(String bucket, LocalDate end) {
+		return switch (bucket) {
+		case SalesRollupService.BUCKET_HOUR -> end.minusDays(1);
+		case SalesRollupService.BUCKET_WEEK -> end.minusWeeks(25);
+		case SalesRollupService.BUCKET_MONTH -> end.minusMonths(11).withDayOfMonth(1);
+		default -> end.minusDays(29);
+		};
+	}
+}
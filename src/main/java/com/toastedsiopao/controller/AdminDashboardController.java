@@ -3,30 +3,28 @@ package com.toastedsiopao.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.toastedsiopao.model.Order; 
-import com.toastedsiopao.service.ActivityLogService;
-import com.toastedsiopao.service.AdminService;
-import com.toastedsiopao.service.CustomerService;
-import com.toastedsiopao.service.InventoryItemService;
-import com.toastedsiopao.service.OrderService;
-import com.toastedsiopao.service.ProductService; 
+import com.toastedsiopao.service.ChartDataService;
+import com.toastedsiopao.service.DashboardEventService;
+import com.toastedsiopao.service.DashboardService;
+import com.toastedsiopao.service.DashboardService.DashboardSnapshot;
+import com.toastedsiopao.service.InventoryValuationService;
+import com.toastedsiopao.service.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize; 
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode; 
-import java.time.Clock;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.temporal.TemporalAdjusters;
-import java.util.ArrayList; 
 import java.util.LinkedHashMap; 
-import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -36,45 +34,40 @@ public class AdminDashboardController {
 	private static final Logger log = LoggerFactory.getLogger(AdminDashboardController.class);
 
 	@Autowired
-	private OrderService orderService;
+	private DashboardService dashboardService;
 	@Autowired
-	private InventoryItemService inventoryItemService;
-	@Autowired
-	private CustomerService customerService;
-	@Autowired
-	private AdminService adminService;
+	private DashboardEventService dashboardEventService;
 	@Autowired
 	private ObjectMapper objectMapper;
-	@Autowired
-	private Clock clock;
-	@Autowired
-	private ProductService productService;
-	@Autowired
-	private ActivityLogService activityLogService;
-
-	private Map<String, List<?>> getFormattedOrderStatusData(Map<String, Long> statusCounts) {
-		Map<String, String> orderedLabels = new LinkedHashMap<>();
-		orderedLabels.put(Order.STATUS_PENDING_VERIFICATION, "PENDING (GCASH)");
-		orderedLabels.put(Order.STATUS_PENDING, "PENDING (COD)");
-		orderedLabels.put(Order.STATUS_PROCESSING, "PROCESSING");
-		orderedLabels.put(Order.STATUS_OUT_FOR_DELIVERY, "OUT FOR DELIVERY");
-		orderedLabels.put(Order.STATUS_DELIVERED, "DELIVERED");
-		orderedLabels.put(Order.STATUS_CANCELLED, "CANCELLED");
-		orderedLabels.put(Order.STATUS_REJECTED, "REJECTED");
-
-		List<String> chartLabels = new ArrayList<>();
-		List<Long> chartData = new ArrayList<>();
-
-		for (Map.Entry<String, String> entry : orderedLabels.entrySet()) {
-			String statusKey = entry.getKey();
-			String statusLabel = entry.getValue();
-			Long count = statusCounts.getOrDefault(statusKey, 0L);
-			
-			chartLabels.add(statusLabel);
-			chartData.add(count);
+
+	@Value("${dashboard.events.resync-seconds:60}")
+	private long resyncSeconds;
+
+	// Raw starting values that admin-dashboard.js patches with the live deltas
+	private Map<String, Object> getLiveValues(DashboardSnapshot snapshot) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		values.put("salesToday", snapshot.salesToday());
+		values.put("salesThisWeek", snapshot.salesThisWeek());
+		values.put("salesThisMonth", snapshot.salesThisMonth());
+		values.put("cogsToday", snapshot.cogsToday());
+		values.put("grossProfitToday", snapshot.salesToday().subtract(snapshot.cogsToday()));
+		values.put("grossProfitThisWeek", snapshot.salesThisWeek().subtract(snapshot.cogsThisWeek()));
+		values.put("grossProfitThisMonth", snapshot.salesThisMonth().subtract(snapshot.cogsThisMonth()));
+		values.put("totalRevenue", snapshot.totalRevenue());
+		values.put("totalTransactions", snapshot.totalTransactions());
+		values.put("avgOrderValue", snapshot.averageOrderValue());
+		values.put("potentialRevenue", snapshot.potentialRevenue());
+		values.put("totalOrders", snapshot.totalOrders());
+		for (String status : ChartDataService.ORDER_STATUSES) {
+			values.put("orders." + status, snapshot.orderCount(status));
 		}
-		
-		return Map.of("labels", chartLabels, "data", chartData);
+		values.put("items.low", snapshot.lowStockItems());
+		values.put("items.critical", snapshot.criticalStockItems());
+		values.put("items.outOfStock", snapshot.outOfStockItems());
+		values.put("products.low", snapshot.lowStockProducts());
+		values.put("products.critical", snapshot.criticalStockProducts());
+		values.put("products.outOfStock", snapshot.outOfStockProducts());
+		return values;
 	}
 
 	@GetMapping("/dashboard")
@@ -82,101 +75,103 @@ public class AdminDashboardController {
 	public String adminDashboard(Model model) {
 		log.info("Loading admin dashboard...");
 
-		BigDecimal salesToday = orderService.getSalesToday();
-		BigDecimal salesThisWeek = orderService.getSalesThisWeek();
-		BigDecimal salesThisMonth = orderService.getSalesThisMonth();
-		
-		model.addAttribute("salesToday", salesToday);
-		model.addAttribute("salesThisWeek", salesThisWeek);
-		model.addAttribute("salesThisMonth", salesThisMonth);
+		DashboardSnapshot snapshot = dashboardService.getSnapshot();
+		model.addAttribute("snapshotAsOf", snapshot.asOf());
 
-		BigDecimal cogsToday = orderService.getCogsToday();
-		BigDecimal cogsThisWeek = orderService.getCogsThisWeek();
-		BigDecimal cogsThisMonth = orderService.getCogsThisMonth();
+		model.addAttribute("salesToday", snapshot.salesToday());
+		model.addAttribute("salesThisWeek", snapshot.salesThisWeek());
+		model.addAttribute("salesThisMonth", snapshot.salesThisMonth());
+
+		model.addAttribute("cogsToday", snapshot.cogsToday());
+		model.addAttribute("cogsThisWeek", snapshot.cogsThisWeek());
+		model.addAttribute("cogsThisMonth", snapshot.cogsThisMonth());
 		
-		model.addAttribute("cogsToday", cogsToday);
-		model.addAttribute("cogsThisWeek", cogsThisWeek);
-		model.addAttribute("cogsThisMonth", cogsThisMonth);
+		model.addAttribute("grossProfitToday", snapshot.salesToday().subtract(snapshot.cogsToday()));
+		model.addAttribute("grossProfitThisWeek", snapshot.salesThisWeek().subtract(snapshot.cogsThisWeek()));
+		model.addAttribute("grossProfitThisMonth", snapshot.salesThisMonth().subtract(snapshot.cogsThisMonth()));
 		
-		model.addAttribute("grossProfitToday", salesToday.subtract(cogsToday));
-		model.addAttribute("grossProfitThisWeek", salesThisWeek.subtract(cogsThisWeek));
-		model.addAttribute("grossProfitThisMonth", salesThisMonth.subtract(cogsThisMonth));
-		
-		BigDecimal totalRevenue = orderService.getTotalRevenueAllTime();
-		long totalTransactions = orderService.getTotalTransactionsAllTime();
-		BigDecimal avgOrderValue = BigDecimal.ZERO;
-		if (totalTransactions > 0) {
-			avgOrderValue = totalRevenue.divide(new BigDecimal(totalTransactions), 2, RoundingMode.HALF_UP);
-		}
-		model.addAttribute("avgOrderValue", avgOrderValue);
-		model.addAttribute("potentialRevenue", orderService.getTotalPotentialRevenue());
-
-		Map<String, Long> orderStatusCounts = orderService.getOrderStatusCounts();
-		model.addAttribute("totalOrders", orderStatusCounts.values().stream().mapToLong(Long::longValue).sum());
-		model.addAttribute("pendingVerificationOrders", orderStatusCounts.getOrDefault(Order.STATUS_PENDING_VERIFICATION, 0L));
-		model.addAttribute("pendingOrders", orderStatusCounts.getOrDefault(Order.STATUS_PENDING, 0L));
-		model.addAttribute("processingOrders", orderStatusCounts.getOrDefault(Order.STATUS_PROCESSING, 0L));
-		model.addAttribute("outForDeliveryOrders", orderStatusCounts.getOrDefault(Order.STATUS_OUT_FOR_DELIVERY, 0L));
-		model.addAttribute("deliveredOrders", orderStatusCounts.getOrDefault(Order.STATUS_DELIVERED, 0L));
-		model.addAttribute("cancelledOrders", orderStatusCounts.getOrDefault(Order.STATUS_CANCELLED, 0L));
-		model.addAttribute("rejectedOrders", orderStatusCounts.getOrDefault(Order.STATUS_REJECTED, 0L));
-
-		model.addAttribute("totalInventoryItems", inventoryItemService.findAll().size()); 
-		model.addAttribute("totalStockQuantity", inventoryItemService.getTotalStockQuantity()); 
-		model.addAttribute("totalStockValue", inventoryItemService.getTotalStockValue());
-		model.addAttribute("lowStockItems", inventoryItemService.countLowStockItems());
-		model.addAttribute("criticalStockItems", inventoryItemService.countCriticalStockItems());
-		model.addAttribute("outOfStockItems", inventoryItemService.countOutOfStockItems());
+		model.addAttribute("avgOrderValue", snapshot.averageOrderValue());
+		model.addAttribute("potentialRevenue", snapshot.potentialRevenue());
+
+		model.addAttribute("totalOrders", snapshot.totalOrders());
+		model.addAttribute("pendingVerificationOrders", snapshot.orderCount(Order.STATUS_PENDING_VERIFICATION));
+		model.addAttribute("pendingOrders", snapshot.orderCount(Order.STATUS_PENDING));
+		model.addAttribute("processingOrders", snapshot.orderCount(Order.STATUS_PROCESSING));
+		model.addAttribute("outForDeliveryOrders", snapshot.orderCount(Order.STATUS_OUT_FOR_DELIVERY));
+		model.addAttribute("deliveredOrders", snapshot.orderCount(Order.STATUS_DELIVERED));
+		model.addAttribute("cancelledOrders", snapshot.orderCount(Order.STATUS_CANCELLED));
+		model.addAttribute("rejectedOrders", snapshot.orderCount(Order.STATUS_REJECTED));
+
+		model.addAttribute("totalInventoryItems", snapshot.totalInventoryItems());
+		InventoryValuationService.Valuation valuation = snapshot.valuation();
+		model.addAttribute("totalStockQuantity", valuation.totalQuantity());
+		model.addAttribute("totalStockValue", valuation.totalValue());
+		model.addAttribute("stockValueChange", valuation.valueChange());
+		model.addAttribute("stockValueSnapshotAt", valuation.snapshotAt());
+		model.addAttribute("lowStockItems", snapshot.lowStockItems());
+		model.addAttribute("criticalStockItems", snapshot.criticalStockItems());
+		model.addAttribute("outOfStockItems", snapshot.outOfStockItems());
 		
 		// Product Metrics
-		model.addAttribute("totalProducts", productService.countAllProducts());
-		model.addAttribute("lowStockProducts", productService.countLowStockProducts());
-		model.addAttribute("criticalStockProducts", productService.countCriticalStockProducts());
-		model.addAttribute("outOfStockProducts", productService.countOutOfStockProducts());
+		model.addAttribute("totalProducts", snapshot.totalProducts());
+		model.addAttribute("lowStockProducts", snapshot.lowStockProducts());
+		model.addAttribute("criticalStockProducts", snapshot.criticalStockProducts());
+		model.addAttribute("outOfStockProducts", snapshot.outOfStockProducts());
 
 		// Waste & Spoilage Metrics
-		Map<String, Object> wasteMetrics = activityLogService.getWasteMetrics(null, null, null, null, null);
-		model.addAttribute("totalWasteItems", wasteMetrics.get("totalItems"));
-		model.addAttribute("totalWasteValue", wasteMetrics.get("totalWasteValue"));
-		model.addAttribute("wasteExpiredValue", wasteMetrics.get("expiredValue"));
-		model.addAttribute("wasteDamagedValue", wasteMetrics.get("damagedValue"));
-		model.addAttribute("wasteOtherValue", wasteMetrics.get("wasteValue"));
-
-		model.addAttribute("totalCustomers", customerService.findAllCustomers(null).getTotalElements());
-		model.addAttribute("activeCustomers", customerService.countActiveCustomers());
-		model.addAttribute("newCustomersThisMonth", customerService.countNewCustomersThisMonth());
-		model.addAttribute("totalAdmins", adminService.countAllAdmins());
-
+		MetricsService.WasteMetrics wasteMetrics = snapshot.waste();
+		model.addAttribute("totalWasteItems", wasteMetrics.totalItems());
+		model.addAttribute("totalWasteValue", wasteMetrics.totalWasteValue());
+		model.addAttribute("wasteExpiredValue", wasteMetrics.expiredValue());
+		model.addAttribute("wasteDamagedValue", wasteMetrics.damagedValue());
+		model.addAttribute("wasteOtherValue", wasteMetrics.wasteValue());
+
+		model.addAttribute("totalCustomers", snapshot.totalCustomers());
+		model.addAttribute("activeCustomers", snapshot.activeCustomers());
+		model.addAttribute("newCustomersThisMonth", snapshot.newCustomersThisMonth());
+		model.addAttribute("totalAdmins", snapshot.totalAdmins());
+
+		// Chart series load from /admin/api/charts after the page has painted
+		model.addAttribute("topProducts", snapshot.topProducts());
+		model.addAttribute("liveResyncSeconds", resyncSeconds);
 		try {
-			LocalDateTime now = LocalDateTime.now(clock);
-			LocalDateTime thirtyDaysAgo = now.minusDays(30).with(LocalTime.MIN);
-			Map<String, BigDecimal> salesData = orderService.getSalesDataForChart(thirtyDaysAgo, now);
-			model.addAttribute("salesChartLabels", objectMapper.writeValueAsString(salesData.keySet()));
-			model.addAttribute("salesChartData", objectMapper.writeValueAsString(salesData.values()));
-
-			List<Map<String, Object>> topProducts = orderService.getTopSellingProducts(5);
-			model.addAttribute("topProducts", topProducts); 
-			List<String> topProductLabels = topProducts.stream()
-					.map(p -> (String) ((com.toastedsiopao.model.Product) p.get("product")).getName()).toList();
-			List<Long> topProductData = topProducts.stream().map(p -> (Long) p.get("quantity")).toList();
-			model.addAttribute("topProductsChartLabels", objectMapper.writeValueAsString(topProductLabels));
-			model.addAttribute("topProductsChartData", objectMapper.writeValueAsString(topProductData));
-
-			Map<String, List<?>> orderStatusChartData = getFormattedOrderStatusData(orderStatusCounts);
-			model.addAttribute("orderStatusChartLabels", objectMapper.writeValueAsString(orderStatusChartData.get("labels")));
-			model.addAttribute("orderStatusChartData", objectMapper.writeValueAsString(orderStatusChartData.get("data")));
-
+			model.addAttribute("liveValues", objectMapper.writeValueAsString(getLiveValues(snapshot)));
 		} catch (JsonProcessingException e) {
-			log.error("Error serializing chart data to JSON", e);
-			model.addAttribute("salesChartLabels", "[]");
-			model.addAttribute("salesChartData", "[]");
-			model.addAttribute("topProductsChartLabels", "[]");
-			model.addAttribute("topProductsChartData", "[]");
-			model.addAttribute("orderStatusChartLabels", "[]");
-			model.addAttribute("orderStatusChartData", "[]");
-			model.addAttribute("topProducts", List.of());
+			log.error("Error serializing live dashboard values to JSON", e);
+			model.addAttribute("liveValues", "{}");
 		}
 
 		return "admin/dashboard"; 
 	}
-}
\ No newline at end of file
+
+	@PostMapping("/dashboard/refresh")
+	@PreAuthorize("hasAuthority('VIEW_DASHBOARD')")
+	public String refreshDashboard() {
+		DashboardSnapshot snapshot = dashboardService.refresh();
+		log.info("Dashboard snapshot refreshed on request in {} ms.", snapshot.buildMillis());
+		return "redirect:/admin/dashboard";
+	}
+
+	/**
+	 * Baseline for the live counters. A tab fetches it fresh whenever its event
+	 * stream (re)connects, since events sent while it was away are gone, and from
+	 * the current snapshot on its periodic resync; either way it replays the
+	 * events newer than {@code lastEventId}. Both are only comparable with events
+	 * from {@code eventNode}, the node that built the snapshot.
+	 */
+	@GetMapping("/dashboard/live-values")
+	@PreAuthorize("hasAuthority('VIEW_DASHBOARD')")
+	@ResponseBody
+	public Map<String, Object> liveValues(@RequestParam(defaultValue = "false") boolean fresh) {
+		DashboardSnapshot snapshot = fresh ? dashboardService.refresh() : dashboardService.getSnapshot();
+		return Map.of("eventNode", dashboardEventService.nodeId(), "lastEventId", snapshot.lastEventId(),
+				"values", getLiveValues(snapshot));
+	}
+
+	@GetMapping(value = "/dashboard/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@PreAuthorize("hasAuthority('VIEW_DASHBOARD')")
+	@ResponseBody
+	public SseEmitter dashboardEvents() {
+		return dashboardEventService.subscribe();
+	}
+}
@@ -10,8 +10,11 @@ import com.toastedsiopao.model.UnitOfMeasure;
 import com.toastedsiopao.repository.RecipeIngredientRepository;
 import com.toastedsiopao.service.ActivityLogService;
 import com.toastedsiopao.service.AdminService;
+import com.toastedsiopao.service.DemandForecastService;
+import com.toastedsiopao.service.InventoryImportService;
 import com.toastedsiopao.service.InventoryCategoryService;
 import com.toastedsiopao.service.InventoryItemService;
+import com.toastedsiopao.service.MetricsService;
 import com.toastedsiopao.service.UnitOfMeasureService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -21,17 +24,27 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.Principal;
 import java.time.LocalDate;
 import java.util.List;
@@ -59,6 +72,15 @@ public class AdminInventoryController {
 	@Autowired
 	private AdminService adminService;
 
+	@Autowired
+	private InventoryImportService inventoryImportService;
+
+	@Autowired
+	private DemandForecastService demandForecastService;
+
+	@Autowired
+	private MetricsService metricsService;
+
 	private void addCommonAttributesForRedirect(RedirectAttributes redirectAttributes) {
 		redirectAttributes.addFlashAttribute("inventoryCategories", inventoryCategoryService.findAll());
 		redirectAttributes.addFlashAttribute("unitsOfMeasure", unitOfMeasureService.findAll());
@@ -86,11 +108,11 @@ public class AdminInventoryController {
 		List<UnitOfMeasure> units = unitOfMeasureService.findAll();
 		List<InventoryItem> allItemsForStockModal = inventoryItemService.findAllActive();
 
-		Map<String, Object> invMetrics = inventoryItemService.getInventoryMetrics(keyword, categoryId);
-		model.addAttribute("totalInventoryValue", invMetrics.get("totalValue"));
-		model.addAttribute("lowStockCount", invMetrics.get("lowStock"));
-		model.addAttribute("criticalStockCount", invMetrics.get("criticalStock"));
-		model.addAttribute("outOfStockCount", invMetrics.get("outOfStock"));
+		MetricsService.InventoryMetrics invMetrics = metricsService.getInventoryMetrics(keyword, categoryId);
+		model.addAttribute("totalInventoryValue", invMetrics.totalValue());
+		model.addAttribute("lowStockCount", invMetrics.lowStock());
+		model.addAttribute("criticalStockCount", invMetrics.criticalStock());
+		model.addAttribute("outOfStockCount", invMetrics.outOfStock());
 
 		// --- WASTE LOGS SECTION ---
 		Pageable wastePageable = PageRequest.of(wastePage, size);
@@ -106,17 +128,18 @@ public class AdminInventoryController {
 		model.addAttribute("wasteEndDate", wasteEndDate);
 		model.addAttribute("wastePage", wastePage);
 
-		Map<String, Object> wasteMetrics = activityLogService.getWasteMetrics(wasteKeyword, wasteCategory, wasteType,
-				wasteStartDate, wasteEndDate);
-		model.addAttribute("totalWasteItems", wasteMetrics.get("totalItems"));
-		model.addAttribute("totalWasteValue", wasteMetrics.get("totalWasteValue"));
-		model.addAttribute("expiredValue", wasteMetrics.get("expiredValue"));
-		model.addAttribute("damagedValue", wasteMetrics.get("damagedValue"));
-		model.addAttribute("wasteValue", wasteMetrics.get("wasteValue"));
+		MetricsService.WasteMetrics wasteMetrics = metricsService.getWasteMetrics(wasteKeyword, wasteCategory,
+				wasteType, wasteStartDate, wasteEndDate);
+		model.addAttribute("totalWasteItems", wasteMetrics.totalItems());
+		model.addAttribute("totalWasteValue", wasteMetrics.totalWasteValue());
+		model.addAttribute("expiredValue", wasteMetrics.expiredValue());
+		model.addAttribute("damagedValue", wasteMetrics.damagedValue());
+		model.addAttribute("wasteValue", wasteMetrics.wasteValue());
 
 		model.addAttribute("allInventoryItems", allItemsForStockModal);
 		model.addAttribute("inventoryPage", inventoryPage);
 		model.addAttribute("inventoryItems", inventoryPage.getContent());
+		model.addAttribute("itemForecasts", demandForecastService.getItemForecasts(inventoryPage.getContent()));
 		model.addAttribute("inventoryCategories", categories);
 		model.addAttribute("unitsOfMeasure", units);
 		model.addAttribute("keyword", keyword);
@@ -326,6 +349,78 @@ public class AdminInventoryController {
 		return "redirect:/admin/inventory";
 	}
 
+	@PostMapping("/stock/import")
+	@ResponseBody
+	@PreAuthorize("hasAuthority('ADJUST_INVENTORY_STOCK')")
+	public ResponseEntity<?> importInventoryStock(@RequestParam("file") MultipartFile file, Principal principal) {
+		if (file == null || file.isEmpty()) {
+			return ResponseEntity.badRequest().body(Map.of("error", "Please choose a file to import."));
+		}
+		String format = importFormatOf(file.getOriginalFilename());
+		if (format == null) {
+			return ResponseEntity.badRequest().body(Map.of("error", "Only .xlsx and .csv files can be imported."));
+		}
+
+		Path tempFile = null;
+		try {
+			// Parsed from disk so the upload is never held in memory whole
+			tempFile = Files.createTempFile("inventory-import-", "." + format);
+			file.transferTo(tempFile);
+			InventoryImportService.ImportResult result = inventoryImportService.importStock(tempFile, format,
+					principal.getName());
+
+			activityLogService.logAdminAction(principal.getName(), "BULK_IMPORT_INVENTORY_STOCK",
+					"Imported stock from '" + file.getOriginalFilename() + "'. Rows: " + result.rowsRead()
+							+ ", Applied: " + result.rowsApplied() + ", Unchanged: " + result.rowsUnchanged()
+							+ ", Errors: " + result.errorCount());
+			return ResponseEntity.ok(result);
+
+		} catch (IllegalArgumentException e) {
+			log.warn("Inventory import rejected: {}", e.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+		} catch (Exception e) {
+			log.error("Error importing inventory stock: {}", e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+					.body(Map.of("error", "An unexpected error occurred while importing."));
+		} finally {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e) {
+					log.warn("Could not delete temp import file: {}", tempFile);
+				}
+			}
+		}
+	}
+
+	@GetMapping("/stock/import-template")
+	@PreAuthorize("hasAuthority('ADJUST_INVENTORY_STOCK')")
+	public ResponseEntity<StreamingResponseBody> downloadImportTemplate(
+			@RequestParam(value = "format", defaultValue = InventoryImportService.FORMAT_XLSX) String format) {
+		boolean csv = InventoryImportService.FORMAT_CSV.equals(format);
+		String fileName = "inventory_stock_import." + (csv ? "csv" : "xlsx");
+		StreamingResponseBody body = out -> inventoryImportService.writeTemplate(out,
+				csv ? InventoryImportService.FORMAT_CSV : InventoryImportService.FORMAT_XLSX);
+
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+				.contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_OCTET_STREAM).body(body);
+	}
+
+	private String importFormatOf(String filename) {
+		if (filename == null) {
+			return null;
+		}
+		String lower = filename.toLowerCase();
+		if (lower.endsWith(".xlsx")) {
+			return InventoryImportService.FORMAT_XLSX;
+		}
+		if (lower.endsWith(".csv")) {
+			return InventoryImportService.FORMAT_CSV;
+		}
+		return null;
+	}
+
 	@PostMapping("/delete/{id}")
 	@PreAuthorize("hasAuthority('DELETE_INVENTORY_ITEMS')")
 	public String deleteOrDeactivateInventoryItem(@PathVariable("id") Long id,
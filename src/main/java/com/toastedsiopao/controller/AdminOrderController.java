@@ -3,6 +3,7 @@ package com.toastedsiopao.controller;
 import com.toastedsiopao.model.Order;
 import com.toastedsiopao.service.ActivityLogService; 
 import com.toastedsiopao.service.IssueReportService;
+import com.toastedsiopao.service.OrderDocumentCacheService;
 import com.toastedsiopao.service.OrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,9 @@ public class AdminOrderController {
 	@Autowired
 	private IssueReportService issueReportService;
 
+	@Autowired
+	private OrderDocumentCacheService orderDocumentCacheService;
+
 	@GetMapping
 	@PreAuthorize("hasAuthority('VIEW_ORDERS')") 
 	public String manageOrders(Model model, @RequestParam(value = "keyword", required = false) String keyword,
@@ -99,6 +103,7 @@ public class AdminOrderController {
 				redirectAttributes.addFlashAttribute("stockSuccess", "Order #ORD-" + orderId + " accepted.");
 			} else if ("reject".equals(action)) {
 				Order order = orderService.rejectOrder(orderId);
+				orderDocumentCacheService.prerender(orderId);
 				activityLogService.logAdminAction(adminUsername, "REJECT_ORDER", "Rejected Order #ORD-" + orderId + ". Stock reversed.");
 				redirectAttributes.addFlashAttribute("stockSuccess", "Order #ORD-" + orderId + " rejected. Stock has been reversed.");
 			} else if ("ship".equals(action)) {
@@ -107,10 +112,12 @@ public class AdminOrderController {
 				redirectAttributes.addFlashAttribute("stockSuccess", "Order #ORD-" + orderId + " is now Out for Delivery.");
 			} else if ("complete_cod".equals(action)) {
 				Order order = orderService.completeCodOrder(orderId);
+				orderDocumentCacheService.prerender(orderId);
 				activityLogService.logAdminAction(adminUsername, "COMPLETE_ORDER", "Completed (COD) Order #ORD-" + orderId + ". Status set to " + order.getStatus());
 				redirectAttributes.addFlashAttribute("stockSuccess", "Order #ORD-" + orderId + " has been completed and paid.");
 			} else if ("complete_delivered".equals(action)) { 
 				Order order = orderService.completeDeliveredOrder(orderId);
+				orderDocumentCacheService.prerender(orderId);
 				activityLogService.logAdminAction(adminUsername, "COMPLETE_ORDER", "Completed (Pre-Paid) Order #ORD-" + orderId + ". Status set to " + order.getStatus());
 				redirectAttributes.addFlashAttribute("stockSuccess", "Order #ORD-" + orderId + " has been marked as delivered.");
 			} else {
@@ -3,6 +3,7 @@ package com.toastedsiopao.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.toastedsiopao.dto.CategoryDto;
 import com.toastedsiopao.dto.ProductDto;
+import com.toastedsiopao.dto.ProductionRunDto;
 import com.toastedsiopao.model.Category;
 import com.toastedsiopao.model.InventoryItem;
 import com.toastedsiopao.model.Product;
@@ -13,6 +14,7 @@ import com.toastedsiopao.service.AdminService;
 import com.toastedsiopao.service.CategoryService;
 import com.toastedsiopao.service.FileStorageService;
 import com.toastedsiopao.service.InventoryItemService;
+import com.toastedsiopao.service.MetricsService;
 import com.toastedsiopao.service.ProductService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -22,6 +24,8 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -39,6 +43,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/admin/products")
@@ -68,6 +73,9 @@ public class AdminProductController {
 	@Autowired
 	private AdminService adminService;
 
+	@Autowired
+	private MetricsService metricsService;
+
 	private void addCommonAttributesForRedirect(RedirectAttributes redirectAttributes) {
 		redirectAttributes.addFlashAttribute("categories", categoryService.findAll());
 		redirectAttributes.addFlashAttribute("inventoryItems", inventoryItemService.findAllActive());
@@ -92,12 +100,12 @@ public class AdminProductController {
 		model.addAttribute("keyword", keyword);
 		model.addAttribute("selectedCategoryId", categoryId);
 
-		Map<String, Object> metrics = productService.getProductMetrics(keyword, categoryId);
+		MetricsService.ProductMetrics metrics = metricsService.getProductMetrics(keyword, categoryId);
 
-		model.addAttribute("totalProducts", metrics.get("totalProducts"));
-		model.addAttribute("lowStockProducts", metrics.get("lowStock"));
-		model.addAttribute("outOfStockProducts", metrics.get("outOfStock"));
-		model.addAttribute("criticalStockProducts", metrics.get("criticalStock"));
+		model.addAttribute("totalProducts", metrics.totalProducts());
+		model.addAttribute("lowStockProducts", metrics.lowStock());
+		model.addAttribute("outOfStockProducts", metrics.outOfStock());
+		model.addAttribute("criticalStockProducts", metrics.criticalStock());
 
 		model.addAttribute("productPage", productPage);
 		model.addAttribute("products", productPage.getContent());
@@ -106,6 +114,8 @@ public class AdminProductController {
 
 		Page<Product> allProductsPage = productService.searchProducts(null, null, Pageable.unpaged());
 		model.addAttribute("allProductsForStockModal", allProductsPage.getContent());
+		model.addAttribute("maxProducibleByProduct", productService.calculateMaxProducibleForAll());
+		model.addAttribute("unitCostByProduct", productService.getUnitCosts());
 
 		model.addAttribute("currentPage", page);
 		model.addAttribute("totalPages", productPage.getTotalPages());
@@ -404,6 +414,44 @@ public class AdminProductController {
 		return "redirect:/admin/products";
 	}
 
+	@PostMapping("/stock/production-run")
+	@ResponseBody
+	@PreAuthorize("hasAuthority('ADJUST_PRODUCT_STOCK')")
+	public ResponseEntity<?> recordProductionRun(@Valid @RequestBody ProductionRunDto productionRunDto,
+			BindingResult result, Principal principal) {
+		if (result.hasErrors()) {
+			String errors = result.getAllErrors().stream().map(error -> error.getDefaultMessage())
+					.collect(Collectors.joining(" "));
+			return ResponseEntity.badRequest().body(Map.of("error", errors));
+		}
+
+		try {
+			List<Product> producedProducts = productService.recordProductionRun(productionRunDto.getItems());
+
+			Map<Long, Integer> requested = productionRunDto.getItems().stream().collect(
+					Collectors.toMap(ProductionRunDto.Item::getProductId, ProductionRunDto.Item::getQuantity, Integer::sum));
+			String details = producedProducts.stream()
+					.map(p -> requested.get(p.getId()) + "x " + p.getName() + " (ID: " + p.getId() + ", New Stock: "
+							+ p.getCurrentStock() + ")")
+					.collect(Collectors.joining("; "));
+			activityLogService.logAdminAction(principal.getName(), "PRODUCTION_RUN", "Produced " + details);
+
+			List<Map<String, Object>> products = producedProducts.stream()
+					.map(p -> Map.<String, Object>of("id", p.getId(), "name", p.getName(), "currentStock",
+							p.getCurrentStock()))
+					.collect(Collectors.toList());
+			return ResponseEntity.ok(Map.of("products", products));
+
+		} catch (IllegalArgumentException e) {
+			log.warn("Production run failed: {}", e.getMessage());
+			return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+		} catch (Exception e) {
+			log.error("Error recording production run: {}", e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+					.body(Map.of("error", "An unexpected error occurred."));
+		}
+	}
+
 	@PostMapping("/delete/{id}")
 	@PreAuthorize("hasAuthority('DELETE_PRODUCTS')")
 	public String deleteOrDeactivateProduct(@PathVariable("id") Long id,
@@ -503,4 +551,11 @@ public class AdminProductController {
 			return Map.of("maxQuantity", 0);
 		}
 	}
+
+	@GetMapping("/calculate-max")
+	@ResponseBody
+	@PreAuthorize("hasAuthority('ADJUST_PRODUCT_STOCK')")
+	public Map<Long, Integer> getCalculatedMaxForAll() {
+		return productService.calculateMaxProducibleForAll();
+	}
 }
\ No newline at end of file
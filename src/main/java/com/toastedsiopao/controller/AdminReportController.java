@@ -1,30 +1,45 @@
 package com.toastedsiopao.controller;
 
 import com.toastedsiopao.model.Order;
+import com.toastedsiopao.service.OrderDocumentCacheService;
 import com.toastedsiopao.service.OrderService;
+import com.toastedsiopao.service.ReportCacheService;
+import com.toastedsiopao.service.ReportJobService;
 import com.toastedsiopao.service.ReportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/admin/reports")
@@ -32,45 +47,42 @@ public class AdminReportController {
 
 	private static final Logger log = LoggerFactory.getLogger(AdminReportController.class);
 
+	private static final MediaType CSV_MEDIA_TYPE = new MediaType("text", "csv", StandardCharsets.UTF_8);
+	private static final MediaType GZIP_MEDIA_TYPE = new MediaType("application", "gzip");
+	private static final int GZIP_BUFFER_SIZE = 16 * 1024;
+
 	@Autowired
 	private ReportService reportService;
 
 	@Autowired
 	private OrderService orderService;
 
+	@Autowired
+	private ReportJobService reportJobService;
+
+	@Autowired
+	private OrderDocumentCacheService orderDocumentCacheService;
+
+	@Autowired
+	private ReportCacheService reportCacheService;
+
 	@GetMapping("/financial")
 	@PreAuthorize("hasAuthority('VIEW_TRANSACTIONS')")
-	public ResponseEntity<InputStreamResource> downloadFinancialReport(
+	public ResponseEntity<StreamingResponseBody> downloadFinancialReport(
 			@RequestParam(value = "keyword", required = false) String keyword,
 			@RequestParam(value = "startDate", required = false) String startDate,
 			@RequestParam(value = "endDate", required = false) String endDate) {
 
 		log.info("Generating financial report for keyword: [{}], start: [{}], end: [{}]", keyword, startDate, endDate);
 
-		try {
-			ByteArrayInputStream bis = reportService.generateFinancialReport(keyword, startDate, endDate);
-
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Financial-Report_" + timestamp + ".xlsx";
-
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
-
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_OCTET_STREAM)
-					.body(new InputStreamResource(bis));
-
-		} catch (IOException e) {
-			log.error("Failed to generate financial report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating financial report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamExcelReport("Financial-Report", "financial", cached("financial",
+				out -> reportService.writeFinancialReport(keyword, startDate, endDate, out),
+				"keyword", keyword, "startDate", startDate, "endDate", endDate));
 	}
 
 	@GetMapping("/financial/pdf")
 	@PreAuthorize("hasAuthority('VIEW_TRANSACTIONS')")
-	public ResponseEntity<InputStreamResource> downloadFinancialReportPdf(
+	public ResponseEntity<StreamingResponseBody> downloadFinancialReportPdf(
 			@RequestParam(value = "keyword", required = false) String keyword,
 			@RequestParam(value = "startDate", required = false) String startDate,
 			@RequestParam(value = "endDate", required = false) String endDate) {
@@ -78,146 +90,116 @@ public class AdminReportController {
 		log.info("Generating financial PDF report for keyword: [{}], start: [{}], end: [{}]", keyword, startDate,
 				endDate);
 
-		try {
-			ByteArrayInputStream bis = reportService.generateFinancialReportPdf(keyword, startDate, endDate);
-
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Financial-Report_" + timestamp + ".pdf";
+		return streamPdfReport("Financial-Report", "financial", cached("financial/pdf",
+				out -> reportService.writeFinancialReportPdf(keyword, startDate, endDate, out),
+				"keyword", keyword, "startDate", startDate, "endDate", endDate));
+	}
 
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+	@GetMapping("/financial/csv")
+	@PreAuthorize("hasAuthority('VIEW_TRANSACTIONS')")
+	public ResponseEntity<StreamingResponseBody> downloadFinancialReportCsv(
+			@RequestParam(value = "keyword", required = false) String keyword,
+			@RequestParam(value = "startDate", required = false) String startDate,
+			@RequestParam(value = "endDate", required = false) String endDate,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
 
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF)
-					.body(new InputStreamResource(bis));
+		log.info("Generating financial CSV report for keyword: [{}], start: [{}], end: [{}], gzip: {}", keyword,
+				startDate, endDate, gzip);
 
-		} catch (IOException e) {
-			log.error("Failed to generate financial PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating financial PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamCsvReport("Financial-Report", "financial", gzip, cached("financial/csv",
+				out -> reportService.writeFinancialReportCsv(keyword, startDate, endDate, out),
+				"keyword", keyword, "startDate", startDate, "endDate", endDate));
 	}
 
 	@GetMapping("/inventory")
 	@PreAuthorize("hasAuthority('VIEW_INVENTORY')")
-	public ResponseEntity<InputStreamResource> downloadInventoryReport(
+	public ResponseEntity<StreamingResponseBody> downloadInventoryReport(
 			@RequestParam(value = "keyword", required = false) String keyword,
 			@RequestParam(value = "category", required = false) Long categoryId) {
 
 		log.info("Generating inventory EXCEL report for keyword: [{}], categoryId: [{}]", keyword, categoryId);
 
-		try {
-			ByteArrayInputStream bis = reportService.generateInventoryReport(keyword, categoryId);
-
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Inventory-Report_" + timestamp + ".xlsx";
-
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
-
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_OCTET_STREAM)
-					.body(new InputStreamResource(bis));
-
-		} catch (IOException e) {
-			log.error("Failed to generate inventory Excel report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating inventory Excel report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamExcelReport("Inventory-Report", "inventory", cached("inventory",
+				out -> reportService.writeInventoryReport(keyword, categoryId, out),
+				"keyword", keyword, "category", categoryId));
 	}
 
 	@GetMapping("/inventory/pdf")
 	@PreAuthorize("hasAuthority('VIEW_INVENTORY')")
-	public ResponseEntity<InputStreamResource> downloadInventoryReportPdf(
+	public ResponseEntity<StreamingResponseBody> downloadInventoryReportPdf(
 			@RequestParam(value = "keyword", required = false) String keyword,
 			@RequestParam(value = "category", required = false) Long categoryId) {
 
 		log.info("Generating inventory PDF report for keyword: [{}], categoryId: [{}]", keyword, categoryId);
 
-		try {
-			ByteArrayInputStream bis = reportService.generateInventoryReportPdf(keyword, categoryId);
-
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Inventory-Report_" + timestamp + ".pdf";
+		return streamPdfReport("Inventory-Report", "inventory", cached("inventory/pdf", out -> {
+			try (ByteArrayInputStream bis = reportService.generateInventoryReportPdf(keyword, categoryId)) {
+				bis.transferTo(out);
+			}
+		}, "keyword", keyword, "category", categoryId));
+	}
 
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+	@GetMapping("/inventory/csv")
+	@PreAuthorize("hasAuthority('VIEW_INVENTORY')")
+	public ResponseEntity<StreamingResponseBody> downloadInventoryReportCsv(
+			@RequestParam(value = "keyword", required = false) String keyword,
+			@RequestParam(value = "category", required = false) Long categoryId,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
 
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF)
-					.body(new InputStreamResource(bis));
+		log.info("Generating inventory CSV report for keyword: [{}], categoryId: [{}], gzip: {}", keyword, categoryId,
+				gzip);
 
-		} catch (IOException e) {
-			log.error("Failed to generate inventory PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating inventory PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamCsvReport("Inventory-Report", "inventory", gzip, cached("inventory/csv",
+				out -> reportService.writeInventoryReportCsv(keyword, categoryId, out),
+				"keyword", keyword, "category", categoryId));
 	}
 
 	@GetMapping("/products")
 	@PreAuthorize("hasAuthority('VIEW_PRODUCTS')")
-	public ResponseEntity<InputStreamResource> downloadProductReport(
+	public ResponseEntity<StreamingResponseBody> downloadProductReport(
 			@RequestParam(value = "keyword", required = false) String keyword,
 			@RequestParam(value = "category", required = false) Long categoryId) {
 
 		log.info("Generating product EXCEL report for keyword: [{}], categoryId: [{}]", keyword, categoryId);
 
-		try {
-			ByteArrayInputStream bis = reportService.generateProductReport(keyword, categoryId);
-
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Product-Report_" + timestamp + ".xlsx";
-
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
-
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_OCTET_STREAM)
-					.body(new InputStreamResource(bis));
-
-		} catch (IOException e) {
-			log.error("Failed to generate product Excel report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating product Excel report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamExcelReport("Product-Report", "product", cached("products",
+				out -> reportService.writeProductReport(keyword, categoryId, out),
+				"keyword", keyword, "category", categoryId));
 	}
 
 	@GetMapping("/products/pdf")
 	@PreAuthorize("hasAuthority('VIEW_PRODUCTS')")
-	public ResponseEntity<InputStreamResource> downloadProductReportPdf(
+	public ResponseEntity<StreamingResponseBody> downloadProductReportPdf(
 			@RequestParam(value = "keyword", required = false) String keyword,
 			@RequestParam(value = "category", required = false) Long categoryId) {
 
 		log.info("Generating product PDF report for keyword: [{}], categoryId: [{}]", keyword, categoryId);
 
-		try {
-			ByteArrayInputStream bis = reportService.generateProductReportPdf(keyword, categoryId);
-
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Product-Report_" + timestamp + ".pdf";
+		return streamPdfReport("Product-Report", "product", cached("products/pdf", out -> {
+			try (ByteArrayInputStream bis = reportService.generateProductReportPdf(keyword, categoryId)) {
+				bis.transferTo(out);
+			}
+		}, "keyword", keyword, "category", categoryId));
+	}
 
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+	@GetMapping("/products/csv")
+	@PreAuthorize("hasAuthority('VIEW_PRODUCTS')")
+	public ResponseEntity<StreamingResponseBody> downloadProductReportCsv(
+			@RequestParam(value = "keyword", required = false) String keyword,
+			@RequestParam(value = "category", required = false) Long categoryId,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
 
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF)
-					.body(new InputStreamResource(bis));
+		log.info("Generating product CSV report for keyword: [{}], categoryId: [{}], gzip: {}", keyword, categoryId,
+				gzip);
 
-		} catch (IOException e) {
-			log.error("Failed to generate product PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating product PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamCsvReport("Product-Report", "product", gzip, cached("products/csv",
+				out -> reportService.writeProductReportCsv(keyword, categoryId, out),
+				"keyword", keyword, "category", categoryId));
 	}
 
 	@GetMapping("/waste")
 	@PreAuthorize("hasAuthority('VIEW_INVENTORY')")
-	public ResponseEntity<InputStreamResource> downloadWasteReport(
+	public ResponseEntity<StreamingResponseBody> downloadWasteReport(
 			@RequestParam(value = "wasteKeyword", required = false) String wasteKeyword,
 			@RequestParam(value = "wasteCategory", required = false) String wasteCategory,
 			@RequestParam(value = "wasteType", required = false) String wasteType,
@@ -227,31 +209,16 @@ public class AdminReportController {
 		log.info("Generating waste EXCEL report for keyword: [{}], category: [{}], type: [{}], dates: [{} - {}]",
 				wasteKeyword, wasteCategory, wasteType, wasteStartDate, wasteEndDate);
 
-		try {
-			ByteArrayInputStream bis = reportService.generateWasteReport(wasteKeyword, wasteCategory, wasteType,
-					wasteStartDate, wasteEndDate);
-
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Waste-Spoilage-Report_" + timestamp + ".xlsx";
-
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
-
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_OCTET_STREAM)
-					.body(new InputStreamResource(bis));
-
-		} catch (IOException e) {
-			log.error("Failed to generate waste Excel report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating waste Excel report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamExcelReport("Waste-Spoilage-Report", "waste", cached("waste",
+				out -> reportService.writeWasteReport(wasteKeyword, wasteCategory, wasteType, wasteStartDate,
+						wasteEndDate, out),
+				"wasteKeyword", wasteKeyword, "wasteCategory", wasteCategory, "wasteType", wasteType,
+				"wasteStartDate", wasteStartDate, "wasteEndDate", wasteEndDate));
 	}
 
 	@GetMapping("/waste/pdf")
 	@PreAuthorize("hasAuthority('VIEW_INVENTORY')")
-	public ResponseEntity<InputStreamResource> downloadWasteReportPdf(
+	public ResponseEntity<StreamingResponseBody> downloadWasteReportPdf(
 			@RequestParam(value = "wasteKeyword", required = false) String wasteKeyword,
 			@RequestParam(value = "wasteCategory", required = false) String wasteCategory,
 			@RequestParam(value = "wasteType", required = false) String wasteType,
@@ -261,65 +228,80 @@ public class AdminReportController {
 		log.info("Generating waste PDF report for keyword: [{}], category: [{}], type: [{}], dates: [{} - {}]",
 				wasteKeyword, wasteCategory, wasteType, wasteStartDate, wasteEndDate);
 
-		try {
-			ByteArrayInputStream bis = reportService.generateWasteReportPdf(wasteKeyword, wasteCategory, wasteType,
-					wasteStartDate, wasteEndDate);
-
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Waste-Spoilage-Report_" + timestamp + ".pdf";
+		return streamPdfReport("Waste-Spoilage-Report", "waste", cached("waste/pdf",
+				out -> reportService.writeWasteReportPdf(wasteKeyword, wasteCategory, wasteType, wasteStartDate,
+						wasteEndDate, out),
+				"wasteKeyword", wasteKeyword, "wasteCategory", wasteCategory, "wasteType", wasteType,
+				"wasteStartDate", wasteStartDate, "wasteEndDate", wasteEndDate));
+	}
 
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+	@GetMapping("/waste/csv")
+	@PreAuthorize("hasAuthority('VIEW_INVENTORY')")
+	public ResponseEntity<StreamingResponseBody> downloadWasteReportCsv(
+			@RequestParam(value = "wasteKeyword", required = false) String wasteKeyword,
+			@RequestParam(value = "wasteCategory", required = false) String wasteCategory,
+			@RequestParam(value = "wasteType", required = false) String wasteType,
+			@RequestParam(value = "wasteStartDate", required = false) String wasteStartDate,
+			@RequestParam(value = "wasteEndDate", required = false) String wasteEndDate,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
 
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF)
-					.body(new InputStreamResource(bis));
+		log.info("Generating waste CSV report for keyword: [{}], category: [{}], type: [{}], dates: [{} - {}]",
+				wasteKeyword, wasteCategory, wasteType, wasteStartDate, wasteEndDate);
 
-		} catch (IOException e) {
-			log.error("Failed to generate waste PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating waste PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamCsvReport("Waste-Spoilage-Report", "waste", gzip, cached("waste/csv",
+				out -> reportService.writeWasteReportCsv(wasteKeyword, wasteCategory, wasteType, wasteStartDate,
+						wasteEndDate, out),
+				"wasteKeyword", wasteKeyword, "wasteCategory", wasteCategory, "wasteType", wasteType,
+				"wasteStartDate", wasteStartDate, "wasteEndDate", wasteEndDate));
 	}
 
 	@GetMapping("/download/{documentType}/{id}")
 	@PreAuthorize("hasAuthority('VIEW_ORDERS')")
-	public ResponseEntity<InputStreamResource> downloadOrderDocumentPdf(
-			@PathVariable("documentType") String documentType, @PathVariable("id") Long orderId) {
+	public void downloadOrderDocumentPdf(@PathVariable("documentType") String documentType,
+			@PathVariable("id") Long orderId, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
 
 		log.info("Generating {} PDF for Order ID: {}", documentType, orderId);
 
+		String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+		String fileName = String.format("MK-Toasted-Siopao_%s_ORD-%d_%s.pdf", documentType.toUpperCase(), orderId,
+				timestamp);
+
 		try {
+			Optional<OrderService.OrderAccess> access = orderService.findOrderAccess(orderId);
+			if (access.isPresent() && orderDocumentCacheService.isCacheable(access.get().status())) {
+				Optional<OrderDocumentCacheService.CachedDocument> cached = orderDocumentCacheService
+						.getDocument(orderId, documentType);
+				if (cached.isPresent()) {
+					FileResponses.sendCachedDocument(cached.get(), fileName, request, response);
+					return;
+				}
+			}
+
 			Order order = orderService.findOrderForInvoice(orderId)
 					.orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
 
 			ByteArrayInputStream bis = reportService.generateOrderDocumentPdf(order, documentType);
 
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-			String fileName = String.format("MK-Toasted-Siopao_%s_ORD-%d_%s.pdf", documentType.toUpperCase(), orderId,
-					timestamp);
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
-
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF)
-					.body(new InputStreamResource(bis));
+			response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+			response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+			bis.transferTo(response.getOutputStream());
 
 		} catch (IllegalArgumentException e) {
 			log.warn("Failed to generate {} PDF for order {}: {}", documentType, orderId, e.getMessage());
-			return ResponseEntity.notFound().build();
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
 		} catch (IOException e) {
 			log.error("Failed to generate {} PDF for order {}: {}", documentType, orderId, e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
+			response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 		} catch (Exception e) {
 			log.error("Unexpected error generating {} PDF for order {}: {}", documentType, orderId, e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
+			response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 		}
 	}
 
 	@GetMapping("/activity-log/pdf")
 	@PreAuthorize("hasAuthority('VIEW_ACTIVITY_LOG')")
-	public ResponseEntity<InputStreamResource> downloadActivityLogPdf(
+	public ResponseEntity<StreamingResponseBody> downloadActivityLogPdf(
 			@RequestParam(value = "keyword", required = false) String keyword,
 			@RequestParam(value = "startDate", required = false) String startDate,
 			@RequestParam(value = "endDate", required = false) String endDate,
@@ -329,26 +311,27 @@ public class AdminReportController {
 		log.info("Generating activity log PDF report for keyword: [{}], dates: [{} - {}], page: {}, size: {}", keyword,
 				startDate, endDate, page, size);
 
-		try {
-			Pageable pageable = PageRequest.of(page, size);
-			ByteArrayInputStream bis = reportService.generateActivityLogPdf(keyword, startDate, endDate, pageable);
+		// size=0 exports every matching entry
+		Pageable pageable = size > 0 ? PageRequest.of(page, size) : Pageable.unpaged();
+		String reportName = size > 0 ? "Activity-Log_Page-" + (page + 1) : "Activity-Log_All";
 
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-			String fileName = "MK-Toasted-Siopao_Activity-Log_Page-" + (page + 1) + "_" + timestamp + ".pdf";
+		return streamPdfReport(reportName, "activity log",
+				out -> reportService.writeActivityLogPdf(keyword, startDate, endDate, pageable, out));
+	}
 
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+	@GetMapping("/activity-log/csv")
+	@PreAuthorize("hasAuthority('VIEW_ACTIVITY_LOG')")
+	public ResponseEntity<StreamingResponseBody> downloadActivityLogCsv(
+			@RequestParam(value = "keyword", required = false) String keyword,
+			@RequestParam(value = "startDate", required = false) String startDate,
+			@RequestParam(value = "endDate", required = false) String endDate,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
 
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF)
-					.body(new InputStreamResource(bis));
+		log.info("Generating activity log CSV report for keyword: [{}], dates: [{} - {}], gzip: {}", keyword,
+				startDate, endDate, gzip);
 
-		} catch (IOException e) {
-			log.error("Failed to generate activity log PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		} catch (Exception e) {
-			log.error("Unexpected error generating activity log PDF report: {}", e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
-		}
+		return streamCsvReport("Activity-Log_All", "activity log", gzip,
+				out -> reportService.writeActivityLogCsv(keyword, startDate, endDate, out));
 	}
 
 // --- NEW: Dashboard PDF Report ---
@@ -376,4 +359,113 @@ public class AdminReportController {
 			return ResponseEntity.internalServerError().build();
 		}
 	}
-}
\ No newline at end of file
+
+	// --- Background report jobs: submit, poll, download while the file is kept ---
+	@PostMapping("/jobs")
+	public ResponseEntity<?> submitReportJob(@RequestParam("report") String report,
+			@RequestParam Map<String, String> params, Authentication authentication) {
+		String authority = reportJobService.requiredAuthority(report);
+		if (authority == null) {
+			return ResponseEntity.badRequest().body(Map.of("error", "Unknown report: " + report));
+		}
+		if (!hasAuthority(authentication, authority)) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Access denied."));
+		}
+		try {
+			ReportJobService.JobStatus status = reportJobService.submit(report, params);
+			return ResponseEntity.accepted().body(status);
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+		}
+	}
+
+	@GetMapping("/jobs/{jobId}")
+	public ResponseEntity<?> getReportJobStatus(@PathVariable("jobId") String jobId,
+			Authentication authentication) {
+		Optional<ReportJobService.JobStatus> status = reportJobService.getStatus(jobId)
+				.filter(s -> hasAuthority(authentication, reportJobService.requiredAuthority(s.report())));
+		if (status.isEmpty() && reportJobService.isOtherNodeJob(jobId)) {
+			log.warn("Report job {} was polled on a node that did not run it; are admin sessions sticky?", jobId);
+			return ResponseEntity.status(HttpStatus.CONFLICT)
+					.body(Map.of("error", "This report was started on another server. Please export it again."));
+		}
+		if (status.isEmpty()) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND)
+					.body(Map.of("error", "Report not found or no longer available."));
+		}
+		return ResponseEntity.ok(status.get());
+	}
+
+	@GetMapping("/jobs/{jobId}/file")
+	public ResponseEntity<FileSystemResource> downloadReportJobFile(@PathVariable("jobId") String jobId,
+			Authentication authentication) {
+		Optional<ReportJobService.JobStatus> status = reportJobService.getStatus(jobId)
+				.filter(s -> hasAuthority(authentication, reportJobService.requiredAuthority(s.report())));
+		Optional<ReportJobService.JobFile> file = status.flatMap(s -> reportJobService.getFile(jobId));
+		if (file.isEmpty()) {
+			return ResponseEntity.notFound().build();
+		}
+		ReportJobService.JobFile jobFile = file.get();
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + jobFile.fileName())
+				.contentType(MediaType.parseMediaType(jobFile.contentType()))
+				.body(new FileSystemResource(jobFile.path()));
+	}
+
+	private boolean hasAuthority(Authentication authentication, String authority) {
+		return authentication != null && authority != null && authentication.getAuthorities().stream()
+				.anyMatch(granted -> authority.equals(granted.getAuthority()));
+	}
+
+	// Parameter names match the background jobs, so both share cache entries
+	private StreamingResponseBody cached(String report, StreamingResponseBody writer, Object... params) {
+		Map<String, String> values = new HashMap<>();
+		for (int i = 0; i + 1 < params.length; i += 2) {
+			values.put((String) params[i], Objects.toString(params[i + 1], null));
+		}
+		return out -> reportCacheService.write(report, values, out, writer::writeTo);
+	}
+
+	private ResponseEntity<StreamingResponseBody> streamExcelReport(String reportName, String description,
+			StreamingResponseBody writer) {
+		return streamReport(reportName, ".xlsx", MediaType.APPLICATION_OCTET_STREAM, description + " Excel", writer);
+	}
+
+	private ResponseEntity<StreamingResponseBody> streamPdfReport(String reportName, String description,
+			StreamingResponseBody writer) {
+		return streamReport(reportName, ".pdf", MediaType.APPLICATION_PDF, description + " PDF", writer);
+	}
+
+	private ResponseEntity<StreamingResponseBody> streamCsvReport(String reportName, String description,
+			boolean gzip, StreamingResponseBody writer) {
+		if (!gzip) {
+			return streamReport(reportName, ".csv", CSV_MEDIA_TYPE, description + " CSV", writer);
+		}
+		return streamReport(reportName, ".csv.gz", GZIP_MEDIA_TYPE, description + " CSV", out -> {
+			GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+			writer.writeTo(compressed);
+			compressed.finish();
+		});
+	}
+
+	// The report is written on the async thread straight into the response. Once
+	// bytes are out the status can no longer change, so a failure only truncates the
+	// download; it is logged here.
+	private ResponseEntity<StreamingResponseBody> streamReport(String reportName, String extension,
+			MediaType contentType, String description, StreamingResponseBody writer) {
+		String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+		String fileName = "MK-Toasted-Siopao_" + reportName + "_" + timestamp + extension;
+
+		StreamingResponseBody body = out -> {
+			try {
+				writer.writeTo(out);
+			} catch (IOException | RuntimeException e) {
+				log.error("Failed to generate {} report: {}", description, e.getMessage(), e);
+				throw e;
+			}
+		};
+
+		return ResponseEntity.ok().header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+				.contentType(contentType).body(body);
+	}
+}
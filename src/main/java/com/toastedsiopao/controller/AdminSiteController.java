@@ -3,6 +3,7 @@ package com.toastedsiopao.controller;
 import com.toastedsiopao.model.SiteSettings;
 import com.toastedsiopao.service.ActivityLogService;
 import com.toastedsiopao.service.FileStorageService;
+import com.toastedsiopao.service.OrderDocumentCacheService;
 import com.toastedsiopao.service.SiteSettingsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +38,9 @@ public class AdminSiteController {
 	@Autowired
 	private FileStorageService fileStorageService;
 
+	@Autowired
+	private OrderDocumentCacheService orderDocumentCacheService;
+
 	@GetMapping("/settings")
 	@PreAuthorize("hasAuthority('EDIT_SITE_SETTINGS')")
 	public String siteSettings(Model model) {
@@ -178,6 +182,8 @@ public class AdminSiteController {
 					settingsToUpdate.getAboutImage(), defaultSettings.getAboutImage()));
 
 			siteSettingsService.save(settingsToUpdate);
+			// Invoices and receipts show the store details, so re-render them on next use
+			orderDocumentCacheService.invalidateAll();
 
 			activityLogService.logAdminAction(principal.getName(), "EDIT_SITE_SETTINGS",
 					"Updated website content and settings.");
@@ -7,20 +7,21 @@ import com.toastedsiopao.model.User;
 import com.toastedsiopao.service.CustomerService;
 import com.toastedsiopao.service.IssueReportService;
 import com.toastedsiopao.service.NotificationService;
+import com.toastedsiopao.service.OrderDocumentCacheService;
 import com.toastedsiopao.service.OrderService;
 import com.toastedsiopao.service.ReportService;
 import com.toastedsiopao.service.SiteSettingsService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -55,6 +56,9 @@ public class CustomerHistoryController {
 	@Autowired
 	private OrderService orderService;
 
+	@Autowired
+	private OrderDocumentCacheService orderDocumentCacheService;
+
 	@Autowired
 	private NotificationService notificationService;
 
@@ -107,6 +111,7 @@ public class CustomerHistoryController {
 
 		try {
 			orderService.cancelOrder(orderId, user);
+			orderDocumentCacheService.prerender(orderId);
 			redirectAttributes.addFlashAttribute("orderSuccess", "Order #ORD-" + orderId + " has been cancelled.");
 
 			String notifMessage = "Customer " + user.getUsername() + " cancelled order #" + orderId
@@ -165,65 +170,80 @@ public class CustomerHistoryController {
 		return "redirect:/u/history";
 	}
 
-	private ResponseEntity<InputStreamResource> downloadOrderDocument(Long orderId, String documentType, User user) {
+	private void downloadOrderDocument(Long orderId, String documentType, User user, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
 		log.info("User {} attempting to download {} for Order ID: {}", user.getUsername(), documentType, orderId);
 
-		try {
-			Optional<Order> orderOpt = orderService.findOrderForInvoice(orderId);
+		Optional<OrderService.OrderAccess> access = orderService.findOrderAccess(orderId);
+		if (access.isEmpty() || !user.getId().equals(access.get().ownerId())) {
+			log.warn("SECURITY: User {} attempted to access {} for Order ID {} which does not belong to them.",
+					user.getUsername(), documentType, orderId);
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
 
-			if (orderOpt.isEmpty() || !orderOpt.get().getUser().getId().equals(user.getId())) {
-				log.warn("SECURITY: User {} attempted to access {} for Order ID {} which does not belong to them.",
-						user.getUsername(), documentType, orderId);
-				return ResponseEntity.notFound().build();
+		String status = access.get().status();
+		if (status.equals(Order.STATUS_PENDING) || status.equals(Order.STATUS_PENDING_VERIFICATION)) {
+			if ("RECEIPT".equalsIgnoreCase(documentType)) {
+				log.warn("Attempt to download RECEIPT for non-processed order ID {}. Rejecting.", orderId);
+				response.sendError(HttpServletResponse.SC_FORBIDDEN);
+				return;
 			}
+		}
 
-			Order order = orderOpt.get();
+		String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+		String fileName = String.format("MK-Toasted-Siopao_%s_ORD-%d_%s.pdf", documentType, orderId, timestamp);
 
-			if (order.getStatus().equals(Order.STATUS_PENDING)
-					|| order.getStatus().equals(Order.STATUS_PENDING_VERIFICATION)) {
-				if ("RECEIPT".equalsIgnoreCase(documentType)) {
-					log.warn("Attempt to download RECEIPT for non-processed order ID {}. Rejecting.", orderId);
-					return ResponseEntity.status(403).build(); // Forbidden
+		try {
+			// Finished orders are served from the document cache; live ones still change
+			if (orderDocumentCacheService.isCacheable(status)) {
+				Optional<OrderDocumentCacheService.CachedDocument> cached = orderDocumentCacheService
+						.getDocument(orderId, documentType);
+				if (cached.isPresent()) {
+					FileResponses.sendCachedDocument(cached.get(), fileName, request, response);
+					return;
 				}
 			}
 
+			Order order = orderService.findOrderForInvoice(orderId)
+					.orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
 			ByteArrayInputStream bis = reportService.generateOrderDocumentPdf(order, documentType);
 
-			HttpHeaders headers = new HttpHeaders();
-			String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
-			String fileName = String.format("MK-Toasted-Siopao_%s_ORD-%d_%s.pdf", documentType, orderId, timestamp);
-			headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
-
-			return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_PDF)
-					.body(new InputStreamResource(bis));
+			response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+			response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+			bis.transferTo(response.getOutputStream());
 
 		} catch (IllegalArgumentException e) {
 			log.warn("Failed to generate {} PDF for order {}: {}", documentType, orderId, e.getMessage());
-			return ResponseEntity.notFound().build();
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
 		} catch (IOException e) {
 			log.error("Failed to generate {} PDF for order {}: {}", documentType, orderId, e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
+			response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 		} catch (Exception e) {
 			log.error("Unexpected error generating {} PDF for order {}: {}", documentType, orderId, e.getMessage(), e);
-			return ResponseEntity.internalServerError().build();
+			response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
 		}
 	}
 
 	@GetMapping("/history/download/invoice/{id}")
-	public ResponseEntity<InputStreamResource> downloadMyInvoice(@PathVariable("id") Long orderId,
-			Principal principal) {
+	public void downloadMyInvoice(@PathVariable("id") Long orderId, Principal principal, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
 		User user = customerService.findByUsername(principal.getName());
-		if (user == null)
-			return ResponseEntity.status(401).build();
-		return downloadOrderDocument(orderId, "INVOICE", user);
+		if (user == null) {
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+			return;
+		}
+		downloadOrderDocument(orderId, "INVOICE", user, request, response);
 	}
 
 	@GetMapping("/history/download/receipt/{id}")
-	public ResponseEntity<InputStreamResource> downloadMyReceipt(@PathVariable("id") Long orderId,
-			Principal principal) {
+	public void downloadMyReceipt(@PathVariable("id") Long orderId, Principal principal, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
 		User user = customerService.findByUsername(principal.getName());
-		if (user == null)
-			return ResponseEntity.status(401).build();
-		return downloadOrderDocument(orderId, "RECEIPT", user);
+		if (user == null) {
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+			return;
+		}
+		downloadOrderDocument(orderId, "RECEIPT", user, request, response);
 	}
 }
\ No newline at end of file
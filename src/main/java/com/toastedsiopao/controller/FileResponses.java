@@ -0,0 +1,80 @@
+package com.toastedsiopao.controller;
+
+import com.toastedsiopao.service.OrderDocumentCacheService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a slice of a local file to the response without copying it through the
+ * heap: Tomcat sendfile when the connector offers it, FileChannel.transferTo
+ * otherwise. Status and headers must already be set.
+ */
+final class FileResponses {
+
+	// Tomcat's NIO connector can hand the file to the kernel (sendfile) when these
+	// request attributes are set, so the bytes never pass through the JVM.
+	private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+	private FileResponses() {
+	}
+
+	// end is inclusive
+	static void sendFile(Path file, long start, long end, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+			request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START_ATTR, start);
+			request.setAttribute(SENDFILE_END_ATTR, end + 1);
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			long remaining = end - start + 1;
+			while (remaining > 0) {
+				long transferred = channel.transferTo(position, remaining, out);
+				if (transferred <= 0) {
+					break;
+				}
+				position += transferred;
+				remaining -= transferred;
+			}
+		}
+	}
+
+	static boolean matchesIfNoneMatch(HttpServletRequest request, String etag) {
+		String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+		return ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag));
+	}
+
+	// Order documents belong to one customer, so they are private to the browser and
+	// revalidated against the strong ETag instead of being re-rendered.
+	static void sendCachedDocument(OrderDocumentCacheService.CachedDocument document, String fileName,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setHeader(HttpHeaders.ETAG, document.etag());
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+		if (matchesIfNoneMatch(request, document.etag())) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+		response.setContentLengthLong(document.size());
+		if (document.size() > 0) {
+			sendFile(document.path(), 0, document.size() - 1, request, response);
+		}
+	}
+}
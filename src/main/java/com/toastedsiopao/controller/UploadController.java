@@ -0,0 +1,136 @@
+package com.toastedsiopao.controller;
+
+import com.toastedsiopao.service.FileStorageService;
+import com.toastedsiopao.service.StorageBackend;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+@Controller
+public class UploadController {
+
+	private static final Logger log = LoggerFactory.getLogger(UploadController.class);
+
+	private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+	private static final String LEGACY_CACHE_CONTROL = "public, max-age=86400";
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@RequestMapping(value = "/img/uploads/{filename:.+}", method = { RequestMethod.GET, RequestMethod.HEAD })
+	public void serveUpload(@PathVariable("filename") String filename, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+
+		StorageBackend.ObjectInfo info = fileStorageService.stat(filename);
+		if (info == null) {
+			log.warn("Upload not found (404): {}", filename);
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		long fileLength = info.size();
+		long lastModified = info.lastModified();
+		boolean contentAddressed = fileStorageService.isContentAddressed(filename);
+
+		// Content-addressed names are the SHA-256 of the bytes, so the name is a
+		// strong validator by itself. Legacy UUID uploads fall back to size+mtime.
+		String etag = contentAddressed ? "\"" + StringUtils.stripFilenameExtension(filename) + "\""
+				: "\"" + Long.toHexString(fileLength) + "-" + Long.toHexString(lastModified) + "\"";
+
+		response.setHeader(HttpHeaders.ETAG, etag);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+		response.setHeader(HttpHeaders.CACHE_CONTROL, contentAddressed ? IMMUTABLE_CACHE_CONTROL : LEGACY_CACHE_CONTROL);
+		response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+		if (FileResponses.matchesIfNoneMatch(request, etag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		MediaType mediaType = MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM);
+		response.setContentType(mediaType.toString());
+
+		long start = 0;
+		long end = fileLength - 1;
+
+		String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		boolean rangeApplies = StringUtils.hasText(rangeHeader) && (ifRange == null || ifRange.equals(etag));
+
+		if (rangeApplies) {
+			List<HttpRange> ranges;
+			try {
+				ranges = HttpRange.parseRanges(rangeHeader);
+			} catch (IllegalArgumentException e) {
+				ranges = List.of();
+			}
+
+			// Only single ranges are served partially; multipart/byteranges is not worth
+			// it for images, so anything else gets the full body.
+			if (ranges.size() == 1) {
+				HttpRange range = ranges.get(0);
+				try {
+					start = range.getRangeStart(fileLength);
+					end = range.getRangeEnd(fileLength);
+				} catch (IllegalArgumentException e) {
+					start = fileLength;
+				}
+				if (start >= fileLength || start > end) {
+					response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength);
+					response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+					return;
+				}
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileLength);
+			}
+		}
+
+		long contentLength = end - start + 1;
+		response.setContentLengthLong(contentLength);
+
+		if (RequestMethod.HEAD.name().equals(request.getMethod()) || contentLength <= 0) {
+			return;
+		}
+
+		Path file = fileStorageService.loadAsPath(filename);
+		if (file == null) {
+			// Remote backend: stream the requested slice straight through
+			try (InputStream in = fileStorageService.openRange(filename, start, contentLength)) {
+				copyRange(in, response.getOutputStream(), contentLength);
+			}
+			return;
+		}
+
+		FileResponses.sendFile(file, start, end, request, response);
+	}
+
+	private void copyRange(InputStream in, OutputStream out, long length) throws IOException {
+		byte[] buffer = new byte[8192];
+		long remaining = length;
+		while (remaining > 0) {
+			int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (read < 0) {
+				break;
+			}
+			out.write(buffer, 0, read);
+			remaining -= read;
+		}
+	}
+}
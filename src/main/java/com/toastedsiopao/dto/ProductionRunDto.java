@@ -0,0 +1,32 @@
+package com.toastedsiopao.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ProductionRunDto {
+
+	@Valid
+	@NotEmpty(message = "• At least one product is required for a production run")
+	private List<Item> items = new ArrayList<>();
+
+	@Data
+	@NoArgsConstructor
+	public static class Item {
+
+		@NotNull(message = "• Product is required")
+		private Long productId;
+
+		@NotNull(message = "• Quantity is required")
+		@Positive(message = "• Quantity must be positive")
+		private Integer quantity;
+	}
+}
@@ -7,11 +7,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "activity_log")
+@Table(name = "activity_log", indexes = {
+		@Index(name = "idx_activity_log_waste", columnList = "waste_type, waste_reason, timestamp") })
 @Data
 @NoArgsConstructor
 public class ActivityLogEntry {
 
+	public static final String WASTE_TYPE_INVENTORY = "INVENTORY";
+	public static final String WASTE_TYPE_PRODUCT = "PRODUCT";
+
+	public static final String STOCK_WASTE_PREFIX = "STOCK_WASTE_";
+	public static final String PRODUCT_WASTE_PREFIX = "PRODUCT_WASTE_";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
@@ -42,6 +49,14 @@ public class ActivityLogEntry {
 	private BigDecimal totalValue;
 	// --- END ADDED ---
 
+	// Classified from the action when a waste entry is written, so waste queries
+	// are index lookups instead of LIKE scans. Null for every other entry.
+	@Column(length = 20)
+	private String wasteType;
+
+	@Column(length = 20)
+	private String wasteReason;
+
 	@PrePersist
 	protected void onCreate() {
 		timestamp = LocalDateTime.now();
@@ -67,5 +82,12 @@ public class ActivityLogEntry {
 		this.quantity = quantity;
 		this.costPerUnit = costPerUnit;
 		this.totalValue = totalValue;
+		if (action != null && action.startsWith(STOCK_WASTE_PREFIX)) {
+			this.wasteType = WASTE_TYPE_INVENTORY;
+			this.wasteReason = action.substring(STOCK_WASTE_PREFIX.length());
+		} else if (action != null && action.startsWith(PRODUCT_WASTE_PREFIX)) {
+			this.wasteType = WASTE_TYPE_PRODUCT;
+			this.wasteReason = action.substring(PRODUCT_WASTE_PREFIX.length());
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.toastedsiopao.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change counter per kind of data (orders, inventory, ...), bumped by
+ * DataVersionService right after a write commits so every node sees it.
+ */
+@Entity
+@Table(name = "data_versions")
+@Data
+@NoArgsConstructor
+public class DataVersion {
+
+	@Id
+	@Column(name = "data_type", length = 30)
+	private String dataType;
+
+	@Column(nullable = false)
+	private long version;
+}
@@ -0,0 +1,70 @@
+package com.toastedsiopao.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * End-of-day inventory value, one row per category plus one total row (no
+ * category) for each snapshot date.
+ */
+@Entity
+@Table(name = "inventory_valuation_snapshots", indexes = {
+		@Index(name = "idx_valuation_snapshots_date_category", columnList = "snapshot_date, category_id") })
+@Data
+@NoArgsConstructor
+public class InventoryValuationSnapshot {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_valuation_snapshot_seq")
+	@SequenceGenerator(name = "inventory_valuation_snapshot_seq", sequenceName = "inventory_valuation_snapshots_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "snapshot_date", nullable = false)
+	private LocalDate snapshotDate;
+
+	// Null on the total row
+	@Column(name = "category_id")
+	private Long categoryId;
+
+	@Column(length = 100)
+	private String categoryName;
+
+	@Column(nullable = false)
+	private long itemCount;
+
+	@Column(nullable = false, precision = 14, scale = 2)
+	private BigDecimal totalQuantity;
+
+	@Column(nullable = false, precision = 14, scale = 2)
+	private BigDecimal totalValue;
+
+	// Totals include every movement up to this time
+	@Column(nullable = false)
+	private LocalDateTime capturedAt;
+
+	// Id of the last movement in the totals; movements after it are the live delta.
+	// Null on rows recorded before the anchor existed.
+	private Long lastMovementId;
+
+	public InventoryValuationSnapshot(LocalDate snapshotDate, Long categoryId, String categoryName, long itemCount,
+			BigDecimal totalQuantity, BigDecimal totalValue, LocalDateTime capturedAt, Long lastMovementId) {
+		this.snapshotDate = snapshotDate;
+		this.categoryId = categoryId;
+		this.categoryName = categoryName;
+		this.itemCount = itemCount;
+		this.totalQuantity = totalQuantity;
+		this.totalValue = totalValue;
+		this.capturedAt = capturedAt;
+		this.lastMovementId = lastMovementId;
+	}
+
+	@Transient
+	public boolean isTotal() {
+		return categoryId == null;
+	}
+}
@@ -14,7 +14,7 @@ import java.util.List;
 import java.util.Set; 
 
 @Entity
-@Table(name = "orders") 
+@Table(name = "orders", indexes = { @Index(name = "idx_orders_delivered_at", columnList = "delivered_at") })
 @Data
 @NoArgsConstructor
 public class Order {
@@ -88,6 +88,10 @@ public class Order {
 	private Set<IssueReport> issueReports = new HashSet<>();
 	
 	private LocalDateTime lastUpdated;
+
+	// Set when the order reaches DELIVERED; demand forecasts bucket by this day
+	@Column(name = "delivered_at")
+	private LocalDateTime deliveredAt;
 	
 	@Column(length = 255)
 	private String paymentReceiptImageUrl;
@@ -0,0 +1,87 @@
+package com.toastedsiopao.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Exponential smoothing state for one product's daily delivered demand: a level
+ * plus one multiplicative factor per day of week. Advanced one day at a time, so
+ * the nightly job never has to re-read older order history.
+ */
+@Entity
+@Table(name = "product_demand_forecasts", uniqueConstraints = {
+		@UniqueConstraint(name = "uk_demand_forecast_product", columnNames = "product_id") })
+@Data
+@NoArgsConstructor
+public class ProductDemandForecast {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_demand_forecast_seq")
+	@SequenceGenerator(name = "product_demand_forecast_seq", sequenceName = "product_demand_forecasts_seq", allocationSize = 50)
+	private Long id;
+
+	@Column(name = "product_id", nullable = false)
+	private Long productId;
+
+	// Smoothed demand per day, de-seasonalised
+	@Column(nullable = false)
+	private double level;
+
+	// Smoothed absolute one-day forecast error, for safety stock
+	@Column(nullable = false)
+	private double meanAbsoluteError;
+
+	private double mondayFactor = 1.0;
+	private double tuesdayFactor = 1.0;
+	private double wednesdayFactor = 1.0;
+	private double thursdayFactor = 1.0;
+	private double fridayFactor = 1.0;
+	private double saturdayFactor = 1.0;
+	private double sundayFactor = 1.0;
+
+	// Last delivery date folded into the state
+	@Column(nullable = false)
+	private LocalDate lastObservedDate;
+
+	@Column(nullable = false)
+	private int observations;
+
+	public ProductDemandForecast(Long productId, LocalDate lastObservedDate) {
+		this.productId = productId;
+		this.lastObservedDate = lastObservedDate;
+	}
+
+	@Transient
+	public double getFactor(DayOfWeek day) {
+		return switch (day) {
+		case MONDAY -> mondayFactor;
+		case TUESDAY -> tuesdayFactor;
+		case WEDNESDAY -> wednesdayFactor;
+		case THURSDAY -> thursdayFactor;
+		case FRIDAY -> fridayFactor;
+		case SATURDAY -> saturdayFactor;
+		case SUNDAY -> sundayFactor;
+		};
+	}
+
+	public void setFactor(DayOfWeek day, double factor) {
+		switch (day) {
+		case MONDAY -> mondayFactor = factor;
+		case TUESDAY -> tuesdayFactor = factor;
+		case WEDNESDAY -> wednesdayFactor = factor;
+		case THURSDAY -> thursdayFactor = factor;
+		case FRIDAY -> fridayFactor = factor;
+		case SATURDAY -> saturdayFactor = factor;
+		case SUNDAY -> sundayFactor = factor;
+		}
+	}
+
+	@Transient
+	public double forecastFor(DayOfWeek day) {
+		return level * getFactor(day);
+	}
+}
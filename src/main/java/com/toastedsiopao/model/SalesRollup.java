@@ -0,0 +1,30 @@
+package com.toastedsiopao.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Delivered sales per hour of order date, the same basis as the dashboard's
+ * sales totals. Day, week and month chart buckets are summed from these rows.
+ */
+@Entity
+@Table(name = "sales_hourly_rollups")
+@Data
+@NoArgsConstructor
+public class SalesRollup {
+
+	// Start of the hour; the natural key lets deliveries upsert without a lookup
+	@Id
+	@Column(name = "bucket_start", nullable = false)
+	private LocalDateTime bucketStart;
+
+	@Column(name = "order_count", nullable = false)
+	private long orderCount;
+
+	@Column(name = "sales_total", nullable = false, precision = 14, scale = 2)
+	private BigDecimal salesTotal;
+}
@@ -104,4 +104,7 @@ public class SiteSettings {
 	
 	@Column(length = 20)
 	private String gcashNumber = "09XX-XXX-XXXX";
-}
\ No newline at end of file
+
+	// Bumped on every save; cached order documents are keyed by it
+	private long settingsVersion;
+}
@@ -0,0 +1,75 @@
+package com.toastedsiopao.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A received batch of an inventory item or a produced batch of a product.
+ * Stock is consumed first-expired-first-out across lots; the owner's
+ * currentStock stays the denormalized sum of remainingQuantity and its
+ * expirationDate mirrors the earliest lot expiry.
+ */
+@Entity
+@Table(name = "stock_lots", indexes = { @Index(name = "idx_stock_lots_expiry", columnList = "expiry_date"),
+		@Index(name = "idx_stock_lots_item_expiry", columnList = "inventory_item_id, expiry_date"),
+		@Index(name = "idx_stock_lots_product_expiry", columnList = "product_id, expiry_date") })
+@Data
+@NoArgsConstructor
+public class StockLot {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_lot_seq")
+	@SequenceGenerator(name = "stock_lot_seq", sequenceName = "stock_lots_seq", allocationSize = 50)
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "inventory_item_id")
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private InventoryItem inventoryItem;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "product_id")
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private Product product;
+
+	@Column(nullable = false)
+	private LocalDate receivedDate;
+
+	// Null for non-perishable stock
+	@Column(name = "expiry_date")
+	private LocalDate expiryDate;
+
+	@Column(nullable = false, precision = 12, scale = 2)
+	private BigDecimal remainingQuantity;
+
+	@Column(nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	@PrePersist
+	protected void onCreate() {
+		createdAt = LocalDateTime.now();
+	}
+
+	public StockLot(InventoryItem inventoryItem, BigDecimal quantity, LocalDate receivedDate, LocalDate expiryDate) {
+		this.inventoryItem = inventoryItem;
+		this.remainingQuantity = quantity;
+		this.receivedDate = receivedDate;
+		this.expiryDate = expiryDate;
+	}
+
+	public StockLot(Product product, BigDecimal quantity, LocalDate receivedDate, LocalDate expiryDate) {
+		this.product = product;
+		this.remainingQuantity = quantity;
+		this.receivedDate = receivedDate;
+		this.expiryDate = expiryDate;
+	}
+}
@@ -0,0 +1,98 @@
+package com.toastedsiopao.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row per stock change of an inventory item or a product. Rows are never
+ * updated or deleted, so the journal can answer point-in-time and usage
+ * questions directly. Exactly one of inventoryItemId / productId is set.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_movements", indexes = {
+		@Index(name = "idx_stock_movements_item_at", columnList = "inventory_item_id, moved_at"),
+		@Index(name = "idx_stock_movements_product_at", columnList = "product_id, moved_at"),
+		@Index(name = "idx_stock_movements_moved_at", columnList = "moved_at") })
+@Data
+@NoArgsConstructor
+public class StockMovement {
+
+	public static final String REASON_OPENING = "OPENING";
+	public static final String REASON_RESTOCK = "RESTOCK";
+	public static final String REASON_PRODUCTION = "PRODUCTION";
+	public static final String REASON_PRODUCTION_USE = "PRODUCTION_USE";
+	public static final String REASON_ORDER = "ORDER";
+	public static final String REASON_ORDER_REVERSAL = "ORDER_REVERSAL";
+	public static final String REASON_ADJUSTMENT = "ADJUSTMENT";
+	public static final String REASON_WASTE_EXPIRED = "WASTE_EXPIRED";
+	public static final String REASON_WASTE_DAMAGED = "WASTE_DAMAGED";
+	public static final String REASON_WASTE_OTHER = "WASTE_OTHER";
+
+	// Sequence (a table on MySQL) instead of IDENTITY so inserts can be JDBC-batched.
+	// One id per fetch, not a block per node, so ids rise in the order rows are
+	// written across nodes: valuation snapshots anchor on them.
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+	@SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movements_seq", allocationSize = 1)
+	private Long id;
+
+	@Column(name = "inventory_item_id", updatable = false)
+	private Long inventoryItemId;
+
+	@Column(name = "product_id", updatable = false)
+	private Long productId;
+
+	@Column(nullable = false, updatable = false, precision = 12, scale = 2)
+	private BigDecimal quantityDelta;
+
+	@Column(nullable = false, updatable = false, precision = 12, scale = 2)
+	private BigDecimal balanceAfter;
+
+	@Column(nullable = false, updatable = false, length = 30)
+	private String reasonCode;
+
+	// e.g. "ORDER-42" or "RUN-1f3a9c2b"
+	@Column(updatable = false, length = 50)
+	private String reference;
+
+	@Column(updatable = false, length = 255)
+	private String note;
+
+	// Stamped by StockMovementService from the application clock
+	@Column(name = "moved_at", nullable = false, updatable = false)
+	private LocalDateTime movedAt;
+
+	public static StockMovement forItem(Long inventoryItemId, BigDecimal quantityDelta, BigDecimal balanceAfter,
+			String reasonCode, String reference, String note) {
+		StockMovement movement = new StockMovement();
+		movement.inventoryItemId = inventoryItemId;
+		movement.quantityDelta = quantityDelta;
+		movement.balanceAfter = balanceAfter;
+		movement.reasonCode = reasonCode;
+		movement.reference = reference;
+		movement.note = truncate(note);
+		return movement;
+	}
+
+	public static StockMovement forProduct(Long productId, int quantityDelta, int balanceAfter, String reasonCode,
+			String reference, String note) {
+		StockMovement movement = new StockMovement();
+		movement.productId = productId;
+		movement.quantityDelta = BigDecimal.valueOf(quantityDelta);
+		movement.balanceAfter = BigDecimal.valueOf(balanceAfter);
+		movement.reasonCode = reasonCode;
+		movement.reference = reference;
+		movement.note = truncate(note);
+		return movement;
+	}
+
+	private static String truncate(String note) {
+		return note != null && note.length() > 255 ? note.substring(0, 255) : note;
+	}
+}
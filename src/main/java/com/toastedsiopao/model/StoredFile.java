@@ -0,0 +1,48 @@
+package com.toastedsiopao.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stored_files")
+@Data
+@NoArgsConstructor
+public class StoredFile {
+
+	// Content-addressed name: SHA-256 hex of the file bytes plus the extension
+	@Id
+	@Column(length = 100)
+	private String filename;
+
+	@Column(nullable = false, length = 64)
+	private String contentHash;
+
+	@Column(nullable = false)
+	private long sizeBytes;
+
+	// Number of stored image URLs (products, receipts, issue attachments, site
+	// images) pointing at this file. The file is only removed when it hits 0.
+	@Column(nullable = false)
+	private int referenceCount = 0;
+
+	@Column(nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	// Bumped on every store(), including dedup hits, so the orphan GC never
+	// deletes a file that was just handed out again under a new reference.
+	private LocalDateTime lastStoredAt;
+
+	@PrePersist
+	protected void onCreate() {
+		createdAt = LocalDateTime.now();
+	}
+
+	public StoredFile(String filename, String contentHash, long sizeBytes) {
+		this.filename = filename;
+		this.contentHash = contentHash;
+		this.sizeBytes = sizeBytes;
+	}
+}
@@ -1,23 +1,30 @@
 package com.toastedsiopao.repository;
 
 import com.toastedsiopao.model.ActivityLogEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ActivityLogRepository extends JpaRepository<ActivityLogEntry, Long> {
 
 	// --- EXISTING WASTE FILTER ---
-	String WASTE_FILTER_CONDITION = "(a.action LIKE 'STOCK_WASTE_%' OR a.action LIKE 'PRODUCT_WASTE_%') "
-			+ "AND (:typeFilter IS NULL OR (:typeFilter = 'INVENTORY' AND a.action LIKE 'STOCK_WASTE_%') OR (:typeFilter = 'PRODUCT' AND a.action LIKE 'PRODUCT_WASTE_%')) "
-			+ "AND (:reasonSuffix IS NULL OR a.action LIKE CONCAT('%_', :reasonSuffix)) "
+	// Equality on the classified columns so idx_activity_log_waste can be used
+	String WASTE_FILTER_CONDITION = "a.wasteType IS NOT NULL "
+			+ "AND (:typeFilter IS NULL OR a.wasteType = :typeFilter) "
+			+ "AND (:reason IS NULL OR a.wasteReason = :reason) "
 			+ "AND (:itemName IS NULL OR LOWER(a.itemName) LIKE LOWER(CONCAT('%', :itemName, '%'))) "
 			+ "AND (:startDate IS NULL OR a.timestamp >= :startDate) "
 			+ "AND (:endDate IS NULL OR a.timestamp <= :endDate)";
@@ -40,44 +47,58 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLogEntry, L
 
 	@Query("SELECT a FROM ActivityLogEntry a WHERE " + WASTE_FILTER_CONDITION + " ORDER BY a.timestamp DESC")
 	Page<ActivityLogEntry> searchWasteLogs(@Param("typeFilter") String typeFilter,
-			@Param("reasonSuffix") String reasonSuffix, @Param("itemName") String itemName,
+			@Param("reason") String reason, @Param("itemName") String itemName,
 			@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
 
 	// --- NEW: SEARCH METHOD FOR GENERAL LOGS ---
 	@Query("SELECT a FROM ActivityLogEntry a WHERE " + LOG_FILTER_CONDITION + " ORDER BY a.timestamp DESC")
 	Page<ActivityLogEntry> searchLogs(@Param("keyword") String keyword, @Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate, Pageable pageable);
-	// --- END NEW ---
-
-	// --- DYNAMIC METRICS (Respecting Filters) ---
 
-	@Query("SELECT COUNT(a) FROM ActivityLogEntry a WHERE " + WASTE_FILTER_CONDITION)
-	long countFilteredWaste(@Param("typeFilter") String typeFilter, @Param("reasonSuffix") String reasonSuffix,
-			@Param("itemName") String itemName, @Param("startDate") LocalDateTime startDate,
+	// Unpaged exports of the two searches above, read off a MySQL streaming result
+	// set. The connection cannot run other statements while the stream is open.
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT a FROM ActivityLogEntry a WHERE " + LOG_FILTER_CONDITION + " ORDER BY a.timestamp DESC")
+	Stream<ActivityLogEntry> streamLogs(@Param("keyword") String keyword, @Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate);
 
-	@Query("SELECT COALESCE(SUM(a.totalValue), 0) FROM ActivityLogEntry a WHERE " + WASTE_FILTER_CONDITION)
-	BigDecimal sumFilteredWasteValue(@Param("typeFilter") String typeFilter, @Param("reasonSuffix") String reasonSuffix,
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT a FROM ActivityLogEntry a WHERE " + WASTE_FILTER_CONDITION + " ORDER BY a.timestamp DESC")
+	Stream<ActivityLogEntry> streamWasteLogs(@Param("typeFilter") String typeFilter, @Param("reason") String reason,
 			@Param("itemName") String itemName, @Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate);
+	// --- END NEW ---
 
-	// Calculates sum for a specific reason (e.g., EXPIRED) *within* the current
-	// filter context
-	@Query("SELECT COALESCE(SUM(a.totalValue), 0) FROM ActivityLogEntry a WHERE " + WASTE_FILTER_CONDITION
-			+ " AND a.action LIKE CONCAT('%_', :specificReason)")
-	BigDecimal sumFilteredWasteValueByReason(@Param("typeFilter") String typeFilter,
-			@Param("reasonSuffix") String reasonSuffix, @Param("itemName") String itemName,
-			@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
-			@Param("specificReason") String specificReason);
+	// --- DYNAMIC METRICS (Respecting Filters) ---
+
+	// Row: [entryCount, totalValue, expiredValue, damagedValue, wasteValue]
+	@Query("SELECT COUNT(a), COALESCE(SUM(a.totalValue), 0), "
+			+ "COALESCE(SUM(CASE WHEN a.wasteReason = 'EXPIRED' THEN a.totalValue END), 0), "
+			+ "COALESCE(SUM(CASE WHEN a.wasteReason = 'DAMAGED' THEN a.totalValue END), 0), "
+			+ "COALESCE(SUM(CASE WHEN a.wasteReason = 'WASTE' THEN a.totalValue END), 0) "
+			+ "FROM ActivityLogEntry a WHERE " + WASTE_FILTER_CONDITION)
+	List<Object[]> aggregateFilteredWaste(@Param("typeFilter") String typeFilter,
+			@Param("reason") String reason, @Param("itemName") String itemName,
+			@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
 	// --- GLOBAL METRICS (For reports/unfiltered view if needed, kept for backward
 	// compatibility) ---
-	@Query("SELECT COALESCE(SUM(a.totalValue), 0) FROM ActivityLogEntry a WHERE a.action LIKE '%_WASTE_%'")
+	@Query("SELECT COALESCE(SUM(a.totalValue), 0) FROM ActivityLogEntry a WHERE a.wasteType IS NOT NULL")
 	BigDecimal sumTotalWasteValue();
 
-	@Query("SELECT COUNT(a) FROM ActivityLogEntry a WHERE a.action LIKE '%_WASTE_%'")
+	@Query("SELECT COUNT(a) FROM ActivityLogEntry a WHERE a.wasteType IS NOT NULL")
 	long countTotalWasteEntries();
 
-	@Query("SELECT COALESCE(SUM(a.totalValue), 0) FROM ActivityLogEntry a WHERE a.action LIKE CONCAT('%_WASTE_', :reasonSuffix)")
-	BigDecimal sumValueByReason(@Param("reasonSuffix") String reasonSuffix);
+	@Query("SELECT COALESCE(SUM(a.totalValue), 0) FROM ActivityLogEntry a WHERE a.wasteType IS NOT NULL AND a.wasteReason = :reason")
+	BigDecimal sumValueByReason(@Param("reason") String reason);
+
+	// One-off classification of waste entries written before the waste columns
+	// existed; the reason is whatever follows the action prefix.
+	@Modifying
+	@Query("UPDATE ActivityLogEntry a SET a.wasteType = :wasteType, a.wasteReason = SUBSTRING(a.action, :reasonStart) "
+			+ "WHERE a.wasteType IS NULL AND a.action LIKE :actionPattern")
+	int backfillWasteColumns(@Param("actionPattern") String actionPattern, @Param("wasteType") String wasteType,
+			@Param("reasonStart") int reasonStart);
 }
\ No newline at end of file
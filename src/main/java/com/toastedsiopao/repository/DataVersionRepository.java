@@ -0,0 +1,18 @@
+package com.toastedsiopao.repository;
+
+import com.toastedsiopao.model.DataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, String> {
+
+	// MySQL upsert: the first write of a data type cannot race another into a duplicate row
+	@Modifying
+	@Query(value = "INSERT INTO data_versions (data_type, version) VALUES (:dataType, 1) "
+			+ "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+	int bump(@Param("dataType") String dataType);
+}
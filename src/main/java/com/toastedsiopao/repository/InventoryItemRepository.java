@@ -13,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,7 +25,7 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
 	
 	// --- ADDED: Reusable Filter Condition ---
 	String FILTER_CONDITION = "(:keyword IS NULL OR LOWER(i.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
-			"AND (:category IS NULL OR i.category = :category)";
+			"AND (:categoryId IS NULL OR i.category.id = :categoryId)";
 
 	Optional<InventoryItem> findByNameIgnoreCase(String name);
 
@@ -59,26 +60,14 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
 	@Query("SELECT i FROM InventoryItem i WHERE i.currentStock <= 0 ORDER BY i.name ASC")
 	List<InventoryItem> findOutOfStockItems();
 
-	// --- ADDED: Dynamic Metric Queries ---
-	
-	@Query("SELECT COUNT(i) FROM InventoryItem i WHERE " + FILTER_CONDITION)
-	long countFilteredItems(@Param("keyword") String keyword, @Param("category") InventoryCategory category);
-
-	@Query("SELECT COALESCE(SUM(i.currentStock * i.costPerUnit), 0) FROM InventoryItem i WHERE " + FILTER_CONDITION)
-	BigDecimal sumFilteredStockValue(@Param("keyword") String keyword, @Param("category") InventoryCategory category);
-	
-	@Query("SELECT COUNT(i) FROM InventoryItem i WHERE " + FILTER_CONDITION + 
-		   " AND i.currentStock <= i.lowStockThreshold AND i.currentStock > i.criticalStockThreshold")
-	long countFilteredLowStock(@Param("keyword") String keyword, @Param("category") InventoryCategory category);
-
-	@Query("SELECT COUNT(i) FROM InventoryItem i WHERE " + FILTER_CONDITION + 
-		   " AND i.currentStock <= i.criticalStockThreshold AND i.currentStock > 0")
-	long countFilteredCriticalStock(@Param("keyword") String keyword, @Param("category") InventoryCategory category);
-
-	@Query("SELECT COUNT(i) FROM InventoryItem i WHERE " + FILTER_CONDITION + " AND i.currentStock <= 0")
-	long countFilteredOutOfStock(@Param("keyword") String keyword, @Param("category") InventoryCategory category);
-
-	// --- END ADDED ---
+	// One pass over the filtered rows for the whole metrics panel.
+	// Row: [itemCount, stockValue, lowStock, criticalStock, outOfStock]
+	@Query("SELECT COUNT(i), COALESCE(SUM(i.currentStock * i.costPerUnit), 0), "
+			+ "COALESCE(SUM(CASE WHEN i.currentStock <= i.lowStockThreshold AND i.currentStock > i.criticalStockThreshold THEN 1 ELSE 0 END), 0), "
+			+ "COALESCE(SUM(CASE WHEN i.currentStock <= i.criticalStockThreshold AND i.currentStock > 0 THEN 1 ELSE 0 END), 0), "
+			+ "COALESCE(SUM(CASE WHEN i.currentStock <= 0 THEN 1 ELSE 0 END), 0) "
+			+ "FROM InventoryItem i WHERE " + FILTER_CONDITION)
+	List<Object[]> aggregateFilteredMetrics(@Param("keyword") String keyword, @Param("categoryId") Long categoryId);
 
 	@Query("SELECT COALESCE(SUM(i.currentStock), 0) FROM InventoryItem i")
 	BigDecimal sumTotalStockQuantity();
@@ -100,4 +89,38 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
 	@Query("SELECT i FROM InventoryItem i WHERE i.id = :id")
 	Optional<InventoryItem> findByIdForUpdate(@Param("id") Long id);
+
+	// Locks in id order so concurrent multi-item writers can't deadlock each other
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT i FROM InventoryItem i WHERE i.id IN :ids ORDER BY i.id ASC")
+	List<InventoryItem> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+	// Row: [id, currentStock]
+	@Query("SELECT i.id, i.currentStock FROM InventoryItem i")
+	List<Object[]> findAllStockLevels();
+
+	// Row: [id, currentStock]
+	@Query("SELECT i.id, i.currentStock FROM InventoryItem i WHERE i.id IN :ids")
+	List<Object[]> findStockLevels(@Param("ids") Collection<Long> ids);
+
+	// Row: [id, name, currentStock, lowStockThreshold, criticalStockThreshold]
+	@Query("SELECT i.id, i.name, i.currentStock, i.lowStockThreshold, i.criticalStockThreshold FROM InventoryItem i")
+	List<Object[]> findAllStockThresholdLevels();
+
+	// Row: [id, name, itemStatus, currentStock, unitAbbreviation, expirationDays]
+	@Query("SELECT i.id, i.name, i.itemStatus, i.currentStock, u.abbreviation, i.expirationDays FROM InventoryItem i JOIN i.unit u ORDER BY i.name ASC")
+	List<Object[]> findAllImportTargets();
+
+	// Row: [categoryId, categoryName, item count, sum of currentStock, sum of currentStock * costPerUnit]
+	@Query("SELECT c.id, c.name, COUNT(i), COALESCE(SUM(i.currentStock), 0), COALESCE(SUM(i.currentStock * i.costPerUnit), 0) "
+			+ "FROM InventoryItem i JOIN i.category c GROUP BY c.id, c.name")
+	List<Object[]> sumStockByCategory();
+
+	// Row: [id, costPerUnit]
+	@Query("SELECT i.id, i.costPerUnit FROM InventoryItem i")
+	List<Object[]> findAllCostsPerUnit();
+
+	// Row: [id, costPerUnit]
+	@Query("SELECT i.id, i.costPerUnit FROM InventoryItem i WHERE i.id IN :ids")
+	List<Object[]> findCostsPerUnit(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
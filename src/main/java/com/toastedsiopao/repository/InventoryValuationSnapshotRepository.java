@@ -0,0 +1,28 @@
+package com.toastedsiopao.repository;
+
+import com.toastedsiopao.model.InventoryValuationSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryValuationSnapshotRepository extends JpaRepository<InventoryValuationSnapshot, Long> {
+
+	Optional<InventoryValuationSnapshot> findFirstByCategoryIdIsNullOrderBySnapshotDateDesc();
+
+	@Query("SELECT s FROM InventoryValuationSnapshot s WHERE s.categoryId IS NULL AND s.snapshotDate >= :from "
+			+ "ORDER BY s.snapshotDate ASC")
+	List<InventoryValuationSnapshot> findTotalsSince(@Param("from") LocalDate from);
+
+	boolean existsBySnapshotDate(LocalDate snapshotDate);
+
+	@Modifying
+	@Query("DELETE FROM InventoryValuationSnapshot s WHERE s.snapshotDate = :date")
+	int deleteBySnapshotDate(@Param("date") LocalDate date);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -24,4 +25,7 @@ public interface IssueReportRepository extends JpaRepository<IssueReport, Long>
     
     @Query("SELECT r FROM IssueReport r WHERE r.order.id = :orderId ORDER BY r.reportedAt DESC")
     List<IssueReport> findByOrderId(@Param("orderId") Long orderId);
+
+    @Query("SELECT DISTINCT r.attachmentImageUrl FROM IssueReport r WHERE r.attachmentImageUrl IN :urls")
+    List<String> findReferencedImageUrls(@Param("urls") Collection<String> urls);
 }
\ No newline at end of file
@@ -2,22 +2,37 @@ package com.toastedsiopao.repository;
 
 import com.toastedsiopao.model.Order;
 import com.toastedsiopao.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+	String DELIVERED_REPORT_CONDITION = "o.status = 'DELIVERED' "
+			+ "AND (:start IS NULL OR o.orderDate >= :start) "
+			+ "AND (:end IS NULL OR o.orderDate <= :end) "
+			+ "AND (:keyword IS NULL OR "
+			+ "    CAST(o.id AS string) LIKE CONCAT('%', :keyword, '%') OR "
+			+ "    LOWER(o.shippingFirstName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR "
+			+ "    LOWER(o.shippingLastName) LIKE LOWER(CONCAT('%', :keyword, '%'))"
+			+ ") ";
+
 	@Query(value = "SELECT o.id FROM Order o "
 			+ "WHERE o.user = :user ORDER BY o.orderDate DESC",
 			countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user = :user")
@@ -96,8 +111,16 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 	@Query("SELECT oi.product, SUM(oi.quantity) AS totalQuantity FROM OrderItem oi JOIN oi.order o WHERE o.status = 'DELIVERED' GROUP BY oi.product ORDER BY totalQuantity DESC")
 	Page<Object[]> findTopSellingProducts(Pageable pageable);
 
-	@Query("SELECT FUNCTION('DATE', o.orderDate) AS orderDay, SUM(o.totalAmount) AS dailySales FROM Order o WHERE o.orderDate BETWEEN :start AND :end AND o.status = 'DELIVERED' GROUP BY orderDay ORDER BY orderDay ASC")
-	List<Object[]> findSalesDataBetweenDates(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+	// Row: [productId, quantity] for orders delivered in [start, end)
+	@Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi JOIN oi.order o WHERE o.status = 'DELIVERED' "
+			+ "AND o.deliveredAt >= :start AND o.deliveredAt < :end GROUP BY oi.product.id")
+	List<Object[]> sumDeliveredQuantityByProduct(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+	// Orders delivered before deliveredAt existed: their last update is the best estimate
+	@Modifying
+	@Query("UPDATE Order o SET o.deliveredAt = COALESCE(o.lastUpdated, o.orderDate) "
+			+ "WHERE o.status = 'DELIVERED' AND o.deliveredAt IS NULL")
+	int backfillDeliveredAt();
 
 	@Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status = 'DELIVERED'")
 	BigDecimal findTotalRevenueAllTime();
@@ -108,22 +131,33 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 	@Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status IN ('PENDING', 'PENDING_VERIFICATION', 'PROCESSING', 'OUT_FOR_DELIVERY')")
 	BigDecimal getTotalPotentialRevenue();
 	
-	@Query("SELECT DISTINCT o FROM Order o "
+	// Row: [productId, quantity] for delivered orders placed in [start, end], the range the sales totals use
+	@Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi JOIN oi.order o WHERE o.status = 'DELIVERED' "
+			+ "AND o.orderDate BETWEEN :start AND :end GROUP BY oi.product.id")
+	List<Object[]> sumDeliveredQuantityByProductOrderedBetween(@Param("start") LocalDateTime start,
+			@Param("end") LocalDateTime end);
+
+	// Delivered orders with their items and products for the financial report, read off
+	// a MySQL streaming result set (fetch size Integer.MIN_VALUE) so a long date range is
+	// never held in memory. Ordered by id as well so every order's item rows arrive together. The connection cannot run
+	// other statements while the stream is open.
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT o FROM Order o "
 			+ "JOIN FETCH o.items oi "
-			+ "JOIN oi.product p "
-			+ "LEFT JOIN FETCH p.ingredients ri "
-			+ "LEFT JOIN FETCH ri.inventoryItem ii "
-			+ "WHERE o.status = 'DELIVERED' "
-			+ "AND (:start IS NULL OR o.orderDate >= :start) " 
-			+ "AND (:end IS NULL OR o.orderDate <= :end) "     
-			+ "AND (:keyword IS NULL OR "                     
-			+ "    CAST(o.id AS string) LIKE CONCAT('%', :keyword, '%') OR "
-			+ "    LOWER(o.shippingFirstName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR "
-			+ "    LOWER(o.shippingLastName) LIKE LOWER(CONCAT('%', :keyword, '%'))"
-			+ ") "
-			+ "ORDER BY o.orderDate DESC")
-	List<Order> findDeliveredOrdersWithCogsDetails(@Param("keyword") String keyword, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+			+ "JOIN FETCH oi.product p "
+			+ "WHERE " + DELIVERED_REPORT_CONDITION
+			+ "ORDER BY o.orderDate DESC, o.id DESC")
+	Stream<Order> streamDeliveredOrdersWithCogsDetails(@Param("keyword") String keyword,
+			@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 	
+	// Row: [ownerUserId, status]
+	@Query("SELECT o.user.id, o.status FROM Order o WHERE o.id = :orderId")
+	List<Object[]> findOwnerAndStatusById(@Param("orderId") Long orderId);
+
 	@Query("SELECT o FROM Order o LEFT JOIN FETCH o.user u LEFT JOIN FETCH o.items oi LEFT JOIN FETCH oi.product p WHERE o.id = :orderId")
 	Optional<Order> findOrderForInvoiceById(@Param("orderId") Long orderId);
+
+	@Query("SELECT DISTINCT o.paymentReceiptImageUrl FROM Order o WHERE o.paymentReceiptImageUrl IN :urls")
+	List<String> findReferencedReceiptUrls(@Param("urls") Collection<String> urls);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.toastedsiopao.repository;
+
+import com.toastedsiopao.model.ProductDemandForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductDemandForecastRepository extends JpaRepository<ProductDemandForecast, Long> {
+}
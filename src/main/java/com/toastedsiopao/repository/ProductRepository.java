@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType; 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional; 
 
@@ -27,7 +28,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 	
 	// --- ADDED: Reusable Filter Condition for Metrics ---
 	String METRIC_FILTER_CONDITION = "(:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
-			"AND (:category IS NULL OR p.category = :category)";
+			"AND (:categoryId IS NULL OR p.category.id = :categoryId)";
 	// --- END ADDED ---
 
 	Optional<Product> findByNameIgnoreCase(String name);
@@ -91,6 +92,18 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
 	@Query("SELECT p FROM Product p WHERE p.id = :id")
 	Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id ASC")
+	List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+	// Row: [id, currentStock]
+	@Query("SELECT p.id, p.currentStock FROM Product p")
+	List<Object[]> findAllStockLevels();
+
+	// Row: [id, name, currentStock, lowStockThreshold, criticalStockThreshold]
+	@Query("SELECT p.id, p.name, p.currentStock, p.lowStockThreshold, p.criticalStockThreshold FROM Product p")
+	List<Object[]> findAllStockThresholdLevels();
 	
 	// --- GLOBAL METRICS (Kept for Dashboard) ---
 	@Query("SELECT count(p) FROM Product p WHERE p.currentStock <= p.lowStockThreshold AND p.currentStock > p.criticalStockThreshold")
@@ -102,25 +115,20 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 	@Query("SELECT count(p) FROM Product p WHERE p.currentStock <= 0")
 	long countOutOfStockProducts();
 
-	// --- ADDED: DYNAMIC FILTERED METRICS ---
-	@Query("SELECT COUNT(p) FROM Product p WHERE " + METRIC_FILTER_CONDITION)
-	long countFilteredProducts(@Param("keyword") String keyword, @Param("category") Category category);
-
-	@Query("SELECT COUNT(p) FROM Product p WHERE " + METRIC_FILTER_CONDITION + 
-		   " AND p.currentStock <= p.lowStockThreshold AND p.currentStock > p.criticalStockThreshold")
-	long countFilteredLowStock(@Param("keyword") String keyword, @Param("category") Category category);
-
-	@Query("SELECT COUNT(p) FROM Product p WHERE " + METRIC_FILTER_CONDITION + 
-		   " AND p.currentStock <= p.criticalStockThreshold AND p.currentStock > 0")
-	long countFilteredCriticalStock(@Param("keyword") String keyword, @Param("category") Category category);
-
-	@Query("SELECT COUNT(p) FROM Product p WHERE " + METRIC_FILTER_CONDITION + " AND p.currentStock <= 0")
-	long countFilteredOutOfStock(@Param("keyword") String keyword, @Param("category") Category category);
-	// --- END ADDED ---
+	// Row: [productCount, lowStock, criticalStock, outOfStock]
+	@Query("SELECT COUNT(p), "
+			+ "COALESCE(SUM(CASE WHEN p.currentStock <= p.lowStockThreshold AND p.currentStock > p.criticalStockThreshold THEN 1 ELSE 0 END), 0), "
+			+ "COALESCE(SUM(CASE WHEN p.currentStock <= p.criticalStockThreshold AND p.currentStock > 0 THEN 1 ELSE 0 END), 0), "
+			+ "COALESCE(SUM(CASE WHEN p.currentStock <= 0 THEN 1 ELSE 0 END), 0) "
+			+ "FROM Product p WHERE " + METRIC_FILTER_CONDITION)
+	List<Object[]> aggregateFilteredMetrics(@Param("keyword") String keyword, @Param("categoryId") Long categoryId);
 
 	@Query("SELECT p FROM Product p JOIN FETCH p.category c LEFT JOIN FETCH p.ingredients i LEFT JOIN FETCH i.inventoryItem ii LEFT JOIN FETCH ii.unit u ORDER BY p.name ASC")
 	List<Product> findAllFullProducts();
 
+	@Query("SELECT DISTINCT p.imageUrl FROM Product p WHERE p.imageUrl IN :urls")
+	List<String> findReferencedImageUrls(@Param("urls") Collection<String> urls);
+
 	@Query("SELECT p FROM Product p JOIN FETCH p.category c LEFT JOIN FETCH p.ingredients i LEFT JOIN FETCH i.inventoryItem ii LEFT JOIN FETCH ii.unit u WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) ORDER BY p.name ASC")
 	List<Product> findFullProductsByName(@Param("keyword") String keyword);
 
@@ -19,4 +19,22 @@ public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredie
 	
 	@Query("SELECT COUNT(ri) FROM RecipeIngredient ri WHERE ri.inventoryItem = :item")
 	long countByInventoryItem(@Param("item") InventoryItem item);
+
+	// Row: [productId, inventoryItemId, quantityNeeded]
+	@Query("SELECT ri.product.id, ri.inventoryItem.id, ri.quantityNeeded FROM RecipeIngredient ri")
+	List<Object[]> findAllRecipeLines();
+
+	// Row: [inventoryItemId, quantityNeeded]; empty once the product is gone
+	@Query("SELECT ri.inventoryItem.id, ri.quantityNeeded FROM RecipeIngredient ri WHERE ri.product.id = :productId")
+	List<Object[]> findRecipeLinesByProduct(@Param("productId") Long productId);
+
+	// Row: [productId, inventoryItemId, quantityNeeded]
+	@Query("SELECT ri.product.id, ri.inventoryItem.id, ri.quantityNeeded FROM RecipeIngredient ri "
+			+ "WHERE ri.product.productStatus = 'ACTIVE'")
+	List<Object[]> findActiveRecipeLines();
+
+	// Row: [inventoryItemId, quantityNeeded]; empty when the product is inactive or gone
+	@Query("SELECT ri.inventoryItem.id, ri.quantityNeeded FROM RecipeIngredient ri "
+			+ "WHERE ri.product.id = :productId AND ri.product.productStatus = 'ACTIVE'")
+	List<Object[]> findActiveRecipeLinesByProduct(@Param("productId") Long productId);
 }
\ No newline at end of file
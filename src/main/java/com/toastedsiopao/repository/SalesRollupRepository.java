@@ -0,0 +1,39 @@
+package com.toastedsiopao.repository;
+
+import com.toastedsiopao.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, LocalDateTime> {
+
+	@Query("SELECT r.bucketStart, r.orderCount, r.salesTotal FROM SalesRollup r "
+			+ "WHERE r.bucketStart >= :start AND r.bucketStart < :end ORDER BY r.bucketStart ASC")
+	List<Object[]> findBuckets(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+	// MySQL upsert: two deliveries in a new hour cannot both insert the row
+	@Modifying
+	@Query(value = "INSERT INTO sales_hourly_rollups (bucket_start, order_count, sales_total) "
+			+ "VALUES (:bucketStart, 1, :amount) "
+			+ "ON DUPLICATE KEY UPDATE order_count = order_count + 1, sales_total = sales_total + :amount",
+			nativeQuery = true)
+	int addDelivery(@Param("bucketStart") LocalDateTime bucketStart, @Param("amount") BigDecimal amount);
+
+	@Modifying
+	@Query(value = "DELETE FROM sales_hourly_rollups", nativeQuery = true)
+	int deleteAllBuckets();
+
+	@Modifying
+	@Query(value = "INSERT INTO sales_hourly_rollups (bucket_start, order_count, sales_total) "
+			+ "SELECT DATE_FORMAT(o.order_date, '%Y-%m-%d %H:00:00'), COUNT(*), SUM(o.total_amount) "
+			+ "FROM orders o WHERE o.status = 'DELIVERED' "
+			+ "GROUP BY DATE_FORMAT(o.order_date, '%Y-%m-%d %H:00:00')", nativeQuery = true)
+	int insertBucketsFromOrders();
+}
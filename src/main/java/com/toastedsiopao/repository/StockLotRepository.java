@@ -0,0 +1,44 @@
+package com.toastedsiopao.repository;
+
+import com.toastedsiopao.model.StockLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StockLotRepository extends JpaRepository<StockLot, Long> {
+
+	// First-expired-first-out; non-perishable lots go last, then oldest received
+	String FEFO_ORDER = "ORDER BY CASE WHEN l.expiryDate IS NULL THEN 1 ELSE 0 END, l.expiryDate ASC, "
+			+ "l.receivedDate ASC, l.id ASC";
+
+	@Query("SELECT l FROM StockLot l WHERE l.inventoryItem.id = :itemId " + FEFO_ORDER)
+	List<StockLot> findItemLotsFefo(@Param("itemId") Long itemId);
+
+	@Query("SELECT l FROM StockLot l WHERE l.product.id = :productId " + FEFO_ORDER)
+	List<StockLot> findProductLotsFefo(@Param("productId") Long productId);
+
+	// Single range scan on idx_stock_lots_expiry
+	@Query("SELECT l FROM StockLot l LEFT JOIN FETCH l.inventoryItem LEFT JOIN FETCH l.product "
+			+ "WHERE l.expiryDate < :cutoff ORDER BY l.expiryDate ASC, l.id ASC")
+	List<StockLot> findExpiredBefore(@Param("cutoff") LocalDate cutoff);
+
+	@Query("SELECT DISTINCT l.inventoryItem.id FROM StockLot l WHERE l.inventoryItem IS NOT NULL")
+	List<Long> findItemIdsWithLots();
+
+	@Query("SELECT DISTINCT l.product.id FROM StockLot l WHERE l.product IS NOT NULL")
+	List<Long> findProductIdsWithLots();
+
+	@Modifying
+	@Query("DELETE FROM StockLot l WHERE l.inventoryItem.id = :itemId")
+	int deleteByItemId(@Param("itemId") Long itemId);
+
+	@Modifying
+	@Query("DELETE FROM StockLot l WHERE l.product.id = :productId")
+	int deleteByProductId(@Param("productId") Long productId);
+}
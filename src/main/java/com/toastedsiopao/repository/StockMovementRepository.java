@@ -0,0 +1,61 @@
+package com.toastedsiopao.repository;
+
+import com.toastedsiopao.model.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+	@Query("SELECT m.balanceAfter FROM StockMovement m WHERE m.inventoryItemId = :itemId AND m.movedAt <= :at "
+			+ "ORDER BY m.movedAt DESC, m.id DESC")
+	List<BigDecimal> findItemBalancesAsOf(@Param("itemId") Long itemId, @Param("at") LocalDateTime at,
+			Pageable pageable);
+
+	@Query("SELECT m.balanceAfter FROM StockMovement m WHERE m.productId = :productId AND m.movedAt <= :at "
+			+ "ORDER BY m.movedAt DESC, m.id DESC")
+	List<BigDecimal> findProductBalancesAsOf(@Param("productId") Long productId, @Param("at") LocalDateTime at,
+			Pageable pageable);
+
+	// Consumption only counts outgoing movements of the given kinds
+	@Query("SELECT COALESCE(SUM(-m.quantityDelta), 0) FROM StockMovement m WHERE m.inventoryItemId = :itemId "
+			+ "AND m.quantityDelta < 0 AND m.reasonCode IN :reasonCodes AND m.movedAt >= :start AND m.movedAt < :end")
+	BigDecimal sumItemUsage(@Param("itemId") Long itemId, @Param("reasonCodes") Collection<String> reasonCodes,
+			@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+	// Row: [inventoryItemId, sum of deltas]
+	@Query("SELECT m.inventoryItemId, SUM(m.quantityDelta) FROM StockMovement m "
+			+ "WHERE m.inventoryItemId IS NOT NULL GROUP BY m.inventoryItemId")
+	List<Object[]> sumDeltasByItem();
+
+	// Row: [sum of item quantity deltas, the same deltas valued at current cost per unit]
+	@Query("SELECT COALESCE(SUM(m.quantityDelta), 0), COALESCE(SUM(m.quantityDelta * i.costPerUnit), 0) "
+			+ "FROM StockMovement m JOIN InventoryItem i ON i.id = m.inventoryItemId WHERE m.id > :afterId")
+	List<Object[]> sumItemDeltasAfter(@Param("afterId") Long afterId);
+
+	// Row: [categoryId, sum of item quantity deltas, the same deltas valued at current cost per unit]
+	@Query("SELECT i.category.id, COALESCE(SUM(m.quantityDelta), 0), COALESCE(SUM(m.quantityDelta * i.costPerUnit), 0) "
+			+ "FROM StockMovement m JOIN InventoryItem i ON i.id = m.inventoryItemId WHERE m.id > :afterId "
+			+ "GROUP BY i.category.id")
+	List<Object[]> sumItemDeltasByCategoryAfter(@Param("afterId") Long afterId);
+
+	@Query("SELECT MIN(m.id) FROM StockMovement m WHERE m.movedAt > :since")
+	Long findFirstIdMovedAfter(@Param("since") LocalDateTime since);
+
+	@Query("SELECT COALESCE(MAX(m.id), 0) FROM StockMovement m")
+	Long findLatestId();
+
+	@Query("SELECT DISTINCT m.inventoryItemId FROM StockMovement m WHERE m.inventoryItemId IS NOT NULL")
+	List<Long> findItemIdsWithMovements();
+
+	@Query("SELECT DISTINCT m.productId FROM StockMovement m WHERE m.productId IS NOT NULL")
+	List<Long> findProductIdsWithMovements();
+}
@@ -0,0 +1,31 @@
+package com.toastedsiopao.repository;
+
+import com.toastedsiopao.model.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT f FROM StoredFile f WHERE f.filename = :filename")
+	Optional<StoredFile> findByIdForUpdate(@Param("filename") String filename);
+
+	// MySQL upsert: two first uploads of the same bytes cannot both insert the row,
+	// and the row stays locked until the uploading transaction ends
+	@Modifying
+	@Query(value = "INSERT INTO stored_files (filename, content_hash, size_bytes, reference_count, created_at, last_stored_at) "
+			+ "VALUES (:filename, :contentHash, :sizeBytes, 1, :storedAt, :storedAt) "
+			+ "ON DUPLICATE KEY UPDATE reference_count = reference_count + 1, last_stored_at = :storedAt",
+			nativeQuery = true)
+	int addReference(@Param("filename") String filename, @Param("contentHash") String contentHash,
+			@Param("sizeBytes") long sizeBytes, @Param("storedAt") LocalDateTime storedAt);
+}
@@ -5,7 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
-import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ActivityLogService {
 
@@ -24,9 +24,19 @@ public interface ActivityLogService {
 	Page<ActivityLogEntry> searchWasteLogs(String keyword, String reasonCategory, String wasteType, String startDate,
 			String endDate, Pageable pageable);
 
-	Map<String, Object> getWasteMetrics(String keyword, String reasonCategory, String wasteType, String startDate,
-			String endDate);
+	// Fills waste type/reason on entries logged before those columns existed
+	void backfillWasteColumns();
 
 	// --- NEW: General Log Search ---
 	Page<ActivityLogEntry> searchLogs(String keyword, String startDate, String endDate, Pageable pageable);
+
+	/**
+	 * Unpaged report versions of the two searches: entries are read from a database
+	 * cursor and detached after the action runs. The action must not query the
+	 * database.
+	 */
+	void forEachLogForReport(String keyword, String startDate, String endDate, Consumer<ActivityLogEntry> action);
+
+	void forEachWasteLogForReport(String keyword, String reasonCategory, String wasteType, String startDate,
+			String endDate, Consumer<ActivityLogEntry> action);
 }
\ No newline at end of file
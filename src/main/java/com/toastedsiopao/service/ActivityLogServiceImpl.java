@@ -2,9 +2,13 @@ package com.toastedsiopao.service;
 
 import com.toastedsiopao.model.ActivityLogEntry;
 import com.toastedsiopao.repository.ActivityLogRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -15,8 +19,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -27,6 +31,15 @@ public class ActivityLogServiceImpl implements ActivityLogService {
 	@Autowired
 	private ActivityLogRepository activityLogRepository;
 
+	@Autowired
+	private MetricsService metricsService;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	@Override
 	@Transactional
 	public void logAdminAction(String username, String action) {
@@ -64,6 +77,8 @@ public class ActivityLogServiceImpl implements ActivityLogService {
 			ActivityLogEntry entry = new ActivityLogEntry(username, action, details, itemName, quantity, costPerUnit,
 					totalValue);
 			activityLogRepository.save(entry);
+			metricsService.invalidateWaste();
+			dataVersionService.dataChanged(DataVersionService.DATA_WASTE);
 			log.info("Logged waste action: Item='{}', Value='{}'", itemName, totalValue);
 		} catch (Exception e) {
 			log.error("Failed to save waste log entry: {}", e.getMessage());
@@ -107,13 +122,27 @@ public class ActivityLogServiceImpl implements ActivityLogService {
 	public Page<ActivityLogEntry> searchWasteLogs(String keyword, String reasonCategory, String wasteType,
 			String startDate, String endDate, Pageable pageable) {
 		String itemKeyword = StringUtils.hasText(keyword) ? keyword.trim() : null;
-		String reasonSuffix = StringUtils.hasText(reasonCategory) ? reasonCategory.trim().toUpperCase() : null;
+		String reason = StringUtils.hasText(reasonCategory) ? reasonCategory.trim().toUpperCase() : null;
 		String typeFilter = StringUtils.hasText(wasteType) ? wasteType.trim().toUpperCase() : null;
 
 		LocalDateTime[] dates = parseDateRange(startDate, endDate);
 
-		return activityLogRepository.searchWasteLogs(typeFilter, reasonSuffix, itemKeyword, dates[0], dates[1],
-				pageable);
+		return activityLogRepository.searchWasteLogs(typeFilter, reason, itemKeyword, dates[0], dates[1], pageable);
+	}
+
+	@Override
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillWasteColumns() {
+		int stockRows = activityLogRepository.backfillWasteColumns(ActivityLogEntry.STOCK_WASTE_PREFIX + "%",
+				ActivityLogEntry.WASTE_TYPE_INVENTORY, ActivityLogEntry.STOCK_WASTE_PREFIX.length() + 1);
+		int productRows = activityLogRepository.backfillWasteColumns(ActivityLogEntry.PRODUCT_WASTE_PREFIX + "%",
+				ActivityLogEntry.WASTE_TYPE_PRODUCT, ActivityLogEntry.PRODUCT_WASTE_PREFIX.length() + 1);
+		if (stockRows + productRows > 0) {
+			metricsService.invalidateWaste();
+			dataVersionService.dataChanged(DataVersionService.DATA_WASTE);
+			log.info("Classified {} legacy waste log entries ({} inventory, {} product).", stockRows + productRows,
+					stockRows, productRows);
+		}
 	}
 
 	// --- NEW: General Search Logic ---
@@ -127,35 +156,32 @@ public class ActivityLogServiceImpl implements ActivityLogService {
 
 	@Override
 	@Transactional(readOnly = true)
-	public Map<String, Object> getWasteMetrics(String keyword, String reasonCategory, String wasteType,
-			String startDate, String endDate) {
-		Map<String, Object> metrics = new HashMap<>();
+	public void forEachLogForReport(String keyword, String startDate, String endDate,
+			Consumer<ActivityLogEntry> action) {
+		String searchKeyword = StringUtils.hasText(keyword) ? keyword.trim() : null;
+		LocalDateTime[] dates = parseDateRange(startDate, endDate);
+		try (Stream<ActivityLogEntry> entries = activityLogRepository.streamLogs(searchKeyword, dates[0], dates[1])) {
+			entries.forEach(entry -> {
+				action.accept(entry);
+				entityManager.detach(entry);
+			});
+		}
+	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public void forEachWasteLogForReport(String keyword, String reasonCategory, String wasteType, String startDate,
+			String endDate, Consumer<ActivityLogEntry> action) {
 		String itemKeyword = StringUtils.hasText(keyword) ? keyword.trim() : null;
-		String reasonSuffix = StringUtils.hasText(reasonCategory) ? reasonCategory.trim().toUpperCase() : null;
+		String reason = StringUtils.hasText(reasonCategory) ? reasonCategory.trim().toUpperCase() : null;
 		String typeFilter = StringUtils.hasText(wasteType) ? wasteType.trim().toUpperCase() : null;
-
 		LocalDateTime[] dates = parseDateRange(startDate, endDate);
-		LocalDateTime start = dates[0];
-		LocalDateTime end = dates[1];
-
-		long totalItems = activityLogRepository.countFilteredWaste(typeFilter, reasonSuffix, itemKeyword, start, end);
-		BigDecimal totalWasteValue = activityLogRepository.sumFilteredWasteValue(typeFilter, reasonSuffix, itemKeyword,
-				start, end);
-
-		BigDecimal expiredValue = activityLogRepository.sumFilteredWasteValueByReason(typeFilter, reasonSuffix,
-				itemKeyword, start, end, "EXPIRED");
-		BigDecimal damagedValue = activityLogRepository.sumFilteredWasteValueByReason(typeFilter, reasonSuffix,
-				itemKeyword, start, end, "DAMAGED");
-		BigDecimal otherWasteValue = activityLogRepository.sumFilteredWasteValueByReason(typeFilter, reasonSuffix,
-				itemKeyword, start, end, "WASTE");
-
-		metrics.put("totalItems", totalItems);
-		metrics.put("totalWasteValue", totalWasteValue);
-		metrics.put("expiredValue", expiredValue);
-		metrics.put("damagedValue", damagedValue);
-		metrics.put("wasteValue", otherWasteValue);
-
-		return metrics;
+		try (Stream<ActivityLogEntry> entries = activityLogRepository.streamWasteLogs(typeFilter, reason,
+				itemKeyword, dates[0], dates[1])) {
+			entries.forEach(entry -> {
+				action.accept(entry);
+				entityManager.detach(entry);
+			});
+		}
 	}
 }
\ No newline at end of file
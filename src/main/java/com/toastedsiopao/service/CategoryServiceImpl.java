@@ -26,6 +26,9 @@ public class CategoryServiceImpl implements CategoryService {
 	@Autowired
 	private CategoryRepository categoryRepository;
 
+	@Autowired
+	private DataVersionService dataVersionService;
+
 	@Autowired
 	@Lazy
 	private ProductService productService;
@@ -102,6 +105,8 @@ public class CategoryServiceImpl implements CategoryService {
 
 		try {
 			Category savedCategory = categoryRepository.save(categoryToUpdate);
+			// Reports show the category name
+			dataVersionService.dataChanged(DataVersionService.DATA_PRODUCTS);
 			log.info("Updated product category: ID={}, Name='{}'", savedCategory.getId(), savedCategory.getName());
 			return savedCategory;
 		} catch (Exception e) {
@@ -0,0 +1,38 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Order;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Chart series for the admin dashboard's JSON API. Every series is cached per
+ * parameter set for {@code chart.cache-ttl-seconds}; changes in between reach
+ * open dashboards through {@link DashboardEventService}.
+ */
+public interface ChartDataService {
+
+	// Order of the status chart and of the dashboard's order counters
+	List<String> ORDER_STATUSES = List.of(Order.STATUS_PENDING_VERIFICATION, Order.STATUS_PENDING,
+			Order.STATUS_PROCESSING, Order.STATUS_OUT_FOR_DELIVERY, Order.STATUS_DELIVERED, Order.STATUS_CANCELLED,
+			Order.STATUS_REJECTED);
+
+	record ChartSeries(List<String> labels, List<? extends Number> data) {
+	}
+
+	// Keys are the order status values, in the same order as labels and data
+	record StatusSeries(List<String> keys, List<String> labels, List<Long> data) {
+	}
+
+	// previous is the same range a year earlier, aligned bucket by bucket; null unless asked for
+	record SalesChart(SalesRollupService.SalesSeries current, SalesRollupService.SalesSeries previous) {
+	}
+
+	SalesChart getSalesChart(String bucket, LocalDate start, LocalDate end, boolean compareYear);
+
+	StatusSeries getOrderStatusChart();
+
+	ChartSeries getTopProductsChart(int limit);
+
+	ChartSeries getValuationChart(int days);
+}
@@ -0,0 +1,125 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Order;
+import com.toastedsiopao.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class ChartDataServiceImpl implements ChartDataService {
+
+	// Ranges come from the query string, so keep the key space bounded
+	private static final int MAX_CACHED_SERIES = 128;
+
+	@Autowired
+	private SalesRollupService salesRollupService;
+
+	@Autowired
+	private DashboardService dashboardService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private InventoryValuationService inventoryValuationService;
+
+	@Value("${chart.cache-ttl-seconds:30}")
+	private long cacheTtlSeconds;
+
+	private record SalesKey(String bucket, LocalDate start, LocalDate end, boolean compareYear) {
+	}
+
+	private final TtlCache<SalesKey, SalesChart> salesCache = new TtlCache<>(MAX_CACHED_SERIES);
+	private final TtlCache<Integer, ChartSeries> topProductsCache = new TtlCache<>(MAX_CACHED_SERIES);
+	private final TtlCache<Integer, ChartSeries> valuationCache = new TtlCache<>(MAX_CACHED_SERIES);
+
+	@Override
+	public SalesChart getSalesChart(String bucket, LocalDate start, LocalDate end, boolean compareYear) {
+		SalesKey key = new SalesKey(bucket, start, end, compareYear);
+		return salesCache.get(key, ttlNanos(), () -> {
+			SalesRollupService.SalesSeries current = salesRollupService.getSalesSeries(bucket, start, end);
+			if (!compareYear) {
+				return new SalesChart(current, null);
+			}
+			// 52 weeks keeps weekly buckets on the same weekday boundaries
+			boolean weekly = SalesRollupService.BUCKET_WEEK.equals(bucket);
+			SalesRollupService.SalesSeries previous = salesRollupService.getSalesSeries(bucket,
+					weekly ? start.minusWeeks(52) : start.minusYears(1),
+					weekly ? end.minusWeeks(52) : end.minusYears(1));
+			return new SalesChart(current, alignTo(current, previous));
+		});
+	}
+
+	// Order counts come from the dashboard snapshot, so the chart matches the counters beside it
+	@Override
+	public StatusSeries getOrderStatusChart() {
+		Map<String, Long> counts = dashboardService.getSnapshot().orderStatusCounts();
+		List<String> labels = new ArrayList<>(ORDER_STATUSES.size());
+		List<Long> data = new ArrayList<>(ORDER_STATUSES.size());
+		for (String status : ORDER_STATUSES) {
+			labels.add(statusLabel(status));
+			data.add(counts.getOrDefault(status, 0L));
+		}
+		return new StatusSeries(ORDER_STATUSES, labels, data);
+	}
+
+	@Override
+	public ChartSeries getTopProductsChart(int limit) {
+		return topProductsCache.get(limit, ttlNanos(), () -> {
+			List<String> labels = new ArrayList<>(limit);
+			List<Long> data = new ArrayList<>(limit);
+			for (Map<String, Object> row : orderService.getTopSellingProducts(limit)) {
+				labels.add(((Product) row.get("product")).getName());
+				data.add((Long) row.get("quantity"));
+			}
+			return new ChartSeries(labels, data);
+		});
+	}
+
+	@Override
+	public ChartSeries getValuationChart(int days) {
+		return valuationCache.get(days, ttlNanos(), () -> {
+			Map<String, BigDecimal> trend = inventoryValuationService.getValueTrend(days);
+			return new ChartSeries(List.copyOf(trend.keySet()), List.copyOf(trend.values()));
+		});
+	}
+
+	// A leap day can leave the two ranges one bucket apart; pad or trim the earlier one
+	private static SalesRollupService.SalesSeries alignTo(SalesRollupService.SalesSeries current,
+			SalesRollupService.SalesSeries previous) {
+		int size = current.labels().size();
+		if (previous.labels().size() == size) {
+			return previous;
+		}
+		List<String> labels = new ArrayList<>(size);
+		List<BigDecimal> sales = new ArrayList<>(size);
+		List<Long> orders = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			boolean present = i < previous.labels().size();
+			labels.add(present ? previous.labels().get(i) : "");
+			sales.add(present ? previous.sales().get(i) : BigDecimal.ZERO);
+			orders.add(present ? previous.orders().get(i) : 0L);
+		}
+		return new SalesRollupService.SalesSeries(previous.bucket(), labels, sales, orders);
+	}
+
+	private static String statusLabel(String status) {
+		return switch (status) {
+		case Order.STATUS_PENDING_VERIFICATION -> "PENDING (GCASH)";
+		case Order.STATUS_PENDING -> "PENDING (COD)";
+		default -> status.replace('_', ' ');
+		};
+	}
+
+	private long ttlNanos() {
+		return TimeUnit.SECONDS.toNanos(Math.max(0, cacheTtlSeconds));
+	}
+}
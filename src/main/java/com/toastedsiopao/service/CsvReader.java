@@ -0,0 +1,124 @@
+package com.toastedsiopao.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader, the counterpart of {@link CsvWriter}. Records are
+ * split on unquoted line breaks only, so a quoted cell may span lines. A leading
+ * BOM is skipped, and the apostrophe CsvWriter puts in front of formula-like
+ * text is removed again.
+ */
+final class CsvReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+	private static final int NONE = -2;
+
+	private final Reader reader;
+	private final StringBuilder field = new StringBuilder();
+	private final List<String> record = new ArrayList<>();
+	private int pushedBack = NONE;
+	private boolean started;
+	private long line = 1;
+
+	CsvReader(InputStream in) {
+		this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	/** The next record's cells, or {@code null} once the input is exhausted. */
+	String[] next() throws IOException {
+		int c = read();
+		if (!started) {
+			started = true;
+			if (c == '\uFEFF') {
+				c = read();
+			}
+		}
+		if (c == -1) {
+			return null;
+		}
+		record.clear();
+		field.setLength(0);
+		boolean quoted = false;
+		while (true) {
+			if (c == '"' && field.length() == 0 && !quoted) {
+				quoted = true;
+				readQuoted();
+			} else if (c == ',') {
+				endField(quoted);
+				quoted = false;
+			} else if (c == '\r' || c == '\n' || c == -1) {
+				if (c == '\r') {
+					int following = read();
+					if (following != '\n') {
+						pushedBack = following;
+					}
+				}
+				endField(quoted);
+				if (c != -1) {
+					line++;
+				}
+				return record.toArray(new String[0]);
+			} else {
+				field.append((char) c);
+			}
+			c = read();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	// Reads up to and including the closing quote; a doubled quote is a literal one
+	private void readQuoted() throws IOException {
+		long startLine = line;
+		while (true) {
+			int c = read();
+			if (c == -1) {
+				throw new IllegalArgumentException("Line " + startLine + " has a quoted cell that is never closed.");
+			}
+			if (c == '"') {
+				int following = read();
+				if (following != '"') {
+					pushedBack = following;
+					return;
+				}
+			} else if (c == '\n') {
+				line++;
+			}
+			field.append((char) c);
+		}
+	}
+
+	private void endField(boolean quoted) {
+		String value = field.toString();
+		if (quoted && value.length() > 1 && value.charAt(0) == '\'' && isFormulaStart(value.charAt(1))) {
+			value = value.substring(1);
+		}
+		record.add(value);
+		field.setLength(0);
+	}
+
+	// Same set CsvWriter guards against
+	private static boolean isFormulaStart(char c) {
+		return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+	}
+
+	private int read() throws IOException {
+		if (pushedBack != NONE) {
+			int c = pushedBack;
+			pushedBack = NONE;
+			return c;
+		}
+		return reader.read();
+	}
+}
@@ -0,0 +1,137 @@
+package com.toastedsiopao.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Minimal RFC 4180 writer for the CSV exports. Values are written straight into
+ * one buffered writer, so a row costs no per-field strings beyond what the
+ * caller already holds. The underlying stream is flushed but never closed.
+ */
+final class CsvWriter {
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private final Writer writer;
+	private final char[] digits = new char[20];
+	private boolean rowStarted;
+
+	CsvWriter(OutputStream out) throws IOException {
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+		writer.write('\uFEFF'); // lets Excel detect UTF-8
+	}
+
+	CsvWriter row(String... values) throws IOException {
+		for (String value : values) {
+			text(value);
+		}
+		return endRow();
+	}
+
+	CsvWriter text(String value) throws IOException {
+		separator();
+		if (value == null || value.isEmpty()) {
+			return this;
+		}
+		// Spreadsheets run cells that start like a formula; these are free text
+		char first = value.charAt(0);
+		boolean formulaLike = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t'
+				|| first == '\r';
+		if (!formulaLike && !needsQuotes(value)) {
+			writer.write(value);
+			return this;
+		}
+		writer.write('"');
+		if (formulaLike) {
+			writer.write('\'');
+		}
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) == '"') {
+				writer.write(value, start, i - start + 1);
+				writer.write('"');
+				start = i + 1;
+			}
+		}
+		writer.write(value, start, value.length() - start);
+		writer.write('"');
+		return this;
+	}
+
+	CsvWriter number(long value) throws IOException {
+		separator();
+		if (value == Long.MIN_VALUE) {
+			writer.write(Long.toString(value));
+			return this;
+		}
+		long remaining = Math.abs(value);
+		int pos = digits.length;
+		do {
+			digits[--pos] = (char) ('0' + remaining % 10);
+			remaining /= 10;
+		} while (remaining > 0);
+		if (value < 0) {
+			digits[--pos] = '-';
+		}
+		writer.write(digits, pos, digits.length - pos);
+		return this;
+	}
+
+	CsvWriter number(Integer value) throws IOException {
+		if (value == null) {
+			return text(null);
+		}
+		return number(value.longValue());
+	}
+
+	// Plain notation, no grouping or currency sign, so tools read it as a number
+	CsvWriter number(BigDecimal value) throws IOException {
+		separator();
+		if (value != null) {
+			writer.write(value.toPlainString());
+		}
+		return this;
+	}
+
+	CsvWriter date(TemporalAccessor value, DateTimeFormatter format) throws IOException {
+		separator();
+		if (value != null) {
+			format.formatTo(value, writer);
+		}
+		return this;
+	}
+
+	CsvWriter endRow() throws IOException {
+		writer.write("\r\n");
+		rowStarted = false;
+		return this;
+	}
+
+	void flush() throws IOException {
+		writer.flush();
+	}
+
+	private void separator() throws IOException {
+		if (rowStarted) {
+			writer.write(',');
+		}
+		rowStarted = true;
+	}
+
+	private static boolean needsQuotes(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -28,6 +28,8 @@ public interface CustomerService {
 
 	Page<User> searchCustomers(String keyword, Pageable pageable);
 
+	long countAllCustomers();
+
 	long countActiveCustomers();
 
 	long countInactiveCustomers();
@@ -332,6 +332,12 @@ public class CustomerServiceImpl implements CustomerService {
 		userRepository.deleteById(id);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public long countAllCustomers() {
+		return userRepository.countByRole_Name(CUSTOMER_ROLE_NAME);
+	}
+
 	@Override
 	@Transactional(readOnly = true)
 	public long countActiveCustomers() {
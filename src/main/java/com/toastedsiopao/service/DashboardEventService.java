@@ -0,0 +1,51 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Order;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+
+/**
+ * Pushes dashboard deltas to open admin tabs over Server-Sent Events, so the
+ * page patches its counters and charts instead of being reloaded. Emitters are
+ * async requests: an idle tab holds a connection, not a servlet thread.
+ * <p>
+ * Every event carries an increasing id and every dashboard snapshot records the
+ * last id it includes, so a tab that fetches a new baseline (on each connect and
+ * every {@code dashboard.events.resync-seconds}) can replay only the newer events.
+ * Emitters and ids are per node: a tab only hears about writes committed on the
+ * node that serves its stream and picks up the other nodes' writes at its next
+ * resync. This relies on sticky admin sessions, so the stream and the baseline
+ * come from the same node; event ids ({@code <nodeId>-<n>}) and baselines carry
+ * the node id, and a tab whose baseline came from another node refetches it
+ * instead of comparing ids.
+ */
+public interface DashboardEventService {
+
+	String EVENT_ORDER = "order";
+	String EVENT_STOCK = "stock";
+
+	String STOCK_ITEMS = "items";
+	String STOCK_PRODUCTS = "products";
+
+	SseEmitter subscribe();
+
+	// Random per process start
+	String nodeId();
+
+	// Id of the newest event handed out so far; anything a later query sees has a higher id or none
+	long lastEventId();
+
+	/**
+	 * Call after an order is created ({@code previousStatus} is {@code null}) or
+	 * moves to another status. {@code cogs} is only needed once it is delivered.
+	 * Sent after the surrounding transaction commits.
+	 */
+	void orderChanged(Order order, String previousStatus, BigDecimal cogs);
+
+	// Sends the new low / critical / out-of-stock counts; the caller has already committed
+	void stockGaugeChanged(String kind, StockAlertService.StockGauge gauge);
+
+	// Keeps idle connections alive through proxies and drops the ones that are gone
+	void sendHeartbeat();
+}
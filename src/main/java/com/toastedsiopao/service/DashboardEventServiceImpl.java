@@ -0,0 +1,171 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Order;
+import com.toastedsiopao.model.OrderItem;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class DashboardEventServiceImpl implements DashboardEventService {
+
+	private static final Logger log = LoggerFactory.getLogger(DashboardEventServiceImpl.class);
+
+	@Autowired
+	private Clock clock;
+
+	@Value("${dashboard.events.timeout-minutes:30}")
+	private long timeoutMinutes;
+
+	private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+	private final AtomicLong eventIds = new AtomicLong();
+
+	// New on every start, so ids from a restarted or different node never compare
+	private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+	// One sender thread, so a slow tab delays other tabs, never the request that committed
+	private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "dashboard-events");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@PreDestroy
+	public void shutdown() {
+		sender.shutdownNow();
+		emitters.forEach(SseEmitter::complete);
+		emitters.clear();
+	}
+
+	@Override
+	public SseEmitter subscribe() {
+		// The browser's EventSource reconnects by itself once this times out
+		SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+		emitter.onCompletion(() -> emitters.remove(emitter));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> emitters.remove(emitter));
+		emitters.add(emitter);
+		log.debug("Dashboard event stream opened ({} open).", emitters.size());
+		return emitter;
+	}
+
+	@Override
+	public String nodeId() {
+		return nodeId;
+	}
+
+	@Override
+	public long lastEventId() {
+		return eventIds.get();
+	}
+
+	@Override
+	public void orderChanged(Order order, String previousStatus, BigDecimal cogs) {
+		Map<String, Object> delta = new LinkedHashMap<>();
+		delta.put("orderId", order.getId());
+		delta.put("previousStatus", previousStatus);
+		delta.put("status", order.getStatus());
+		delta.put("amount", order.getTotalAmount());
+		if (Order.STATUS_DELIVERED.equals(order.getStatus())) {
+			delta.put("cogs", cogs != null ? cogs : BigDecimal.ZERO);
+			delta.put("day", order.getOrderDate().toLocalDate().toString());
+			delta.put("periods", salesPeriods(order.getOrderDate()));
+			List<Map<String, Object>> items = new ArrayList<>();
+			for (OrderItem item : order.getItems()) {
+				items.add(Map.of("name", item.getProduct().getName(), "quantity", item.getQuantity()));
+			}
+			delta.put("items", items);
+		}
+		TransactionCallbacks.afterCommit(() -> broadcast(EVENT_ORDER, delta));
+	}
+
+	@Override
+	public void stockGaugeChanged(String kind, StockAlertService.StockGauge gauge) {
+		broadcast(EVENT_STOCK, Map.of("kind", kind, "low", gauge.low(), "critical", gauge.critical(),
+				"outOfStock", gauge.outOfStock()));
+	}
+
+	@Override
+	public void sendHeartbeat() {
+		if (emitters.isEmpty()) {
+			return;
+		}
+		submit(() -> {
+			for (SseEmitter emitter : emitters) {
+				send(emitter, SseEmitter.event().comment("heartbeat"));
+			}
+		});
+	}
+
+	// Which of the dashboard's sales totals (today / week / month) include this order
+	private List<String> salesPeriods(LocalDateTime orderDate) {
+		LocalDateTime now = LocalDateTime.now(clock);
+		List<String> periods = new ArrayList<>(3);
+		if (!orderDate.isBefore(now.with(LocalTime.MIN))) {
+			periods.add("today");
+		}
+		if (!orderDate.isBefore(now.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).with(LocalTime.MIN))) {
+			periods.add("week");
+		}
+		if (!orderDate.isBefore(now.with(TemporalAdjusters.firstDayOfMonth()).with(LocalTime.MIN))) {
+			periods.add("month");
+		}
+		return periods;
+	}
+
+	// The id is taken here, after the commit, so a snapshot started later includes the change
+	private void broadcast(String name, Map<String, Object> data) {
+		String id = nodeId + "-" + eventIds.incrementAndGet();
+		if (emitters.isEmpty()) {
+			return;
+		}
+		submit(() -> {
+			for (SseEmitter emitter : emitters) {
+				send(emitter, SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON));
+			}
+		});
+	}
+
+	private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+		try {
+			emitter.send(event);
+		} catch (IOException | IllegalStateException e) {
+			// The tab is gone; onError/onCompletion may not fire until the next dispatch
+			emitters.remove(emitter);
+			emitter.completeWithError(e);
+		}
+	}
+
+	private void submit(Runnable task) {
+		try {
+			sender.execute(task);
+		} catch (RejectedExecutionException e) {
+			log.debug("Dashboard event dropped during shutdown.");
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.toastedsiopao.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the admin dashboard from a snapshot that is rebuilt in the background
+ * every {@code dashboard.snapshot.refresh-seconds}, so a page view costs no
+ * queries. The metric queries of one rebuild run in parallel on a small pool.
+ */
+public interface DashboardService {
+
+	record TopProduct(String name, String imageUrl, BigDecimal price, long quantity) {
+	}
+
+	// lastEventId: newest dashboard event the snapshot's queries already include
+	record DashboardSnapshot(LocalDateTime asOf, long buildMillis, long lastEventId,
+			BigDecimal salesToday, BigDecimal salesThisWeek, BigDecimal salesThisMonth,
+			BigDecimal cogsToday, BigDecimal cogsThisWeek, BigDecimal cogsThisMonth,
+			BigDecimal totalRevenue, long totalTransactions, BigDecimal potentialRevenue,
+			Map<String, Long> orderStatusCounts,
+			long totalInventoryItems, InventoryValuationService.Valuation valuation,
+			long lowStockItems, long criticalStockItems, long outOfStockItems,
+			long totalProducts, long lowStockProducts, long criticalStockProducts, long outOfStockProducts,
+			MetricsService.WasteMetrics waste,
+			long totalCustomers, long activeCustomers, long newCustomersThisMonth, long totalAdmins,
+			List<TopProduct> topProducts) {
+
+		public BigDecimal averageOrderValue() {
+			return totalTransactions > 0
+					? totalRevenue.divide(new BigDecimal(totalTransactions), 2, RoundingMode.HALF_UP)
+					: BigDecimal.ZERO;
+		}
+
+		public long totalOrders() {
+			return orderStatusCounts.values().stream().mapToLong(Long::longValue).sum();
+		}
+
+		public long orderCount(String status) {
+			return orderStatusCounts.getOrDefault(status, 0L);
+		}
+	}
+
+	// Builds the first snapshot on demand if the background refresh has not run yet
+	DashboardSnapshot getSnapshot();
+
+	/**
+	 * Rebuilds the snapshot now. Callers that arrive while a rebuild is running
+	 * wait for it and get its result instead of starting another one.
+	 */
+	DashboardSnapshot refresh();
+}
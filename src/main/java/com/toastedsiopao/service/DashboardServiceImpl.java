@@ -0,0 +1,166 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+	private static final Logger log = LoggerFactory.getLogger(DashboardServiceImpl.class);
+
+	private static final int TOP_PRODUCT_LIMIT = 5;
+	// One rebuild submits about 25 queries; anything beyond that is a bug, not load
+	private static final int QUEUE_CAPACITY = 64;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private InventoryItemService inventoryItemService;
+
+	@Autowired
+	private InventoryValuationService inventoryValuationService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private MetricsService metricsService;
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private AdminService adminService;
+
+	@Autowired
+	private DashboardEventService dashboardEventService;
+
+	@Autowired
+	private Clock clock;
+
+	// Each worker holds a pooled connection while its query runs
+	@Value("${dashboard.snapshot.threads:4}")
+	private int threads;
+
+	private final Object refreshLock = new Object();
+	private volatile DashboardSnapshot snapshot;
+	private volatile long snapshotBuiltAt;
+
+	private ThreadPoolExecutor executor;
+
+	@PostConstruct
+	public void init() {
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+					Thread thread = new Thread(runnable, "dashboard-snapshot-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	@Override
+	public DashboardSnapshot getSnapshot() {
+		DashboardSnapshot current = snapshot;
+		return current != null ? current : refresh();
+	}
+
+	@Override
+	public DashboardSnapshot refresh() {
+		long requestedAt = System.nanoTime();
+		synchronized (refreshLock) {
+			DashboardSnapshot current = snapshot;
+			if (current != null && snapshotBuiltAt - requestedAt > 0) {
+				return current;
+			}
+			DashboardSnapshot built = build();
+			snapshot = built;
+			snapshotBuiltAt = System.nanoTime();
+			log.debug("Dashboard snapshot rebuilt in {} ms.", built.buildMillis());
+			return built;
+		}
+	}
+
+	private DashboardSnapshot build() {
+		long started = System.nanoTime();
+		LocalDateTime now = LocalDateTime.now(clock);
+		// Read before the queries, so tabs replay every later event; one committed mid-build
+		// may then count twice until the next resync
+		long lastEventId = dashboardEventService.lastEventId();
+
+		var salesToday = async(orderService::getSalesToday);
+		var salesThisWeek = async(orderService::getSalesThisWeek);
+		var salesThisMonth = async(orderService::getSalesThisMonth);
+		var cogsToday = async(orderService::getCogsToday);
+		var cogsThisWeek = async(orderService::getCogsThisWeek);
+		var cogsThisMonth = async(orderService::getCogsThisMonth);
+		var totalRevenue = async(orderService::getTotalRevenueAllTime);
+		var totalTransactions = async(orderService::getTotalTransactionsAllTime);
+		var potentialRevenue = async(orderService::getTotalPotentialRevenue);
+		var orderStatusCounts = async(() -> Map.copyOf(orderService.getOrderStatusCounts()));
+
+		var totalInventoryItems = async(inventoryItemService::countAllItems);
+		var valuation = async(inventoryValuationService::getCurrentValuation);
+		var lowStockItems = async(inventoryItemService::countLowStockItems);
+		var criticalStockItems = async(inventoryItemService::countCriticalStockItems);
+		var outOfStockItems = async(inventoryItemService::countOutOfStockItems);
+
+		var totalProducts = async(productService::countAllProducts);
+		var lowStockProducts = async(productService::countLowStockProducts);
+		var criticalStockProducts = async(productService::countCriticalStockProducts);
+		var outOfStockProducts = async(productService::countOutOfStockProducts);
+
+		var waste = async(() -> metricsService.getWasteMetrics(null, null, null, null, null));
+
+		var totalCustomers = async(customerService::countAllCustomers);
+		var activeCustomers = async(customerService::countActiveCustomers);
+		var newCustomersThisMonth = async(customerService::countNewCustomersThisMonth);
+		var totalAdmins = async(adminService::countAllAdmins);
+
+		var topProducts = async(() -> orderService.getTopSellingProducts(TOP_PRODUCT_LIMIT).stream().map(row -> {
+			Product product = (Product) row.get("product");
+			return new TopProduct(product.getName(), product.getImageUrl(), product.getPrice(),
+					(Long) row.get("quantity"));
+		}).toList());
+
+		return new DashboardSnapshot(now, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), lastEventId,
+				salesToday.join(), salesThisWeek.join(), salesThisMonth.join(),
+				cogsToday.join(), cogsThisWeek.join(), cogsThisMonth.join(),
+				totalRevenue.join(), totalTransactions.join(), potentialRevenue.join(),
+				orderStatusCounts.join(),
+				totalInventoryItems.join(), valuation.join(),
+				lowStockItems.join(), criticalStockItems.join(), outOfStockItems.join(),
+				totalProducts.join(), lowStockProducts.join(), criticalStockProducts.join(), outOfStockProducts.join(),
+				waste.join(),
+				totalCustomers.join(), activeCustomers.join(), newCustomersThisMonth.join(), totalAdmins.join(),
+				topProducts.join());
+	}
+
+	private <T> CompletableFuture<T> async(Supplier<T> query) {
+		return CompletableFuture.supplyAsync(query, executor);
+	}
+}
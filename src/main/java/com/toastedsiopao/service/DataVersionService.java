@@ -0,0 +1,32 @@
+package com.toastedsiopao.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Change counters per kind of data, shared by all nodes through the
+ * data_versions table. Anything cached from that data (report files, in-memory
+ * indexes) is keyed by or rebuilt on these versions, so a write on one node
+ * reaches the caches of the others.
+ * <p>
+ * A bump runs in its own short transaction after the writing one commits, so
+ * writers never queue on the version rows; readers can see new data under the
+ * old version for that moment.
+ */
+public interface DataVersionService {
+
+	String DATA_ORDERS = "orders";
+	String DATA_INVENTORY = "inventory";
+	String DATA_PRODUCTS = "products";
+	String DATA_WASTE = "waste";
+	String DATA_SETTINGS = "settings";
+
+	// Bumped once per data type after the current transaction commits
+	void dataChanged(String dataType);
+
+	// Committed versions by data type; a type never written is missing (version 0)
+	Map<String, Long> getVersions();
+
+	// Committed versions of just these types, 0 for a type never written
+	Map<String, Long> getVersions(Collection<String> dataTypes);
+}
@@ -0,0 +1,86 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.DataVersion;
+import com.toastedsiopao.repository.DataVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Service
+public class DataVersionServiceImpl implements DataVersionService {
+
+	private static final Logger log = LoggerFactory.getLogger(DataVersionServiceImpl.class);
+
+	@Autowired
+	private DataVersionRepository dataVersionRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	// The data types one transaction changed; sorted, so concurrent bumps lock rows in the same order
+	private class PendingBumps implements TransactionSynchronization {
+
+		private final Set<String> dataTypes = new TreeSet<>();
+
+		@Override
+		public void afterCommit() {
+			bump(dataTypes);
+		}
+	}
+
+	@Override
+	public void dataChanged(String dataType) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			bump(Set.of(dataType));
+			return;
+		}
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if (synchronization instanceof PendingBumps pending) {
+				pending.dataTypes.add(dataType);
+				return;
+			}
+		}
+		PendingBumps pending = new PendingBumps();
+		pending.dataTypes.add(dataType);
+		TransactionSynchronizationManager.registerSynchronization(pending);
+	}
+
+	@Override
+	public Map<String, Long> getVersions() {
+		Map<String, Long> versions = new HashMap<>();
+		for (DataVersion version : dataVersionRepository.findAll()) {
+			versions.put(version.getDataType(), version.getVersion());
+		}
+		return versions;
+	}
+
+	@Override
+	public Map<String, Long> getVersions(Collection<String> dataTypes) {
+		Map<String, Long> all = getVersions();
+		Map<String, Long> versions = new HashMap<>();
+		for (String dataType : dataTypes) {
+			versions.put(dataType, all.getOrDefault(dataType, 0L));
+		}
+		return versions;
+	}
+
+	private void bump(Set<String> dataTypes) {
+		try {
+			TransactionCallbacks.newTransaction(transactionManager)
+					.executeWithoutResult(status -> dataTypes.forEach(dataVersionRepository::bump));
+		} catch (RuntimeException e) {
+			// The write itself has committed; caches catch up with the next bump of these types
+			log.error("Failed to bump data version(s) {}: {}", dataTypes, e.getMessage(), e);
+		}
+	}
+}
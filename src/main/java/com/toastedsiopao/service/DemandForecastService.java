@@ -0,0 +1,26 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryItem;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Per-product daily demand forecasts (exponential smoothing with day-of-week
+ * factors) pushed through the recipes to ingredient usage rates.
+ */
+public interface DemandForecastService {
+
+	/**
+	 * {@code reorderPoint} is expected usage over the restock lead time plus safety
+	 * stock. {@code daysOfCover} is {@code null} when the item has no forecast usage.
+	 */
+	record ItemForecast(BigDecimal dailyUsage, BigDecimal reorderPoint, BigDecimal daysOfCover) {
+	}
+
+	/** Folds every order day since the last run into the product models. */
+	void advanceForecasts();
+
+	Map<Long, ItemForecast> getItemForecasts(Collection<InventoryItem> items);
+}
@@ -0,0 +1,226 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryItem;
+import com.toastedsiopao.model.ProductDemandForecast;
+import com.toastedsiopao.repository.OrderRepository;
+import com.toastedsiopao.repository.ProductDemandForecastRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import com.toastedsiopao.repository.RecipeIngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class DemandForecastServiceImpl implements DemandForecastService {
+
+	private static final Logger log = LoggerFactory.getLogger(DemandForecastServiceImpl.class);
+
+	// Weight of the newest day in the smoothed absolute error
+	private static final double ERROR_SMOOTHING = 0.1;
+	// Normal-error approximation: sigma ~ 1.25 x mean absolute deviation
+	private static final double MAD_TO_SIGMA = 1.25;
+	private static final double MIN_FACTOR = 0.1;
+	private static final double MAX_FACTOR = 5.0;
+
+	private record UsageRate(double daily, double leadTime, double leadTimeSigma) {
+	}
+
+	@Autowired
+	private ProductDemandForecastRepository forecastRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private RecipeIngredientRepository recipeIngredientRepository;
+
+	@Autowired
+	private Clock clock;
+
+	@Value("${forecast.level-smoothing:0.2}")
+	private double levelSmoothing;
+
+	@Value("${forecast.seasonal-smoothing:0.1}")
+	private double seasonalSmoothing;
+
+	@Value("${forecast.bootstrap-days:56}")
+	private int bootstrapDays;
+
+	@Value("${forecast.lead-time-days:2}")
+	private int leadTimeDays;
+
+	@Value("${forecast.safety-factor:1.65}")
+	private double safetyFactor;
+
+	private volatile Map<Long, UsageRate> usageByItem = Map.of();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		int backfilled = orderRepository.backfillDeliveredAt();
+		if (backfilled > 0) {
+			log.info("Backfilled the delivery time of {} delivered order(s).", backfilled);
+		}
+		// Catches up on nights the app was down; a no-op when already current
+		advanceForecasts();
+	}
+
+	@Override
+	public void advanceForecasts() {
+		LocalDate yesterday = LocalDate.now(clock).minusDays(1);
+		LocalDate windowStart = yesterday.minusDays(bootstrapDays - 1L);
+
+		Set<Long> productIds = productRepository.findAllStockLevels().stream().map(row -> (Long) row[0])
+				.collect(Collectors.toSet());
+		Map<Long, ProductDemandForecast> forecasts = new HashMap<>();
+		List<ProductDemandForecast> removed = new ArrayList<>();
+		for (ProductDemandForecast forecast : forecastRepository.findAll()) {
+			if (productIds.contains(forecast.getProductId())) {
+				forecasts.put(forecast.getProductId(), forecast);
+			} else {
+				removed.add(forecast);
+			}
+		}
+		// New products are seeded from the bootstrap window of history
+		for (Long productId : productIds) {
+			forecasts.computeIfAbsent(productId, id -> new ProductDemandForecast(id, windowStart.minusDays(1)));
+		}
+
+		LocalDate from = forecasts.values().stream().map(ProductDemandForecast::getLastObservedDate)
+				.min(LocalDate::compareTo).orElse(yesterday).plusDays(1);
+		if (from.isBefore(windowStart)) {
+			from = windowStart;
+		}
+
+		// Days are bucketed by delivery, so an order delivered today is folded in
+		// tomorrow, however long ago it was placed
+		int daysProcessed = 0;
+		for (LocalDate day = from; !day.isAfter(yesterday); day = day.plusDays(1)) {
+			Map<Long, Long> demand = new HashMap<>();
+			for (Object[] row : orderRepository.sumDeliveredQuantityByProduct(day.atStartOfDay(),
+					day.plusDays(1).atStartOfDay())) {
+				demand.put((Long) row[0], (Long) row[1]);
+			}
+			for (ProductDemandForecast forecast : forecasts.values()) {
+				if (forecast.getLastObservedDate().isBefore(day)) {
+					observe(forecast, day, demand.getOrDefault(forecast.getProductId(), 0L));
+				}
+			}
+			daysProcessed++;
+		}
+
+		forecastRepository.deleteAll(removed);
+		forecastRepository.saveAll(forecasts.values());
+		rebuildUsageRates(forecasts.values());
+		log.info("Advanced demand forecasts for {} product(s) over {} day(s).", forecasts.size(), daysProcessed);
+	}
+
+	private void observe(ProductDemandForecast forecast, LocalDate day, double demand) {
+		DayOfWeek dayOfWeek = day.getDayOfWeek();
+		if (forecast.getObservations() == 0) {
+			forecast.setLevel(demand);
+		} else {
+			double factor = forecast.getFactor(dayOfWeek);
+			double error = Math.abs(demand - forecast.forecastFor(dayOfWeek));
+			forecast.setMeanAbsoluteError(
+					ERROR_SMOOTHING * error + (1 - ERROR_SMOOTHING) * forecast.getMeanAbsoluteError());
+
+			double level = levelSmoothing * (demand / factor) + (1 - levelSmoothing) * forecast.getLevel();
+			forecast.setLevel(level);
+			if (level > 0) {
+				double updated = seasonalSmoothing * (demand / level) + (1 - seasonalSmoothing) * factor;
+				forecast.setFactor(dayOfWeek, Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, updated)));
+				normalizeFactors(forecast);
+			}
+		}
+		forecast.setLastObservedDate(day);
+		forecast.setObservations(forecast.getObservations() + 1);
+	}
+
+	// Keeps the weekly factors averaging 1, so level stays the plain daily mean
+	private void normalizeFactors(ProductDemandForecast forecast) {
+		double sum = 0;
+		for (DayOfWeek day : DayOfWeek.values()) {
+			sum += forecast.getFactor(day);
+		}
+		double scale = DayOfWeek.values().length / sum;
+		for (DayOfWeek day : DayOfWeek.values()) {
+			forecast.setFactor(day, forecast.getFactor(day) * scale);
+		}
+	}
+
+	private void rebuildUsageRates(Collection<ProductDemandForecast> forecasts) {
+		LocalDate today = LocalDate.now(clock);
+		Map<Long, double[]> productDemand = new HashMap<>(); // [daily, lead time, lead time sigma]
+		for (ProductDemandForecast forecast : forecasts) {
+			double leadTime = 0;
+			for (int i = 0; i < leadTimeDays; i++) {
+				leadTime += forecast.forecastFor(today.plusDays(i).getDayOfWeek());
+			}
+			double sigma = MAD_TO_SIGMA * forecast.getMeanAbsoluteError() * Math.sqrt(leadTimeDays);
+			productDemand.put(forecast.getProductId(), new double[] { forecast.getLevel(), leadTime, sigma });
+		}
+
+		Map<Long, double[]> itemTotals = new HashMap<>(); // [daily, lead time, lead time variance]
+		for (Object[] row : recipeIngredientRepository.findAllRecipeLines()) {
+			double[] demand = productDemand.get((Long) row[0]);
+			BigDecimal quantityNeeded = (BigDecimal) row[2];
+			if (demand == null || quantityNeeded == null || quantityNeeded.signum() <= 0) {
+				continue;
+			}
+			double perUnit = quantityNeeded.doubleValue();
+			double[] totals = itemTotals.computeIfAbsent((Long) row[1], id -> new double[3]);
+			totals[0] += perUnit * demand[0];
+			totals[1] += perUnit * demand[1];
+			// Products are treated as independent, so variances add
+			totals[2] += Math.pow(perUnit * demand[2], 2);
+		}
+
+		Map<Long, UsageRate> rates = new HashMap<>();
+		itemTotals.forEach((itemId, totals) -> rates.put(itemId,
+				new UsageRate(totals[0], totals[1], Math.sqrt(totals[2]))));
+		usageByItem = rates;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<Long, ItemForecast> getItemForecasts(Collection<InventoryItem> items) {
+		Map<Long, UsageRate> rates = usageByItem;
+		Map<Long, ItemForecast> result = new HashMap<>();
+		for (InventoryItem item : items) {
+			UsageRate rate = rates.get(item.getId());
+			if (rate == null || rate.daily() <= 0) {
+				result.put(item.getId(), new ItemForecast(BigDecimal.ZERO, BigDecimal.ZERO, null));
+				continue;
+			}
+			BigDecimal dailyUsage = BigDecimal.valueOf(rate.daily()).setScale(2, RoundingMode.HALF_UP);
+			BigDecimal reorderPoint = BigDecimal.valueOf(rate.leadTime() + safetyFactor * rate.leadTimeSigma())
+					.setScale(2, RoundingMode.CEILING);
+			BigDecimal daysOfCover = item.getCurrentStock().divide(BigDecimal.valueOf(rate.daily()), 1,
+					RoundingMode.FLOOR);
+			result.put(item.getId(), new ItemForecast(dailyUsage, reorderPoint, daysOfCover));
+		}
+		return result;
+	}
+}
@@ -3,6 +3,13 @@ package com.toastedsiopao.service;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
 public interface FileStorageService {
 
 	void init();
@@ -10,6 +17,27 @@ public interface FileStorageService {
 	String store(MultipartFile file);
 
 	void delete(String filename);
-	
+
 	Resource loadAsResource(String filename);
-}
\ No newline at end of file
+
+	Path loadAsPath(String filename);
+
+	StorageBackend.ObjectInfo stat(String filename) throws IOException;
+
+	InputStream openRange(String filename, long offset, long length) throws IOException;
+
+	boolean isContentAddressed(String filename);
+
+	String toUploadUrl(String filename);
+
+	void forEachStoredObject(BiConsumer<String, StorageBackend.ObjectInfo> visitor) throws IOException;
+
+	/**
+	 * Deletes an upload that nothing references any more. Skipped when the file
+	 * was (re)stored after {@code storedBefore}. Returns {@code true} if removed.
+	 */
+	boolean purgeOrphan(String filename, LocalDateTime storedBefore) throws IOException;
+
+	/** Removes staged uploads left behind by requests that died mid-upload. */
+	long purgeStaleStagingFiles(Instant olderThan) throws IOException;
+}
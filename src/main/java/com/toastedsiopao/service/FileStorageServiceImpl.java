@@ -1,33 +1,70 @@
 package com.toastedsiopao.service;
 
+import com.toastedsiopao.model.StoredFile;
+import com.toastedsiopao.repository.StoredFileRepository;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource; 
-import org.springframework.core.io.UrlResource; 
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException; 
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
 
 @Service
 public class FileStorageServiceImpl implements FileStorageService {
 
 	private static final Logger log = LoggerFactory.getLogger(FileStorageServiceImpl.class);
 
+	public static final String UPLOAD_URL_PREFIX = "/img/uploads/";
+	private static final String TEMP_DIR_NAME = ".incoming";
+	private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("^[0-9a-f]{64}(\\.[a-z0-9]{1,10})?$");
+	private static final Pattern SAFE_EXTENSION = Pattern.compile("^\\.[a-z0-9]{1,10}$");
+
 	@Value("${file.upload-dir}")
 	private String uploadDir;
 
+	@Autowired
+	private StoredFileRepository storedFileRepository;
+
+	@Autowired
+	private StorageBackend storageBackend;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private Clock clock;
+
 	private Path rootLocation;
+	private Path tempLocation;
 
 	@Override
 	@PostConstruct
@@ -40,6 +77,9 @@ public class FileStorageServiceImpl implements FileStorageService {
 			} else {
 				log.info("Upload directory already exists: {}", rootLocation);
 			}
+			// Staging area lives inside the upload dir so the final move is a same-disk rename
+			tempLocation = rootLocation.resolve(TEMP_DIR_NAME);
+			Files.createDirectories(tempLocation);
 		} catch (IOException e) {
 			log.error("Could not initialize storage location", e);
 			throw new RuntimeException("Could not initialize storage location", e);
@@ -47,6 +87,7 @@ public class FileStorageServiceImpl implements FileStorageService {
 	}
 
 	@Override
+	@Transactional
 	public String store(MultipartFile file) {
 		if (file == null || file.isEmpty()) {
 			throw new IllegalArgumentException("Failed to store empty file.");
@@ -57,54 +98,94 @@ public class FileStorageServiceImpl implements FileStorageService {
 			throw new IllegalArgumentException("Cannot store file with relative path: " + originalFilename);
 		}
 
-		String fileExtension = "";
-		try {
-			fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-		} catch (Exception e) {
-			log.warn("Could not determine file extension for: {}", originalFilename);
-		}
-		String newFilename = UUID.randomUUID().toString() + fileExtension;
+		String fileExtension = extractExtension(originalFilename);
+		Path tempFile = tempLocation.resolve(UUID.randomUUID().toString() + ".tmp");
 
-		try (InputStream inputStream = file.getInputStream()) {
-			Path destinationFile = this.rootLocation.resolve(newFilename);
+		try {
+			// Hash while copying so the bytes are only read once
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			long size;
+			try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+				size = Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			String contentHash = HexFormat.of().formatHex(digest.digest());
+			String newFilename = contentHash + fileExtension;
 
-			Path absoluteDestination = destinationFile.normalize().toAbsolutePath();
-			Path absoluteRoot = this.rootLocation.normalize().toAbsolutePath();
+			// Taking the reference first holds the row lock across the upload below
+			storedFileRepository.addReference(newFilename, contentHash, size, LocalDateTime.now(clock));
 
-			if (!absoluteDestination.startsWith(absoluteRoot)) {
-				throw new IllegalArgumentException("Cannot store file outside current directory.");
+			if (storageBackend.exists(newFilename)) {
+				log.info("Deduplicated upload '{}' to existing file: {}", originalFilename, newFilename);
+			} else {
+				storageBackend.put(newFilename, tempFile, contentHash, file.getContentType());
+				log.info("Stored file: {}", newFilename);
 			}
-			
-			Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
-			log.info("Stored file: {}", newFilename);
 
-			return "/img/uploads/" + newFilename;
+			return UPLOAD_URL_PREFIX + newFilename;
 
 		} catch (IOException e) {
-			log.error("Failed to store file: {}", newFilename, e);
+			log.error("Failed to store file: {}", originalFilename, e);
 			throw new RuntimeException("Failed to store file", e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+		} finally {
+			try {
+				Files.deleteIfExists(tempFile);
+			} catch (IOException e) {
+				log.warn("Could not clean up temp upload file: {}", tempFile);
+			}
 		}
 	}
 
 	@Override
+	@Transactional
 	public void delete(String filename) {
 		if (!StringUtils.hasText(filename)) {
 			log.warn("Attempted to delete file with empty filename.");
 			return;
 		}
 
-		try {
-			String actualFilename = Paths.get(filename).getFileName().toString();
-			Path file = rootLocation.resolve(actualFilename);
-			if (Files.exists(file)) {
-				Files.delete(file);
-				log.info("Deleted file: {}", actualFilename);
-			} else {
-				log.warn("Attempted to delete non-existent file: {}", actualFilename);
+		String actualFilename = Paths.get(filename).getFileName().toString();
+		Optional<StoredFile> storedFileOpt = storedFileRepository.findByIdForUpdate(actualFilename);
+		if (storedFileOpt.isPresent()) {
+			StoredFile storedFile = storedFileOpt.get();
+			int remaining = storedFile.getReferenceCount() - 1;
+			if (remaining > 0) {
+				storedFile.setReferenceCount(remaining);
+				storedFileRepository.save(storedFile);
+				log.info("Released reference to file {}. {} reference(s) remain.", actualFilename, remaining);
+				return;
 			}
-		} catch (IOException e) {
-			log.error("Failed to delete file: {}", filename, e);
-			throw new RuntimeException("Failed to delete file", e);
+			storedFileRepository.delete(storedFile);
+		}
+
+		// A rollback must not leave the restored row pointing at missing bytes
+		TransactionCallbacks.afterCommit(() -> deleteIfUnreferenced(actualFilename));
+	}
+
+	// Same lock as store(): a dedup hit on these bytes either commits first (and the
+	// file stays) or waits here and then finds the file gone and uploads it again.
+	private void deleteIfUnreferenced(String actualFilename) {
+		try {
+			TransactionCallbacks.newTransaction(transactionManager).executeWithoutResult(status -> {
+				if (storedFileRepository.findByIdForUpdate(actualFilename).isPresent()) {
+					log.info("Kept file {}: it was stored again before the delete ran.", actualFilename);
+					return;
+				}
+				try {
+					if (storageBackend.exists(actualFilename)) {
+						storageBackend.delete(actualFilename);
+						log.info("Deleted file: {}", actualFilename);
+					} else {
+						log.warn("Attempted to delete non-existent file: {}", actualFilename);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (RuntimeException e) {
+			// The upload cleanup job removes unreferenced files the next time it runs
+			log.error("Failed to delete file: {}", actualFilename, e);
 		}
 	}
 
@@ -113,20 +194,122 @@ public class FileStorageServiceImpl implements FileStorageService {
 		if (!StringUtils.hasText(filename)) {
 			return null;
 		}
+		String actualFilename = Paths.get(filename).getFileName().toString();
 		try {
-			String actualFilename = Paths.get(filename).getFileName().toString();
-			Path file = rootLocation.resolve(actualFilename);
-			Resource resource = new UrlResource(file.toUri());
-
-			if (resource.exists() || resource.isReadable()) {
-				return resource;
-			} else {
+			Path localFile = storageBackend.localPath(actualFilename);
+			if (localFile != null) {
+				return new UrlResource(localFile.toUri());
+			}
+			StorageBackend.ObjectInfo info = storageBackend.stat(actualFilename);
+			if (info == null) {
 				log.warn("Could not read file: {}", filename);
 				return null;
 			}
+			return new InputStreamResource(storageBackend.open(actualFilename, 0, info.size()));
 		} catch (MalformedURLException e) {
 			log.error("Could not create URL for file: {}", filename, e);
 			return null;
+		} catch (IOException e) {
+			log.error("Could not open file: {}", filename, e);
+			return null;
+		}
+	}
+
+	@Override
+	public Path loadAsPath(String filename) {
+		String actualFilename = toStorageKey(filename);
+		return actualFilename != null ? storageBackend.localPath(actualFilename) : null;
+	}
+
+	@Override
+	public StorageBackend.ObjectInfo stat(String filename) throws IOException {
+		String actualFilename = toStorageKey(filename);
+		return actualFilename != null ? storageBackend.stat(actualFilename) : null;
+	}
+
+	@Override
+	public InputStream openRange(String filename, long offset, long length) throws IOException {
+		String actualFilename = toStorageKey(filename);
+		if (actualFilename == null) {
+			throw new IllegalArgumentException("Invalid upload name: " + filename);
+		}
+		return storageBackend.open(actualFilename, offset, length);
+	}
+
+	private String toStorageKey(String filename) {
+		if (!StringUtils.hasText(filename)) {
+			return null;
+		}
+		String actualFilename = Paths.get(filename).getFileName().toString();
+		// Dot-names are the staging area, never a served upload
+		return actualFilename.startsWith(".") ? null : actualFilename;
+	}
+
+	@Override
+	public boolean isContentAddressed(String filename) {
+		return StringUtils.hasText(filename)
+				&& CONTENT_ADDRESSED_NAME.matcher(Paths.get(filename).getFileName().toString()).matches();
+	}
+
+	@Override
+	public String toUploadUrl(String filename) {
+		return UPLOAD_URL_PREFIX + filename;
+	}
+
+	@Override
+	public void forEachStoredObject(BiConsumer<String, StorageBackend.ObjectInfo> visitor) throws IOException {
+		storageBackend.forEachObject(visitor);
+	}
+
+	@Override
+	@Transactional
+	public boolean purgeOrphan(String filename, LocalDateTime storedBefore) throws IOException {
+		String actualFilename = toStorageKey(filename);
+		if (actualFilename == null) {
+			return false;
+		}
+		// Same row lock as store(), so a concurrent dedup hit either lands first
+		// (and we back off) or re-creates the file after we are done.
+		Optional<StoredFile> storedFileOpt = storedFileRepository.findByIdForUpdate(actualFilename);
+		if (storedFileOpt.isPresent()) {
+			StoredFile storedFile = storedFileOpt.get();
+			if (storedFile.getLastStoredAt() != null && storedFile.getLastStoredAt().isAfter(storedBefore)) {
+				log.debug("Skipping GC of {}: stored again after the grace cutoff.", actualFilename);
+				return false;
+			}
+			storedFileRepository.delete(storedFile);
+		}
+		storageBackend.delete(actualFilename);
+		return true;
+	}
+
+	@Override
+	public long purgeStaleStagingFiles(Instant olderThan) throws IOException {
+		long reclaimed = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(tempLocation, "*.tmp")) {
+			for (Path entry : stream) {
+				BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+				if (attributes.isRegularFile() && attributes.lastModifiedTime().toInstant().isBefore(olderThan)
+						&& Files.deleteIfExists(entry)) {
+					reclaimed += attributes.size();
+					log.info("Removed stale staged upload: {}", entry.getFileName());
+				}
+			}
+		}
+		return reclaimed;
+	}
+
+	private String extractExtension(String originalFilename) {
+		int dotIndex = originalFilename.lastIndexOf(".");
+		if (dotIndex < 0) {
+			log.warn("Could not determine file extension for: {}", originalFilename);
+			return "";
+		}
+		String extension = originalFilename.substring(dotIndex).toLowerCase();
+		if (!SAFE_EXTENSION.matcher(extension).matches()) {
+			log.warn("Ignoring unsafe file extension '{}' for: {}", extension, originalFilename);
+			return "";
 		}
+		return extension;
 	}
-}
\ No newline at end of file
+}
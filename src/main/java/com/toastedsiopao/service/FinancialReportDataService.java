@@ -0,0 +1,33 @@
+package com.toastedsiopao.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Prepares the rows of the financial report once, so the Excel and PDF exports
+ * only lay them out. COGS, profit and item lines are computed against a single
+ * unit cost snapshot taken when the report starts.
+ */
+public interface FinancialReportDataService {
+
+	record FinancialReportRow(Long orderId, LocalDateTime orderDate, String customerName, List<String> itemLines,
+			BigDecimal sales, BigDecimal cogs, BigDecimal profit) {
+
+		public FinancialReportRow {
+			itemLines = List.copyOf(itemLines);
+		}
+
+		public String items(String separator) {
+			return String.join(separator, itemLines);
+		}
+	}
+
+	/**
+	 * Visits the delivered orders matching the filters, newest first, as prepared
+	 * rows. Orders are read from a cursor and prepared in parallel batches; the
+	 * action runs on the calling thread, in order, and must not query the database.
+	 */
+	void forEachRow(String keyword, LocalDateTime start, LocalDateTime end, Consumer<FinancialReportRow> action);
+}
@@ -0,0 +1,69 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Order;
+import com.toastedsiopao.model.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@Transactional(readOnly = true)
+public class FinancialReportDataServiceImpl implements FinancialReportDataService {
+
+	// Orders buffered off the cursor before a batch is prepared
+	private static final int PREP_BATCH_SIZE = 256;
+	// Below this a batch is cheaper to prepare on the calling thread
+	private static final int PARALLEL_MIN_BATCH = 32;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Override
+	public void forEachRow(String keyword, LocalDateTime start, LocalDateTime end,
+			Consumer<FinancialReportRow> action) {
+		// Not this node's index: the cached report must match the data version it is filed under
+		Map<Long, BigDecimal> unitCosts = productService.loadUnitCosts();
+		List<Order> batch = new ArrayList<>(PREP_BATCH_SIZE);
+
+		// The cursor has to be read on this thread, so only the per-order work is
+		// spread over the common pool, one batch at a time.
+		orderService.forEachDeliveredOrderForReport(keyword, start, end, order -> {
+			batch.add(order);
+			if (batch.size() == PREP_BATCH_SIZE) {
+				prepareBatch(batch, unitCosts).forEach(action);
+				batch.clear();
+			}
+		});
+		prepareBatch(batch, unitCosts).forEach(action);
+	}
+
+	private List<FinancialReportRow> prepareBatch(List<Order> batch, Map<Long, BigDecimal> unitCosts) {
+		Stream<Order> orders = batch.size() >= PARALLEL_MIN_BATCH ? batch.parallelStream() : batch.stream();
+		return orders.map(order -> toRow(order, unitCosts)).toList();
+	}
+
+	private static FinancialReportRow toRow(Order order, Map<Long, BigDecimal> unitCosts) {
+		BigDecimal cogs = BigDecimal.ZERO;
+		List<String> itemLines = new ArrayList<>(order.getItems().size());
+		for (OrderItem item : order.getItems()) {
+			BigDecimal unitCost = unitCosts.getOrDefault(item.getProduct().getId(), BigDecimal.ZERO);
+			cogs = cogs.add(unitCost.multiply(new BigDecimal(item.getQuantity())));
+			itemLines.add(item.getQuantity() + "x " + item.getProduct().getName());
+		}
+		BigDecimal sales = order.getTotalAmount();
+		return new FinancialReportRow(order.getId(), order.getOrderDate(),
+				order.getShippingFirstName() + " " + order.getShippingLastName(), itemLines, sales, cogs,
+				sales.subtract(cogs));
+	}
+}
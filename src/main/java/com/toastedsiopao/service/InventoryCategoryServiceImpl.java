@@ -25,6 +25,9 @@ public class InventoryCategoryServiceImpl implements InventoryCategoryService {
 	@Autowired
 	private InventoryCategoryRepository repository;
 
+	@Autowired
+	private DataVersionService dataVersionService;
+
 	@Autowired
 	private InventoryItemService inventoryItemService;
 
@@ -108,6 +111,8 @@ public class InventoryCategoryServiceImpl implements InventoryCategoryService {
 
 		try {
 			InventoryCategory savedCategory = repository.save(categoryToUpdate);
+			// Reports show the category name
+			dataVersionService.dataChanged(DataVersionService.DATA_INVENTORY);
 			log.info("Updated inventory category: ID={}, Name='{}'", savedCategory.getId(), savedCategory.getName());
 			return savedCategory;
 		} catch (Exception e) {
@@ -0,0 +1,35 @@
+package com.toastedsiopao.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Bulk stock adjustments from an uploaded XLSX or CSV sheet. Rows are streamed,
+ * never loaded whole, and applied in chunks through
+ * {@link InventoryItemService#adjustStock}, so lots, the ledger and alerts stay
+ * in step exactly as with single adjustments.
+ */
+public interface InventoryImportService {
+
+	String FORMAT_XLSX = "xlsx";
+	String FORMAT_CSV = "csv";
+
+	record RowError(long rowNumber, String itemName, String message) {
+	}
+
+	record ImportResult(long rowsRead, long rowsApplied, long rowsUnchanged, long errorCount,
+			List<RowError> errors) {
+	}
+
+	/**
+	 * @param file     the uploaded sheet, already on local disk
+	 * @param format   {@link #FORMAT_XLSX} or {@link #FORMAT_CSV}
+	 * @param username recorded on waste rows in the activity log
+	 */
+	ImportResult importStock(Path file, String format, String username) throws IOException;
+
+	/** Writes a fill-in sheet listing every active item, in the same layout the importer reads. */
+	void writeTemplate(OutputStream out, String format) throws IOException;
+}
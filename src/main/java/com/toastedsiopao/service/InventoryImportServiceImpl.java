@@ -0,0 +1,463 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryItem;
+import com.toastedsiopao.repository.InventoryItemRepository;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+@Service
+public class InventoryImportServiceImpl implements InventoryImportService {
+
+	private static final Logger log = LoggerFactory.getLogger(InventoryImportServiceImpl.class);
+
+	private static final String[] HEADERS = { "Item Name", "Unit", "Current Stock", "Action", "Quantity", "Reason",
+			"Note", "Expiration Days" };
+	private static final int COL_NAME = 0;
+	private static final int COL_ACTION = 3;
+	private static final int COL_QUANTITY = 4;
+	private static final int COL_REASON = 5;
+	private static final int COL_NOTE = 6;
+	private static final int COL_EXPIRATION_DAYS = 7;
+
+	// Same reason categories as the Manage Stock modal
+	private static final List<String> REASONS = List.of("Production", "Manual", "Expired", "Damaged", "Waste");
+	private static final List<String> WASTE_REASONS = List.of("Expired", "Damaged", "Waste");
+
+	// The report is for a human to fix the sheet; past this only the count grows
+	private static final int MAX_REPORTED_ERRORS = 200;
+
+	private record ImportTarget(Long id, String name, String status) {
+	}
+
+	// setTo: the SET quantity, turned into a change against the locked stock when applied
+	private record PendingRow(long rowNumber, ImportTarget target, BigDecimal change, BigDecimal setTo,
+			String reason, String reasonCategory, Integer expirationDays) {
+	}
+
+	@Autowired
+	private InventoryItemRepository inventoryItemRepository;
+
+	@Autowired
+	private InventoryItemService inventoryItemService;
+
+	@Autowired
+	private ActivityLogService activityLogService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${inventory.import.chunk-size:200}")
+	private int chunkSize;
+
+	@Override
+	public ImportResult importStock(Path file, String format, String username) throws IOException {
+		ImportRun run = new ImportRun(username);
+		if (FORMAT_CSV.equals(format)) {
+			readCsv(file, run);
+		} else if (FORMAT_XLSX.equals(format)) {
+			readXlsx(file, run);
+		} else {
+			throw new IllegalArgumentException("Unsupported import format: " + format);
+		}
+		run.flush();
+
+		ImportResult result = new ImportResult(run.rowsRead, run.rowsApplied, run.rowsUnchanged, run.errorCount,
+				run.errors);
+		log.info("Inventory import by {}: {} row(s) read, {} applied, {} unchanged, {} error(s).", username,
+				result.rowsRead(), result.rowsApplied(), result.rowsUnchanged(), result.errorCount());
+		return result;
+	}
+
+	private void readCsv(Path file, ImportRun run) throws IOException {
+		// Record-aware, so a quoted cell with a line break stays one row
+		try (CsvReader reader = new CsvReader(Files.newInputStream(file))) {
+			String[] cells;
+			long rowNumber = 0;
+			while ((cells = reader.next()) != null) {
+				rowNumber++;
+				if (rowNumber == 1) {
+					continue; // header
+				}
+				run.accept(rowNumber, cells);
+			}
+		}
+	}
+
+	private void readXlsx(Path file, ImportRun run) throws IOException {
+		// Event (SAX) reader: rows are handed over as the sheet XML is parsed, so
+		// the workbook is never built in memory the way XSSFWorkbook would.
+		try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			XSSFReader reader = new XSSFReader(pkg);
+			StylesTable styles = reader.getStylesTable();
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+			if (!sheets.hasNext()) {
+				throw new IllegalArgumentException("The workbook has no sheets.");
+			}
+			try (InputStream sheet = sheets.next()) {
+				XMLReader parser = XMLHelper.newXMLReader();
+				parser.setContentHandler(
+						new XSSFSheetXMLHandler(styles, null, strings, new SheetRowHandler(run), new DataFormatter(), false));
+				parser.parse(new InputSource(sheet));
+			}
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IllegalArgumentException("Could not read the uploaded workbook: " + e.getMessage(), e);
+		}
+	}
+
+	private static class SheetRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+		private final ImportRun run;
+		private String[] cells;
+		private int nextColumn;
+
+		SheetRowHandler(ImportRun run) {
+			this.run = run;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			cells = new String[HEADERS.length];
+			nextColumn = 0;
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			if (rowNum > 0) {
+				run.accept(rowNum + 1L, cells);
+			}
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+			nextColumn = column + 1;
+			if (column < cells.length) {
+				cells[column] = formattedValue;
+			}
+		}
+	}
+
+	/**
+	 * State for one upload. Rows are validated against a name map loaded once up
+	 * front and a running per-item stock figure, then buffered into chunks that
+	 * each commit in their own transaction. A chunk saves transactions and lock
+	 * round trips, not statements: every row still goes through adjustStock and
+	 * writes its own item, lot and ledger rows.
+	 */
+	private class ImportRun {
+
+		private final String username;
+		private final Map<String, ImportTarget> targetsByName = new HashMap<>();
+		private final Map<Long, BigDecimal> projectedStock = new HashMap<>();
+		private final List<PendingRow> chunk = new ArrayList<>();
+		private final List<RowError> errors = new ArrayList<>();
+		private long rowsRead;
+		private long rowsApplied;
+		private long rowsUnchanged;
+		private long errorCount;
+		// Rows of the transaction in progress; added to the totals once it commits
+		private long appliedInTransaction;
+		private long unchangedInTransaction;
+
+		ImportRun(String username) {
+			this.username = username;
+			for (Object[] row : inventoryItemRepository.findAllImportTargets()) {
+				ImportTarget target = new ImportTarget((Long) row[0], (String) row[1], (String) row[2]);
+				targetsByName.put(normalize(target.name()), target);
+				projectedStock.put(target.id(), (BigDecimal) row[3]);
+			}
+		}
+
+		void accept(long rowNumber, String[] cells) {
+			String name = cell(cells, COL_NAME);
+			String quantityText = cell(cells, COL_QUANTITY);
+			if (name == null && quantityText == null) {
+				return; // blank line
+			}
+			rowsRead++;
+			if (quantityText == null) {
+				rowsUnchanged++; // template row left empty
+				return;
+			}
+			if (name == null) {
+				error(rowNumber, null, "Item name is missing.");
+				return;
+			}
+
+			ImportTarget target = targetsByName.get(normalize(name));
+			if (target == null) {
+				error(rowNumber, name, "No inventory item with this name.");
+				return;
+			}
+			if (!"ACTIVE".equals(target.status())) {
+				error(rowNumber, name, "Item is inactive.");
+				return;
+			}
+
+			BigDecimal quantity;
+			try {
+				quantity = new BigDecimal(quantityText.replace(",", ""));
+			} catch (NumberFormatException e) {
+				error(rowNumber, name, "Quantity '" + quantityText + "' is not a number.");
+				return;
+			}
+			if (quantity.stripTrailingZeros().scale() > 2) {
+				error(rowNumber, name, "Quantity can have at most 2 decimal places.");
+				return;
+			}
+
+			String action = cell(cells, COL_ACTION);
+			action = action != null ? action.toUpperCase(Locale.ROOT) : "ADD";
+			BigDecimal currentStock = projectedStock.get(target.id());
+			BigDecimal change;
+			switch (action) {
+			case "ADD" -> change = quantity;
+			case "DEDUCT" -> change = quantity.negate();
+			case "SET" -> change = quantity.subtract(currentStock);
+			default -> {
+				error(rowNumber, name, "Action must be ADD, SET or DEDUCT.");
+				return;
+			}
+			}
+			if ("SET".equals(action) ? quantity.signum() < 0 : quantity.signum() <= 0) {
+				error(rowNumber, name, "SET".equals(action) ? "Stock quantity cannot be negative."
+						: "Quantity must be a positive number.");
+				return;
+			}
+
+			String reasonCategory = resolveReason(cell(cells, COL_REASON), action);
+			if (reasonCategory == null) {
+				error(rowNumber, name, "Reason must be one of " + String.join(", ", REASONS) + ".");
+				return;
+			}
+			// Same rule as the Manage Stock modal: waste can only ever take stock away
+			if (WASTE_REASONS.contains(reasonCategory) && change.signum() > 0) {
+				change = change.negate();
+			}
+
+			Integer expirationDays = null;
+			String expirationText = cell(cells, COL_EXPIRATION_DAYS);
+			if (expirationText != null) {
+				try {
+					expirationDays = Integer.valueOf(expirationText);
+				} catch (NumberFormatException e) {
+					expirationDays = -1;
+				}
+				if (expirationDays < 0) {
+					error(rowNumber, name, "Expiration days must be a whole number of 0 or more.");
+					return;
+				}
+			}
+
+			BigDecimal newStock = currentStock.add(change);
+			if (newStock.signum() < 0) {
+				error(rowNumber, name, "Stock cannot go below zero. Current stock: " + currentStock.toPlainString()
+						+ ", Change: " + change.toPlainString());
+				return;
+			}
+			// A SET that matches the stock read at the start is still checked against the locked row
+			if (change.signum() == 0 && !"SET".equals(action)) {
+				rowsUnchanged++;
+				return;
+			}
+
+			String note = cell(cells, COL_NOTE);
+			String reason = note != null ? reasonCategory + ": " + note : reasonCategory;
+			projectedStock.put(target.id(), newStock);
+			chunk.add(new PendingRow(rowNumber, target, change, "SET".equals(action) ? quantity : null, reason,
+					reasonCategory, expirationDays));
+			if (chunk.size() >= chunkSize) {
+				flush();
+			}
+		}
+
+		void flush() {
+			if (chunk.isEmpty()) {
+				return;
+			}
+			List<PendingRow> rows = new ArrayList<>(chunk);
+			chunk.clear();
+			TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+			try {
+				commit(transaction, () -> {
+					// Lock the chunk's rows up front in id order, like production runs do
+					TreeSet<Long> ids = new TreeSet<>();
+					rows.forEach(row -> ids.add(row.target().id()));
+					inventoryItemRepository.findAllByIdForUpdate(ids);
+					rows.forEach(this::apply);
+				});
+			} catch (RuntimeException e) {
+				// Stock moved underneath us or a row was rejected; one failure rolls back
+				// the whole chunk, so retry row by row to pin the error on the right line.
+				log.warn("Import chunk of {} row(s) failed ({}); retrying rows individually.", rows.size(),
+						e.getMessage());
+				for (PendingRow row : rows) {
+					try {
+						commit(transaction, () -> apply(row));
+					} catch (RuntimeException rowFailure) {
+						projectedStock.merge(row.target().id(), row.change().negate(), BigDecimal::add);
+						error(row.rowNumber(), row.target().name(), rowFailure.getMessage());
+					}
+				}
+			}
+		}
+
+		private void commit(TransactionTemplate transaction, Runnable work) {
+			appliedInTransaction = 0;
+			unchangedInTransaction = 0;
+			transaction.executeWithoutResult(status -> work.run());
+			rowsApplied += appliedInTransaction;
+			rowsUnchanged += unchangedInTransaction;
+		}
+
+		private void apply(PendingRow row) {
+			BigDecimal change = row.change();
+			if (row.setTo() != null) {
+				// Stock may have moved since the file was read; SET means "make it this" now
+				InventoryItem locked = inventoryItemRepository.findByIdForUpdate(row.target().id())
+						.orElseThrow(() -> new IllegalArgumentException("Inventory item no longer exists."));
+				change = row.setTo().subtract(locked.getCurrentStock());
+				if (WASTE_REASONS.contains(row.reasonCategory()) && change.signum() > 0) {
+					change = change.negate();
+				}
+				if (change.signum() == 0) {
+					unchangedInTransaction++;
+					return;
+				}
+			}
+			InventoryItem item = inventoryItemService.adjustStock(row.target().id(), change, row.reason(), null,
+					change.signum() > 0 ? row.expirationDays() : null);
+			if (WASTE_REASONS.contains(row.reasonCategory()) && change.signum() < 0) {
+				String details = "Deducted stock of " + item.getName() + " (ID: " + item.getId() + ") via bulk import. "
+						+ "Change: " + change + ". New Stock: " + item.getCurrentStock() + ". Reason: "
+						+ row.reason();
+				activityLogService.logWasteAction(username, "STOCK_WASTE_" + row.reasonCategory().toUpperCase(),
+						details, item.getName(), change.abs(), item.getCostPerUnit());
+			}
+			appliedInTransaction++;
+		}
+
+		private void error(long rowNumber, String name, String message) {
+			errorCount++;
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add(new RowError(rowNumber, name, message));
+			}
+		}
+	}
+
+	private static String resolveReason(String value, String action) {
+		if (value == null) {
+			return "ADD".equals(action) ? "Production" : "Manual";
+		}
+		for (String reason : REASONS) {
+			if (reason.equalsIgnoreCase(value)) {
+				return reason;
+			}
+		}
+		return null;
+	}
+
+	private static String cell(String[] cells, int column) {
+		String value = column < cells.length ? cells[column] : null;
+		return StringUtils.hasText(value) ? value.trim() : null;
+	}
+
+	private static String normalize(String name) {
+		return name.trim().toLowerCase(Locale.ROOT);
+	}
+
+	@Override
+	public void writeTemplate(OutputStream out, String format) throws IOException {
+		List<Object[]> targets = inventoryItemRepository.findAllImportTargets();
+		if (FORMAT_CSV.equals(format)) {
+			CsvWriter csv = new CsvWriter(out);
+			csv.row(HEADERS);
+			for (Object[] row : targets) {
+				if (!"ACTIVE".equals(row[2])) {
+					continue;
+				}
+				csv.text((String) row[1]).text((String) row[4]).number((BigDecimal) row[3]).text("ADD").text(null)
+						.text("Production").text(null).number((Integer) row[5]).endRow();
+			}
+			csv.flush();
+			return;
+		}
+
+		// Only a small window of rows is kept in memory; the rest is flushed to a temp file
+		SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+		try {
+			SXSSFSheet sheet = workbook.createSheet("Stock Import");
+			CellStyle headerStyle = workbook.createCellStyle();
+			Font headerFont = workbook.createFont();
+			headerFont.setBold(true);
+			headerStyle.setFont(headerFont);
+
+			Row header = sheet.createRow(0);
+			for (int i = 0; i < HEADERS.length; i++) {
+				header.createCell(i).setCellValue(HEADERS[i]);
+				header.getCell(i).setCellStyle(headerStyle);
+				sheet.setColumnWidth(i, (i == COL_NAME || i == COL_NOTE ? 30 : 15) * 256);
+			}
+
+			int rowIndex = 1;
+			for (Object[] target : targets) {
+				if (!"ACTIVE".equals(target[2])) {
+					continue;
+				}
+				Row row = sheet.createRow(rowIndex++);
+				row.createCell(0).setCellValue((String) target[1]);
+				row.createCell(1).setCellValue((String) target[4]);
+				row.createCell(2).setCellValue(((BigDecimal) target[3]).doubleValue());
+				row.createCell(COL_ACTION).setCellValue("ADD");
+				row.createCell(COL_REASON).setCellValue("Production");
+				if (target[5] != null) {
+					row.createCell(COL_EXPIRATION_DAYS).setCellValue((Integer) target[5]);
+				}
+			}
+			workbook.write(out);
+		} finally {
+			workbook.dispose();
+			workbook.close();
+		}
+	}
+}
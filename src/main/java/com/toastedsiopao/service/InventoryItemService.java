@@ -9,7 +9,6 @@ import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal; 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 public interface InventoryItemService {
@@ -50,6 +49,8 @@ public interface InventoryItemService {
 
 	BigDecimal getTotalStockValue();
 
+	long countAllItems();
+
 	long countLowStockItems();
 
 	long countCriticalStockItems();
@@ -57,7 +58,4 @@ public interface InventoryItemService {
 	long countOutOfStockItems();
 
 	long countByUnit(UnitOfMeasure unit);
-	
-	// --- ADDED ---
-	Map<String, Object> getInventoryMetrics(String keyword, Long categoryId);
 }
\ No newline at end of file
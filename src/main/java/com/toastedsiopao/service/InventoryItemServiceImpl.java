@@ -3,6 +3,7 @@ package com.toastedsiopao.service;
 import com.toastedsiopao.dto.InventoryItemDto;
 import com.toastedsiopao.model.InventoryCategory;
 import com.toastedsiopao.model.InventoryItem;
+import com.toastedsiopao.model.StockMovement;
 import com.toastedsiopao.model.UnitOfMeasure;
 import com.toastedsiopao.repository.InventoryCategoryRepository;
 import com.toastedsiopao.repository.InventoryItemRepository;
@@ -18,11 +19,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime; // Added
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -39,6 +40,24 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 	private UnitOfMeasureRepository unitRepository;
 	@Autowired
 	private RecipeIngredientRepository recipeIngredientRepository;
+	@Autowired
+	private ProducibilityService producibilityService;
+	@Autowired
+	private RecipeCostService recipeCostService;
+	@Autowired
+	private StockMovementService stockMovementService;
+	@Autowired
+	private StockLotService stockLotService;
+	@Autowired
+	private StockAlertService stockAlertService;
+	@Autowired
+	private MetricsService metricsService;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	@Autowired
+	private Clock clock;
 
 	private void validateThresholds(BigDecimal lowThreshold, BigDecimal criticalThreshold) {
 		if (lowThreshold == null || lowThreshold.compareTo(BigDecimal.ZERO) <= 0) {
@@ -118,8 +137,10 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 				.orElseThrow(() -> new RuntimeException("Unit of Measure not found with id: " + itemDto.getUnitId()));
 
 		InventoryItem item;
-		LocalDate anchorDateForExpiration = LocalDate.now();
+		LocalDate anchorDateForExpiration = LocalDate.now(clock);
 		Integer oldExpirationDays = null;
+		BigDecimal oldCostPerUnit = null;
+		String oldStockStatus = null;
 
 		boolean isNew = itemDto.getId() == null;
 		if (!isNew) {
@@ -128,6 +149,8 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 
 			// Capture state before update
 			oldExpirationDays = item.getExpirationDays();
+			oldCostPerUnit = item.getCostPerUnit();
+			oldStockStatus = item.getStockStatus();
 			if (item.getLastUpdated() != null) {
 				anchorDateForExpiration = item.getLastUpdated().toLocalDate();
 			}
@@ -167,10 +190,10 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 		if (itemDto.getReceivedDate() != null) {
 			item.setReceivedDate(itemDto.getReceivedDate());
 		} else if (isNew) {
-			item.setReceivedDate(LocalDate.now());
+			item.setReceivedDate(LocalDate.now(clock));
 		} else if (item.getReceivedDate() == null) {
 			// Fallback for legacy data
-			item.setReceivedDate(LocalDate.now());
+			item.setReceivedDate(LocalDate.now(clock));
 		}
 
 		// 2. Update Expiration Date
@@ -193,6 +216,21 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 
 		try {
 			InventoryItem savedItem = itemRepository.save(item);
+			if (isNew && savedItem.getCurrentStock().signum() != 0) {
+				stockMovementService.record(StockMovement.forItem(savedItem.getId(), savedItem.getCurrentStock(),
+						savedItem.getCurrentStock(), StockMovement.REASON_OPENING, null, null));
+				if (savedItem.getCurrentStock().signum() > 0) {
+					stockLotService.receiveItemStock(savedItem, savedItem.getCurrentStock(),
+							savedItem.getReceivedDate(), savedItem.getExpirationDate());
+				}
+			}
+			if (!isNew && !Objects.equals(oldCostPerUnit, savedItem.getCostPerUnit())) {
+				recipeCostService.costChanged(savedItem.getId());
+			}
+			// Threshold edits can move an item between buckets just like stock changes
+			stockAlertService.itemStatusChanged(savedItem, oldStockStatus);
+			metricsService.invalidateInventory();
+			dataVersionService.dataChanged(DataVersionService.DATA_INVENTORY);
 			log.info("{} inventory item: ID={}, Name='{}', Status='{}'", isNew ? "Created" : "Updated",
 					savedItem.getId(), savedItem.getName(), savedItem.getItemStatus());
 			return savedItem;
@@ -245,7 +283,11 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 					+ "' is used in one or more product recipes and cannot be permanently deleted. Please deactivate it via the Edit menu.");
 		}
 
+		stockLotService.deleteItemLots(id);
 		itemRepository.delete(item);
+		stockAlertService.itemRemoved(id);
+		metricsService.invalidateInventory();
+		dataVersionService.dataChanged(DataVersionService.DATA_INVENTORY);
 		log.info("Permanently deleted inventory item: ID={}, Name='{}'", id, item.getName());
 	}
 
@@ -305,27 +347,38 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 					+ ", Change: " + quantityChange);
 		}
 
+		String previousStockStatus = item.getStockStatus();
 		item.setCurrentStock(newStock);
 
 		if (quantityChange.compareTo(BigDecimal.ZERO) > 0) {
-			// 1. Recalculate Expiration Date relative to TODAY (LocalDate.now())
-			// This ensures the expiration reflects the new stock being added now.
-			if (expirationDays != null && expirationDays > 0) {
-				item.setExpirationDate(LocalDate.now().plusDays(expirationDays));
-			} else {
-				// If explicit 0/null expiration days provided (non-perishable), clear the date
-				if (expirationDays != null) {
-					item.setExpirationDate(null);
-				}
-			}
-
-			// 2. Only update Received Date if the user explicitly provided one.
+			// Only update Received Date if the user explicitly provided one.
 			if (receivedDate != null) {
 				item.setReceivedDate(receivedDate);
 			}
+
+			// The new stock is its own lot, dated from TODAY. Without explicit days the
+			// item's configured shelf life applies; 0 means non-perishable.
+			int shelfLifeDays = expirationDays != null ? expirationDays : item.getExpirationDays();
+			LocalDate lotExpiry = shelfLifeDays > 0 ? LocalDate.now(clock).plusDays(shelfLifeDays) : null;
+			stockLotService.receiveItemStock(item, quantityChange,
+					receivedDate != null ? receivedDate : LocalDate.now(clock), lotExpiry);
+		} else if (quantityChange.signum() < 0) {
+			stockLotService.consumeItemStock(item, quantityChange.negate());
 		}
 
 		InventoryItem savedItem = itemRepository.save(item);
+		producibilityService.stockChanged(itemId);
+		stockAlertService.itemStatusChanged(savedItem, previousStockStatus);
+		metricsService.invalidateInventory();
+		dataVersionService.dataChanged(DataVersionService.DATA_INVENTORY);
+
+		String reasonCode = stockMovementService.reasonCodeFor(reason, quantityChange.signum() > 0);
+		if (StockMovement.REASON_PRODUCTION.equals(reasonCode)) {
+			// "Production" on a raw ingredient means new stock came in
+			reasonCode = StockMovement.REASON_RESTOCK;
+		}
+		stockMovementService.record(StockMovement.forItem(itemId, quantityChange, newStock, reasonCode,
+				stockMovementService.referenceFor(reason), reason));
 
 		log.info("Stock adjusted for Inventory ID {}: Change={}, New Stock={}, Reason='{}'", itemId, quantityChange,
 				newStock, StringUtils.hasText(reason) ? reason : "No reason provided");
@@ -347,50 +400,27 @@ public class InventoryItemServiceImpl implements InventoryItemService {
 
 	@Override
 	@Transactional(readOnly = true)
+	public long countAllItems() {
+		return itemRepository.count();
+	}
+
+	@Override
 	public long countLowStockItems() {
-		return itemRepository.countLowStockItems();
+		return stockAlertService.getItemGauge().low();
 	}
 
 	@Override
-	@Transactional(readOnly = true)
 	public long countCriticalStockItems() {
-		return itemRepository.countCriticalStockItems();
+		return stockAlertService.getItemGauge().critical();
 	}
 
 	@Override
-	@Transactional(readOnly = true)
 	public long countOutOfStockItems() {
-		return itemRepository.countOutOfStockItems();
+		return stockAlertService.getItemGauge().outOfStock();
 	}
 
 	@Override
 	public long countByUnit(UnitOfMeasure unit) {
 		return itemRepository.countByUnit(unit);
 	}
-
-	@Override
-	@Transactional(readOnly = true)
-	public Map<String, Object> getInventoryMetrics(String keyword, Long categoryId) {
-		Map<String, Object> metrics = new HashMap<>();
-
-		InventoryCategory category = null;
-		if (categoryId != null) {
-			category = categoryRepository.findById(categoryId).orElse(null);
-		}
-		String parsedKeyword = StringUtils.hasText(keyword) ? keyword.trim() : null;
-
-		long totalItems = itemRepository.countFilteredItems(parsedKeyword, category);
-		BigDecimal totalValue = itemRepository.sumFilteredStockValue(parsedKeyword, category);
-		long lowStock = itemRepository.countFilteredLowStock(parsedKeyword, category);
-		long criticalStock = itemRepository.countFilteredCriticalStock(parsedKeyword, category);
-		long outOfStock = itemRepository.countFilteredOutOfStock(parsedKeyword, category);
-
-		metrics.put("totalItems", totalItems);
-		metrics.put("totalValue", totalValue);
-		metrics.put("lowStock", lowStock);
-		metrics.put("criticalStock", criticalStock);
-		metrics.put("outOfStock", outOfStock);
-
-		return metrics;
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.toastedsiopao.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface InventoryValuationService {
+
+	/**
+	 * Current stock value: the latest snapshot plus the ledger movements after its
+	 * last movement id. {@code snapshotAt} is {@code null} when no snapshot exists yet
+	 * and the totals were summed live.
+	 */
+	record Valuation(BigDecimal totalQuantity, BigDecimal totalValue, LocalDateTime snapshotAt,
+			BigDecimal quantityChange, BigDecimal valueChange) {
+	}
+
+	/** Records today's snapshot, replacing one already taken today (one node at a time). */
+	void recordDailySnapshot();
+
+	Valuation getCurrentValuation();
+
+	/** Total stock value per snapshot date (ISO yyyy-MM-dd), oldest first. */
+	Map<String, BigDecimal> getValueTrend(int days);
+}
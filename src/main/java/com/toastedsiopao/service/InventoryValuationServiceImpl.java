@@ -0,0 +1,179 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryValuationSnapshot;
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.InventoryValuationSnapshotRepository;
+import com.toastedsiopao.repository.StockMovementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@Transactional
+public class InventoryValuationServiceImpl implements InventoryValuationService {
+
+	private static final Logger log = LoggerFactory.getLogger(InventoryValuationServiceImpl.class);
+
+	private static final String SNAPSHOT_LOCK_NAME = "inventory_valuation_snapshots.daily";
+
+	@Autowired
+	private InventoryValuationSnapshotRepository snapshotRepository;
+
+	@Autowired
+	private InventoryItemRepository inventoryItemRepository;
+
+	@Autowired
+	private StockMovementRepository stockMovementRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private Clock clock;
+
+	@Value("${inventory.valuation.lock-wait-seconds:60}")
+	private int lockWaitSeconds;
+
+	@Value("${inventory.valuation.settle-seconds:300}")
+	private int settleSeconds;
+
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		// Start the history on first boot instead of waiting for the nightly job
+		if (!snapshotRepository.existsBySnapshotDate(LocalDate.now(clock))) {
+			recordLocked(false);
+		}
+	}
+
+	/**
+	 * The startup hook and the cron run on every node; a MySQL named lock lets one
+	 * node at a time replace the day's rows, so a date never gets two sets.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void recordDailySnapshot() {
+		recordLocked(true);
+	}
+
+	private void recordLocked(boolean replace) {
+		TransactionTemplate repeatableRead = new TransactionTemplate(transactionManager);
+		repeatableRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		boolean ran = NamedLocks.runLocked(jdbcTemplate, SNAPSHOT_LOCK_NAME, lockWaitSeconds,
+				() -> repeatableRead.executeWithoutResult(status -> writeSnapshot(replace)));
+		if (!ran) {
+			log.warn("Skipped the inventory valuation snapshot: another node held the snapshot lock for over {} s.",
+					lockWaitSeconds);
+		}
+	}
+
+	// A movement written just before the snapshot can commit after its read view.
+	// The anchor therefore sits before every movement of the last settleSeconds:
+	// those are taken back out of the totals (all from one repeatable-read view)
+	// and counted by the live delta instead, whenever they commit. Movement ids
+	// come from a shared sequence one at a time, so later writes get higher ids.
+	private void writeSnapshot(boolean replace) {
+		LocalDate today = LocalDate.now(clock);
+		if (!replace && snapshotRepository.existsBySnapshotDate(today)) {
+			return;
+		}
+
+		LocalDateTime now = LocalDateTime.now(clock);
+		LocalDateTime settledAt = now.minusSeconds(Math.max(0, settleSeconds));
+		Long firstRecent = stockMovementRepository.findFirstIdMovedAfter(settledAt);
+		Long lastMovementId = firstRecent != null ? firstRecent - 1 : stockMovementRepository.findLatestId();
+		LocalDateTime capturedAt = firstRecent != null ? settledAt : now;
+
+		Map<Long, Object[]> recentByCategory = new HashMap<>();
+		for (Object[] row : stockMovementRepository.sumItemDeltasByCategoryAfter(lastMovementId)) {
+			recentByCategory.put((Long) row[0], row);
+		}
+
+		List<InventoryValuationSnapshot> snapshots = new ArrayList<>();
+		long itemCount = 0;
+		BigDecimal totalQuantity = BigDecimal.ZERO;
+		BigDecimal totalValue = BigDecimal.ZERO;
+		for (Object[] row : inventoryItemRepository.sumStockByCategory()) {
+			Long categoryId = (Long) row[0];
+			long count = (Long) row[2];
+			BigDecimal quantity = (BigDecimal) row[3];
+			BigDecimal value = (BigDecimal) row[4];
+			Object[] recent = recentByCategory.get(categoryId);
+			if (recent != null) {
+				quantity = quantity.subtract((BigDecimal) recent[1]);
+				value = value.subtract((BigDecimal) recent[2]);
+			}
+			snapshots.add(new InventoryValuationSnapshot(today, categoryId, (String) row[1], count, quantity, value,
+					capturedAt, lastMovementId));
+			itemCount += count;
+			totalQuantity = totalQuantity.add(quantity);
+			totalValue = totalValue.add(value);
+		}
+		snapshots.add(new InventoryValuationSnapshot(today, null, null, itemCount, totalQuantity, totalValue,
+				capturedAt, lastMovementId));
+
+		snapshotRepository.deleteBySnapshotDate(today);
+		snapshotRepository.saveAll(snapshots);
+		log.info("Recorded inventory valuation snapshot for {}: {} item(s), value {}.", today, itemCount, totalValue);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Valuation getCurrentValuation() {
+		Optional<InventoryValuationSnapshot> latest = snapshotRepository.findFirstByCategoryIdIsNullOrderBySnapshotDateDesc();
+		if (latest.isEmpty()) {
+			return new Valuation(inventoryItemRepository.sumTotalStockQuantity(),
+					inventoryItemRepository.sumTotalStockValue(), null, BigDecimal.ZERO, BigDecimal.ZERO);
+		}
+		InventoryValuationSnapshot snapshot = latest.get();
+		if (snapshot.getLastMovementId() == null) {
+			// Recorded before the anchor existed: sum live until the next snapshot
+			BigDecimal quantity = inventoryItemRepository.sumTotalStockQuantity();
+			BigDecimal value = inventoryItemRepository.sumTotalStockValue();
+			return new Valuation(quantity, value, snapshot.getCapturedAt(),
+					quantity.subtract(snapshot.getTotalQuantity()), value.subtract(snapshot.getTotalValue()));
+		}
+		// Only movements after the anchor are scanned (primary key range). Cost edits
+		// made since then show up at the next snapshot.
+		Object[] delta = stockMovementRepository.sumItemDeltasAfter(snapshot.getLastMovementId()).get(0);
+		BigDecimal quantityChange = (BigDecimal) delta[0];
+		BigDecimal valueChange = (BigDecimal) delta[1];
+		return new Valuation(snapshot.getTotalQuantity().add(quantityChange), snapshot.getTotalValue().add(valueChange),
+				snapshot.getCapturedAt(), quantityChange, valueChange);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<String, BigDecimal> getValueTrend(int days) {
+		Map<String, BigDecimal> trend = new LinkedHashMap<>();
+		LocalDate from = LocalDate.now(clock).minusDays(days - 1L);
+		for (InventoryValuationSnapshot snapshot : snapshotRepository.findTotalsSince(from)) {
+			trend.put(snapshot.getSnapshotDate().toString(), snapshot.getTotalValue());
+		}
+		return trend;
+	}
+}
@@ -0,0 +1,151 @@
+package com.toastedsiopao.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.BiConsumer;
+
+@Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalStorageBackend implements StorageBackend {
+
+	private static final Logger log = LoggerFactory.getLogger(LocalStorageBackend.class);
+
+	@Value("${file.upload-dir}")
+	private String uploadDir;
+
+	private Path resolve(String key) {
+		Path root = Paths.get(uploadDir);
+		Path file = root.resolve(key).normalize().toAbsolutePath();
+		if (!file.startsWith(root.normalize().toAbsolutePath())) {
+			throw new IllegalArgumentException("Cannot access file outside upload directory: " + key);
+		}
+		return file;
+	}
+
+	@Override
+	public boolean exists(String key) {
+		return Files.exists(resolve(key));
+	}
+
+	@Override
+	public void put(String key, Path source, String contentSha256, String contentType) throws IOException {
+		Path target = resolve(key);
+		if (Files.exists(target)) {
+			return;
+		}
+		// Staging dir is inside the upload dir, so this is a same-disk rename
+		Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		log.debug("Moved staged upload into place: {}", key);
+	}
+
+	@Override
+	public void delete(String key) throws IOException {
+		Files.deleteIfExists(resolve(key));
+	}
+
+	@Override
+	public ObjectInfo stat(String key) throws IOException {
+		Path file = resolve(key);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		return new ObjectInfo(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+	}
+
+	@Override
+	public InputStream open(String key, long offset, long length) throws IOException {
+		FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+		channel.position(offset);
+		return new RangeInputStream(Channels.newInputStream(channel), length);
+	}
+
+	@Override
+	public void forEachObject(BiConsumer<String, ObjectInfo> visitor) throws IOException {
+		Path root = Paths.get(uploadDir);
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(root,
+				entry -> !entry.getFileName().toString().startsWith(".") && Files.isRegularFile(entry))) {
+			for (Path entry : stream) {
+				BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+				visitor.accept(entry.getFileName().toString(),
+						new ObjectInfo(attributes.size(), attributes.lastModifiedTime().toMillis()));
+			}
+		}
+	}
+
+	@Override
+	public Path localPath(String key) {
+		Path file = resolve(key);
+		return Files.isRegularFile(file) && Files.isReadable(file) ? file : null;
+	}
+
+	// Ends the stream after the requested range, the same as an S3 ranged GET
+	private static final class RangeInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		RangeInputStream(InputStream in, long length) {
+			super(in);
+			this.remaining = Math.max(0, length);
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = super.read();
+			if (b >= 0) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (remaining <= 0) {
+				return -1;
+			}
+			int read = super.read(b, off, (int) Math.min(len, remaining));
+			if (read > 0) {
+				remaining -= read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), remaining);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.toastedsiopao.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Summary cards for the inventory, product and waste panels. Each panel is one
+ * aggregate query, cached per filter for {@code metrics.cache-ttl-seconds}.
+ */
+public interface MetricsService {
+
+	record InventoryMetrics(long totalItems, BigDecimal totalValue, long lowStock, long criticalStock,
+			long outOfStock) {
+	}
+
+	record ProductMetrics(long totalProducts, long lowStock, long criticalStock, long outOfStock) {
+	}
+
+	record WasteMetrics(long totalItems, BigDecimal totalWasteValue, BigDecimal expiredValue,
+			BigDecimal damagedValue, BigDecimal wasteValue) {
+	}
+
+	InventoryMetrics getInventoryMetrics(String keyword, Long categoryId);
+
+	ProductMetrics getProductMetrics(String keyword, Long categoryId);
+
+	WasteMetrics getWasteMetrics(String keyword, String reasonCategory, String wasteType, String startDate,
+			String endDate);
+
+	// Drop cached panels once the current transaction commits
+	void invalidateInventory();
+
+	void invalidateProducts();
+
+	void invalidateWaste();
+}
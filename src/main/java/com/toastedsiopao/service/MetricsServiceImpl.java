@@ -0,0 +1,141 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.repository.ActivityLogRepository;
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Transactional(readOnly = true)
+public class MetricsServiceImpl implements MetricsService {
+
+	private static final Logger log = LoggerFactory.getLogger(MetricsServiceImpl.class);
+
+	// Filters come straight from the query string, so keep the key space bounded
+	private static final int MAX_CACHED_FILTERS = 256;
+
+	@Autowired
+	private InventoryItemRepository itemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ActivityLogRepository activityLogRepository;
+
+	@Value("${metrics.cache-ttl-seconds:15}")
+	private long cacheTtlSeconds;
+
+	private record StockFilter(String keyword, Long categoryId) {
+	}
+
+	private record WasteFilter(String typeFilter, String reason, String itemName, LocalDateTime start,
+			LocalDateTime end) {
+	}
+
+	private final TtlCache<StockFilter, InventoryMetrics> inventoryCache = new TtlCache<>(MAX_CACHED_FILTERS);
+	private final TtlCache<StockFilter, ProductMetrics> productCache = new TtlCache<>(MAX_CACHED_FILTERS);
+	private final TtlCache<WasteFilter, WasteMetrics> wasteCache = new TtlCache<>(MAX_CACHED_FILTERS);
+
+	@Override
+	public InventoryMetrics getInventoryMetrics(String keyword, Long categoryId) {
+		StockFilter filter = new StockFilter(trimToNull(keyword), categoryId);
+		return inventoryCache.get(filter, ttlNanos(), () -> {
+			Object[] row = singleRow(itemRepository.aggregateFilteredMetrics(filter.keyword(), filter.categoryId()));
+			return new InventoryMetrics(toLong(row[0]), toDecimal(row[1]), toLong(row[2]), toLong(row[3]),
+					toLong(row[4]));
+		});
+	}
+
+	@Override
+	public ProductMetrics getProductMetrics(String keyword, Long categoryId) {
+		StockFilter filter = new StockFilter(trimToNull(keyword), categoryId);
+		return productCache.get(filter, ttlNanos(), () -> {
+			Object[] row = singleRow(productRepository.aggregateFilteredMetrics(filter.keyword(), filter.categoryId()));
+			return new ProductMetrics(toLong(row[0]), toLong(row[1]), toLong(row[2]), toLong(row[3]));
+		});
+	}
+
+	@Override
+	public WasteMetrics getWasteMetrics(String keyword, String reasonCategory, String wasteType, String startDate,
+			String endDate) {
+		WasteFilter filter = new WasteFilter(upperOrNull(wasteType), upperOrNull(reasonCategory), trimToNull(keyword),
+				parseDate(startDate, "start", false), parseDate(endDate, "end", true));
+		return wasteCache.get(filter, ttlNanos(), () -> {
+			Object[] row = singleRow(activityLogRepository.aggregateFilteredWaste(filter.typeFilter(),
+					filter.reason(), filter.itemName(), filter.start(), filter.end()));
+			return new WasteMetrics(toLong(row[0]), toDecimal(row[1]), toDecimal(row[2]), toDecimal(row[3]),
+					toDecimal(row[4]));
+		});
+	}
+
+	@Override
+	public void invalidateInventory() {
+		TransactionCallbacks.afterCommit(inventoryCache::invalidate);
+	}
+
+	@Override
+	public void invalidateProducts() {
+		TransactionCallbacks.afterCommit(productCache::invalidate);
+	}
+
+	@Override
+	public void invalidateWaste() {
+		TransactionCallbacks.afterCommit(wasteCache::invalidate);
+	}
+
+	private long ttlNanos() {
+		return TimeUnit.SECONDS.toNanos(Math.max(0, cacheTtlSeconds));
+	}
+
+	private static Object[] singleRow(List<Object[]> rows) {
+		return rows.get(0);
+	}
+
+	private static long toLong(Object value) {
+		return value != null ? ((Number) value).longValue() : 0L;
+	}
+
+	private static BigDecimal toDecimal(Object value) {
+		if (value == null) {
+			return BigDecimal.ZERO;
+		}
+		return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+	}
+
+	private static String trimToNull(String value) {
+		return StringUtils.hasText(value) ? value.trim() : null;
+	}
+
+	private static String upperOrNull(String value) {
+		return StringUtils.hasText(value) ? value.trim().toUpperCase() : null;
+	}
+
+	// Same rules as the waste log search: whole days, bad input ignored
+	private static LocalDateTime parseDate(String value, String label, boolean endOfDay) {
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		try {
+			LocalDate date = LocalDate.parse(value);
+			return endOfDay ? date.atTime(LocalTime.MAX) : date.atStartOfDay();
+		} catch (DateTimeParseException e) {
+			log.warn("Invalid {} date format: {}. Ignoring.", label, value);
+			return null;
+		}
+	}
+}
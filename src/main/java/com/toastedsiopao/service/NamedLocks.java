@@ -0,0 +1,45 @@
+package com.toastedsiopao.service;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * MySQL named locks for jobs that every node starts (startup hooks, cron) but
+ * only one may run at a time. The lock is held on its own connection, so the
+ * action's transaction commits before another node gets in.
+ */
+final class NamedLocks {
+
+	private NamedLocks() {
+	}
+
+	// False when another node held the lock for longer than waitSeconds
+	static boolean runLocked(JdbcTemplate jdbcTemplate, String name, int waitSeconds, Runnable action) {
+		Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+			if (!namedLock(connection, "SELECT GET_LOCK(?, " + Math.max(0, waitSeconds) + ")", name)) {
+				return false;
+			}
+			try {
+				action.run();
+			} finally {
+				namedLock(connection, "SELECT RELEASE_LOCK(?)", name);
+			}
+			return true;
+		});
+		return Boolean.TRUE.equals(ran);
+	}
+
+	private static boolean namedLock(Connection connection, String sql, String name) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setString(1, name);
+			try (ResultSet result = statement.executeQuery()) {
+				return result.next() && result.getInt(1) == 1;
+			}
+		}
+	}
+}
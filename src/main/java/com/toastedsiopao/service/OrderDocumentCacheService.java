@@ -0,0 +1,32 @@
+package com.toastedsiopao.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Invoices and receipts of delivered, cancelled or rejected orders never change,
+ * so they are rendered once and kept on disk, keyed by order, document type and
+ * {@code SiteSettings.settingsVersion}. Each node keeps its own files and drops
+ * those of other settings versions the first time it sees a new version.
+ */
+public interface OrderDocumentCacheService {
+
+	// etag is strong: a hash of the file's bytes, which are never rewritten in place
+	record CachedDocument(Path path, String etag, long size) {
+	}
+
+	boolean isCacheable(String orderStatus);
+
+	/**
+	 * Returns the cached PDF, rendering it on first use. Empty when the order does
+	 * not exist or is not in a final status.
+	 */
+	Optional<CachedDocument> getDocument(Long orderId, String documentType) throws IOException;
+
+	// Renders both documents in the background once an order reaches a final status
+	void prerender(Long orderId);
+
+	// Drops every document cached on this node, e.g. after the store details on them changed
+	void invalidateAll();
+}
@@ -0,0 +1,225 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class OrderDocumentCacheServiceImpl implements OrderDocumentCacheService {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderDocumentCacheServiceImpl.class);
+
+	private static final Set<String> FINAL_STATUSES = Set.of(Order.STATUS_DELIVERED, Order.STATUS_CANCELLED,
+			Order.STATUS_REJECTED);
+	private static final List<String> DOCUMENT_TYPES = List.of("INVOICE", "RECEIPT");
+	private static final int PRERENDER_QUEUE_CAPACITY = 100;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private PdfService pdfService;
+
+	@Autowired
+	private SiteSettingsService siteSettingsService;
+
+	@Value("${order-documents.cache-dir:${java.io.tmpdir}/toasted-siopao-documents}")
+	private String cacheDir;
+
+	// Striped so two requests for the same document render it once
+	private final Object[] renderLocks = new Object[16];
+
+	// Content hash per cached file, computed once per file on this node
+	private final Map<String, String> etags = new ConcurrentHashMap<>();
+
+	// Settings version whose documents are the only ones left on disk
+	private volatile long sweptVersion = -1;
+
+	private Path rootLocation;
+	private ThreadPoolExecutor prerenderExecutor;
+
+	@PostConstruct
+	public void init() {
+		for (int i = 0; i < renderLocks.length; i++) {
+			renderLocks[i] = new Object();
+		}
+		try {
+			rootLocation = Paths.get(cacheDir);
+			Files.createDirectories(rootLocation);
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(rootLocation, "*.tmp")) {
+				for (Path entry : stream) {
+					Files.deleteIfExists(entry);
+				}
+			}
+		} catch (IOException e) {
+			log.error("Could not initialize order document cache: {}", cacheDir, e);
+			throw new RuntimeException("Could not initialize order document cache", e);
+		}
+		prerenderExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(PRERENDER_QUEUE_CAPACITY), runnable -> {
+					Thread thread = new Thread(runnable, "order-document-prerender");
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (prerenderExecutor != null) {
+			prerenderExecutor.shutdownNow();
+		}
+	}
+
+	@Override
+	public boolean isCacheable(String orderStatus) {
+		return orderStatus != null && FINAL_STATUSES.contains(orderStatus);
+	}
+
+	@Override
+	public Optional<CachedDocument> getDocument(Long orderId, String documentType) throws IOException {
+		String type = documentType != null ? documentType.toUpperCase() : null;
+		if (orderId == null || !DOCUMENT_TYPES.contains(type)) {
+			throw new IllegalArgumentException("Invalid document type: " + documentType);
+		}
+
+		long settingsVersion = siteSettingsService.getSiteSettings().getSettingsVersion();
+		if (settingsVersion != sweptVersion) {
+			// Another node may have changed the settings; its invalidateAll only cleared its own disk
+			sweepOtherVersions(settingsVersion);
+		}
+		String key = "ORD-" + orderId + "_" + type + "_v" + settingsVersion;
+		Path file = rootLocation.resolve(key + ".pdf");
+
+		if (!Files.isRegularFile(file)) {
+			synchronized (renderLocks[Math.floorMod(key.hashCode(), renderLocks.length)]) {
+				if (!Files.isRegularFile(file) && !render(orderId, type, file)) {
+					return Optional.empty();
+				}
+			}
+		}
+
+		String etag = etags.get(key);
+		if (etag == null) {
+			etag = "\"" + contentHash(file) + "\"";
+			etags.put(key, etag);
+		}
+		return Optional.of(new CachedDocument(file, etag, Files.size(file)));
+	}
+
+	// Nodes render their own copies, which may differ byte for byte, so the ETag comes from the bytes
+	private static String contentHash(Path file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		return HexFormat.of().formatHex(digest.digest(), 0, 16);
+	}
+
+	private synchronized void sweepOtherVersions(long settingsVersion) {
+		if (settingsVersion == sweptVersion) {
+			return;
+		}
+		String current = "_v" + settingsVersion + ".pdf";
+		int removed = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(rootLocation, "ORD-*.pdf")) {
+			for (Path entry : stream) {
+				String name = entry.getFileName().toString();
+				if (!name.endsWith(current) && Files.deleteIfExists(entry)) {
+					etags.remove(name.substring(0, name.length() - ".pdf".length()));
+					removed++;
+				}
+			}
+			sweptVersion = settingsVersion;
+		} catch (IOException e) {
+			log.error("Failed to sweep order documents of old settings versions: {}", e.getMessage(), e);
+		}
+		if (removed > 0) {
+			log.info("Removed {} cached order document(s) of other settings versions.", removed);
+		}
+	}
+
+	private boolean render(Long orderId, String type, Path target) throws IOException {
+		Optional<Order> orderOpt = orderService.findOrderForInvoice(orderId);
+		if (orderOpt.isEmpty() || !isCacheable(orderOpt.get().getStatus())) {
+			return false;
+		}
+
+		Path tempFile = Files.createTempFile(rootLocation, "ORD-" + orderId + "_", ".tmp");
+		try {
+			try (InputStream pdf = pdfService.generateOrderDocumentPdf(orderOpt.get(), type)) {
+				Files.copy(pdf, tempFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			log.info("Cached {} for Order #{} ({} bytes)", type, orderId, Files.size(target));
+			return true;
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	@Override
+	public void prerender(Long orderId) {
+		try {
+			prerenderExecutor.execute(() -> {
+				for (String type : DOCUMENT_TYPES) {
+					try {
+						getDocument(orderId, type);
+					} catch (Exception e) {
+						log.warn("Could not pre-render {} for Order #{}: {}", type, orderId, e.getMessage());
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// Falls back to rendering on first download
+			log.debug("Pre-render queue full; skipping Order #{}", orderId);
+		}
+	}
+
+	@Override
+	public void invalidateAll() {
+		int removed = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(rootLocation, "ORD-*.pdf")) {
+			for (Path entry : stream) {
+				if (Files.deleteIfExists(entry)) {
+					removed++;
+				}
+			}
+		} catch (IOException e) {
+			log.error("Failed to clear order document cache: {}", e.getMessage(), e);
+		}
+		etags.clear();
+		log.info("Cleared {} cached order document(s).", removed);
+	}
+}
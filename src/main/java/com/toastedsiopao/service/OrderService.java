@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
@@ -45,8 +46,6 @@ public interface OrderService {
 
 	List<Map<String, Object>> getTopSellingProducts(int limit);
 
-	Map<String, BigDecimal> getSalesDataForChart(LocalDateTime start, LocalDateTime end);
-
 	BigDecimal getTotalRevenueAllTime();
 
 	long getTotalTransactionsAllTime();
@@ -61,9 +60,20 @@ public interface OrderService {
 
 	BigDecimal getCogsThisMonth();
 	
-	List<Order> findDeliveredOrdersForReport(String keyword, LocalDateTime start, LocalDateTime end);
-
-	BigDecimal calculateCogsForOrder(Order order);
+	/**
+	 * Visits the delivered orders matching the financial report filters, with their
+	 * items and products, one at a time from a database cursor, detaching each one
+	 * afterwards so memory stays flat.
+	 * The action must not query the database.
+	 */
+	void forEachDeliveredOrderForReport(String keyword, LocalDateTime start, LocalDateTime end,
+			Consumer<Order> action);
 
 	Optional<Order> findOrderForInvoice(Long orderId);
+
+	record OrderAccess(Long ownerId, String status) {
+	}
+
+	// Owner and status only, for access checks that do not need the whole order
+	Optional<OrderAccess> findOrderAccess(Long orderId);
 }
\ No newline at end of file
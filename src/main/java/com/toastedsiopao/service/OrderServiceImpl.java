@@ -4,15 +4,15 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.toastedsiopao.dto.OrderSubmitDto;
 import com.toastedsiopao.model.CartItem;
-import com.toastedsiopao.model.InventoryItem;
 import com.toastedsiopao.model.Order;
 import com.toastedsiopao.model.OrderItem;
 import com.toastedsiopao.model.Product;
-import com.toastedsiopao.model.RecipeIngredient;
 import com.toastedsiopao.model.User;
 import com.toastedsiopao.repository.OrderRepository;
 import com.toastedsiopao.repository.ProductRepository;
 import jakarta.mail.MessagingException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,11 +36,12 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -72,6 +73,18 @@ public class OrderServiceImpl implements OrderService {
 	@Autowired
 	private CartService cartService;
 
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	@Autowired
+	private DashboardEventService dashboardEventService;
+
+	@Autowired
+	private SalesRollupService salesRollupService;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	private static class CartItemDto {
 		public String name;
 		public double price;
@@ -184,6 +197,7 @@ public class OrderServiceImpl implements OrderService {
 		}
 
 		log.info("Successfully created Order #{} for user {}", savedOrder.getId(), user.getUsername());
+		publishOrderChange(savedOrder, null);
 
 		String notifMessage = "New " + savedOrder.getPaymentMethod().toUpperCase() + " order (#" + savedOrder.getId()
 				+ ") placed by " + user.getUsername() + ".";
@@ -351,10 +365,12 @@ public class OrderServiceImpl implements OrderService {
 					"This order can no longer be cancelled as it is already " + order.getStatus());
 		}
 
+		String previousStatus = order.getStatus();
 		order.setStatus(Order.STATUS_CANCELLED);
 		order.setPaymentStatus(Order.PAYMENT_CANCELLED);
 
 		reverseStockForOrder(order, "Order #" + order.getId() + " Cancelled by Customer");
+		publishOrderChange(order, previousStatus);
 
 		String notifMessage = "Customer " + customer.getUsername() + " cancelled order #" + order.getId() + ".";
 		String notifLink = "/admin/orders?status=CANCELLED";
@@ -382,6 +398,7 @@ public class OrderServiceImpl implements OrderService {
 
 		log.info("Order #{} accepted. Status set to PROCESSING.", orderId);
 		Order savedOrder = orderRepository.save(order);
+		publishOrderChange(savedOrder, currentStatus);
 
 		String subject = "Your Order has been Accepted!";
 		String message = "We're happy to let you know that your order (#" + savedOrder.getId()
@@ -415,6 +432,7 @@ public class OrderServiceImpl implements OrderService {
 
 		log.info("Order #{} rejected. Status set to REJECTED.", orderId);
 		Order savedOrder = orderRepository.save(order);
+		publishOrderChange(savedOrder, currentStatus);
 
 		String message = "Unfortunately, your order (#" + savedOrder.getId()
 				+ ") has been rejected. Stock has been reversed. If this was a GCash order, please contact us for a refund.";
@@ -436,6 +454,7 @@ public class OrderServiceImpl implements OrderService {
 
 		log.info("Order #{} status set to OUT_FOR_DELIVERY.", orderId);
 		Order savedOrder = orderRepository.save(order);
+		publishOrderChange(savedOrder, Order.STATUS_PROCESSING);
 
 		String subject = "Your Order is Out for Delivery!";
 		String message = "Get ready! Your order (#" + savedOrder.getId()
@@ -467,10 +486,14 @@ public class OrderServiceImpl implements OrderService {
 		}
 
 		order.setStatus(Order.STATUS_DELIVERED);
+		order.setDeliveredAt(LocalDateTime.now(clock));
 		order.setPaymentStatus(Order.PAYMENT_PAID);
 
 		log.info("COD Order #{} status set to DELIVERED and PAID.", orderId);
 		Order savedOrder = orderRepository.save(order);
+		dataVersionService.dataChanged(DataVersionService.DATA_ORDERS);
+		salesRollupService.recordDelivery(savedOrder);
+		publishOrderChange(savedOrder, Order.STATUS_OUT_FOR_DELIVERY);
 
 		String subject = "Your Order is Complete!";
 		String message = "Your order (#" + savedOrder.getId()
@@ -507,9 +530,13 @@ public class OrderServiceImpl implements OrderService {
 		}
 
 		order.setStatus(Order.STATUS_DELIVERED);
+		order.setDeliveredAt(LocalDateTime.now(clock));
 
 		log.info("Pre-Paid Order #{} status set to DELIVERED.", orderId);
 		Order savedOrder = orderRepository.save(order);
+		dataVersionService.dataChanged(DataVersionService.DATA_ORDERS);
+		salesRollupService.recordDelivery(savedOrder);
+		publishOrderChange(savedOrder, Order.STATUS_OUT_FOR_DELIVERY);
 
 		String subject = "Your Order has been Delivered!";
 		String message = "Your order (#" + savedOrder.getId()
@@ -526,33 +553,17 @@ public class OrderServiceImpl implements OrderService {
 		return savedOrder;
 	}
 
+	private void publishOrderChange(Order order, String previousStatus) {
+		BigDecimal cogs = Order.STATUS_DELIVERED.equals(order.getStatus()) ? calculateOrderCogs(order) : null;
+		dashboardEventService.orderChanged(order, previousStatus, cogs);
+	}
+
 	private BigDecimal calculateOrderCogs(Order order) {
 		BigDecimal totalCogs = BigDecimal.ZERO;
 
 		for (OrderItem orderItem : order.getItems()) {
-			Product product = orderItem.getProduct();
-			int orderedQuantity = orderItem.getQuantity();
-
-			if (product.getIngredients() == null || product.getIngredients().isEmpty()) {
-				log.warn("Product '{}' in order #{} has no ingredients defined. Skipping COGS.", product.getName(),
-						order.getId());
-				continue;
-			}
-
-			for (RecipeIngredient ingredient : product.getIngredients()) {
-				BigDecimal quantityNeeded = ingredient.getQuantityNeeded();
-				InventoryItem item = ingredient.getInventoryItem();
-
-				if (item == null || item.getCostPerUnit() == null || quantityNeeded == null) {
-					log.warn("Invalid ingredient data for product '{}'. Skipping ingredient COGS.", product.getName());
-					continue;
-				}
-
-				BigDecimal itemCogs = quantityNeeded.multiply(item.getCostPerUnit())
-						.multiply(new BigDecimal(orderedQuantity));
-
-				totalCogs = totalCogs.add(itemCogs);
-			}
+			BigDecimal unitCost = productService.getUnitCost(orderItem.getProduct().getId());
+			totalCogs = totalCogs.add(unitCost.multiply(new BigDecimal(orderItem.getQuantity())));
 		}
 
 		return totalCogs;
@@ -561,11 +572,10 @@ public class OrderServiceImpl implements OrderService {
 	@Override
 	@Transactional(readOnly = true)
 	public BigDecimal getEstimatedCogsBetweenDates(LocalDateTime start, LocalDateTime end) {
-		List<Order> deliveredOrders = orderRepository.findDeliveredOrdersWithCogsDetails(null, start, end);
-
 		BigDecimal totalCogs = BigDecimal.ZERO;
-		for (Order order : deliveredOrders) {
-			totalCogs = totalCogs.add(calculateOrderCogs(order));
+		for (Object[] row : orderRepository.sumDeliveredQuantityByProductOrderedBetween(start, end)) {
+			BigDecimal unitCost = productService.getUnitCost((Long) row[0]);
+			totalCogs = totalCogs.add(unitCost.multiply(BigDecimal.valueOf(((Number) row[1]).longValue())));
 		}
 
 		return totalCogs;
@@ -637,43 +647,6 @@ public class OrderServiceImpl implements OrderService {
 				.collect(Collectors.toList());
 	}
 
-// --- MODIFIED: Pre-fill missing dates with 0 ---
-	@Override
-	@Transactional(readOnly = true)
-	public Map<String, BigDecimal> getSalesDataForChart(LocalDateTime start, LocalDateTime end) {
-		// 1. Initialize map with all dates in range set to 0 (LinkedHashMap keeps
-		// insertion order)
-		Map<String, BigDecimal> salesMap = new LinkedHashMap<>();
-		LocalDate current = start.toLocalDate();
-		LocalDate endDate = end.toLocalDate();
-
-		while (!current.isAfter(endDate)) {
-			salesMap.put(current.toString(), BigDecimal.ZERO);
-			current = current.plusDays(1);
-		}
-
-		// 2. Fetch actual data from DB
-		List<Object[]> results = orderRepository.findSalesDataBetweenDates(start, end);
-
-		// 3. Overlay actual data onto the map
-		for (Object[] row : results) {
-			// row[0] is the date (might be java.sql.Date or String depending on driver),
-			// row[1] is total amount
-			if (row[0] != null && row[1] != null) {
-				String dateStr = row[0].toString(); // Safely convert date to string "yyyy-MM-dd"
-				BigDecimal amount = (BigDecimal) row[1];
-
-				// Only update if the date is within our generated range (it should be)
-				if (salesMap.containsKey(dateStr)) {
-					salesMap.put(dateStr, amount);
-				}
-			}
-		}
-
-		return salesMap;
-	}
-// --- END MODIFIED ---
-
 	@Override
 	@Transactional(readOnly = true)
 	public BigDecimal getTotalRevenueAllTime() {
@@ -696,19 +669,27 @@ public class OrderServiceImpl implements OrderService {
 
 	@Override
 	@Transactional(readOnly = true)
-	public List<Order> findDeliveredOrdersForReport(String keyword, LocalDateTime start, LocalDateTime end) {
-		return orderRepository.findDeliveredOrdersWithCogsDetails(keyword, start, end);
+	public void forEachDeliveredOrderForReport(String keyword, LocalDateTime start, LocalDateTime end,
+			Consumer<Order> action) {
+		try (Stream<Order> orders = orderRepository.streamDeliveredOrdersWithCogsDetails(keyword, start, end)) {
+			orders.forEach(order -> {
+				action.accept(order);
+				// Cascades to the items; products stay managed and are shared across orders
+				entityManager.detach(order);
+			});
+		}
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	public BigDecimal calculateCogsForOrder(Order order) {
-		return calculateOrderCogs(order);
+	public Optional<Order> findOrderForInvoice(Long orderId) {
+		return orderRepository.findOrderForInvoiceById(orderId);
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	public Optional<Order> findOrderForInvoice(Long orderId) {
-		return orderRepository.findOrderForInvoiceById(orderId);
+	public Optional<OrderAccess> findOrderAccess(Long orderId) {
+		return orderRepository.findOwnerAndStatusById(orderId).stream().findFirst()
+				.map(row -> new OrderAccess((Long) row[0], (String) row[1]));
 	}
 }
\ No newline at end of file
@@ -4,18 +4,30 @@ import com.toastedsiopao.model.ActivityLogEntry;
 import com.toastedsiopao.model.InventoryItem;
 import com.toastedsiopao.model.Order;
 import com.toastedsiopao.model.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.toastedsiopao.service.FinancialReportDataService.FinancialReportRow;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map; // Added
+import java.util.function.Consumer;
 
 public interface PdfService {
 
-	ByteArrayInputStream generateFinancialReportPdf(List<Order> orders, LocalDateTime start, LocalDateTime end)
+	/**
+	 * Pushes report rows to a PDF writer, typically straight off a database cursor,
+	 * so the streamed reports never hold the full row set. Tables are rendered and
+	 * released in chunks as rows arrive, and the document goes straight to
+	 * {@code out}, which is left open.
+	 */
+	@FunctionalInterface
+	interface RowSource<T> {
+		void forEach(Consumer<T> action);
+	}
+
+	void writeFinancialReportPdf(RowSource<FinancialReportRow> orders, LocalDateTime start, LocalDateTime end, OutputStream out)
 			throws IOException;
 
 	ByteArrayInputStream generateInventoryReportPdf(List<InventoryItem> items, String keyword, Long categoryId)
@@ -26,11 +38,11 @@ public interface PdfService {
 
 	ByteArrayInputStream generateOrderDocumentPdf(Order order, String documentType) throws IOException;
 
-	ByteArrayInputStream generateActivityLogPdf(Page<ActivityLogEntry> logPage, String keyword, String startDate,
-			String endDate) throws IOException;
+	void writeActivityLogPdf(RowSource<ActivityLogEntry> entries, String keyword, String startDate, String endDate,
+			OutputStream out) throws IOException;
 
-	ByteArrayInputStream generateWasteLogPdf(Page<ActivityLogEntry> logPage, String keyword, String reasonCategory,
-			String wasteType, String startDate, String endDate) throws IOException;
+	void writeWasteLogPdf(RowSource<ActivityLogEntry> entries, String keyword, String reasonCategory,
+			String wasteType, String startDate, String endDate, OutputStream out) throws IOException;
 
 	// --- NEW ---
 	ByteArrayInputStream generateDashboardPdf(Map<String, Object> data) throws IOException;
@@ -4,8 +4,11 @@ import com.lowagie.text.*;
 import com.lowagie.text.Font;
 import com.lowagie.text.Image;
 import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfContentByte;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfTemplate;
 import com.lowagie.text.pdf.PdfWriter;
 import com.toastedsiopao.model.ActivityLogEntry;
 import com.toastedsiopao.model.InventoryItem;
@@ -13,11 +16,11 @@ import com.toastedsiopao.model.Order;
 import com.toastedsiopao.model.OrderItem;
 import com.toastedsiopao.model.Product;
 import com.toastedsiopao.model.SiteSettings;
+import com.toastedsiopao.service.FinancialReportDataService.FinancialReportRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -26,6 +29,7 @@ import java.awt.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -42,9 +46,6 @@ public class PdfServiceImpl implements PdfService {
 	@Autowired
 	private SiteSettingsService siteSettingsService;
 
-	@Autowired
-	private OrderService orderService;
-
 	@Autowired
 	private InventoryItemService inventoryItemService;
 
@@ -76,15 +77,20 @@ public class PdfServiceImpl implements PdfService {
 	private static final Color COLOR_TABLE_HEADER_BG = new Color(17, 63, 103);
 	private static final Color COLOR_TOTAL_ROW_BG = new Color(240, 240, 240);
 
+	// Streamed tables render and release their rows every this many records
+	private static final int PDF_FLUSH_ROWS = 50;
+	private static final float SUMMARY_VALUE_WIDTH = 200f;
+	private static final float SUMMARY_VALUE_HEIGHT = 14f;
+
 	@Override
-	public ByteArrayInputStream generateFinancialReportPdf(List<Order> orders, LocalDateTime start, LocalDateTime end)
-			throws IOException {
+	public void writeFinancialReportPdf(RowSource<FinancialReportRow> orders, LocalDateTime start, LocalDateTime end,
+			OutputStream out) throws IOException {
 		SiteSettings settings = siteSettingsService.getSiteSettings();
 		DateTimeFormatter dtf = DateTimeFormatter.ofPattern("MMM dd, yyyy");
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
 
 		try (Document document = new Document(PageSize.A4.rotate())) {
-			PdfWriter.getInstance(document, out);
+			PdfWriter writer = PdfWriter.getInstance(document, out);
+			writer.setCloseStream(false);
 			document.open();
 
 			Paragraph title = new Paragraph(settings.getWebsiteName() + " - Financial Report", FONT_TITLE);
@@ -104,14 +110,13 @@ public class PdfServiceImpl implements PdfService {
 			subtitle.setSpacingAfter(15f);
 			document.add(subtitle);
 
-			BigDecimal totalSales = BigDecimal.ZERO;
-			BigDecimal totalCogs = BigDecimal.ZERO;
-
-			for (Order order : orders) {
-				totalSales = totalSales.add(order.getTotalAmount());
-				totalCogs = totalCogs.add(orderService.calculateCogsForOrder(order));
-			}
-			BigDecimal grossProfit = totalSales.subtract(totalCogs);
+			// The totals are only known once every order has been read, so the summary
+			// values are templates that get their text just before the document closes.
+			PdfContentByte canvas = writer.getDirectContent();
+			PdfTemplate salesValue = canvas.createTemplate(SUMMARY_VALUE_WIDTH, SUMMARY_VALUE_HEIGHT);
+			PdfTemplate orderCountValue = canvas.createTemplate(SUMMARY_VALUE_WIDTH, SUMMARY_VALUE_HEIGHT);
+			PdfTemplate cogsValue = canvas.createTemplate(SUMMARY_VALUE_WIDTH, SUMMARY_VALUE_HEIGHT);
+			PdfTemplate profitValue = canvas.createTemplate(SUMMARY_VALUE_WIDTH, SUMMARY_VALUE_HEIGHT);
 
 			PdfPTable summaryTable = new PdfPTable(4);
 			summaryTable.setWidthPercentage(100);
@@ -119,20 +124,21 @@ public class PdfServiceImpl implements PdfService {
 			summaryTable.setSpacingAfter(20f);
 
 			addSummaryCell(summaryTable, "Total Sales:", FONT_TOTAL_HEADER, Element.ALIGN_RIGHT);
-			addSummaryCell(summaryTable, formatCurrency(totalSales), FONT_TOTAL_CELL, Element.ALIGN_LEFT);
+			addSummaryPlaceholderCell(summaryTable, salesValue);
 			addSummaryCell(summaryTable, "Total Orders Included:", FONT_TOTAL_HEADER, Element.ALIGN_RIGHT);
-			addSummaryCell(summaryTable, String.valueOf(orders.size()), FONT_TOTAL_CELL, Element.ALIGN_LEFT);
+			addSummaryPlaceholderCell(summaryTable, orderCountValue);
 
 			addSummaryCell(summaryTable, "Total COGS:", FONT_TOTAL_HEADER, Element.ALIGN_RIGHT);
-			addSummaryCell(summaryTable, formatCurrency(totalCogs), FONT_TOTAL_CELL, Element.ALIGN_LEFT);
+			addSummaryPlaceholderCell(summaryTable, cogsValue);
 			addSummaryCell(summaryTable, "Gross Profit:", FONT_TOTAL_HEADER, Element.ALIGN_RIGHT);
-			addSummaryCell(summaryTable, formatCurrency(grossProfit), FONT_TOTAL_CELL, Element.ALIGN_LEFT);
+			addSummaryPlaceholderCell(summaryTable, profitValue);
 
 			document.add(summaryTable);
 
 			PdfPTable detailTable = new PdfPTable(7);
 			detailTable.setWidthPercentage(100);
 			detailTable.setWidths(new float[] { 1f, 1.5f, 2f, 3f, 1.2f, 1.2f, 1.2f });
+			detailTable.setComplete(false);
 
 			addTableHeader(detailTable, "Order ID");
 			addTableHeader(detailTable, "Date");
@@ -143,37 +149,42 @@ public class PdfServiceImpl implements PdfService {
 			addTableHeader(detailTable, "Est. Profit");
 
 			DateTimeFormatter orderDtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-			for (Order order : orders) {
-				BigDecimal orderCogs = orderService.calculateCogsForOrder(order);
-				BigDecimal orderProfit = order.getTotalAmount().subtract(orderCogs);
-
-				String items = order.getItems().stream()
-						.map(item -> item.getQuantity() + "x " + item.getProduct().getName())
-						.collect(Collectors.joining("\n"));
-
-				addTableCell(detailTable, "ORD-" + order.getId(), FONT_TABLE_CELL, Element.ALIGN_LEFT);
-				addTableCell(detailTable, order.getOrderDate().format(orderDtf), FONT_TABLE_CELL, Element.ALIGN_LEFT);
-				addTableCell(detailTable, order.getShippingFirstName() + " " + order.getShippingLastName(),
-						FONT_TABLE_CELL, Element.ALIGN_LEFT);
-				addTableCell(detailTable, items, FONT_TABLE_CELL, Element.ALIGN_LEFT);
-				addTableCell(detailTable, formatCurrency(order.getTotalAmount()), FONT_TABLE_CELL, Element.ALIGN_RIGHT);
-				addTableCell(detailTable, formatCurrency(orderCogs), FONT_TABLE_CELL, Element.ALIGN_RIGHT);
-				addTableCell(detailTable, formatCurrency(orderProfit), FONT_TABLE_CELL, Element.ALIGN_RIGHT);
-			}
+			BigDecimal[] totals = { BigDecimal.ZERO, BigDecimal.ZERO };
+			long[] orderCount = { 0 };
+			orders.forEach(order -> {
+				addTableCell(detailTable, "ORD-" + order.orderId(), FONT_TABLE_CELL, Element.ALIGN_LEFT);
+				addTableCell(detailTable, order.orderDate().format(orderDtf), FONT_TABLE_CELL, Element.ALIGN_LEFT);
+				addTableCell(detailTable, order.customerName(), FONT_TABLE_CELL, Element.ALIGN_LEFT);
+				addTableCell(detailTable, order.items("\n"), FONT_TABLE_CELL, Element.ALIGN_LEFT);
+				addTableCell(detailTable, formatCurrency(order.sales()), FONT_TABLE_CELL, Element.ALIGN_RIGHT);
+				addTableCell(detailTable, formatCurrency(order.cogs()), FONT_TABLE_CELL, Element.ALIGN_RIGHT);
+				addTableCell(detailTable, formatCurrency(order.profit()), FONT_TABLE_CELL, Element.ALIGN_RIGHT);
+
+				totals[0] = totals[0].add(order.sales());
+				totals[1] = totals[1].add(order.cogs());
+				flushStreamedRows(document, detailTable, ++orderCount[0]);
+			});
+			BigDecimal totalSales = totals[0];
+			BigDecimal totalCogs = totals[1];
+			BigDecimal grossProfit = totalSales.subtract(totalCogs);
 
 			addTableFooterCell(detailTable, "Grand Totals:", FONT_TOTAL_HEADER, Element.ALIGN_RIGHT, 4);
 			addTableFooterCell(detailTable, formatCurrency(totalSales), FONT_TOTAL_CELL, Element.ALIGN_RIGHT, 1);
 			addTableFooterCell(detailTable, formatCurrency(totalCogs), FONT_TOTAL_CELL, Element.ALIGN_RIGHT, 1);
 			addTableFooterCell(detailTable, formatCurrency(grossProfit), FONT_TOTAL_CELL, Element.ALIGN_RIGHT, 1);
 
+			detailTable.setComplete(true);
 			document.add(detailTable);
 
+			fillSummaryPlaceholder(salesValue, formatCurrency(totalSales));
+			fillSummaryPlaceholder(orderCountValue, String.valueOf(orderCount[0]));
+			fillSummaryPlaceholder(cogsValue, formatCurrency(totalCogs));
+			fillSummaryPlaceholder(profitValue, formatCurrency(grossProfit));
+
 		} catch (DocumentException e) {
 			log.error("DocumentException during PDF generation: {}", e.getMessage(), e);
 			throw new IOException("Error creating PDF document", e);
 		}
-
-		return new ByteArrayInputStream(out.toByteArray());
 	}
 
 	@Override
@@ -496,7 +507,7 @@ public class PdfServiceImpl implements PdfService {
 					Resource imageResource = fileStorageService.loadAsResource(order.getPaymentReceiptImageUrl());
 
 					if (imageResource != null && imageResource.exists()) {
-						Image img = Image.getInstance(imageResource.getFile().getAbsolutePath());
+						Image img = Image.getInstance(imageResource.getContentAsByteArray());
 
 						// Scale image to fit page
 						float maxWidth = document.getPageSize().getWidth() - document.leftMargin()
@@ -545,15 +556,14 @@ public class PdfServiceImpl implements PdfService {
 	}
 
 	@Override
-	public ByteArrayInputStream generateActivityLogPdf(Page<ActivityLogEntry> logPage, String keyword, String startDate,
-			String endDate) throws IOException {
+	public void writeActivityLogPdf(RowSource<ActivityLogEntry> entries, String keyword, String startDate,
+			String endDate, OutputStream out) throws IOException {
 		SiteSettings settings = siteSettingsService.getSiteSettings();
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
 
 		DateTimeFormatter genDateFmt = DateTimeFormatter.ofPattern("MMM dd, yyyy h:mm a");
 
 		try (Document document = new Document(PageSize.A4.rotate())) {
-			PdfWriter.getInstance(document, out);
+			PdfWriter.getInstance(document, out).setCloseStream(false);
 			document.open();
 
 			Paragraph title = new Paragraph(settings.getWebsiteName() + " - Admin Activity Log", FONT_TITLE);
@@ -587,34 +597,36 @@ public class PdfServiceImpl implements PdfService {
 			PdfPTable detailTable = new PdfPTable(4);
 			detailTable.setWidthPercentage(100);
 			detailTable.setWidths(new float[] { 1.5f, 1f, 1.5f, 4f });
+			detailTable.setComplete(false);
 			addTableHeader(detailTable, "Timestamp");
 			addTableHeader(detailTable, "User");
 			addTableHeader(detailTable, "Action");
 			addTableHeader(detailTable, "Details");
 			DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-			for (ActivityLogEntry logEntry : logPage.getContent()) {
+			long[] rowCount = { 0 };
+			entries.forEach(logEntry -> {
 				addTableCell(detailTable, logEntry.getTimestamp().format(dtf), FONT_TABLE_CELL, Element.ALIGN_LEFT);
 				addTableCell(detailTable, logEntry.getUsername(), FONT_TABLE_CELL, Element.ALIGN_LEFT);
 				addTableCell(detailTable, logEntry.getAction(), FONT_TABLE_CELL, Element.ALIGN_LEFT);
 				addTableCell(detailTable, logEntry.getDetails(), FONT_TABLE_CELL, Element.ALIGN_LEFT);
-			}
+				flushStreamedRows(document, detailTable, ++rowCount[0]);
+			});
+			detailTable.setComplete(true);
 			document.add(detailTable);
 		} catch (DocumentException e) {
 			throw new IOException("Error creating PDF document", e);
 		}
-		return new ByteArrayInputStream(out.toByteArray());
 	}
 
 	@Override
-	public ByteArrayInputStream generateWasteLogPdf(Page<ActivityLogEntry> logPage, String keyword,
-			String reasonCategory, String wasteType, String startDate, String endDate) throws IOException {
+	public void writeWasteLogPdf(RowSource<ActivityLogEntry> entries, String keyword, String reasonCategory,
+			String wasteType, String startDate, String endDate, OutputStream out) throws IOException {
 		SiteSettings settings = siteSettingsService.getSiteSettings();
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
 
 		DateTimeFormatter genDateFmt = DateTimeFormatter.ofPattern("MMM dd, yyyy h:mm a");
 
 		try (Document document = new Document(PageSize.A4.rotate())) {
-			PdfWriter.getInstance(document, out);
+			PdfWriter.getInstance(document, out).setCloseStream(false);
 			document.open();
 			Paragraph title = new Paragraph(settings.getWebsiteName() + " - Waste & Spoilage Log", FONT_TITLE);
 			title.setAlignment(Element.ALIGN_CENTER);
@@ -653,6 +665,7 @@ public class PdfServiceImpl implements PdfService {
 			PdfPTable detailTable = new PdfPTable(7);
 			detailTable.setWidthPercentage(100);
 			detailTable.setWidths(new float[] { 1.2f, 1.0f, 1.0f, 1.5f, 1.0f, 1.0f, 2.0f });
+			detailTable.setComplete(false);
 
 			addTableHeader(detailTable, "Timestamp");
 			addTableHeader(detailTable, "Admin User");
@@ -663,12 +676,13 @@ public class PdfServiceImpl implements PdfService {
 			addTableHeader(detailTable, "Details");
 
 			DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-			BigDecimal grandTotalWaste = BigDecimal.ZERO;
+			BigDecimal[] grandTotalWaste = { BigDecimal.ZERO };
+			long[] rowCount = { 0 };
 
-			for (ActivityLogEntry logEntry : logPage.getContent()) {
+			entries.forEach(logEntry -> {
 				addTableCell(detailTable, logEntry.getTimestamp().format(dtf), FONT_TABLE_CELL, Element.ALIGN_LEFT);
 				addTableCell(detailTable, logEntry.getUsername(), FONT_TABLE_CELL, Element.ALIGN_LEFT);
-				String reason = logEntry.getAction().replace("STOCK_WASTE_", "").replace("PRODUCT_WASTE_", "");
+				String reason = logEntry.getWasteReason();
 				addTableCell(detailTable, reason, FONT_TABLE_CELL, Element.ALIGN_CENTER);
 				addTableCell(detailTable, logEntry.getItemName() != null ? logEntry.getItemName() : "N/A",
 						FONT_TABLE_CELL, Element.ALIGN_LEFT);
@@ -681,23 +695,24 @@ public class PdfServiceImpl implements PdfService {
 
 				if (logEntry.getTotalValue() != null) {
 					createCurrencyCell(detailTable, logEntry.getTotalValue(), FONT_TABLE_CELL);
-					grandTotalWaste = grandTotalWaste.add(logEntry.getTotalValue());
+					grandTotalWaste[0] = grandTotalWaste[0].add(logEntry.getTotalValue());
 				} else {
 					addTableCell(detailTable, "N/A", FONT_TABLE_CELL, Element.ALIGN_RIGHT);
 				}
 
 				addTableCell(detailTable, logEntry.getDetails(), FONT_TABLE_CELL, Element.ALIGN_LEFT);
-			}
+				flushStreamedRows(document, detailTable, ++rowCount[0]);
+			});
 
 			addTableFooterCell(detailTable, "Total Waste Value:", FONT_TOTAL_HEADER, Element.ALIGN_RIGHT, 5);
-			addTableFooterCell(detailTable, formatCurrency(grandTotalWaste), FONT_TOTAL_CELL, Element.ALIGN_RIGHT, 1);
+			addTableFooterCell(detailTable, formatCurrency(grandTotalWaste[0]), FONT_TOTAL_CELL, Element.ALIGN_RIGHT, 1);
 			addTableFooterCell(detailTable, "", FONT_TOTAL_CELL, Element.ALIGN_RIGHT, 1);
 
+			detailTable.setComplete(true);
 			document.add(detailTable);
 		} catch (DocumentException e) {
 			throw new IOException("Error creating PDF document", e);
 		}
-		return new ByteArrayInputStream(out.toByteArray());
 	}
 
 	@Override
@@ -859,6 +874,31 @@ public class PdfServiceImpl implements PdfService {
 		table.addCell(cell);
 	}
 
+	private void flushStreamedRows(Document document, PdfPTable table, long rowCount) {
+		if (rowCount % PDF_FLUSH_ROWS == 0) {
+			document.add(table);
+		}
+	}
+
+	private void addSummaryPlaceholderCell(PdfPTable table, PdfTemplate template) {
+		PdfPCell cell = new PdfPCell(Image.getInstance(template), false);
+		cell.setBorder(Rectangle.NO_BORDER);
+		cell.setHorizontalAlignment(Element.ALIGN_LEFT);
+		cell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+		cell.setPadding(4);
+		table.addCell(cell);
+	}
+
+	private void fillSummaryPlaceholder(PdfTemplate template, String text) {
+		BaseFont baseFont = FONT_TOTAL_CELL.getCalculatedBaseFont(false);
+		float size = FONT_TOTAL_CELL.getSize();
+		template.beginText();
+		template.setFontAndSize(baseFont, size);
+		template.setTextMatrix(0, -baseFont.getFontDescriptor(BaseFont.DESCENT, size));
+		template.showText(text);
+		template.endText();
+	}
+
 	private void addSummaryCell(PdfPTable table, String text, Font font, int alignment) {
 		PdfPCell cell = new PdfPCell(new Phrase(text, font));
 		cell.setBorder(Rectangle.NO_BORDER);
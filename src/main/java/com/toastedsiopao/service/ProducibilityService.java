@@ -0,0 +1,33 @@
+package com.toastedsiopao.service;
+
+import java.util.Map;
+
+/**
+ * In-memory "how many can we make" index. Keeps an inventory item -> products
+ * inverse index so a stock change only recomputes the products that use it.
+ * <p>
+ * Changes are reported on the node that made them; the others rebuild once the
+ * inventory or product data version moves, checked every
+ * {@code index.version-check-seconds}.
+ */
+public interface ProducibilityService {
+
+	// The index and the best-seller list
+	void rebuild();
+
+	// Rebuilds the index (not the best sellers) when stock or recipes were written since the last rebuild
+	void rebuildIfChanged();
+
+	// Re-ranks the best sellers whose producibility raises alerts; run nightly
+	void refreshBestSellers();
+
+	// Both re-read the committed rows after the surrounding transaction commits
+	void stockChanged(Long inventoryItemId);
+
+	// Covers recipe edits, (de)activation and deletion of the product
+	void productChanged(Long productId);
+
+	int getMaxProducible(Long productId);
+
+	Map<Long, Integer> getAllMaxProducible();
+}
@@ -0,0 +1,267 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Product;
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.OrderRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import com.toastedsiopao.repository.RecipeIngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ProducibilityServiceImpl implements ProducibilityService {
+
+	private static final Logger log = LoggerFactory.getLogger(ProducibilityServiceImpl.class);
+
+	private record RecipeLine(Long inventoryItemId, BigDecimal quantityNeeded) {
+	}
+
+	private record BestSeller(String name, int threshold) {
+	}
+
+	private static final Set<String> DEPENDS_ON = Set.of(DataVersionService.DATA_INVENTORY,
+			DataVersionService.DATA_PRODUCTS);
+
+	@Autowired
+	private RecipeIngredientRepository recipeIngredientRepository;
+
+	@Autowired
+	private InventoryItemRepository inventoryItemRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	@Value("${producibility.best-seller-count:5}")
+	private int bestSellerCount;
+
+	// Guarded by "this"; readers only touch maxByProduct, which is swapped whole
+	private Map<Long, List<RecipeLine>> recipesByProduct = new HashMap<>();
+	private Map<Long, Set<Long>> productsByItem = new HashMap<>();
+	private Map<Long, BigDecimal> stockByItem = new HashMap<>();
+	private Map<Long, BestSeller> bestSellers = new HashMap<>();
+	private volatile Map<Long, Integer> maxByProduct = new ConcurrentHashMap<>();
+	private volatile Map<String, Long> indexedVersions = Map.of();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+	}
+
+	@Override
+	public synchronized void rebuild() {
+		rebuildIndex();
+		refreshBestSellers();
+	}
+
+	@Override
+	public void rebuildIfChanged() {
+		if (!dataVersionService.getVersions(DEPENDS_ON).equals(indexedVersions)) {
+			rebuildIndex();
+		}
+	}
+
+	@Override
+	public synchronized void refreshBestSellers() {
+		bestSellers = TransactionCallbacks.newReadOnlyTransaction(transactionManager).execute(status -> {
+			Map<Long, BestSeller> sellers = new HashMap<>();
+			for (Object[] row : orderRepository.findTopSellingProducts(PageRequest.of(0, bestSellerCount))) {
+				Product product = (Product) row[0];
+				sellers.put(product.getId(), new BestSeller(product.getName(), product.getLowStockThreshold()));
+			}
+			return sellers;
+		});
+		log.info("Refreshed producibility best sellers: {} product(s).", bestSellers.size());
+	}
+
+	private synchronized void rebuildIndex() {
+		TransactionCallbacks.newReadOnlyTransaction(transactionManager).executeWithoutResult(status -> {
+			// Same read view as the rows below, so a later write always moves a version past these
+			Map<String, Long> versions = dataVersionService.getVersions(DEPENDS_ON);
+			Map<Long, BigDecimal> stocks = new HashMap<>();
+			for (Object[] row : inventoryItemRepository.findAllStockLevels()) {
+				stocks.put((Long) row[0], (BigDecimal) row[1]);
+			}
+
+			Map<Long, List<RecipeLine>> recipes = new HashMap<>();
+			Map<Long, Set<Long>> inverse = new HashMap<>();
+			for (Object[] row : recipeIngredientRepository.findActiveRecipeLines()) {
+				Long productId = (Long) row[0];
+				Long itemId = (Long) row[1];
+				recipes.computeIfAbsent(productId, id -> new ArrayList<>()).add(new RecipeLine(itemId, (BigDecimal) row[2]));
+				inverse.computeIfAbsent(itemId, id -> new HashSet<>()).add(productId);
+			}
+
+			Map<Long, Integer> max = new ConcurrentHashMap<>();
+			recipes.forEach((productId, lines) -> max.put(productId, compute(lines, stocks)));
+
+			recipesByProduct = recipes;
+			productsByItem = inverse;
+			stockByItem = stocks;
+			maxByProduct = max;
+			indexedVersions = versions;
+		});
+		log.debug("Rebuilt producibility index: {} product recipe(s), {} ingredient(s).", recipesByProduct.size(),
+				productsByItem.size());
+	}
+
+	@Override
+	public void stockChanged(Long inventoryItemId) {
+		TransactionCallbacks.afterCommit(() -> applyStockChange(inventoryItemId));
+	}
+
+	@Override
+	public void productChanged(Long productId) {
+		TransactionCallbacks.afterCommit(() -> applyProductChange(productId));
+	}
+
+	@Override
+	public int getMaxProducible(Long productId) {
+		return maxByProduct.getOrDefault(productId, 0);
+	}
+
+	@Override
+	public Map<Long, Integer> getAllMaxProducible() {
+		return Collections.unmodifiableMap(maxByProduct);
+	}
+
+	// Callbacks from concurrent commits can run in any order, so each one re-reads
+	// the committed stock instead of trusting the value its transaction wrote
+	private synchronized void applyStockChange(Long inventoryItemId) {
+		Map<Long, BigDecimal> stocks = readStockLevels(Set.of(inventoryItemId));
+		if (stocks.isEmpty()) {
+			stockByItem.remove(inventoryItemId);
+		} else {
+			stockByItem.putAll(stocks);
+		}
+		Set<Long> affected = productsByItem.getOrDefault(inventoryItemId, Set.of());
+		for (Long productId : affected) {
+			int previous = maxByProduct.getOrDefault(productId, 0);
+			int current = compute(recipesByProduct.get(productId), stockByItem);
+			maxByProduct.put(productId, current);
+			checkBestSellerThreshold(productId, previous, current);
+		}
+		log.debug("Recomputed producibility for {} product(s) after stock change on item {}.", affected.size(),
+				inventoryItemId);
+	}
+
+	private synchronized void applyProductChange(Long productId) {
+		List<RecipeLine> lines = TransactionCallbacks.newReadOnlyTransaction(transactionManager).execute(status -> {
+			List<RecipeLine> read = new ArrayList<>();
+			for (Object[] row : recipeIngredientRepository.findActiveRecipeLinesByProduct(productId)) {
+				read.add(new RecipeLine((Long) row[0], (BigDecimal) row[1]));
+			}
+			// A best seller keeps its rank until the nightly refresh, but follows name and threshold edits
+			if (bestSellers.containsKey(productId)) {
+				productRepository.findById(productId).ifPresent(product -> updateBestSeller(product));
+			}
+			return read;
+		});
+
+		List<RecipeLine> previousLines = recipesByProduct.remove(productId);
+		if (previousLines != null) {
+			for (RecipeLine line : previousLines) {
+				Set<Long> products = productsByItem.get(line.inventoryItemId());
+				if (products != null && products.remove(productId) && products.isEmpty()) {
+					productsByItem.remove(line.inventoryItemId());
+				}
+			}
+		}
+		if (lines.isEmpty()) {
+			// Inactive, deleted or without a recipe
+			maxByProduct.remove(productId);
+			log.debug("Dropped product {} from the producibility index.", productId);
+			return;
+		}
+
+		Set<Long> itemIds = new HashSet<>();
+		for (RecipeLine line : lines) {
+			itemIds.add(line.inventoryItemId());
+			productsByItem.computeIfAbsent(line.inventoryItemId(), id -> new HashSet<>()).add(productId);
+		}
+		recipesByProduct.put(productId, lines);
+		stockByItem.putAll(readStockLevels(itemIds));
+		maxByProduct.put(productId, compute(lines, stockByItem));
+		log.debug("Recomputed producibility for product {} ({} ingredient(s)).", productId, lines.size());
+	}
+
+	private void updateBestSeller(Product product) {
+		Map<Long, BestSeller> sellers = new HashMap<>(bestSellers);
+		sellers.put(product.getId(), new BestSeller(product.getName(), product.getLowStockThreshold()));
+		bestSellers = sellers;
+	}
+
+	private Map<Long, BigDecimal> readStockLevels(Set<Long> itemIds) {
+		return TransactionCallbacks.newReadOnlyTransaction(transactionManager).execute(status -> {
+			Map<Long, BigDecimal> stocks = new HashMap<>();
+			for (Object[] row : inventoryItemRepository.findStockLevels(itemIds)) {
+				stocks.put((Long) row[0], (BigDecimal) row[1]);
+			}
+			return stocks;
+		});
+	}
+
+	private void checkBestSellerThreshold(Long productId, int previous, int current) {
+		BestSeller bestSeller = bestSellers.get(productId);
+		if (bestSeller == null || bestSeller.threshold() <= 0) {
+			return;
+		}
+		// Only alert on the crossing, not on every change while already below
+		if (previous >= bestSeller.threshold() && current < bestSeller.threshold()) {
+			String message = "Best-seller '" + bestSeller.name() + "' can only be made " + current
+					+ " more time(s) from current ingredients (threshold " + bestSeller.threshold() + ").";
+			log.warn(message);
+			try {
+				notificationService.createAdminNotification(message, "/admin/products");
+			} catch (Exception e) {
+				log.error("Failed to create producibility alert for product {}: {}", productId, e.getMessage());
+			}
+		}
+	}
+
+	private static int compute(List<RecipeLine> lines, Map<Long, BigDecimal> stocks) {
+		if (lines == null || lines.isEmpty()) {
+			return 0;
+		}
+		int maxPossible = Integer.MAX_VALUE;
+		for (RecipeLine line : lines) {
+			BigDecimal quantityNeeded = line.quantityNeeded();
+			if (quantityNeeded == null || quantityNeeded.compareTo(BigDecimal.ZERO) <= 0)
+				continue;
+			BigDecimal availableStock = stocks.get(line.inventoryItemId());
+			if (availableStock == null || availableStock.compareTo(quantityNeeded) < 0)
+				return 0;
+			maxPossible = Math.min(maxPossible, availableStock.divide(quantityNeeded, 0, RoundingMode.FLOOR).intValue());
+		}
+		return maxPossible == Integer.MAX_VALUE ? 0 : maxPossible;
+	}
+}
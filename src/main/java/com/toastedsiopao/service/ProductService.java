@@ -1,6 +1,7 @@
 package com.toastedsiopao.service;
 
 import com.toastedsiopao.dto.ProductDto;
+import com.toastedsiopao.dto.ProductionRunDto;
 import com.toastedsiopao.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -38,6 +39,9 @@ public interface ProductService {
 		return adjustStock(productId, quantityChange, reason, null, null);
 	}
 
+	// Produces several products in one transaction; all-or-nothing
+	List<Product> recordProductionRun(List<ProductionRunDto.Item> items);
+
 	long countAllProducts();
 
 	long countLowStockProducts();
@@ -45,12 +49,19 @@ public interface ProductService {
 	long countCriticalStockProducts();
 
 	long countOutOfStockProducts();
-	
-	// --- ADDED: Dynamic Metrics ---
-	Map<String, Object> getProductMetrics(String keyword, Long categoryId);
-	// --- END ADDED ---
 
 	int calculateMaxProducible(Long productId);
 
+	// Max producible per product id, served from the in-memory producibility index
+	Map<Long, Integer> calculateMaxProducibleForAll();
+
+	// Unit COGS (sum of quantityNeeded x costPerUnit), served from the recipe cost index
+	BigDecimal getUnitCost(Long productId);
+
+	Map<Long, BigDecimal> getUnitCosts();
+
+	// Same costs read from the database, for reports that are cached across nodes
+	Map<Long, BigDecimal> loadUnitCosts();
+
 	List<Product> findAllForReport(String keyword, Long categoryId);
 }
\ No newline at end of file
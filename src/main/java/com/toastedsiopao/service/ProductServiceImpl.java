@@ -1,13 +1,13 @@
 package com.toastedsiopao.service;
 
 import com.toastedsiopao.dto.ProductDto;
+import com.toastedsiopao.dto.ProductionRunDto;
 import com.toastedsiopao.dto.RecipeIngredientDto;
 import com.toastedsiopao.model.*;
 import com.toastedsiopao.repository.CategoryRepository;
 import com.toastedsiopao.repository.InventoryItemRepository;
 import com.toastedsiopao.repository.OrderItemRepository;
 import com.toastedsiopao.repository.ProductRepository;
-import com.toastedsiopao.service.InventoryItemService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,13 +20,17 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,7 +48,23 @@ public class ProductServiceImpl implements ProductService {
 	@Autowired
 	private OrderItemRepository orderItemRepository;
 	@Autowired
-	private InventoryItemService inventoryItemService;
+	private ProducibilityService producibilityService;
+	@Autowired
+	private RecipeCostService recipeCostService;
+	@Autowired
+	private StockMovementService stockMovementService;
+	@Autowired
+	private StockLotService stockLotService;
+	@Autowired
+	private StockAlertService stockAlertService;
+	@Autowired
+	private MetricsService metricsService;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	@Autowired
+	private Clock clock;
 
 	private void validateThresholds(Integer lowThreshold, Integer criticalThreshold) {
 		if (lowThreshold == null || lowThreshold <= 0) {
@@ -115,8 +135,9 @@ public class ProductServiceImpl implements ProductService {
 				.orElseThrow(() -> new RuntimeException("Category not found with id: " + productDto.getCategoryId()));
 
 		Product product;
-		LocalDate anchorDateForExpiration = LocalDate.now();
+		LocalDate anchorDateForExpiration = LocalDate.now(clock);
 		Integer oldExpirationDays = null;
+		String oldStockStatus = null;
 
 		boolean isNew = productDto.getId() == null;
 
@@ -126,6 +147,7 @@ public class ProductServiceImpl implements ProductService {
 
 			// Capture state before update for logic check
 			oldExpirationDays = product.getExpirationDays();
+			oldStockStatus = product.getStockStatus();
 			if (product.getStockLastUpdated() != null) {
 				anchorDateForExpiration = product.getStockLastUpdated().toLocalDate();
 			}
@@ -193,9 +215,9 @@ public class ProductServiceImpl implements ProductService {
 		if (productDto.getCreatedDate() != null) {
 			product.setCreatedDate(productDto.getCreatedDate());
 		} else if (isNew) {
-			product.setCreatedDate(LocalDate.now());
+			product.setCreatedDate(LocalDate.now(clock));
 		} else if (product.getCreatedDate() == null) {
-			product.setCreatedDate(LocalDate.now());
+			product.setCreatedDate(LocalDate.now(clock));
 		}
 
 		// 2. Update Expiration Date
@@ -213,7 +235,13 @@ public class ProductServiceImpl implements ProductService {
 		// --- END DATE LOGIC ---
 
 		try {
-			return productRepository.save(product);
+			Product savedProduct = productRepository.save(product);
+			producibilityService.productChanged(savedProduct.getId());
+			recipeCostService.recipeChanged(savedProduct.getId());
+			stockAlertService.productStatusChanged(savedProduct, oldStockStatus);
+			metricsService.invalidateProducts();
+			dataVersionService.dataChanged(DataVersionService.DATA_PRODUCTS);
+			return savedProduct;
 		} catch (Exception e) {
 			log.error("Error saving product: {}", e.getMessage(), e);
 			throw new RuntimeException("Could not save product.", e);
@@ -227,6 +255,7 @@ public class ProductServiceImpl implements ProductService {
 			throw new IllegalArgumentException("Has stock");
 		product.setProductStatus("INACTIVE");
 		productRepository.save(product);
+		producibilityService.productChanged(id);
 	}
 
 	@Override
@@ -234,6 +263,7 @@ public class ProductServiceImpl implements ProductService {
 		Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Not found"));
 		product.setProductStatus("ACTIVE");
 		productRepository.save(product);
+		producibilityService.productChanged(id);
 	}
 
 	@Override
@@ -243,7 +273,13 @@ public class ProductServiceImpl implements ProductService {
 			throw new IllegalArgumentException("Has stock");
 		if (orderItemRepository.countByProduct(product) > 0)
 			throw new DataIntegrityViolationException("History");
+		stockLotService.deleteProductLots(id);
 		productRepository.delete(product);
+		producibilityService.productChanged(id);
+		recipeCostService.productRemoved(id);
+		stockAlertService.productRemoved(id);
+		metricsService.invalidateProducts();
+		dataVersionService.dataChanged(DataVersionService.DATA_PRODUCTS);
 	}
 
 	@Override
@@ -313,70 +349,165 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
-	@Transactional(readOnly = true)
 	public long countLowStockProducts() {
-		return productRepository.countLowStockProducts();
+		return stockAlertService.getProductGauge().low();
 	}
 
 	@Override
-	@Transactional(readOnly = true)
 	public long countCriticalStockProducts() {
-		return productRepository.countCriticalStockProducts();
+		return stockAlertService.getProductGauge().critical();
 	}
 
 	@Override
-	@Transactional(readOnly = true)
 	public long countOutOfStockProducts() {
-		return productRepository.countOutOfStockProducts();
+		return stockAlertService.getProductGauge().outOfStock();
 	}
 
 	@Override
-	@Transactional(readOnly = true)
-	public Map<String, Object> getProductMetrics(String keyword, Long categoryId) {
-		Map<String, Object> metrics = new HashMap<>();
+	public List<Product> recordProductionRun(List<ProductionRunDto.Item> items) {
+		if (items == null || items.isEmpty()) {
+			throw new IllegalArgumentException("A production run needs at least one product.");
+		}
+		// Same product listed twice is one line; TreeMap keeps the lock order by id
+		Map<Long, Integer> quantityByProductId = new TreeMap<>();
+		for (ProductionRunDto.Item item : items) {
+			if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+				throw new IllegalArgumentException("Every production line needs a product and a positive quantity.");
+			}
+			quantityByProductId.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+		}
+
+		List<Product> products = productRepository.findAllByIdForUpdate(quantityByProductId.keySet());
+		if (products.size() != quantityByProductId.size()) {
+			throw new IllegalArgumentException("One or more products in the production run no longer exist.");
+		}
 
-		Category category = null;
-		if (categoryId != null) {
-			category = categoryRepository.findById(categoryId).orElse(null);
+		Map<Product, Integer> production = new LinkedHashMap<>();
+		for (Product product : products) {
+			production.put(product, quantityByProductId.get(product.getId()));
+		}
+		String runReference = newProductionRunReference();
+		consumeIngredients(production, runReference);
+
+		List<StockMovement> movements = new ArrayList<>();
+		for (Map.Entry<Product, Integer> entry : production.entrySet()) {
+			Product product = entry.getKey();
+			int shelfLifeDays = product.getExpirationDays();
+			stockLotService.receiveProductStock(product, entry.getValue(), LocalDate.now(clock),
+					shelfLifeDays > 0 ? LocalDate.now(clock).plusDays(shelfLifeDays) : null);
+			String previousStockStatus = product.getStockStatus();
+			product.setCurrentStock(product.getCurrentStock() + entry.getValue());
+			stockAlertService.productStatusChanged(product, previousStockStatus);
+			movements.add(StockMovement.forProduct(product.getId(), entry.getValue(), product.getCurrentStock(),
+					StockMovement.REASON_PRODUCTION, runReference, "Production run"));
 		}
-		String parsedKeyword = StringUtils.hasText(keyword) ? keyword.trim() : null;
+		List<Product> savedProducts = productRepository.saveAll(products);
+		stockMovementService.recordAll(movements);
+		metricsService.invalidateProducts();
+		dataVersionService.dataChanged(DataVersionService.DATA_PRODUCTS);
+		log.info("Production run {} recorded for {} product(s).", runReference, savedProducts.size());
+		return savedProducts;
+	}
 
-		long totalProducts = productRepository.countFilteredProducts(parsedKeyword, category);
-		long lowStock = productRepository.countFilteredLowStock(parsedKeyword, category);
-		long criticalStock = productRepository.countFilteredCriticalStock(parsedKeyword, category);
-		long outOfStock = productRepository.countFilteredOutOfStock(parsedKeyword, category);
+	/**
+	 * Deducts the recipe ingredients for every product being produced. Demand is
+	 * totalled per inventory item first, so each row is locked exactly once (in id
+	 * order) and validated before anything is written. Nothing is changed unless
+	 * every ingredient is sufficient.
+	 */
+	private void consumeIngredients(Map<Product, Integer> production, String runReference) {
+		Map<Long, BigDecimal> demandByItemId = new TreeMap<>();
+		Map<Long, List<String>> producedWithItem = new HashMap<>();
+		for (Map.Entry<Product, Integer> entry : production.entrySet()) {
+			Product product = entry.getKey();
+			if (product.getIngredients() == null) {
+				continue;
+			}
+			BigDecimal productionAmount = new BigDecimal(entry.getValue());
+			for (RecipeIngredient ingredient : product.getIngredients()) {
+				BigDecimal requiredQuantity = ingredient.getQuantityNeeded();
+				if (requiredQuantity == null || requiredQuantity.compareTo(BigDecimal.ZERO) <= 0)
+					continue;
+				Long itemId = ingredient.getInventoryItem().getId();
+				demandByItemId.merge(itemId, requiredQuantity.multiply(productionAmount), BigDecimal::add);
+				producedWithItem.computeIfAbsent(itemId, id -> new ArrayList<>())
+						.add(entry.getValue() + "x " + product.getName());
+			}
+		}
+		if (demandByItemId.isEmpty()) {
+			return;
+		}
 
-		metrics.put("totalProducts", totalProducts);
-		metrics.put("lowStock", lowStock);
-		metrics.put("criticalStock", criticalStock);
-		metrics.put("outOfStock", outOfStock);
+		List<InventoryItem> lockedItems = inventoryItemRepository.findAllByIdForUpdate(demandByItemId.keySet());
 
-		return metrics;
+		List<String> shortages = new ArrayList<>();
+		for (InventoryItem item : lockedItems) {
+			BigDecimal demand = demandByItemId.get(item.getId());
+			if (!"ACTIVE".equals(item.getItemStatus())) {
+				shortages.add("'" + item.getName() + "' is inactive");
+			} else if (item.getCurrentStock().compareTo(demand) < 0) {
+				shortages.add("'" + item.getName() + "' (need " + demand.stripTrailingZeros().toPlainString()
+						+ ", have " + item.getCurrentStock().stripTrailingZeros().toPlainString() + ")");
+			}
+		}
+		if (lockedItems.size() != demandByItemId.size()) {
+			shortages.add("one or more ingredients no longer exist");
+		}
+		if (!shortages.isEmpty()) {
+			throw new IllegalArgumentException("Insufficient inventory for " + String.join(", ", shortages) + ".");
+		}
+
+		List<StockMovement> movements = new ArrayList<>();
+		for (InventoryItem item : lockedItems) {
+			BigDecimal demand = demandByItemId.get(item.getId());
+			BigDecimal newStock = item.getCurrentStock().subtract(demand);
+			String previousStockStatus = item.getStockStatus();
+			item.setCurrentStock(newStock);
+			stockLotService.consumeItemStock(item, demand);
+			producibilityService.stockChanged(item.getId());
+			stockAlertService.itemStatusChanged(item, previousStockStatus);
+			String note = "Production of " + String.join(", ", producedWithItem.get(item.getId()));
+			movements.add(StockMovement.forItem(item.getId(), demand.negate(), newStock,
+					StockMovement.REASON_PRODUCTION_USE, runReference, note));
+			log.info("Stock adjusted for Inventory ID {}: Change={}, New Stock={}, Reason='{}'", item.getId(),
+					demand.negate(), newStock, note);
+		}
+		// Dirty rows and ledger inserts are flushed together at commit (JDBC-batched,
+		// see hibernate.jdbc.batch_size)
+		inventoryItemRepository.saveAll(lockedItems);
+		stockMovementService.recordAll(movements);
+		metricsService.invalidateInventory();
+		dataVersionService.dataChanged(DataVersionService.DATA_INVENTORY);
+	}
+
+	private String newProductionRunReference() {
+		return "RUN-" + UUID.randomUUID().toString().substring(0, 8);
 	}
 
 	@Override
-	@Transactional(readOnly = true)
 	public int calculateMaxProducible(Long productId) {
-		Optional<Product> productOpt = productRepository.findById(productId);
-		if (productOpt.isEmpty() || productOpt.get().getIngredients().isEmpty())
-			return 0;
-		List<RecipeIngredient> ingredients = productOpt.get().getIngredients();
-		int maxPossible = Integer.MAX_VALUE;
-		for (RecipeIngredient ingredient : ingredients) {
-			Optional<InventoryItem> itemOpt = inventoryItemService.findById(ingredient.getInventoryItem().getId());
-			if (itemOpt.isEmpty())
-				return 0;
-			BigDecimal availableStock = itemOpt.get().getCurrentStock();
-			BigDecimal quantityNeeded = ingredient.getQuantityNeeded();
-			if (quantityNeeded == null || quantityNeeded.compareTo(BigDecimal.ZERO) <= 0)
-				continue;
-			if (availableStock.compareTo(quantityNeeded) < 0)
-				return 0;
-			int possibleUnits = availableStock.divide(quantityNeeded, 0, RoundingMode.FLOOR).intValue();
-			if (possibleUnits < maxPossible)
-				maxPossible = possibleUnits;
-		}
-		return (maxPossible == Integer.MAX_VALUE) ? 0 : maxPossible;
+		return producibilityService.getMaxProducible(productId);
+	}
+
+	@Override
+	public Map<Long, Integer> calculateMaxProducibleForAll() {
+		return producibilityService.getAllMaxProducible();
+	}
+
+	@Override
+	public BigDecimal getUnitCost(Long productId) {
+		return recipeCostService.getUnitCost(productId);
+	}
+
+	@Override
+	public Map<Long, BigDecimal> getUnitCosts() {
+		return recipeCostService.getAllUnitCosts();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<Long, BigDecimal> loadUnitCosts() {
+		return recipeCostService.loadUnitCosts();
 	}
 
 	@Override
@@ -404,58 +535,42 @@ public class ProductServiceImpl implements ProductService {
 				.orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
 		if (quantityChange > 0 && "Production".equals(reason)) {
-			List<RecipeIngredient> ingredients = product.getIngredients();
-			if (ingredients != null && !ingredients.isEmpty()) {
-				BigDecimal productionAmount = new BigDecimal(quantityChange);
-
-				for (RecipeIngredient ingredient : ingredients) {
-					InventoryItem item = ingredient.getInventoryItem();
-					BigDecimal requiredQuantity = ingredient.getQuantityNeeded();
-					if (requiredQuantity == null || requiredQuantity.compareTo(BigDecimal.ZERO) <= 0)
-						continue;
-					BigDecimal amountToDecrease = requiredQuantity.multiply(productionAmount);
-					InventoryItem currentItemState = inventoryItemRepository.findByIdForUpdate(item.getId())
-							.orElseThrow();
-					if (currentItemState.getCurrentStock().compareTo(amountToDecrease) < 0) {
-						throw new IllegalArgumentException("Insufficient inventory for '" + item.getName() + "'...");
-					}
-				}
-
-				for (RecipeIngredient ingredient : ingredients) {
-					InventoryItem item = ingredient.getInventoryItem();
-					BigDecimal requiredQuantity = ingredient.getQuantityNeeded();
-					if (requiredQuantity == null || requiredQuantity.compareTo(BigDecimal.ZERO) <= 0)
-						continue;
-					BigDecimal amountToDecrease = requiredQuantity.multiply(productionAmount);
-					String deductionReason = "Production of " + quantityChange + "x " + product.getName();
-					inventoryItemService.adjustStock(item.getId(), amountToDecrease.negate(), deductionReason);
-				}
-			}
+			consumeIngredients(Map.of(product, quantityChange), newProductionRunReference());
 		}
 
-		if (quantityChange > 0) {
-			// 1. Calculate new Expiration Date relative to TODAY (Date of stock
-			// arrival/production)
-			if (expirationDays != null && expirationDays > 0) {
-				product.setExpirationDate(LocalDate.now().plusDays(expirationDays));
-			} else {
-				if (expirationDays != null)
-					product.setExpirationDate(null);
-			}
+		int currentStock = product.getCurrentStock();
+		int newStock = currentStock + quantityChange;
+		if (newStock < 0)
+			throw new IllegalArgumentException("Product stock cannot go below zero.");
 
-			// 2. Only update Created Date if explicitly provided (manual override),
+		if (quantityChange > 0) {
+			// Only update Created Date if explicitly provided (manual override),
 			// otherwise keep original
 			if (createdDate != null) {
 				product.setCreatedDate(createdDate);
 			}
-		}
 
-		int currentStock = product.getCurrentStock();
-		int newStock = currentStock + quantityChange;
-		if (newStock < 0)
-			throw new IllegalArgumentException("Product stock cannot go below zero.");
+			// The new stock is its own lot, dated from TODAY (date of stock
+			// arrival/production). 0 shelf-life days means it does not expire.
+			int shelfLifeDays = expirationDays != null ? expirationDays : product.getExpirationDays();
+			LocalDate lotExpiry = shelfLifeDays > 0 ? LocalDate.now(clock).plusDays(shelfLifeDays) : null;
+			stockLotService.receiveProductStock(product, quantityChange,
+					createdDate != null ? createdDate : LocalDate.now(clock), lotExpiry);
+		} else if (quantityChange < 0) {
+			// Orders and waste take the soonest-expiring units first
+			stockLotService.consumeProductStock(product, -quantityChange);
+		}
 
+		String previousStockStatus = product.getStockStatus();
 		product.setCurrentStock(newStock);
-		return productRepository.save(product);
+		Product savedProduct = productRepository.save(product);
+		stockAlertService.productStatusChanged(savedProduct, previousStockStatus);
+		metricsService.invalidateProducts();
+		dataVersionService.dataChanged(DataVersionService.DATA_PRODUCTS);
+
+		stockMovementService.record(StockMovement.forProduct(productId, quantityChange, newStock,
+				stockMovementService.reasonCodeFor(reason, quantityChange > 0), stockMovementService.referenceFor(reason),
+				reason));
+		return savedProduct;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.toastedsiopao.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Cached unit COGS per product (sum of quantityNeeded x costPerUnit over the
+ * recipe). Only the products that use a changed ingredient, or whose recipe
+ * was edited, are recomputed. Read it through {@link ProductService}.
+ * <p>
+ * The index is per node: writes on other nodes arrive through the inventory and
+ * product data versions, checked every {@code index.version-check-seconds}.
+ */
+public interface RecipeCostService {
+
+	void rebuild();
+
+	// Rebuilds when another node (or this one) has changed costs or recipes since the last rebuild
+	void rebuildIfChanged();
+
+	// Change notifications re-read the committed rows after the surrounding transaction commits
+	void costChanged(Long inventoryItemId);
+
+	void recipeChanged(Long productId);
+
+	void productRemoved(Long productId);
+
+	BigDecimal getUnitCost(Long productId);
+
+	Map<Long, BigDecimal> getAllUnitCosts();
+
+	// Computed in the caller's transaction rather than served from this node's index
+	Map<Long, BigDecimal> loadUnitCosts();
+}
@@ -0,0 +1,210 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.RecipeIngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class RecipeCostServiceImpl implements RecipeCostService {
+
+	private static final Logger log = LoggerFactory.getLogger(RecipeCostServiceImpl.class);
+
+	// Costs are inventory data, recipes are product data
+	private static final Set<String> DEPENDS_ON = Set.of(DataVersionService.DATA_INVENTORY,
+			DataVersionService.DATA_PRODUCTS);
+
+	private record RecipeLine(Long inventoryItemId, BigDecimal quantityNeeded) {
+	}
+
+	@Autowired
+	private RecipeIngredientRepository recipeIngredientRepository;
+
+	@Autowired
+	private InventoryItemRepository inventoryItemRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	// Guarded by "this"; readers only touch unitCostByProduct
+	private Map<Long, List<RecipeLine>> recipesByProduct = new HashMap<>();
+	private Map<Long, Set<Long>> productsByItem = new HashMap<>();
+	private Map<Long, BigDecimal> costByItem = new HashMap<>();
+	private volatile Map<Long, BigDecimal> unitCostByProduct = new ConcurrentHashMap<>();
+	private volatile Map<String, Long> indexedVersions = Map.of();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+	}
+
+	@Override
+	public synchronized void rebuild() {
+		TransactionCallbacks.newReadOnlyTransaction(transactionManager).executeWithoutResult(status -> {
+			// Same read view as the rows below, so a later write always moves a version past these
+			Map<String, Long> versions = dataVersionService.getVersions(DEPENDS_ON);
+			Map<Long, BigDecimal> costs = readCosts(inventoryItemRepository.findAllCostsPerUnit());
+
+			Map<Long, List<RecipeLine>> recipes = readRecipes();
+			Map<Long, Set<Long>> inverse = new HashMap<>();
+			recipes.forEach((productId, lines) -> lines.forEach(
+					line -> inverse.computeIfAbsent(line.inventoryItemId(), id -> new HashSet<>()).add(productId)));
+
+			Map<Long, BigDecimal> unitCosts = new ConcurrentHashMap<>();
+			recipes.forEach((productId, lines) -> unitCosts.put(productId, compute(lines, costs)));
+
+			recipesByProduct = recipes;
+			productsByItem = inverse;
+			costByItem = costs;
+			unitCostByProduct = unitCosts;
+			indexedVersions = versions;
+		});
+		log.info("Rebuilt recipe cost index for {} product(s).", recipesByProduct.size());
+	}
+
+	@Override
+	public void rebuildIfChanged() {
+		if (!dataVersionService.getVersions(DEPENDS_ON).equals(indexedVersions)) {
+			rebuild();
+		}
+	}
+
+	@Override
+	public void costChanged(Long inventoryItemId) {
+		TransactionCallbacks.afterCommit(() -> applyCostChange(inventoryItemId));
+	}
+
+	@Override
+	public void recipeChanged(Long productId) {
+		TransactionCallbacks.afterCommit(() -> applyRecipeChange(productId));
+	}
+
+	@Override
+	public void productRemoved(Long productId) {
+		TransactionCallbacks.afterCommit(() -> applyRecipeChange(productId));
+	}
+
+	@Override
+	public BigDecimal getUnitCost(Long productId) {
+		return unitCostByProduct.getOrDefault(productId, BigDecimal.ZERO);
+	}
+
+	@Override
+	public Map<Long, BigDecimal> getAllUnitCosts() {
+		return Collections.unmodifiableMap(unitCostByProduct);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<Long, BigDecimal> loadUnitCosts() {
+		Map<Long, BigDecimal> costs = readCosts(inventoryItemRepository.findAllCostsPerUnit());
+		Map<Long, BigDecimal> unitCosts = new HashMap<>();
+		readRecipes().forEach((productId, lines) -> unitCosts.put(productId, compute(lines, costs)));
+		return unitCosts;
+	}
+
+	// Re-reads the committed cost: callbacks of two cost edits can run in either order
+	private synchronized void applyCostChange(Long inventoryItemId) {
+		BigDecimal costPerUnit = TransactionCallbacks.newReadOnlyTransaction(transactionManager).execute(
+				status -> readCosts(inventoryItemRepository.findCostsPerUnit(List.of(inventoryItemId)))
+						.get(inventoryItemId));
+		BigDecimal previous = costPerUnit != null ? costByItem.put(inventoryItemId, costPerUnit)
+				: costByItem.remove(inventoryItemId);
+		if (previous != null && costPerUnit != null && previous.compareTo(costPerUnit) == 0) {
+			return;
+		}
+		Set<Long> affected = productsByItem.getOrDefault(inventoryItemId, Set.of());
+		for (Long productId : affected) {
+			unitCostByProduct.put(productId, compute(recipesByProduct.get(productId), costByItem));
+		}
+		log.debug("Recomputed unit cost for {} product(s) after cost change on item {}.", affected.size(),
+				inventoryItemId);
+	}
+
+	// Re-reads the committed recipe and its ingredient costs; no lines once the product is gone
+	private synchronized void applyRecipeChange(Long productId) {
+		List<RecipeLine> lines = new ArrayList<>();
+		Map<Long, BigDecimal> costs = TransactionCallbacks.newReadOnlyTransaction(transactionManager)
+				.execute(status -> {
+					for (Object[] row : recipeIngredientRepository.findRecipeLinesByProduct(productId)) {
+						lines.add(new RecipeLine((Long) row[0], (BigDecimal) row[1]));
+					}
+					if (lines.isEmpty()) {
+						return Map.<Long, BigDecimal>of();
+					}
+					List<Long> itemIds = lines.stream().map(RecipeLine::inventoryItemId).toList();
+					return readCosts(inventoryItemRepository.findCostsPerUnit(itemIds));
+				});
+
+		List<RecipeLine> oldLines = recipesByProduct.remove(productId);
+		if (oldLines != null) {
+			for (RecipeLine line : oldLines) {
+				Set<Long> products = productsByItem.get(line.inventoryItemId());
+				if (products != null) {
+					products.remove(productId);
+				}
+			}
+		}
+		if (lines.isEmpty()) {
+			unitCostByProduct.remove(productId);
+			return;
+		}
+		costByItem.putAll(costs);
+		recipesByProduct.put(productId, lines);
+		for (RecipeLine line : lines) {
+			productsByItem.computeIfAbsent(line.inventoryItemId(), id -> new HashSet<>()).add(productId);
+		}
+		unitCostByProduct.put(productId, compute(lines, costByItem));
+	}
+
+	private Map<Long, List<RecipeLine>> readRecipes() {
+		Map<Long, List<RecipeLine>> recipes = new HashMap<>();
+		for (Object[] row : recipeIngredientRepository.findAllRecipeLines()) {
+			recipes.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+					.add(new RecipeLine((Long) row[1], (BigDecimal) row[2]));
+		}
+		return recipes;
+	}
+
+	private static Map<Long, BigDecimal> readCosts(List<Object[]> rows) {
+		Map<Long, BigDecimal> costs = new HashMap<>();
+		for (Object[] row : rows) {
+			costs.put((Long) row[0], (BigDecimal) row[1]);
+		}
+		return costs;
+	}
+
+	private static BigDecimal compute(List<RecipeLine> lines, Map<Long, BigDecimal> costs) {
+		BigDecimal unitCost = BigDecimal.ZERO;
+		if (lines == null) {
+			return unitCost;
+		}
+		for (RecipeLine line : lines) {
+			BigDecimal costPerUnit = costs.get(line.inventoryItemId());
+			if (costPerUnit == null || line.quantityNeeded() == null) {
+				continue;
+			}
+			unitCost = unitCost.add(line.quantityNeeded().multiply(costPerUnit));
+		}
+		return unitCost;
+	}
+}
@@ -0,0 +1,26 @@
+package com.toastedsiopao.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Keeps finished financial, inventory, product and waste reports on disk, keyed
+ * by report, filters and the {@link DataVersionService} version of every kind of
+ * data the report reads. Once a write's version bump commits, no node serves a
+ * file from before it; stale files just age out of the size-bounded LRU.
+ */
+public interface ReportCacheService {
+
+	@FunctionalInterface
+	interface ReportWriter {
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Copies the cached report to {@code out}, or runs the writer into both
+	 * {@code out} and the cache. Reports without cache rules (e.g.
+	 * "activity-log/pdf") are always written directly.
+	 */
+	void write(String report, Map<String, String> params, OutputStream out, ReportWriter writer) throws IOException;
+}
@@ -0,0 +1,213 @@
+package com.toastedsiopao.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Service
+public class ReportCacheServiceImpl implements ReportCacheService {
+
+	private static final Logger log = LoggerFactory.getLogger(ReportCacheServiceImpl.class);
+
+	// What each report reads, by the part of the report name before "/". The
+	// financial report reads inventory costs and recipes for its COGS.
+	private static final Map<String, Set<String>> DEPENDENCIES = Map.of(
+			"financial", Set.of(DataVersionService.DATA_ORDERS, DataVersionService.DATA_INVENTORY,
+					DataVersionService.DATA_PRODUCTS, DataVersionService.DATA_SETTINGS),
+			"inventory", Set.of(DataVersionService.DATA_INVENTORY, DataVersionService.DATA_SETTINGS),
+			"products", Set.of(DataVersionService.DATA_PRODUCTS, DataVersionService.DATA_INVENTORY,
+					DataVersionService.DATA_SETTINGS),
+			"waste", Set.of(DataVersionService.DATA_WASTE, DataVersionService.DATA_SETTINGS));
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	@Value("${report.cache.dir:${java.io.tmpdir}/toasted-siopao-report-cache}")
+	private String cacheDir;
+
+	@Value("${report.cache.max-size-mb:256}")
+	private long maxSizeMb;
+
+	@Value("${report.cache.max-entries:200}")
+	private int maxEntries;
+
+	private record CacheEntry(Path path, long size) {
+	}
+
+	// Guarded by "this"; access order, so the first entry is the least recently used
+	private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalBytes;
+
+	private Path rootLocation;
+
+	@PostConstruct
+	public void init() {
+		try {
+			rootLocation = Paths.get(cacheDir);
+			Files.createDirectories(rootLocation);
+			// The index only lives in memory, so files from a previous run can never be found
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(rootLocation)) {
+				for (Path entry : stream) {
+					Files.deleteIfExists(entry);
+				}
+			}
+		} catch (IOException e) {
+			log.error("Could not initialize report cache directory: {}", cacheDir, e);
+			throw new RuntimeException("Could not initialize report cache directory", e);
+		}
+		log.info("Report cache ready: up to {} MB / {} report(s) in {}", maxSizeMb, maxEntries, rootLocation);
+	}
+
+	@Override
+	public void write(String report, Map<String, String> params, OutputStream out, ReportWriter writer)
+			throws IOException {
+		Set<String> dependsOn = report != null ? DEPENDENCIES.get(report.split("/", 2)[0]) : null;
+		if (dependsOn == null || maxSizeMb <= 0 || maxEntries <= 0) {
+			writer.writeTo(out);
+			return;
+		}
+
+		String key = cacheKey(report, params, dependsOn);
+		if (copyCached(key, out)) {
+			log.debug("Report cache hit: {}", key);
+			return;
+		}
+
+		Path tempFile = Files.createTempFile(rootLocation, "report-", ".tmp");
+		try {
+			try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+				writer.writeTo(new TeeOutputStream(out, file));
+			}
+			Path target = rootLocation.resolve(fileName(key));
+			Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			store(key, new CacheEntry(target, Files.size(target)));
+			log.debug("Report cached: {}", key);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private boolean copyCached(String key, OutputStream out) throws IOException {
+		CacheEntry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+		}
+		if (entry == null) {
+			return false;
+		}
+		try (InputStream in = Files.newInputStream(entry.path())) {
+			in.transferTo(out);
+			return true;
+		} catch (NoSuchFileException e) {
+			// Evicted between the lookup and the open
+			return false;
+		}
+	}
+
+	private synchronized void store(String key, CacheEntry entry) {
+		CacheEntry previous = entries.put(key, entry);
+		if (previous != null) {
+			totalBytes -= previous.size();
+		}
+		totalBytes += entry.size();
+
+		long maxBytes = maxSizeMb * 1024 * 1024;
+		Iterator<Map.Entry<String, CacheEntry>> eldest = entries.entrySet().iterator();
+		while ((totalBytes > maxBytes || entries.size() > maxEntries) && eldest.hasNext()) {
+			CacheEntry evicted = eldest.next().getValue();
+			eldest.remove();
+			totalBytes -= evicted.size();
+			deleteQuietly(evicted.path());
+		}
+	}
+
+	// Blank filters count as "not set", so "?keyword=" and no keyword share an entry
+	private String cacheKey(String report, Map<String, String> params, Set<String> dependsOn) {
+		Map<String, String> filters = new TreeMap<>();
+		if (params != null) {
+			params.forEach((name, value) -> {
+				if (StringUtils.hasText(value)) {
+					filters.put(name, value.trim());
+				}
+			});
+		}
+		Map<String, Long> versions = dataVersionService.getVersions();
+		StringBuilder key = new StringBuilder(report).append('?').append(filters).append('@');
+		for (String dataType : new TreeSet<>(dependsOn)) {
+			key.append(dataType).append('=').append(versions.getOrDefault(dataType, 0L)).append(';');
+		}
+		return key.toString();
+	}
+
+	// Filters are free text, so the file name is a digest of the key
+	private static String fileName(String key) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest) + ".report";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Could not delete cached report: {}", file);
+		}
+	}
+
+	// Sends the report to the client and the cache file at the same time
+	private static final class TeeOutputStream extends OutputStream {
+		private final OutputStream primary;
+		private final OutputStream copy;
+
+		TeeOutputStream(OutputStream primary, OutputStream copy) {
+			this.primary = primary;
+			this.copy = copy;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			primary.write(b);
+			copy.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			primary.write(b, off, len);
+			copy.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			primary.flush();
+			copy.flush();
+		}
+	}
+}
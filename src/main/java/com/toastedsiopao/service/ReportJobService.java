@@ -0,0 +1,52 @@
+package com.toastedsiopao.service;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Runs report exports on a small worker pool and keeps the finished file on
+ * disk for {@code report.jobs.ttl-minutes}, so a slow export survives a browser
+ * timeout and can be downloaded more than once.
+ * <p>
+ * Jobs and their files live in the memory and temp directory of the node that
+ * took the request, so admin sessions must be sticky: polls and downloads have
+ * to reach the same node, which must not have restarted in between.
+ */
+public interface ReportJobService {
+
+	String STATUS_QUEUED = "QUEUED";
+	String STATUS_RUNNING = "RUNNING";
+	String STATUS_DONE = "DONE";
+	String STATUS_FAILED = "FAILED";
+
+	// queuePosition is 1-based while QUEUED, 0 otherwise
+	record JobStatus(String id, String report, String status, int queuePosition, long bytesWritten,
+			String fileName, String error) {
+	}
+
+	record JobFile(Path path, String fileName, String contentType) {
+	}
+
+	/**
+	 * Returns the authority needed to run the given report (e.g. "financial/pdf"),
+	 * or null if there is no such report.
+	 */
+	String requiredAuthority(String report);
+
+	/**
+	 * Queues the report, or returns the queued/running job for the same report and
+	 * parameters. Throws IllegalStateException when the queue is full.
+	 */
+	JobStatus submit(String report, Map<String, String> params);
+
+	Optional<JobStatus> getStatus(String jobId);
+
+	// True when the id was handed out by another node or an earlier run of this one
+	boolean isOtherNodeJob(String jobId);
+
+	// Present only once the job is DONE and the file has not expired
+	Optional<JobFile> getFile(String jobId);
+
+	void purgeExpiredJobs();
+}
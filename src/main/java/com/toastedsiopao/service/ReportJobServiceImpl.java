@@ -0,0 +1,438 @@
+package com.toastedsiopao.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class ReportJobServiceImpl implements ReportJobService {
+
+	private static final Logger log = LoggerFactory.getLogger(ReportJobServiceImpl.class);
+
+	private static final String EXCEL_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+	private static final String PDF_CONTENT_TYPE = "application/pdf";
+	private static final String CSV_CONTENT_TYPE = "text/csv; charset=UTF-8";
+	private static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+	private static final String FORMAT_XLSX = "xlsx";
+	private static final String FORMAT_PDF = "pdf";
+	private static final String FORMAT_CSV = "csv";
+	private static final int GZIP_BUFFER_SIZE = 16 * 1024;
+
+	@Autowired
+	private ReportService reportService;
+
+	@Autowired
+	private ReportCacheService reportCacheService;
+
+	@Value("${report.jobs.dir:${java.io.tmpdir}/toasted-siopao-reports}")
+	private String jobsDir;
+
+	@Value("${report.jobs.workers:2}")
+	private int workers;
+
+	@Value("${report.jobs.queue-capacity:20}")
+	private int queueCapacity;
+
+	@Value("${report.jobs.ttl-minutes:30}")
+	private long ttlMinutes;
+
+	@FunctionalInterface
+	private interface ReportWriter {
+		void write(Map<String, String> params, OutputStream out) throws IOException;
+	}
+
+	private record ReportDefinition(String authority, Function<Map<String, String>, String> fileStem, String format,
+			List<String> params, ReportWriter writer) {
+
+		// CSV exports take gzip=true like the direct endpoints
+		boolean gzip(Map<String, String> values) {
+			return FORMAT_CSV.equals(format) && Boolean.parseBoolean(values.get("gzip"));
+		}
+
+		String contentType(Map<String, String> values) {
+			return switch (format) {
+			case FORMAT_PDF -> PDF_CONTENT_TYPE;
+			case FORMAT_CSV -> gzip(values) ? GZIP_CONTENT_TYPE : CSV_CONTENT_TYPE;
+			default -> EXCEL_CONTENT_TYPE;
+			};
+		}
+
+		String extension(Map<String, String> values) {
+			return "." + format + (gzip(values) ? ".gz" : "");
+		}
+	}
+
+	// Prefix of this process's job ids: a poll that lands on another node can say so
+	private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+	private final Map<String, ReportDefinition> definitions = new TreeMap<>();
+	private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+	private final Map<String, ReportJob> activeJobsByKey = new ConcurrentHashMap<>();
+
+	private Path rootLocation;
+	private ThreadPoolExecutor executor;
+
+	@PostConstruct
+	public void init() {
+		registerReports();
+		try {
+			rootLocation = Paths.get(jobsDir);
+			Files.createDirectories(rootLocation);
+			// Jobs only live in memory, so anything left from a previous run is unreachable
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(rootLocation)) {
+				for (Path entry : stream) {
+					Files.deleteIfExists(entry);
+				}
+			}
+		} catch (IOException e) {
+			log.error("Could not initialize report job directory: {}", jobsDir, e);
+			throw new RuntimeException("Could not initialize report job directory", e);
+		}
+
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+					Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		log.info("Report job queue ready: {} worker(s), capacity {}, files kept {} minute(s) in {}", workers,
+				queueCapacity, ttlMinutes, rootLocation);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	private void registerReports() {
+		List<String> dateRange = List.of("keyword", "startDate", "endDate");
+		List<String> stock = List.of("keyword", "category");
+		List<String> waste = List.of("wasteKeyword", "wasteCategory", "wasteType", "wasteStartDate", "wasteEndDate");
+
+		definitions.put("financial", new ReportDefinition("VIEW_TRANSACTIONS", p -> "Financial-Report", FORMAT_XLSX,
+				dateRange,
+				(p, out) -> reportService.writeFinancialReport(p.get("keyword"), p.get("startDate"), p.get("endDate"),
+						out)));
+		definitions.put("financial/pdf", new ReportDefinition("VIEW_TRANSACTIONS", p -> "Financial-Report",
+				FORMAT_PDF, dateRange, (p, out) -> reportService.writeFinancialReportPdf(p.get("keyword"),
+						p.get("startDate"), p.get("endDate"), out)));
+		definitions.put("inventory", new ReportDefinition("VIEW_INVENTORY", p -> "Inventory-Report", FORMAT_XLSX,
+				stock,
+				(p, out) -> reportService.writeInventoryReport(p.get("keyword"), parseLong(p.get("category")), out)));
+		definitions.put("inventory/pdf", new ReportDefinition("VIEW_INVENTORY", p -> "Inventory-Report", FORMAT_PDF,
+				stock,
+				(p, out) -> copy(reportService.generateInventoryReportPdf(p.get("keyword"), parseLong(p.get("category"))),
+						out)));
+		definitions.put("products", new ReportDefinition("VIEW_PRODUCTS", p -> "Product-Report", FORMAT_XLSX, stock,
+				(p, out) -> reportService.writeProductReport(p.get("keyword"), parseLong(p.get("category")), out)));
+		definitions.put("products/pdf", new ReportDefinition("VIEW_PRODUCTS", p -> "Product-Report", FORMAT_PDF,
+				stock,
+				(p, out) -> copy(reportService.generateProductReportPdf(p.get("keyword"), parseLong(p.get("category"))),
+						out)));
+		definitions.put("waste", new ReportDefinition("VIEW_INVENTORY", p -> "Waste-Spoilage-Report", FORMAT_XLSX,
+				waste, (p, out) -> reportService.writeWasteReport(p.get("wasteKeyword"), p.get("wasteCategory"),
+						p.get("wasteType"), p.get("wasteStartDate"), p.get("wasteEndDate"), out)));
+		definitions.put("waste/pdf", new ReportDefinition("VIEW_INVENTORY", p -> "Waste-Spoilage-Report", FORMAT_PDF,
+				waste, (p, out) -> reportService.writeWasteReportPdf(p.get("wasteKeyword"), p.get("wasteCategory"),
+						p.get("wasteType"), p.get("wasteStartDate"), p.get("wasteEndDate"), out)));
+		definitions.put("activity-log/pdf", new ReportDefinition("VIEW_ACTIVITY_LOG", p -> activityLogSize(p) > 0
+				? "Activity-Log_Page-" + (parseInt(p.get("page"), 0) + 1)
+				: "Activity-Log_All", FORMAT_PDF, List.of("keyword", "startDate", "endDate", "page", "size"),
+				(p, out) -> reportService.writeActivityLogPdf(p.get("keyword"), p.get("startDate"), p.get("endDate"),
+						activityLogSize(p) > 0 ? PageRequest.of(parseInt(p.get("page"), 0), activityLogSize(p))
+								: Pageable.unpaged(),
+						out)));
+		definitions.put("financial/csv", new ReportDefinition("VIEW_TRANSACTIONS", p -> "Financial-Report", FORMAT_CSV,
+				csv(dateRange), (p, out) -> reportService.writeFinancialReportCsv(p.get("keyword"),
+						p.get("startDate"), p.get("endDate"), out)));
+		definitions.put("inventory/csv", new ReportDefinition("VIEW_INVENTORY", p -> "Inventory-Report", FORMAT_CSV,
+				csv(stock), (p, out) -> reportService.writeInventoryReportCsv(p.get("keyword"),
+						parseLong(p.get("category")), out)));
+		definitions.put("products/csv", new ReportDefinition("VIEW_PRODUCTS", p -> "Product-Report", FORMAT_CSV,
+				csv(stock), (p, out) -> reportService.writeProductReportCsv(p.get("keyword"),
+						parseLong(p.get("category")), out)));
+		definitions.put("waste/csv", new ReportDefinition("VIEW_INVENTORY", p -> "Waste-Spoilage-Report", FORMAT_CSV,
+				csv(waste), (p, out) -> reportService.writeWasteReportCsv(p.get("wasteKeyword"),
+						p.get("wasteCategory"), p.get("wasteType"), p.get("wasteStartDate"), p.get("wasteEndDate"),
+						out)));
+		definitions.put("activity-log/csv", new ReportDefinition("VIEW_ACTIVITY_LOG", p -> "Activity-Log_All",
+				FORMAT_CSV, csv(dateRange), (p, out) -> reportService.writeActivityLogCsv(p.get("keyword"),
+						p.get("startDate"), p.get("endDate"), out)));
+		definitions.put("dashboard/pdf", new ReportDefinition("VIEW_DASHBOARD", p -> "Dashboard-Report", FORMAT_PDF,
+				List.of(), (p, out) -> copy(reportService.generateDashboardReportPdf(), out)));
+	}
+
+	@Override
+	public String requiredAuthority(String report) {
+		ReportDefinition definition = report != null ? definitions.get(report) : null;
+		return definition != null ? definition.authority() : null;
+	}
+
+	@Override
+	public synchronized JobStatus submit(String report, Map<String, String> params) {
+		ReportDefinition definition = definitions.get(report);
+		if (definition == null) {
+			throw new IllegalArgumentException("Unknown report: " + report);
+		}
+
+		// Only the report's own parameters count, and blank means "not set", so the
+		// same export from two tabs maps to the same key.
+		Map<String, String> normalized = new TreeMap<>();
+		for (String name : definition.params()) {
+			String value = params.get(name);
+			if (StringUtils.hasText(value)) {
+				normalized.put(name, value.trim());
+			}
+		}
+		String key = report + "?" + normalized;
+
+		ReportJob existing = activeJobsByKey.get(key);
+		if (existing != null) {
+			log.info("Coalesced report request {} into job {}", key, existing.id);
+			return toStatus(existing);
+		}
+
+		ReportJob job = new ReportJob(nodeId + "-" + UUID.randomUUID(), report, key, normalized, definition);
+		jobs.put(job.id, job);
+		activeJobsByKey.put(key, job);
+		try {
+			executor.execute(new JobTask(job));
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.id);
+			activeJobsByKey.remove(key, job);
+			log.warn("Report queue is full; rejected {}", key);
+			throw new IllegalStateException("The report queue is full. Please try again in a few minutes.");
+		}
+		log.info("Queued report job {} for {}", job.id, key);
+		return toStatus(job);
+	}
+
+	@Override
+	public Optional<JobStatus> getStatus(String jobId) {
+		ReportJob job = jobId != null ? jobs.get(jobId) : null;
+		return job != null ? Optional.of(toStatus(job)) : Optional.empty();
+	}
+
+	@Override
+	public boolean isOtherNodeJob(String jobId) {
+		return jobId != null && !jobId.startsWith(nodeId + "-");
+	}
+
+	@Override
+	public Optional<JobFile> getFile(String jobId) {
+		ReportJob job = jobId != null ? jobs.get(jobId) : null;
+		if (job == null || !STATUS_DONE.equals(job.status) || job.file == null || !Files.isReadable(job.file)) {
+			return Optional.empty();
+		}
+		return Optional.of(new JobFile(job.file, job.fileName, job.definition.contentType(job.params)));
+	}
+
+	@Override
+	public void purgeExpiredJobs() {
+		Instant cutoff = Instant.now().minus(ttlMinutes, ChronoUnit.MINUTES);
+		int purged = 0;
+		for (ReportJob job : jobs.values()) {
+			if (job.finishedAt != null && job.finishedAt.isBefore(cutoff) && jobs.remove(job.id, job)) {
+				deleteQuietly(job.file);
+				purged++;
+			}
+		}
+		if (purged > 0) {
+			log.info("Purged {} expired report job(s).", purged);
+		}
+	}
+
+	private void run(ReportJob job) {
+		job.status = STATUS_RUNNING;
+		long started = System.nanoTime();
+		Path partFile = rootLocation.resolve(job.id + ".part");
+		try {
+			try (OutputStream out = new CountingOutputStream(Files.newOutputStream(partFile), job.bytesWritten)) {
+				if (job.definition.gzip(job.params)) {
+					GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+					writeReport(job, compressed);
+					compressed.finish();
+				} else {
+					writeReport(job, out);
+				}
+			}
+			String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+			String extension = job.definition.extension(job.params);
+			Path file = rootLocation.resolve(job.id + extension);
+			Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING);
+			job.file = file;
+			job.fileName = "MK-Toasted-Siopao_" + job.definition.fileStem().apply(job.params) + "_" + timestamp
+					+ extension;
+			job.status = STATUS_DONE;
+			log.info("Report job {} ({}) finished in {} ms, {} bytes", job.id, job.report,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), job.bytesWritten.get());
+		} catch (Exception e) {
+			log.error("Report job {} ({}) failed: {}", job.id, job.key, e.getMessage(), e);
+			deleteQuietly(partFile);
+			job.error = "The report could not be generated.";
+			job.status = STATUS_FAILED;
+		} finally {
+			job.finishedAt = Instant.now();
+			activeJobsByKey.remove(job.key, job);
+		}
+	}
+
+	// The cache holds the uncompressed report, so gzip is not part of its key
+	private void writeReport(ReportJob job, OutputStream out) throws IOException {
+		Map<String, String> filters = new TreeMap<>(job.params);
+		filters.remove("gzip");
+		reportCacheService.write(job.report, filters, out, target -> job.definition.writer().write(job.params, target));
+	}
+
+	private JobStatus toStatus(ReportJob job) {
+		int position = 0;
+		if (STATUS_QUEUED.equals(job.status)) {
+			int index = 1;
+			for (Runnable queued : executor.getQueue()) {
+				if (queued instanceof JobTask task && task.job == job) {
+					position = index;
+					break;
+				}
+				index++;
+			}
+		}
+		return new JobStatus(job.id, job.report, job.status, position, job.bytesWritten.get(), job.fileName,
+				job.error);
+	}
+
+	private static List<String> csv(List<String> params) {
+		List<String> withGzip = new ArrayList<>(params);
+		withGzip.add("gzip");
+		return List.copyOf(withGzip);
+	}
+
+	private static void copy(InputStream in, OutputStream out) throws IOException {
+		try (in) {
+			in.transferTo(out);
+		}
+	}
+
+	// Same default as the direct endpoint; 0 means every matching entry
+	private static int activityLogSize(Map<String, String> params) {
+		return parseInt(params.get("size"), 20);
+	}
+
+	private static Long parseLong(String value) {
+		return StringUtils.hasText(value) ? Long.valueOf(value.trim()) : null;
+	}
+
+	private static int parseInt(String value, int defaultValue) {
+		try {
+			return StringUtils.hasText(value) ? Integer.parseInt(value.trim()) : defaultValue;
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	private void deleteQuietly(Path file) {
+		if (file == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Could not delete report file: {}", file);
+		}
+	}
+
+	private static final class ReportJob {
+		final String id;
+		final String report;
+		final String key;
+		final Map<String, String> params;
+		final ReportDefinition definition;
+		final AtomicLong bytesWritten = new AtomicLong();
+		volatile String status = STATUS_QUEUED;
+		volatile Path file;
+		volatile String fileName;
+		volatile String error;
+		volatile Instant finishedAt;
+
+		ReportJob(String id, String report, String key, Map<String, String> params, ReportDefinition definition) {
+			this.id = id;
+			this.report = report;
+			this.key = key;
+			this.params = params;
+			this.definition = definition;
+		}
+	}
+
+	private final class JobTask implements Runnable {
+		final ReportJob job;
+
+		JobTask(ReportJob job) {
+			this.job = job;
+		}
+
+		@Override
+		public void run() {
+			ReportJobServiceImpl.this.run(job);
+		}
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+		private final AtomicLong count;
+
+		CountingOutputStream(OutputStream out, AtomicLong count) {
+			super(out);
+			this.count = count;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count.incrementAndGet();
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count.addAndGet(len);
+		}
+	}
+}
@@ -4,30 +4,45 @@ import org.springframework.data.domain.Pageable;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import com.toastedsiopao.model.Order;
 
 public interface ReportService {
 
-    ByteArrayInputStream generateFinancialReport(String keyword, String startDate, String endDate) throws IOException;
+    // Excel reports are written straight to the given stream (SXSSF, bounded row window)
+    void writeFinancialReport(String keyword, String startDate, String endDate, OutputStream out) throws IOException;
 
-    ByteArrayInputStream generateFinancialReportPdf(String keyword, String startDate, String endDate) throws IOException;
+    // Streamed PDFs: rows come off a database cursor and the document is written to the given stream
+    void writeFinancialReportPdf(String keyword, String startDate, String endDate, OutputStream out) throws IOException;
 
-    ByteArrayInputStream generateInventoryReport(String keyword, Long categoryId) throws IOException;
+    void writeInventoryReport(String keyword, Long categoryId, OutputStream out) throws IOException;
 
     ByteArrayInputStream generateInventoryReportPdf(String keyword, Long categoryId) throws IOException;
 
-    ByteArrayInputStream generateProductReport(String keyword, Long categoryId) throws IOException;
+    void writeProductReport(String keyword, Long categoryId, OutputStream out) throws IOException;
 
     ByteArrayInputStream generateProductReportPdf(String keyword, Long categoryId) throws IOException;
 
-    ByteArrayInputStream generateWasteReport(String keyword, String reasonCategory, String wasteType, String startDate, String endDate) throws IOException;
+    void writeWasteReport(String keyword, String reasonCategory, String wasteType, String startDate, String endDate, OutputStream out) throws IOException;
     
-    ByteArrayInputStream generateWasteReportPdf(String keyword, String reasonCategory, String wasteType, String startDate, String endDate) throws IOException;
+    void writeWasteReportPdf(String keyword, String reasonCategory, String wasteType, String startDate, String endDate, OutputStream out) throws IOException;
 
     ByteArrayInputStream generateOrderDocumentPdf(Order order, String documentType) throws IOException, IllegalArgumentException;
 
-    ByteArrayInputStream generateActivityLogPdf(String keyword, String startDate, String endDate, Pageable pageable) throws IOException;
+    // An unpaged Pageable exports every matching entry
+    void writeActivityLogPdf(String keyword, String startDate, String endDate, Pageable pageable, OutputStream out) throws IOException;
     
+    // Raw-data CSV exports (UTF-8, RFC 4180), written straight to the given stream
+    void writeFinancialReportCsv(String keyword, String startDate, String endDate, OutputStream out) throws IOException;
+
+    void writeInventoryReportCsv(String keyword, Long categoryId, OutputStream out) throws IOException;
+
+    void writeProductReportCsv(String keyword, Long categoryId, OutputStream out) throws IOException;
+
+    void writeWasteReportCsv(String keyword, String reasonCategory, String wasteType, String startDate, String endDate, OutputStream out) throws IOException;
+
+    void writeActivityLogCsv(String keyword, String startDate, String endDate, OutputStream out) throws IOException;
+
     // --- NEW: Dashboard Report ---
     ByteArrayInputStream generateDashboardReportPdf() throws IOException;
 }
\ No newline at end of file
@@ -8,22 +8,21 @@ import com.toastedsiopao.model.Product;
 import com.toastedsiopao.model.RecipeIngredient;
 import com.toastedsiopao.model.SiteSettings;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -40,6 +39,19 @@ public class ReportServiceImpl implements ReportService {
 
 	private static final Logger log = LoggerFactory.getLogger(ReportServiceImpl.class);
 
+	// Rows kept in memory per sheet while writing Excel; older rows go to a temp file
+	private static final int EXCEL_ROW_WINDOW = 100;
+
+	// Sortable, locale-free timestamps for spreadsheet and accounting imports
+	private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+	private static final DateTimeFormatter CSV_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	private static final int[] FINANCIAL_SUMMARY_WIDTHS = { 34, 18 };
+	private static final int[] FINANCIAL_DETAIL_WIDTHS = { 12, 18, 28, 60, 16, 16, 18 };
+	private static final int[] INVENTORY_WIDTHS = { 10, 30, 20, 14, 8, 14, 12, 14, 14, 18, 10, 22, 18 };
+	private static final int[] PRODUCT_WIDTHS = { 12, 30, 20, 12, 14, 14, 14, 16, 18, 10, 12, 50 };
+	private static final int[] WASTE_WIDTHS = { 20, 16, 12, 12, 28, 12, 14, 60 };
+
 	@Autowired
 	private OrderService orderService;
 
@@ -49,6 +61,9 @@ public class ReportServiceImpl implements ReportService {
 	@Autowired
 	private PdfService pdfService;
 
+	@Autowired
+	private FinancialReportDataService financialReportDataService;
+
 	@Autowired
 	private InventoryItemService inventoryItemService;
 
@@ -62,10 +77,7 @@ public class ReportServiceImpl implements ReportService {
 	private ActivityLogService activityLogService;
 
 	@Autowired
-	private CustomerService customerService;
-
-	@Autowired
-	private AdminService adminService;
+	private DashboardService dashboardService;
 
 	private LocalDateTime parseDate(String date, boolean isEndDate) {
 		if (!StringUtils.hasText(date)) {
@@ -81,38 +93,51 @@ public class ReportServiceImpl implements ReportService {
 	}
 
 	@Override
-	public ByteArrayInputStream generateFinancialReport(String keyword, String startDate, String endDate)
+	public void writeFinancialReport(String keyword, String startDate, String endDate, OutputStream out)
 			throws IOException {
 		LocalDateTime startDateTime = parseDate(startDate, false);
 		LocalDateTime endDateTime = parseDate(endDate, true);
-
-		List<Order> orders = orderService.findDeliveredOrdersForReport(keyword, startDateTime, endDateTime);
 		SiteSettings settings = siteSettingsService.getSiteSettings();
 
-		try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream();) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+		try {
 			CellStyle headerStyle = createHeaderStyle(workbook);
 			CellStyle currencyStyle = createCurrencyStyle(workbook);
 			CellStyle boldStyle = createBoldStyle(workbook);
 			CellStyle totalRowStyle = createTotalRowStyle(workbook);
 			CellStyle totalCurrencyStyle = createTotalCurrencyStyle(workbook, totalRowStyle);
 
+			// The detail rows are streamed first so the totals are known, then the
+			// summary is written and moved in front of them.
+			Sheet detailSheet = workbook.createSheet("Detailed Breakdown");
+			FinancialTotals totals = createDetailedBreakdownSheet(detailSheet, keyword, startDateTime, endDateTime,
+					headerStyle, currencyStyle, totalRowStyle, totalCurrencyStyle);
+
 			Sheet summarySheet = workbook.createSheet("Summary");
-			createSummarySheet(summarySheet, orders, settings, headerStyle, boldStyle, currencyStyle,
+			createSummarySheet(summarySheet, totals, settings, headerStyle, boldStyle, currencyStyle,
 					totalCurrencyStyle, startDateTime, endDateTime);
+			workbook.setSheetOrder(summarySheet.getSheetName(), 0);
+			workbook.setActiveSheet(0);
+			workbook.setSelectedTab(0);
 
-			Sheet detailSheet = workbook.createSheet("Detailed Breakdown");
-			createDetailedBreakdownSheet(detailSheet, orders, headerStyle, currencyStyle, totalRowStyle,
-					totalCurrencyStyle);
-
-			autoSizeColumns(summarySheet, 3);
-			autoSizeColumns(detailSheet, 7);
+			setColumnWidths(summarySheet, FINANCIAL_SUMMARY_WIDTHS);
+			setColumnWidths(detailSheet, FINANCIAL_DETAIL_WIDTHS);
 
 			workbook.write(out);
-			return new ByteArrayInputStream(out.toByteArray());
+			log.info("Financial report streamed: {} order(s).", totals.orderCount);
+		} finally {
+			workbook.dispose();
+			workbook.close();
 		}
 	}
 
-	private void createSummarySheet(Sheet sheet, List<Order> orders, SiteSettings settings, CellStyle headerStyle,
+	private static final class FinancialTotals {
+		private BigDecimal sales = BigDecimal.ZERO;
+		private BigDecimal cogs = BigDecimal.ZERO;
+		private long orderCount;
+	}
+
+	private void createSummarySheet(Sheet sheet, FinancialTotals totals, SiteSettings settings, CellStyle headerStyle,
 			CellStyle boldStyle, CellStyle currencyStyle, CellStyle totalCurrencyStyle, LocalDateTime start,
 			LocalDateTime end) {
 		AtomicInteger rowIdx = new AtomicInteger(0);
@@ -137,14 +162,7 @@ public class ReportServiceImpl implements ReportService {
 
 		rowIdx.getAndIncrement();
 
-		BigDecimal totalSales = BigDecimal.ZERO;
-		BigDecimal totalCogs = BigDecimal.ZERO;
-
-		for (Order order : orders) {
-			totalSales = totalSales.add(order.getTotalAmount());
-			totalCogs = totalCogs.add(orderService.calculateCogsForOrder(order));
-		}
-		BigDecimal grossProfit = totalSales.subtract(totalCogs);
+		BigDecimal grossProfit = totals.sales.subtract(totals.cogs);
 
 		Row headerRow = sheet.createRow(rowIdx.getAndIncrement());
 		headerRow.createCell(0).setCellValue("Metric");
@@ -154,11 +172,11 @@ public class ReportServiceImpl implements ReportService {
 
 		Row salesRow = sheet.createRow(rowIdx.getAndIncrement());
 		salesRow.createCell(0).setCellValue("Total Sales (Revenue)");
-		createCurrencyCell(salesRow, 1, totalSales, currencyStyle);
+		createCurrencyCell(salesRow, 1, totals.sales, currencyStyle);
 
 		Row cogsRow = sheet.createRow(rowIdx.getAndIncrement());
 		cogsRow.createCell(0).setCellValue("Total Cost of Goods Sold (COGS)");
-		createCurrencyCell(cogsRow, 1, totalCogs, currencyStyle);
+		createCurrencyCell(cogsRow, 1, totals.cogs, currencyStyle);
 
 		Row profitRow = sheet.createRow(rowIdx.getAndIncrement());
 		profitRow.createCell(0).setCellValue("Gross Profit (Sales - COGS)");
@@ -169,11 +187,12 @@ public class ReportServiceImpl implements ReportService {
 
 		Row countRow = sheet.createRow(rowIdx.getAndIncrement());
 		countRow.createCell(0).setCellValue("Total Orders Included");
-		countRow.createCell(1).setCellValue(orders.size());
+		countRow.createCell(1).setCellValue(totals.orderCount);
 	}
 
-	private void createDetailedBreakdownSheet(Sheet sheet, List<Order> orders, CellStyle headerStyle,
-			CellStyle currencyStyle, CellStyle totalRowStyle, CellStyle totalCurrencyStyle) {
+	private FinancialTotals createDetailedBreakdownSheet(Sheet sheet, String keyword, LocalDateTime start,
+			LocalDateTime end, CellStyle headerStyle, CellStyle currencyStyle, CellStyle totalRowStyle,
+			CellStyle totalCurrencyStyle) {
 		AtomicInteger rowIdx = new AtomicInteger(0);
 
 		String[] headers = { "Order ID", "Date", "Customer", "Items", "Total Sales", "Est. COGS", "Est. Gross Profit" };
@@ -184,54 +203,45 @@ public class ReportServiceImpl implements ReportService {
 			cell.setCellStyle(headerStyle);
 		}
 
-		BigDecimal grandTotalSales = BigDecimal.ZERO;
-		BigDecimal grandTotalCogs = BigDecimal.ZERO;
-		BigDecimal grandTotalProfit = BigDecimal.ZERO;
-
+		FinancialTotals totals = new FinancialTotals();
 		DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-		for (Order order : orders) {
+		financialReportDataService.forEachRow(keyword, start, end, order -> {
 			Row row = sheet.createRow(rowIdx.getAndIncrement());
 
-			BigDecimal orderCogs = orderService.calculateCogsForOrder(order);
-			BigDecimal orderProfit = order.getTotalAmount().subtract(orderCogs);
-
-			String items = order.getItems().stream()
-					.map(item -> item.getQuantity() + "x " + item.getProduct().getName())
-					.collect(Collectors.joining(", "));
+			row.createCell(0).setCellValue("ORD-" + order.orderId());
+			row.createCell(1).setCellValue(order.orderDate().format(dtf));
+			row.createCell(2).setCellValue(order.customerName());
+			row.createCell(3).setCellValue(order.items(", "));
+			createCurrencyCell(row, 4, order.sales(), currencyStyle);
+			createCurrencyCell(row, 5, order.cogs(), currencyStyle);
+			createCurrencyCell(row, 6, order.profit(), currencyStyle);
 
-			row.createCell(0).setCellValue("ORD-" + order.getId());
-			row.createCell(1).setCellValue(order.getOrderDate().format(dtf));
-			row.createCell(2).setCellValue(order.getShippingFirstName() + " " + order.getShippingLastName());
-			row.createCell(3).setCellValue(items);
-			createCurrencyCell(row, 4, order.getTotalAmount(), currencyStyle);
-			createCurrencyCell(row, 5, orderCogs, currencyStyle);
-			createCurrencyCell(row, 6, orderProfit, currencyStyle);
-
-			grandTotalSales = grandTotalSales.add(order.getTotalAmount());
-			grandTotalCogs = grandTotalCogs.add(orderCogs);
-			grandTotalProfit = grandTotalProfit.add(orderProfit);
-		}
+			totals.sales = totals.sales.add(order.sales());
+			totals.cogs = totals.cogs.add(order.cogs());
+			totals.orderCount++;
+		});
 
 		Row totalRow = sheet.createRow(rowIdx.getAndIncrement());
 		for (int i = 0; i < headers.length; i++) {
 			totalRow.createCell(i).setCellStyle(totalRowStyle);
 		}
 		totalRow.getCell(3).setCellValue("Grand Totals:");
-		createCurrencyCell(totalRow, 4, grandTotalSales, totalCurrencyStyle);
-		createCurrencyCell(totalRow, 5, grandTotalCogs, totalCurrencyStyle);
-		createCurrencyCell(totalRow, 6, grandTotalProfit, totalCurrencyStyle);
+		createCurrencyCell(totalRow, 4, totals.sales, totalCurrencyStyle);
+		createCurrencyCell(totalRow, 5, totals.cogs, totalCurrencyStyle);
+		createCurrencyCell(totalRow, 6, totals.sales.subtract(totals.cogs), totalCurrencyStyle);
+		return totals;
 	}
 
 	@Override
-	public ByteArrayInputStream generateFinancialReportPdf(String keyword, String startDate, String endDate)
+	public void writeFinancialReportPdf(String keyword, String startDate, String endDate, OutputStream out)
 			throws IOException {
 		LocalDateTime startDateTime = parseDate(startDate, false);
 		LocalDateTime endDateTime = parseDate(endDate, true);
 
-		List<Order> orders = orderService.findDeliveredOrdersForReport(keyword, startDateTime, endDateTime);
-
-		return pdfService.generateFinancialReportPdf(orders, startDateTime, endDateTime);
+		pdfService.writeFinancialReportPdf(
+				action -> financialReportDataService.forEachRow(keyword, startDateTime, endDateTime, action),
+				startDateTime, endDateTime, out);
 	}
 
 	private List<InventoryItem> getFilteredInventoryItems(String keyword, Long categoryId) {
@@ -239,13 +249,14 @@ public class ReportServiceImpl implements ReportService {
 	}
 
 	@Override
-	public ByteArrayInputStream generateInventoryReport(String keyword, Long categoryId) throws IOException {
+	public void writeInventoryReport(String keyword, Long categoryId, OutputStream out) throws IOException {
 		List<InventoryItem> items = getFilteredInventoryItems(keyword, categoryId);
 		SiteSettings settings = siteSettingsService.getSiteSettings();
 
 		DateTimeFormatter genDateFmt = DateTimeFormatter.ofPattern("MMM dd, yyyy h:mm a");
 
-		try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream();) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+		try {
 
 			CellStyle headerStyle = createHeaderStyle(workbook);
 			CellStyle currencyStyle = createCurrencyStyle(workbook);
@@ -360,10 +371,12 @@ public class ReportServiceImpl implements ReportService {
 			totalRow.getCell(11).setCellValue("Total Inventory Value:");
 			createCurrencyCell(totalRow, 12, grandTotalValue, totalCurrencyStyle);
 
-			autoSizeColumns(sheet, headers.length);
+			setColumnWidths(sheet, INVENTORY_WIDTHS);
 
 			workbook.write(out);
-			return new ByteArrayInputStream(out.toByteArray());
+		} finally {
+			workbook.dispose();
+			workbook.close();
 		}
 	}
 
@@ -374,13 +387,14 @@ public class ReportServiceImpl implements ReportService {
 	}
 
 	@Override
-	public ByteArrayInputStream generateProductReport(String keyword, Long categoryId) throws IOException {
+	public void writeProductReport(String keyword, Long categoryId, OutputStream out) throws IOException {
 		List<Product> products = getFilteredProducts(keyword, categoryId);
 		SiteSettings settings = siteSettingsService.getSiteSettings();
 
 		DateTimeFormatter genDateFmt = DateTimeFormatter.ofPattern("MMM dd, yyyy h:mm a");
 
-		try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream();) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+		try {
 
 			CellStyle headerStyle = createHeaderStyle(workbook);
 			CellStyle currencyStyle = createCurrencyStyle(workbook);
@@ -392,6 +406,9 @@ public class ReportServiceImpl implements ReportService {
 			CellStyle dateTimeStyle = workbook.createCellStyle();
 			dateTimeStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
 
+			CellStyle wrapStyle = workbook.createCellStyle();
+			wrapStyle.setWrapText(true);
+
 			Sheet sheet = workbook.createSheet("Product Report");
 			AtomicInteger rowIdx = new AtomicInteger(0);
 
@@ -475,15 +492,15 @@ public class ReportServiceImpl implements ReportService {
 
 				Cell recipeCell = row.createCell(11);
 				recipeCell.setCellValue(recipe);
-				CellStyle wrapStyle = workbook.createCellStyle();
-				wrapStyle.setWrapText(true);
 				recipeCell.setCellStyle(wrapStyle);
 			}
 
-			autoSizeColumns(sheet, headers.length);
+			setColumnWidths(sheet, PRODUCT_WIDTHS);
 
 			workbook.write(out);
-			return new ByteArrayInputStream(out.toByteArray());
+		} finally {
+			workbook.dispose();
+			workbook.close();
 		}
 	}
 
@@ -498,13 +515,12 @@ public class ReportServiceImpl implements ReportService {
 	}
 
 	@Override
-	public ByteArrayInputStream generateWasteReport(String keyword, String reasonCategory, String wasteType,
-			String startDate, String endDate) throws IOException {
-		Page<ActivityLogEntry> wasteLogs = activityLogService.searchWasteLogs(keyword, reasonCategory, wasteType,
-				startDate, endDate, Pageable.unpaged());
+	public void writeWasteReport(String keyword, String reasonCategory, String wasteType, String startDate,
+			String endDate, OutputStream out) throws IOException {
 		SiteSettings settings = siteSettingsService.getSiteSettings();
 
-		try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream();) {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+		try {
 
 			CellStyle headerStyle = createHeaderStyle(workbook);
 			CellStyle boldStyle = createBoldStyle(workbook);
@@ -556,55 +572,57 @@ public class ReportServiceImpl implements ReportService {
 				cell.setCellStyle(headerStyle);
 			}
 
-			for (ActivityLogEntry logEntry : wasteLogs.getContent()) {
-				Row row = sheet.createRow(rowIdx.getAndIncrement());
+			activityLogService.forEachWasteLogForReport(keyword, reasonCategory, wasteType, startDate, endDate,
+					logEntry -> {
+						Row row = sheet.createRow(rowIdx.getAndIncrement());
 
-				Cell timestampCell = row.createCell(0);
-				timestampCell.setCellValue(logEntry.getTimestamp());
-				timestampCell.setCellStyle(dateTimeStyle);
+						Cell timestampCell = row.createCell(0);
+						timestampCell.setCellValue(logEntry.getTimestamp());
+						timestampCell.setCellStyle(dateTimeStyle);
 
-				row.createCell(1).setCellValue(logEntry.getUsername());
+						row.createCell(1).setCellValue(logEntry.getUsername());
 
-				String type = "Unknown";
-				if (logEntry.getAction().startsWith("PRODUCT_"))
-					type = "Product";
-				else if (logEntry.getAction().startsWith("STOCK_"))
-					type = "Inventory";
-				row.createCell(2).setCellValue(type);
+						String type = "Unknown";
+						if (logEntry.getAction().startsWith("PRODUCT_"))
+							type = "Product";
+						else if (logEntry.getAction().startsWith("STOCK_"))
+							type = "Inventory";
+						row.createCell(2).setCellValue(type);
 
-				String reason = logEntry.getAction().replace("STOCK_WASTE_", "").replace("PRODUCT_WASTE_", "");
-				row.createCell(3).setCellValue(reason);
+						String reason = logEntry.getWasteReason();
+						row.createCell(3).setCellValue(reason);
 
-				row.createCell(4).setCellValue(logEntry.getItemName() != null ? logEntry.getItemName() : "N/A");
+						row.createCell(4).setCellValue(logEntry.getItemName() != null ? logEntry.getItemName() : "N/A");
 
-				if (logEntry.getCostPerUnit() != null) {
-					createCurrencyCell(row, 5, logEntry.getCostPerUnit(), currencyStyle);
-				} else {
-					row.createCell(5).setCellValue("N/A");
-				}
+						if (logEntry.getCostPerUnit() != null) {
+							createCurrencyCell(row, 5, logEntry.getCostPerUnit(), currencyStyle);
+						} else {
+							row.createCell(5).setCellValue("N/A");
+						}
 
-				if (logEntry.getTotalValue() != null) {
-					createCurrencyCell(row, 6, logEntry.getTotalValue(), currencyStyle);
-				} else {
-					row.createCell(6).setCellValue("N/A");
-				}
+						if (logEntry.getTotalValue() != null) {
+							createCurrencyCell(row, 6, logEntry.getTotalValue(), currencyStyle);
+						} else {
+							row.createCell(6).setCellValue("N/A");
+						}
 
-				row.createCell(7).setCellValue(logEntry.getDetails());
-			}
+						row.createCell(7).setCellValue(logEntry.getDetails());
+					});
 
-			autoSizeColumns(sheet, headers.length);
+			setColumnWidths(sheet, WASTE_WIDTHS);
 
 			workbook.write(out);
-			return new ByteArrayInputStream(out.toByteArray());
+		} finally {
+			workbook.dispose();
+			workbook.close();
 		}
 	}
 
 	@Override
-	public ByteArrayInputStream generateWasteReportPdf(String keyword, String reasonCategory, String wasteType,
-			String startDate, String endDate) throws IOException {
-		Page<ActivityLogEntry> wasteLogs = activityLogService.searchWasteLogs(keyword, reasonCategory, wasteType,
-				startDate, endDate, Pageable.unpaged());
-		return pdfService.generateWasteLogPdf(wasteLogs, keyword, reasonCategory, wasteType, startDate, endDate);
+	public void writeWasteReportPdf(String keyword, String reasonCategory, String wasteType, String startDate,
+			String endDate, OutputStream out) throws IOException {
+		pdfService.writeWasteLogPdf(action -> activityLogService.forEachWasteLogForReport(keyword, reasonCategory,
+				wasteType, startDate, endDate, action), keyword, reasonCategory, wasteType, startDate, endDate, out);
 	}
 
 	@Override
@@ -614,10 +632,114 @@ public class ReportServiceImpl implements ReportService {
 	}
 
 	@Override
-	public ByteArrayInputStream generateActivityLogPdf(String keyword, String startDate, String endDate,
-			Pageable pageable) throws IOException {
-		Page<ActivityLogEntry> logPage = activityLogService.searchLogs(keyword, startDate, endDate, pageable);
-		return pdfService.generateActivityLogPdf(logPage, keyword, startDate, endDate);
+	public void writeActivityLogPdf(String keyword, String startDate, String endDate, Pageable pageable,
+			OutputStream out) throws IOException {
+		PdfService.RowSource<ActivityLogEntry> entries;
+		if (pageable.isPaged()) {
+			List<ActivityLogEntry> page = activityLogService.searchLogs(keyword, startDate, endDate, pageable)
+					.getContent();
+			entries = page::forEach;
+		} else {
+			entries = action -> activityLogService.forEachLogForReport(keyword, startDate, endDate, action);
+		}
+		pdfService.writeActivityLogPdf(entries, keyword, startDate, endDate, out);
+	}
+
+	// --- CSV exports: same filters and cursors as the Excel/PDF versions, no styling ---
+	@Override
+	public void writeFinancialReportCsv(String keyword, String startDate, String endDate, OutputStream out)
+			throws IOException {
+		CsvWriter csv = new CsvWriter(out);
+		csv.row("Order ID", "Date", "Customer", "Items", "Total Sales", "Est. COGS", "Est. Gross Profit");
+		financialReportDataService.forEachRow(keyword, parseDate(startDate, false), parseDate(endDate, true),
+				order -> csvRow(() -> csv.text("ORD-" + order.orderId()).date(order.orderDate(), CSV_DATE_TIME)
+						.text(order.customerName()).text(order.items("; ")).number(order.sales())
+						.number(order.cogs()).number(order.profit()).endRow()));
+		csv.flush();
+	}
+
+	@Override
+	public void writeInventoryReportCsv(String keyword, Long categoryId, OutputStream out) throws IOException {
+		CsvWriter csv = new CsvWriter(out);
+		csv.row("Item ID", "Item Name", "Category", "Current Stock", "Unit", "Cost Per Unit", "Item Status",
+				"Stock Status", "Received Date", "Last Updated", "Exp. Days", "Expiration Date", "Total Cost Value");
+		for (InventoryItem item : getFilteredInventoryItems(keyword, categoryId)) {
+			csv.number(item.getId()).text(item.getName()).text(item.getCategory().getName())
+					.number(item.getCurrentStock()).text(item.getUnit().getAbbreviation())
+					.number(item.getCostPerUnit()).text(item.getItemStatus()).text(item.getStockStatus())
+					.date(item.getReceivedDate(), CSV_DATE).date(item.getLastUpdated(), CSV_DATE_TIME)
+					.number(item.getExpirationDays()).date(item.getExpirationDate(), CSV_DATE)
+					.number(item.getTotalCostValue()).endRow();
+		}
+		csv.flush();
+	}
+
+	@Override
+	public void writeProductReportCsv(String keyword, Long categoryId, OutputStream out) throws IOException {
+		CsvWriter csv = new CsvWriter(out);
+		csv.row("Product ID", "Product Name", "Category", "Price", "Current Stock", "Product Status",
+				"Stock Status", "Created/Received", "Last Stock Update", "Exp. Days", "Exp. Date",
+				"Recipe Ingredients");
+		for (Product product : getFilteredProducts(keyword, categoryId)) {
+			String recipe = product.getIngredients().stream().map(ing -> ing.getQuantityNeeded() + " "
+					+ (ing.getInventoryItem().getUnit() != null ? ing.getInventoryItem().getUnit().getAbbreviation()
+							: "units")
+					+ " of " + ing.getInventoryItem().getName()).collect(Collectors.joining("; "));
+
+			csv.number(product.getId()).text(product.getName()).text(product.getCategory().getName())
+					.number(product.getPrice()).number(product.getCurrentStock()).text(product.getProductStatus())
+					.text(product.getStockStatus()).date(product.getCreatedDate(), CSV_DATE)
+					.date(product.getStockLastUpdated(), CSV_DATE_TIME).number(product.getExpirationDays())
+					.date(product.getExpirationDate(), CSV_DATE).text(recipe).endRow();
+		}
+		csv.flush();
+	}
+
+	@Override
+	public void writeWasteReportCsv(String keyword, String reasonCategory, String wasteType, String startDate,
+			String endDate, OutputStream out) throws IOException {
+		CsvWriter csv = new CsvWriter(out);
+		csv.row("Timestamp", "Admin User", "Type", "Reason", "Item Name", "Quantity", "Cost/Unit", "Total Value",
+				"Details");
+		activityLogService.forEachWasteLogForReport(keyword, reasonCategory, wasteType, startDate, endDate,
+				logEntry -> csvRow(() -> {
+					String type = "Unknown";
+					if (logEntry.getAction().startsWith("PRODUCT_"))
+						type = "Product";
+					else if (logEntry.getAction().startsWith("STOCK_"))
+						type = "Inventory";
+
+					csv.date(logEntry.getTimestamp(), CSV_DATE_TIME).text(logEntry.getUsername()).text(type)
+							.text(logEntry.getWasteReason()).text(logEntry.getItemName())
+							.number(logEntry.getQuantity()).number(logEntry.getCostPerUnit())
+							.number(logEntry.getTotalValue()).text(logEntry.getDetails()).endRow();
+				}));
+		csv.flush();
+	}
+
+	@Override
+	public void writeActivityLogCsv(String keyword, String startDate, String endDate, OutputStream out)
+			throws IOException {
+		CsvWriter csv = new CsvWriter(out);
+		csv.row("Timestamp", "User", "Action", "Details");
+		activityLogService.forEachLogForReport(keyword, startDate, endDate,
+				logEntry -> csvRow(() -> csv.date(logEntry.getTimestamp(), CSV_DATE_TIME).text(logEntry.getUsername())
+						.text(logEntry.getAction()).text(logEntry.getDetails()).endRow()));
+		csv.flush();
+	}
+
+	@FunctionalInterface
+	private interface CsvRowWriter {
+		void write() throws IOException;
+	}
+
+	// Row callbacks are plain Consumers, so write failures travel as UncheckedIOException
+	private static void csvRow(CsvRowWriter writer) {
+		try {
+			writer.write();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	// --- NEW: Gather Dashboard Stats and Call PDF Service ---
@@ -625,60 +747,56 @@ public class ReportServiceImpl implements ReportService {
 	public ByteArrayInputStream generateDashboardReportPdf() throws IOException {
 		Map<String, Object> data = new HashMap<>();
 
+		// Same numbers the dashboard page shows, without re-running its queries
+		DashboardService.DashboardSnapshot snapshot = dashboardService.getSnapshot();
+
 		// Financials
-		data.put("salesToday", orderService.getSalesToday());
-		data.put("salesWeek", orderService.getSalesThisWeek());
-		data.put("salesMonth", orderService.getSalesThisMonth());
-		data.put("cogsToday", orderService.getCogsToday());
-		data.put("cogsWeek", orderService.getCogsThisWeek());
-		data.put("cogsMonth", orderService.getCogsThisMonth());
-
-		data.put("totalRevenue", orderService.getTotalRevenueAllTime());
-		data.put("totalTransactions", orderService.getTotalTransactionsAllTime());
-		BigDecimal avg = BigDecimal.ZERO;
-		if ((long) data.get("totalTransactions") > 0) {
-			avg = ((BigDecimal) data.get("totalRevenue")).divide(new BigDecimal((long) data.get("totalTransactions")),
-					2, RoundingMode.HALF_UP);
-		}
-		data.put("avgOrderValue", avg);
-		data.put("potentialRevenue", orderService.getTotalPotentialRevenue());
+		data.put("salesToday", snapshot.salesToday());
+		data.put("salesWeek", snapshot.salesThisWeek());
+		data.put("salesMonth", snapshot.salesThisMonth());
+		data.put("cogsToday", snapshot.cogsToday());
+		data.put("cogsWeek", snapshot.cogsThisWeek());
+		data.put("cogsMonth", snapshot.cogsThisMonth());
+
+		data.put("totalRevenue", snapshot.totalRevenue());
+		data.put("totalTransactions", snapshot.totalTransactions());
+		data.put("avgOrderValue", snapshot.averageOrderValue());
+		data.put("potentialRevenue", snapshot.potentialRevenue());
 
 		// Order Counts
-		Map<String, Long> orderCounts = orderService.getOrderStatusCounts();
-		data.put("totalOrders", orderCounts.values().stream().mapToLong(Long::longValue).sum());
-		data.put("pendingVerification", orderCounts.getOrDefault(Order.STATUS_PENDING_VERIFICATION, 0L));
-		data.put("pending", orderCounts.getOrDefault(Order.STATUS_PENDING, 0L));
-		data.put("processing", orderCounts.getOrDefault(Order.STATUS_PROCESSING, 0L));
-		data.put("outForDelivery", orderCounts.getOrDefault(Order.STATUS_OUT_FOR_DELIVERY, 0L));
-		data.put("delivered", orderCounts.getOrDefault(Order.STATUS_DELIVERED, 0L));
-		data.put("cancelled", orderCounts.getOrDefault(Order.STATUS_CANCELLED, 0L));
-		data.put("rejected", orderCounts.getOrDefault(Order.STATUS_REJECTED, 0L));
+		data.put("totalOrders", snapshot.totalOrders());
+		data.put("pendingVerification", snapshot.orderCount(Order.STATUS_PENDING_VERIFICATION));
+		data.put("pending", snapshot.orderCount(Order.STATUS_PENDING));
+		data.put("processing", snapshot.orderCount(Order.STATUS_PROCESSING));
+		data.put("outForDelivery", snapshot.orderCount(Order.STATUS_OUT_FOR_DELIVERY));
+		data.put("delivered", snapshot.orderCount(Order.STATUS_DELIVERED));
+		data.put("cancelled", snapshot.orderCount(Order.STATUS_CANCELLED));
+		data.put("rejected", snapshot.orderCount(Order.STATUS_REJECTED));
 
 		// Inventory
-		data.put("totalInventoryItems", inventoryItemService.findAll().size());
-		data.put("totalStockValue", inventoryItemService.getTotalStockValue());
-		data.put("invLow", inventoryItemService.countLowStockItems());
-		data.put("invCritical", inventoryItemService.countCriticalStockItems());
-		data.put("invOut", inventoryItemService.countOutOfStockItems());
+		data.put("totalInventoryItems", snapshot.totalInventoryItems());
+		data.put("totalStockValue", snapshot.valuation().totalValue());
+		data.put("invLow", snapshot.lowStockItems());
+		data.put("invCritical", snapshot.criticalStockItems());
+		data.put("invOut", snapshot.outOfStockItems());
 
 		// Products
-		data.put("totalProducts", productService.countAllProducts());
-		data.put("prodLow", productService.countLowStockProducts());
-		data.put("prodCritical", productService.countCriticalStockProducts());
-		data.put("prodOut", productService.countOutOfStockProducts());
+		data.put("totalProducts", snapshot.totalProducts());
+		data.put("prodLow", snapshot.lowStockProducts());
+		data.put("prodCritical", snapshot.criticalStockProducts());
+		data.put("prodOut", snapshot.outOfStockProducts());
 
 		// Waste
-		Map<String, Object> waste = activityLogService.getWasteMetrics(null, null, null, null, null);
-		data.put("wasteTotalValue", waste.get("totalWasteValue"));
-		data.put("wasteExpired", waste.get("expiredValue"));
-		data.put("wasteDamaged", waste.get("damagedValue"));
-		data.put("wasteOther", waste.get("wasteValue"));
+		data.put("wasteTotalValue", snapshot.waste().totalWasteValue());
+		data.put("wasteExpired", snapshot.waste().expiredValue());
+		data.put("wasteDamaged", snapshot.waste().damagedValue());
+		data.put("wasteOther", snapshot.waste().wasteValue());
 
 		// Users
-		data.put("totalCustomers", customerService.findAllCustomers(null).getTotalElements());
-		data.put("activeCustomers", customerService.countActiveCustomers());
-		data.put("newCustomers", customerService.countNewCustomersThisMonth());
-		data.put("totalAdmins", adminService.countAllAdmins());
+		data.put("totalCustomers", snapshot.totalCustomers());
+		data.put("activeCustomers", snapshot.activeCustomers());
+		data.put("newCustomers", snapshot.newCustomersThisMonth());
+		data.put("totalAdmins", snapshot.totalAdmins());
 
 		return pdfService.generateDashboardPdf(data);
 	}
@@ -735,9 +853,11 @@ public class ReportServiceImpl implements ReportService {
 		cell.setCellStyle(style);
 	}
 
-	private void autoSizeColumns(Sheet sheet, int numColumns) {
-		for (int i = 0; i < numColumns; i++) {
-			sheet.autoSizeColumn(i);
+	// Fixed widths (in characters) instead of autoSizeColumn, which would need every
+	// row in memory to measure
+	private void setColumnWidths(Sheet sheet, int[] widths) {
+		for (int i = 0; i < widths.length; i++) {
+			sheet.setColumnWidth(i, widths[i] * 256);
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,313 @@
+package com.toastedsiopao.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.function.BiConsumer;
+
+/**
+ * S3-compatible object storage (AWS S3, MinIO, etc.) over plain HTTP with
+ * Signature V4, so every app node behind the load balancer sees the same
+ * uploads. Bodies are streamed from the staged temp file on disk and streamed
+ * back on reads; nothing is buffered in heap.
+ */
+@Service
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+	private static final Logger log = LoggerFactory.getLogger(S3StorageBackend.class);
+
+	private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+	private static final String SERVICE = "s3";
+	private static final String SIGNED_HEADERS = "host;x-amz-content-sha256;x-amz-date";
+	private static final String EMPTY_PAYLOAD_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+	private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+	private static final DateTimeFormatter AMZ_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+	private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+	@Value("${file.storage.s3.endpoint}")
+	private String endpoint;
+
+	@Value("${file.storage.s3.region:us-east-1}")
+	private String region;
+
+	@Value("${file.storage.s3.bucket}")
+	private String bucket;
+
+	@Value("${file.storage.s3.access-key}")
+	private String accessKey;
+
+	@Value("${file.storage.s3.secret-key}")
+	private String secretKey;
+
+	@Value("${file.storage.s3.key-prefix:uploads/}")
+	private String keyPrefix;
+
+	@Value("${file.storage.s3.path-style:true}")
+	private boolean pathStyle;
+
+	private HttpClient httpClient;
+	private String scheme;
+	private String host;
+
+	@PostConstruct
+	public void init() {
+		if (!StringUtils.hasText(accessKey) || !StringUtils.hasText(secretKey)) {
+			throw new IllegalStateException("file.storage.s3.access-key and secret-key must be set for the s3 backend.");
+		}
+		URI base = URI.create(endpoint);
+		scheme = base.getScheme();
+		host = pathStyle ? base.getAuthority() : bucket + "." + base.getAuthority();
+		httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+		log.info("Using S3-compatible upload storage at {}://{} (bucket '{}', prefix '{}')", scheme, host, bucket,
+				keyPrefix);
+	}
+
+	@Override
+	public boolean exists(String key) throws IOException {
+		return stat(key) != null;
+	}
+
+	@Override
+	public void put(String key, Path source, String contentSha256, String contentType) throws IOException {
+		HttpRequest.Builder builder = signedRequest("PUT", key, contentSha256)
+				.PUT(HttpRequest.BodyPublishers.ofFile(source));
+		if (StringUtils.hasText(contentType)) {
+			builder.header("Content-Type", contentType);
+		}
+		HttpResponse<String> response = send(builder.build(), HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() / 100 != 2) {
+			throw new IOException("S3 PUT " + key + " failed with HTTP " + response.statusCode() + ": "
+					+ response.body());
+		}
+		log.debug("Uploaded object {} to bucket {}", key, bucket);
+	}
+
+	@Override
+	public void delete(String key) throws IOException {
+		HttpRequest request = signedRequest("DELETE", key, EMPTY_PAYLOAD_SHA256).DELETE().build();
+		HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+			throw new IOException("S3 DELETE " + key + " failed with HTTP " + response.statusCode() + ": "
+					+ response.body());
+		}
+	}
+
+	@Override
+	public ObjectInfo stat(String key) throws IOException {
+		HttpRequest request = signedRequest("HEAD", key, EMPTY_PAYLOAD_SHA256)
+				.method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+		HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+		if (response.statusCode() == 404) {
+			return null;
+		}
+		if (response.statusCode() / 100 != 2) {
+			throw new IOException("S3 HEAD " + key + " failed with HTTP " + response.statusCode());
+		}
+		long size = response.headers().firstValueAsLong("Content-Length").orElse(0L);
+		long lastModified = response.headers().firstValue("Last-Modified")
+				.map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+				.orElse(0L);
+		return new ObjectInfo(size, lastModified);
+	}
+
+	@Override
+	public InputStream open(String key, long offset, long length) throws IOException {
+		HttpRequest request = signedRequest("GET", key, EMPTY_PAYLOAD_SHA256)
+				.header("Range", "bytes=" + offset + "-" + (offset + length - 1)).GET().build();
+		HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+		if (response.statusCode() != 200 && response.statusCode() != 206) {
+			response.body().close();
+			throw new IOException("S3 GET " + key + " failed with HTTP " + response.statusCode());
+		}
+		return response.body();
+	}
+
+	@Override
+	public void forEachObject(BiConsumer<String, ObjectInfo> visitor) throws IOException {
+		String continuationToken = null;
+		do {
+			// Query parameters must be sorted by name for the canonical request
+			StringBuilder query = new StringBuilder();
+			if (continuationToken != null) {
+				query.append("continuation-token=").append(encode(continuationToken, false)).append('&');
+			}
+			query.append("list-type=2&prefix=").append(encode(keyPrefix, false));
+
+			HttpRequest request = signedRequest("GET", "/", query.toString(), EMPTY_PAYLOAD_SHA256).GET().build();
+			HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+			try (InputStream body = response.body()) {
+				if (response.statusCode() / 100 != 2) {
+					throw new IOException("S3 LIST failed with HTTP " + response.statusCode());
+				}
+				continuationToken = readListPage(body, visitor);
+			}
+		} while (continuationToken != null);
+	}
+
+	/**
+	 * Parses one ListObjectsV2 page with StAX so a large bucket never has to be
+	 * held in memory. Returns the next continuation token, or {@code null}.
+	 */
+	private String readListPage(InputStream body, BiConsumer<String, ObjectInfo> visitor) throws IOException {
+		try {
+			XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(body);
+			String nextToken = null;
+			boolean truncated = false;
+			String key = null;
+			long size = 0;
+			long lastModified = 0;
+			try {
+				while (reader.hasNext()) {
+					int event = reader.next();
+					if (event == XMLStreamConstants.END_ELEMENT && "Contents".equals(reader.getLocalName())) {
+						if (key != null && key.startsWith(keyPrefix) && key.length() > keyPrefix.length()) {
+							visitor.accept(key.substring(keyPrefix.length()), new ObjectInfo(size, lastModified));
+						}
+						continue;
+					}
+					if (event != XMLStreamConstants.START_ELEMENT) {
+						continue;
+					}
+					switch (reader.getLocalName()) {
+					case "Contents" -> {
+						key = null;
+						size = 0;
+						lastModified = 0;
+					}
+					case "Key" -> key = reader.getElementText();
+					case "Size" -> size = Long.parseLong(reader.getElementText().trim());
+					case "LastModified" -> lastModified = Instant.parse(reader.getElementText().trim()).toEpochMilli();
+					case "NextContinuationToken" -> nextToken = reader.getElementText();
+					case "IsTruncated" -> truncated = Boolean.parseBoolean(reader.getElementText().trim());
+					default -> {
+					}
+					}
+				}
+			} finally {
+				reader.close();
+			}
+			return truncated ? nextToken : null;
+		} catch (XMLStreamException e) {
+			throw new IOException("Could not parse S3 listing", e);
+		}
+	}
+
+	@Override
+	public Path localPath(String key) {
+		return null;
+	}
+
+	private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+		try {
+			return httpClient.send(request, handler);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while talking to object storage", e);
+		}
+	}
+
+	private HttpRequest.Builder signedRequest(String method, String key, String payloadSha256) {
+		return signedRequest(method, "/" + keyPrefix + key, "", payloadSha256);
+	}
+
+	private HttpRequest.Builder signedRequest(String method, String objectPath, String canonicalQuery,
+			String payloadSha256) {
+		String canonicalUri = encodePath((pathStyle ? "/" + bucket : "") + objectPath);
+		ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+		String amzDate = now.format(AMZ_DATE);
+		String day = now.format(AMZ_DAY);
+		String scope = day + "/" + region + "/" + SERVICE + "/aws4_request";
+
+		String canonicalRequest = method + "\n" + canonicalUri + "\n" + canonicalQuery + "\n" + "host:" + host + "\n"
+				+ "x-amz-content-sha256:" + payloadSha256 + "\n" + "x-amz-date:" + amzDate + "\n" + "\n"
+				+ SIGNED_HEADERS + "\n" + payloadSha256;
+
+		String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+
+		byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), day);
+		signingKey = hmac(signingKey, region);
+		signingKey = hmac(signingKey, SERVICE);
+		signingKey = hmac(signingKey, "aws4_request");
+		String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+		String authorization = ALGORITHM + " Credential=" + accessKey + "/" + scope + ", SignedHeaders="
+				+ SIGNED_HEADERS + ", Signature=" + signature;
+
+		String query = canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery;
+		return HttpRequest.newBuilder(URI.create(scheme + "://" + host + canonicalUri + query))
+				.timeout(Duration.ofSeconds(60)).header("x-amz-date", amzDate)
+				.header("x-amz-content-sha256", payloadSha256).header("Authorization", authorization);
+	}
+
+	private static String encodePath(String path) {
+		return encode(path, true);
+	}
+
+	private static String encode(String value, boolean keepSlash) {
+		StringBuilder encoded = new StringBuilder();
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			char c = (char) (b & 0xFF);
+			if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_'
+					|| c == '.' || c == '~' || (keepSlash && c == '/')) {
+				encoded.append(c);
+			} else {
+				encoded.append('%').append(String.format("%02X", b & 0xFF));
+			}
+		}
+		return encoded.toString();
+	}
+
+	private static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	private static String sha256Hex(String value) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+		}
+	}
+
+	private static byte[] hmac(byte[] key, String data) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(key, "HmacSHA256"));
+			return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 is not available on this JVM", e);
+		}
+	}
+}
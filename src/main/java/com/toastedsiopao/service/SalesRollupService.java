@@ -0,0 +1,38 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps delivered sales pre-aggregated per hour, so sales charts over any range
+ * read at most one row per hour instead of scanning orders. Deliveries add to
+ * their bucket as they happen; a nightly rebuild recomputes everything from the
+ * orders table in case anything drifted.
+ */
+public interface SalesRollupService {
+
+	String BUCKET_HOUR = "hour";
+	String BUCKET_DAY = "day";
+	String BUCKET_WEEK = "week";
+	String BUCKET_MONTH = "month";
+
+	record SalesSeries(String bucket, List<String> labels, List<BigDecimal> sales, List<Long> orders) {
+	}
+
+	// Call when an order becomes DELIVERED, inside the same transaction
+	void recordDelivery(Order order);
+
+	void rebuild();
+
+	/**
+	 * Sales per bucket from {@code start} to {@code end}, both whole days and
+	 * inclusive. Weeks start on Monday. Empty buckets are included as zero.
+	 *
+	 * @throws IllegalArgumentException for an unknown bucket, an inverted range or
+	 *                                  more buckets than one chart can show
+	 */
+	SalesSeries getSalesSeries(String bucket, LocalDate start, LocalDate end);
+}
@@ -0,0 +1,125 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.Order;
+import com.toastedsiopao.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+	private static final Logger log = LoggerFactory.getLogger(SalesRollupServiceImpl.class);
+
+	// About 83 days of hours or 5 years of days; more points than a chart can draw
+	private static final int MAX_BUCKETS = 2000;
+
+	private static final DateTimeFormatter HOUR_LABEL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+	private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("yyyy-MM");
+
+	@Autowired
+	private SalesRollupRepository salesRollupRepository;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		if (salesRollupRepository.count() == 0) {
+			rebuild();
+		}
+	}
+
+	@Override
+	public void recordDelivery(Order order) {
+		salesRollupRepository.addDelivery(order.getOrderDate().truncatedTo(ChronoUnit.HOURS), order.getTotalAmount());
+	}
+
+	@Override
+	public void rebuild() {
+		salesRollupRepository.deleteAllBuckets();
+		int buckets = salesRollupRepository.insertBucketsFromOrders();
+		log.info("Rebuilt sales rollups: {} hourly bucket(s).", buckets);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public SalesSeries getSalesSeries(String bucket, LocalDate start, LocalDate end) {
+		if (end.isBefore(start)) {
+			throw new IllegalArgumentException("The start date must not be after the end date.");
+		}
+		LocalDateTime first = bucketStart(bucket, start.atStartOfDay());
+		LocalDateTime endExclusive = end.plusDays(1).atStartOfDay();
+
+		List<String> labels = new ArrayList<>();
+		Map<LocalDateTime, Integer> indexByBucket = new HashMap<>();
+		for (LocalDateTime current = first; current.isBefore(endExclusive); current = next(bucket, current)) {
+			if (labels.size() == MAX_BUCKETS) {
+				throw new IllegalArgumentException(
+						"Range too long for " + bucket + " buckets; pick a larger bucket or a shorter range.");
+			}
+			indexByBucket.put(current, labels.size());
+			labels.add(label(bucket, current));
+		}
+
+		BigDecimal[] sales = new BigDecimal[labels.size()];
+		long[] orders = new long[labels.size()];
+		for (Object[] row : salesRollupRepository.findBuckets(first, endExclusive)) {
+			Integer index = indexByBucket.get(bucketStart(bucket, (LocalDateTime) row[0]));
+			if (index == null) {
+				continue;
+			}
+			orders[index] += (Long) row[1];
+			sales[index] = sales[index] != null ? sales[index].add((BigDecimal) row[2]) : (BigDecimal) row[2];
+		}
+
+		List<BigDecimal> salesList = new ArrayList<>(sales.length);
+		List<Long> orderList = new ArrayList<>(orders.length);
+		for (int i = 0; i < sales.length; i++) {
+			salesList.add(sales[i] != null ? sales[i] : BigDecimal.ZERO);
+			orderList.add(orders[i]);
+		}
+		return new SalesSeries(bucket, labels, salesList, orderList);
+	}
+
+	private static LocalDateTime bucketStart(String bucket, LocalDateTime time) {
+		return switch (bucket) {
+		case BUCKET_HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+		case BUCKET_DAY -> time.truncatedTo(ChronoUnit.DAYS);
+		case BUCKET_WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+		case BUCKET_MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+		default -> throw new IllegalArgumentException("Unknown bucket: " + bucket);
+		};
+	}
+
+	private static LocalDateTime next(String bucket, LocalDateTime bucketStart) {
+		return switch (bucket) {
+		case BUCKET_HOUR -> bucketStart.plusHours(1);
+		case BUCKET_DAY -> bucketStart.plusDays(1);
+		case BUCKET_WEEK -> bucketStart.plusWeeks(1);
+		default -> bucketStart.plusMonths(1);
+		};
+	}
+
+	private static String label(String bucket, LocalDateTime bucketStart) {
+		return switch (bucket) {
+		case BUCKET_HOUR -> HOUR_LABEL.format(bucketStart);
+		case BUCKET_MONTH -> MONTH_LABEL.format(bucketStart);
+		default -> bucketStart.toLocalDate().toString();
+		};
+	}
+}
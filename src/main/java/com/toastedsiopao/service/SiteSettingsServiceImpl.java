@@ -19,6 +19,9 @@ public class SiteSettingsServiceImpl implements SiteSettingsService {
 	@Autowired
 	private SiteSettingsRepository settingsRepository;
 
+	@Autowired
+	private DataVersionService dataVersionService;
+
 	@Override
 	public SiteSettings getSiteSettings() {
 		SiteSettings settings = settingsRepository.findById(SETTINGS_ID).orElseGet(this::createDefaultSettings);
@@ -34,6 +37,9 @@ public class SiteSettingsServiceImpl implements SiteSettingsService {
 	@Override
 	public SiteSettings save(SiteSettings settings) {
 		settings.setId(SETTINGS_ID);
+		settings.setSettingsVersion(settings.getSettingsVersion() + 1);
+		// Report headers carry the store name
+		dataVersionService.dataChanged(DataVersionService.DATA_SETTINGS);
 		return settingsRepository.save(settings);
 	}
 
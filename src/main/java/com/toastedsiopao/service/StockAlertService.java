@@ -0,0 +1,41 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryItem;
+import com.toastedsiopao.model.Product;
+
+/**
+ * Tracks the low / critical / out-of-stock status of every item and product in
+ * memory. Stock writers report status changes here, which keeps the dashboard
+ * gauges current without count queries and raises one admin alert per crossing.
+ * <p>
+ * Changes are reported on the node that made them; the others rebuild from the
+ * database once the inventory or product data version moves, checked every
+ * {@code index.version-check-seconds}. Until then their gauges lag behind.
+ */
+public interface StockAlertService {
+
+	record StockGauge(long low, long critical, long outOfStock) {
+	}
+
+	void rebuild();
+
+	// Rebuilds when stock or thresholds were written (here or on another node) since the last rebuild
+	void rebuildIfChanged();
+
+	/**
+	 * Call after changing an item's stock or thresholds. {@code previousStatus} is
+	 * {@link InventoryItem#getStockStatus()} from before the change, or {@code null}
+	 * for a new item. Applied after the surrounding transaction commits.
+	 */
+	void itemStatusChanged(InventoryItem item, String previousStatus);
+
+	void productStatusChanged(Product product, String previousStatus);
+
+	void itemRemoved(Long itemId);
+
+	void productRemoved(Long productId);
+
+	StockGauge getItemGauge();
+
+	StockGauge getProductGauge();
+}
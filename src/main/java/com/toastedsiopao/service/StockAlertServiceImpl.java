@@ -0,0 +1,264 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryItem;
+import com.toastedsiopao.model.Product;
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class StockAlertServiceImpl implements StockAlertService {
+
+	private static final Logger log = LoggerFactory.getLogger(StockAlertServiceImpl.class);
+
+	private static final List<String> SEVERITY = List.of("NORMAL", "LOW", "CRITICAL", "NO_STOCK");
+
+	private static final Set<String> DEPENDS_ON = Set.of(DataVersionService.DATA_INVENTORY,
+			DataVersionService.DATA_PRODUCTS);
+
+	@Autowired
+	private InventoryItemRepository inventoryItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DashboardEventService dashboardEventService;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	private final StatusTracker items = new StatusTracker(DashboardEventService.STOCK_ITEMS, "Inventory item",
+			"/admin/inventory");
+	private final StatusTracker products = new StatusTracker(DashboardEventService.STOCK_PRODUCTS, "Product",
+			"/admin/products");
+
+	private volatile Map<String, Long> indexedVersions = Map.of();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+	}
+
+	@Override
+	public synchronized void rebuild() {
+		TransactionCallbacks.newReadOnlyTransaction(transactionManager).executeWithoutResult(status -> {
+			// Same read view as the rows below, so a later write always moves a version past these
+			Map<String, Long> versions = dataVersionService.getVersions(DEPENDS_ON);
+			Map<Long, String> itemStatuses = new HashMap<>();
+			for (Object[] row : inventoryItemRepository.findAllStockThresholdLevels()) {
+				itemStatuses.put((Long) row[0], statusOf((BigDecimal) row[2], (BigDecimal) row[3], (BigDecimal) row[4]));
+			}
+			Map<Long, String> productStatuses = new HashMap<>();
+			for (Object[] row : productRepository.findAllStockThresholdLevels()) {
+				productStatuses.put((Long) row[0],
+						statusOf(toDecimal((Integer) row[2]), toDecimal((Integer) row[3]), toDecimal((Integer) row[4])));
+			}
+			items.reset(itemStatuses);
+			products.reset(productStatuses);
+			indexedVersions = versions;
+		});
+		log.debug("Rebuilt stock status gauges: items {}, products {}.", items.gauge(), products.gauge());
+	}
+
+	@Override
+	public void rebuildIfChanged() {
+		if (!dataVersionService.getVersions(DEPENDS_ON).equals(indexedVersions)) {
+			rebuild();
+		}
+	}
+
+	@Override
+	public void itemStatusChanged(InventoryItem item, String previousStatus) {
+		String currentStatus = item.getStockStatus();
+		if (currentStatus.equals(previousStatus)) {
+			return;
+		}
+		Long id = item.getId();
+		String name = item.getName();
+		String stock = item.getCurrentStock().stripTrailingZeros().toPlainString();
+		TransactionCallbacks.afterCommit(() -> items.apply(id, name, stock, previousStatus, currentStatus));
+	}
+
+	@Override
+	public void productStatusChanged(Product product, String previousStatus) {
+		String currentStatus = product.getStockStatus();
+		if (currentStatus.equals(previousStatus)) {
+			return;
+		}
+		Long id = product.getId();
+		String name = product.getName();
+		String stock = String.valueOf(product.getCurrentStock());
+		TransactionCallbacks.afterCommit(() -> products.apply(id, name, stock, previousStatus, currentStatus));
+	}
+
+	@Override
+	public void itemRemoved(Long itemId) {
+		TransactionCallbacks.afterCommit(() -> items.remove(itemId));
+	}
+
+	@Override
+	public void productRemoved(Long productId) {
+		TransactionCallbacks.afterCommit(() -> products.remove(productId));
+	}
+
+	@Override
+	public StockGauge getItemGauge() {
+		return items.gauge();
+	}
+
+	@Override
+	public StockGauge getProductGauge() {
+		return products.gauge();
+	}
+
+	// Mirrors InventoryItem/Product.getStockStatus() for projection rows
+	private static String statusOf(BigDecimal stock, BigDecimal low, BigDecimal critical) {
+		if (stock.signum() <= 0) {
+			return "NO_STOCK";
+		} else if (stock.compareTo(critical) <= 0) {
+			return "CRITICAL";
+		} else if (stock.compareTo(low) <= 0) {
+			return "LOW";
+		}
+		return "NORMAL";
+	}
+
+	private static BigDecimal toDecimal(Integer value) {
+		return value != null ? BigDecimal.valueOf(value) : BigDecimal.ZERO;
+	}
+
+	private class StatusTracker {
+
+		private final String kind;
+		private final String label;
+		private final String link;
+
+		// Guarded by "this"; the gauge is swapped whole so readers never lock
+		private final Map<Long, String> statusById = new HashMap<>();
+		// Highest severity already alerted per row, cleared once it is back to NORMAL
+		private final Map<Long, Integer> alertedSeverityById = new HashMap<>();
+		private volatile StockGauge gauge = new StockGauge(0, 0, 0);
+
+		StatusTracker(String kind, String label, String link) {
+			this.kind = kind;
+			this.label = label;
+			this.link = link;
+		}
+
+		synchronized void reset(Map<Long, String> statuses) {
+			StockGauge before = gauge;
+			statusById.clear();
+			statusById.putAll(statuses);
+			alertedSeverityById.clear();
+			// Anything already below a threshold was alerted before the restart, or by the node that wrote it
+			statuses.forEach((id, status) -> {
+				if (!"NORMAL".equals(status)) {
+					alertedSeverityById.put(id, SEVERITY.indexOf(status));
+				}
+			});
+			recount();
+			publishIfChanged(before);
+		}
+
+		void apply(Long id, String name, String stock, String previousStatus, String currentStatus) {
+			String message = null;
+			synchronized (this) {
+				// The tracked status, not the caller's, is what the gauge last counted
+				String trackedStatus = statusById.put(id, currentStatus);
+				StockGauge before = gauge;
+				recountDelta(trackedStatus, currentStatus);
+				publishIfChanged(before);
+
+				int severity = SEVERITY.indexOf(currentStatus);
+				if (severity == 0) {
+					alertedSeverityById.remove(id);
+				} else if (previousStatus != null && severity > alertedSeverityById.getOrDefault(id, 0)) {
+					alertedSeverityById.put(id, severity);
+					message = label + " '" + name + "' is now " + describe(currentStatus) + " (stock: " + stock + ").";
+				}
+			}
+			if (message != null) {
+				log.warn(message);
+				try {
+					notificationService.createAdminNotification(message, link);
+				} catch (Exception e) {
+					log.error("Failed to create stock alert for {} {}: {}", label, id, e.getMessage());
+				}
+			}
+		}
+
+		synchronized void remove(Long id) {
+			if (statusById.remove(id) != null) {
+				StockGauge before = gauge;
+				alertedSeverityById.remove(id);
+				recount();
+				publishIfChanged(before);
+			}
+		}
+
+		StockGauge gauge() {
+			return gauge;
+		}
+
+		// Only queues the send, so it is cheap under the lock and keeps gauges in order
+		private void publishIfChanged(StockGauge before) {
+			if (!gauge.equals(before)) {
+				dashboardEventService.stockGaugeChanged(kind, gauge);
+			}
+		}
+
+		private void recountDelta(String previousStatus, String currentStatus) {
+			long low = gauge.low() + delta("LOW", previousStatus, currentStatus);
+			long critical = gauge.critical() + delta("CRITICAL", previousStatus, currentStatus);
+			long outOfStock = gauge.outOfStock() + delta("NO_STOCK", previousStatus, currentStatus);
+			gauge = new StockGauge(low, critical, outOfStock);
+		}
+
+		private void recount() {
+			long low = 0;
+			long critical = 0;
+			long outOfStock = 0;
+			for (String status : statusById.values()) {
+				switch (status) {
+				case "LOW" -> low++;
+				case "CRITICAL" -> critical++;
+				case "NO_STOCK" -> outOfStock++;
+				default -> {
+				}
+				}
+			}
+			gauge = new StockGauge(low, critical, outOfStock);
+		}
+
+		private int delta(String bucket, String previousStatus, String currentStatus) {
+			return (bucket.equals(currentStatus) ? 1 : 0) - (bucket.equals(previousStatus) ? 1 : 0);
+		}
+
+		private String describe(String status) {
+			return switch (status) {
+			case "LOW" -> "low on stock";
+			case "CRITICAL" -> "at critical stock";
+			default -> "out of stock";
+			};
+		}
+	}
+}
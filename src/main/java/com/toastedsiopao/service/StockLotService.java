@@ -0,0 +1,38 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryItem;
+import com.toastedsiopao.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Per-lot stock for inventory items and products. Callers keep adjusting the
+ * owner's currentStock as before (under its row lock); these methods keep the
+ * lots in step and refresh the owner's expirationDate to the earliest lot.
+ */
+public interface StockLotService {
+
+	record SweepResult(int lotsExpired, int itemsAffected, int productsAffected) {
+	}
+
+	void receiveItemStock(InventoryItem item, BigDecimal quantity, LocalDate receivedDate, LocalDate expiryDate);
+
+	// First-expired-first-out
+	void consumeItemStock(InventoryItem item, BigDecimal quantity);
+
+	void receiveProductStock(Product product, int quantity, LocalDate producedDate, LocalDate expiryDate);
+
+	void consumeProductStock(Product product, int quantity);
+
+	// Call before deleting the owner, in the same transaction: lot rows reference it
+	void deleteItemLots(Long itemId);
+
+	void deleteProductLots(Long productId);
+
+	/** Writes off every lot that expired before today and logs it as waste. */
+	SweepResult sweepExpiredLots();
+
+	/** Seeds one lot per item/product that has stock but no lots yet. */
+	void backfillLots();
+}
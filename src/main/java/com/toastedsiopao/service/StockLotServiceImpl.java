@@ -0,0 +1,252 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryItem;
+import com.toastedsiopao.model.Product;
+import com.toastedsiopao.model.StockLot;
+import com.toastedsiopao.model.StockMovement;
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import com.toastedsiopao.repository.StockLotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Service
+@Transactional
+public class StockLotServiceImpl implements StockLotService {
+
+	private static final Logger log = LoggerFactory.getLogger(StockLotServiceImpl.class);
+
+	private static final String SYSTEM_USER = "SYSTEM";
+
+	@Autowired
+	private StockLotRepository stockLotRepository;
+
+	@Autowired
+	private InventoryItemRepository inventoryItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private StockMovementService stockMovementService;
+
+	@Autowired
+	private ActivityLogService activityLogService;
+
+	@Autowired
+	private ProducibilityService producibilityService;
+
+	@Autowired
+	private StockAlertService stockAlertService;
+
+	@Autowired
+	private MetricsService metricsService;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
+	@Autowired
+	private Clock clock;
+
+	@Override
+	public void receiveItemStock(InventoryItem item, BigDecimal quantity, LocalDate receivedDate,
+			LocalDate expiryDate) {
+		stockLotRepository.save(new StockLot(item, quantity, receivedDate, expiryDate));
+		item.setExpirationDate(earliestExpiry(stockLotRepository.findItemLotsFefo(item.getId())));
+	}
+
+	@Override
+	public void consumeItemStock(InventoryItem item, BigDecimal quantity) {
+		List<StockLot> remainingLots = consume(stockLotRepository.findItemLotsFefo(item.getId()), quantity,
+				"inventory item " + item.getId());
+		item.setExpirationDate(earliestExpiry(remainingLots));
+	}
+
+	@Override
+	public void receiveProductStock(Product product, int quantity, LocalDate producedDate, LocalDate expiryDate) {
+		stockLotRepository.save(new StockLot(product, BigDecimal.valueOf(quantity), producedDate, expiryDate));
+		product.setExpirationDate(earliestExpiry(stockLotRepository.findProductLotsFefo(product.getId())));
+	}
+
+	@Override
+	public void consumeProductStock(Product product, int quantity) {
+		List<StockLot> remainingLots = consume(stockLotRepository.findProductLotsFefo(product.getId()),
+				BigDecimal.valueOf(quantity), "product " + product.getId());
+		product.setExpirationDate(earliestExpiry(remainingLots));
+	}
+
+	// Stock is zero by then, so any lot left is drift between the lots and currentStock
+	@Override
+	public void deleteItemLots(Long itemId) {
+		int removed = stockLotRepository.deleteByItemId(itemId);
+		if (removed > 0) {
+			log.warn("Removed {} leftover lot(s) of deleted inventory item {}.", removed, itemId);
+		}
+	}
+
+	@Override
+	public void deleteProductLots(Long productId) {
+		int removed = stockLotRepository.deleteByProductId(productId);
+		if (removed > 0) {
+			log.warn("Removed {} leftover lot(s) of deleted product {}.", removed, productId);
+		}
+	}
+
+	private List<StockLot> consume(List<StockLot> lots, BigDecimal quantity, String owner) {
+		BigDecimal outstanding = quantity;
+		List<StockLot> remainingLots = new ArrayList<>();
+		for (StockLot lot : lots) {
+			if (outstanding.signum() <= 0) {
+				remainingLots.add(lot);
+				continue;
+			}
+			BigDecimal taken = lot.getRemainingQuantity().min(outstanding);
+			outstanding = outstanding.subtract(taken);
+			BigDecimal left = lot.getRemainingQuantity().subtract(taken);
+			if (left.signum() <= 0) {
+				stockLotRepository.delete(lot);
+			} else {
+				lot.setRemainingQuantity(left);
+				remainingLots.add(lot);
+			}
+		}
+		if (outstanding.signum() > 0) {
+			log.warn("Lots for {} were short by {} while consuming {}; lot totals are behind currentStock.", owner,
+					outstanding, quantity);
+		}
+		return remainingLots;
+	}
+
+	private LocalDate earliestExpiry(List<StockLot> fefoLots) {
+		// FEFO order puts dated lots first, so the first one is the earliest
+		return fefoLots.isEmpty() ? null : fefoLots.get(0).getExpiryDate();
+	}
+
+	@Override
+	public SweepResult sweepExpiredLots() {
+		LocalDate today = LocalDate.now(clock);
+
+		Set<Long> itemIds = new HashSet<>();
+		Set<Long> productIds = new HashSet<>();
+		for (StockLot lot : stockLotRepository.findExpiredBefore(today)) {
+			if (lot.getInventoryItem() != null) {
+				itemIds.add(lot.getInventoryItem().getId());
+			} else if (lot.getProduct() != null) {
+				productIds.add(lot.getProduct().getId());
+			}
+		}
+		if (itemIds.isEmpty() && productIds.isEmpty()) {
+			return new SweepResult(0, 0, 0);
+		}
+
+		// Lots only change under their owner's row lock, so lock owners (in id
+		// order, products first like production does) and re-read the lots.
+		List<Product> products = productIds.isEmpty() ? List.of() : productRepository.findAllByIdForUpdate(productIds);
+		List<InventoryItem> items = itemIds.isEmpty() ? List.of() : inventoryItemRepository.findAllByIdForUpdate(itemIds);
+
+		Map<Long, BigDecimal> expiredByItem = new TreeMap<>();
+		Map<Long, BigDecimal> expiredByProduct = new TreeMap<>();
+		List<StockLot> expiredLots = stockLotRepository.findExpiredBefore(today);
+		for (StockLot lot : expiredLots) {
+			if (lot.getInventoryItem() != null) {
+				expiredByItem.merge(lot.getInventoryItem().getId(), lot.getRemainingQuantity(), BigDecimal::add);
+			} else if (lot.getProduct() != null) {
+				expiredByProduct.merge(lot.getProduct().getId(), lot.getRemainingQuantity(), BigDecimal::add);
+			}
+		}
+		stockLotRepository.deleteAllInBatch(expiredLots);
+
+		List<StockMovement> movements = new ArrayList<>();
+		for (InventoryItem item : items) {
+			BigDecimal expired = expiredByItem.get(item.getId());
+			if (expired == null) {
+				continue;
+			}
+			expired = expired.min(item.getCurrentStock());
+			BigDecimal newStock = item.getCurrentStock().subtract(expired);
+			String previousStockStatus = item.getStockStatus();
+			item.setCurrentStock(newStock);
+			stockAlertService.itemStatusChanged(item, previousStockStatus);
+			item.setExpirationDate(earliestExpiry(stockLotRepository.findItemLotsFefo(item.getId())));
+			producibilityService.stockChanged(item.getId());
+			movements.add(StockMovement.forItem(item.getId(), expired.negate(), newStock,
+					StockMovement.REASON_WASTE_EXPIRED, null, "Expired lot(s) swept"));
+			activityLogService.logWasteAction(SYSTEM_USER, "STOCK_WASTE_EXPIRED",
+					"Expired lot(s) of " + item.getName() + " written off. Change: -" + expired.toPlainString()
+							+ ". New Stock: " + newStock.toPlainString(),
+					item.getName(), expired, item.getCostPerUnit());
+		}
+		for (Product product : products) {
+			BigDecimal expired = expiredByProduct.get(product.getId());
+			if (expired == null) {
+				continue;
+			}
+			int expiredUnits = Math.min(expired.intValue(), product.getCurrentStock());
+			int newStock = product.getCurrentStock() - expiredUnits;
+			String previousStockStatus = product.getStockStatus();
+			product.setCurrentStock(newStock);
+			stockAlertService.productStatusChanged(product, previousStockStatus);
+			product.setExpirationDate(earliestExpiry(stockLotRepository.findProductLotsFefo(product.getId())));
+			movements.add(StockMovement.forProduct(product.getId(), -expiredUnits, newStock,
+					StockMovement.REASON_WASTE_EXPIRED, null, "Expired lot(s) swept"));
+			activityLogService.logWasteAction(SYSTEM_USER, "PRODUCT_WASTE_EXPIRED",
+					"Expired lot(s) of " + product.getName() + " written off. Change: -" + expiredUnits
+							+ ". New Stock: " + newStock,
+					product.getName(), BigDecimal.valueOf(expiredUnits), product.getPrice());
+		}
+		inventoryItemRepository.saveAll(items);
+		productRepository.saveAll(products);
+		stockMovementService.recordAll(movements);
+		metricsService.invalidateInventory();
+		dataVersionService.dataChanged(DataVersionService.DATA_INVENTORY);
+		metricsService.invalidateProducts();
+		dataVersionService.dataChanged(DataVersionService.DATA_PRODUCTS);
+
+		SweepResult result = new SweepResult(expiredLots.size(), expiredByItem.size(), expiredByProduct.size());
+		log.info("Expiry sweep wrote off {} lot(s) across {} item(s) and {} product(s).", result.lotsExpired(),
+				result.itemsAffected(), result.productsAffected());
+		return result;
+	}
+
+	@Override
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillLots() {
+		Set<Long> itemsWithLots = new HashSet<>(stockLotRepository.findItemIdsWithLots());
+		Set<Long> productsWithLots = new HashSet<>(stockLotRepository.findProductIdsWithLots());
+		LocalDate today = LocalDate.now(clock);
+
+		List<StockLot> lots = new ArrayList<>();
+		for (InventoryItem item : inventoryItemRepository.findAll()) {
+			if (item.getCurrentStock().signum() > 0 && !itemsWithLots.contains(item.getId())) {
+				LocalDate received = item.getReceivedDate() != null ? item.getReceivedDate() : today;
+				lots.add(new StockLot(item, item.getCurrentStock(), received, item.getExpirationDate()));
+			}
+		}
+		for (Product product : productRepository.findAll()) {
+			if (product.getCurrentStock() > 0 && !productsWithLots.contains(product.getId())) {
+				LocalDate produced = product.getCreatedDate() != null ? product.getCreatedDate() : today;
+				lots.add(new StockLot(product, BigDecimal.valueOf(product.getCurrentStock()), produced,
+						product.getExpirationDate()));
+			}
+		}
+		if (!lots.isEmpty()) {
+			stockLotRepository.saveAll(lots);
+			log.info("Seeded {} stock lot(s) from existing stock levels.", lots.size());
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.StockMovement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface StockMovementService {
+
+	void record(StockMovement movement);
+
+	// Saved together so the inserts go out as one JDBC batch
+	void recordAll(List<StockMovement> movements);
+
+	/**
+	 * Maps a free-text adjustment reason ("Expired: moldy", "Order #12 Cancelled
+	 * by Customer", ...) to a ledger reason code, once, at write time.
+	 */
+	String reasonCodeFor(String reason, boolean increase);
+
+	String referenceFor(String reason);
+
+	BigDecimal getItemBalanceAt(Long inventoryItemId, LocalDateTime at);
+
+	BigDecimal getProductBalanceAt(Long productId, LocalDateTime at);
+
+	// Units consumed by production and waste between start (inclusive) and end (exclusive)
+	BigDecimal getItemUsage(Long inventoryItemId, LocalDateTime start, LocalDateTime end);
+
+	/** Inventory items whose current stock differs from the ledger total, with the difference. */
+	Map<Long, BigDecimal> findInventoryDiscrepancies();
+
+	/** Writes an OPENING row for every item and product that has no ledger history yet. */
+	void recordOpeningBalances();
+}
@@ -0,0 +1,200 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.StockMovement;
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import com.toastedsiopao.repository.StockMovementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+@Transactional
+public class StockMovementServiceImpl implements StockMovementService {
+
+	private static final Logger log = LoggerFactory.getLogger(StockMovementServiceImpl.class);
+
+	private static final Pattern ORDER_REFERENCE = Pattern.compile("Order #(\\d+)");
+	private static final List<String> USAGE_REASON_CODES = List.of(StockMovement.REASON_PRODUCTION_USE,
+			StockMovement.REASON_WASTE_EXPIRED, StockMovement.REASON_WASTE_DAMAGED, StockMovement.REASON_WASTE_OTHER);
+	private static final String OPENING_LOCK_NAME = "stock_movements.opening_balances";
+
+	@Autowired
+	private StockMovementRepository stockMovementRepository;
+
+	@Autowired
+	private InventoryItemRepository inventoryItemRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private Clock clock;
+
+	@Value("${stock.movements.opening-lock-wait-seconds:60}")
+	private int openingLockWaitSeconds;
+
+	@Override
+	public void record(StockMovement movement) {
+		stamp(movement, LocalDateTime.now(clock));
+		stockMovementRepository.save(movement);
+	}
+
+	@Override
+	public void recordAll(List<StockMovement> movements) {
+		if (!movements.isEmpty()) {
+			LocalDateTime now = LocalDateTime.now(clock);
+			movements.forEach(movement -> stamp(movement, now));
+			stockMovementRepository.saveAll(movements);
+		}
+	}
+
+	private static void stamp(StockMovement movement, LocalDateTime now) {
+		if (movement.getMovedAt() == null) {
+			movement.setMovedAt(now);
+		}
+	}
+
+	@Override
+	public String reasonCodeFor(String reason, boolean increase) {
+		if (!StringUtils.hasText(reason)) {
+			return StockMovement.REASON_ADJUSTMENT;
+		}
+		if (reason.startsWith("Order #")) {
+			return increase ? StockMovement.REASON_ORDER_REVERSAL : StockMovement.REASON_ORDER;
+		}
+		if (reason.startsWith("Production")) {
+			return increase ? StockMovement.REASON_PRODUCTION : StockMovement.REASON_ADJUSTMENT;
+		}
+		if (reason.startsWith("Expired")) {
+			return StockMovement.REASON_WASTE_EXPIRED;
+		}
+		if (reason.startsWith("Damaged")) {
+			return StockMovement.REASON_WASTE_DAMAGED;
+		}
+		if (reason.startsWith("Waste")) {
+			return StockMovement.REASON_WASTE_OTHER;
+		}
+		return StockMovement.REASON_ADJUSTMENT;
+	}
+
+	@Override
+	public String referenceFor(String reason) {
+		if (reason == null) {
+			return null;
+		}
+		Matcher matcher = ORDER_REFERENCE.matcher(reason);
+		return matcher.find() ? "ORDER-" + matcher.group(1) : null;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public BigDecimal getItemBalanceAt(Long inventoryItemId, LocalDateTime at) {
+		List<BigDecimal> balances = stockMovementRepository.findItemBalancesAsOf(inventoryItemId, at,
+				PageRequest.of(0, 1));
+		return balances.isEmpty() ? BigDecimal.ZERO : balances.get(0);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public BigDecimal getProductBalanceAt(Long productId, LocalDateTime at) {
+		List<BigDecimal> balances = stockMovementRepository.findProductBalancesAsOf(productId, at, PageRequest.of(0, 1));
+		return balances.isEmpty() ? BigDecimal.ZERO : balances.get(0);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public BigDecimal getItemUsage(Long inventoryItemId, LocalDateTime start, LocalDateTime end) {
+		return stockMovementRepository.sumItemUsage(inventoryItemId, USAGE_REASON_CODES, start, end);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<Long, BigDecimal> findInventoryDiscrepancies() {
+		Map<Long, BigDecimal> ledgerTotals = new HashMap<>();
+		for (Object[] row : stockMovementRepository.sumDeltasByItem()) {
+			ledgerTotals.put((Long) row[0], (BigDecimal) row[1]);
+		}
+		Map<Long, BigDecimal> discrepancies = new HashMap<>();
+		for (Object[] row : inventoryItemRepository.findAllStockLevels()) {
+			Long itemId = (Long) row[0];
+			BigDecimal currentStock = (BigDecimal) row[1];
+			BigDecimal difference = currentStock.subtract(ledgerTotals.getOrDefault(itemId, BigDecimal.ZERO));
+			if (difference.signum() != 0) {
+				discrepancies.put(itemId, difference);
+			}
+		}
+		return discrepancies;
+	}
+
+	/**
+	 * Nodes starting together would each write an OPENING row for the same item.
+	 * A MySQL named lock, held on its own connection until the backfill has
+	 * committed, makes the later node wait and then find the history in place.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@EventListener(ApplicationReadyEvent.class)
+	public void recordOpeningBalances() {
+		boolean ran = NamedLocks.runLocked(jdbcTemplate, OPENING_LOCK_NAME, openingLockWaitSeconds,
+				() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> writeOpeningBalances()));
+		if (!ran) {
+			log.warn("Skipped the opening balance backfill: another node held the ledger lock for over {} s.",
+					openingLockWaitSeconds);
+		}
+	}
+
+	private void writeOpeningBalances() {
+		Set<Long> itemsWithHistory = new HashSet<>(stockMovementRepository.findItemIdsWithMovements());
+		Set<Long> productsWithHistory = new HashSet<>(stockMovementRepository.findProductIdsWithMovements());
+
+		List<StockMovement> openings = new ArrayList<>();
+		for (Object[] row : inventoryItemRepository.findAllStockLevels()) {
+			Long itemId = (Long) row[0];
+			BigDecimal stock = (BigDecimal) row[1];
+			if (!itemsWithHistory.contains(itemId)) {
+				openings.add(StockMovement.forItem(itemId, stock, stock, StockMovement.REASON_OPENING, null, null));
+			}
+		}
+		for (Object[] row : productRepository.findAllStockLevels()) {
+			Long productId = (Long) row[0];
+			int stock = (Integer) row[1];
+			if (!productsWithHistory.contains(productId)) {
+				openings.add(StockMovement.forProduct(productId, stock, stock, StockMovement.REASON_OPENING, null, null));
+			}
+		}
+		recordAll(openings);
+		if (!openings.isEmpty()) {
+			log.info("Recorded {} opening stock balance(s) in the movement ledger.", openings.size());
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.toastedsiopao.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+/**
+ * Where upload bytes actually live. {@link FileStorageService} owns naming,
+ * hashing and reference counting; a backend only moves blobs around by key.
+ * Selected with {@code file.storage.backend} ({@code local} or {@code s3}).
+ */
+public interface StorageBackend {
+
+	record ObjectInfo(long size, long lastModified) {
+	}
+
+	boolean exists(String key) throws IOException;
+
+	/**
+	 * Stores the staged file under {@code key}. The source is a temp file that the
+	 * caller deletes afterwards, so implementations may move it instead of copying.
+	 */
+	void put(String key, Path source, String contentSha256, String contentType) throws IOException;
+
+	void delete(String key) throws IOException;
+
+	/** Returns {@code null} when the object does not exist. */
+	ObjectInfo stat(String key) throws IOException;
+
+	/** Streams at most {@code length} bytes starting at {@code offset}. */
+	InputStream open(String key, long offset, long length) throws IOException;
+
+	/**
+	 * Walks every stored object (the staging area excluded) one entry at a time,
+	 * without materialising the whole listing in memory.
+	 */
+	void forEachObject(BiConsumer<String, ObjectInfo> visitor) throws IOException;
+
+	/**
+	 * Local filesystem path for zero-copy serving, or {@code null} when the
+	 * backend is remote and the bytes have to be streamed.
+	 */
+	Path localPath(String key);
+}
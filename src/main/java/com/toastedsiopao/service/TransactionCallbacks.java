@@ -0,0 +1,44 @@
+package com.toastedsiopao.service;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transaction plumbing for the services that keep in-memory indexes, caches and
+ * side effects in step with committed data.
+ */
+final class TransactionCallbacks {
+
+	private TransactionCallbacks() {
+	}
+
+	// Runs the action once the current transaction commits, or right away outside one
+	static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	// A fresh transaction: after-commit callbacks still see the finished one bound
+	static TransactionTemplate newTransaction(PlatformTransactionManager transactionManager) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return transaction;
+	}
+
+	static TransactionTemplate newReadOnlyTransaction(PlatformTransactionManager transactionManager) {
+		TransactionTemplate readOnly = newTransaction(transactionManager);
+		readOnly.setReadOnly(true);
+		return readOnly;
+	}
+}
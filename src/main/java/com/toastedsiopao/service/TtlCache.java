@@ -0,0 +1,58 @@
+package com.toastedsiopao.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Small per-key cache with a time-to-live, for aggregate panels and chart
+ * series. Keys usually come from the query string, so the key space is capped:
+ * once full, the cache is cleared rather than tracking recency.
+ */
+final class TtlCache<K, V> {
+
+	private record Entry<V>(V value, long expiresAt) {
+	}
+
+	private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	private final int maxEntries;
+	private long generation;
+
+	TtlCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	V get(K key, long ttlNanos, Supplier<V> loader) {
+		long now = System.nanoTime();
+		Entry<V> cached = entries.get(key);
+		if (cached != null && cached.expiresAt() - now > 0) {
+			return cached.value();
+		}
+		long loadGeneration = currentGeneration();
+		V value = loader.get();
+		if (ttlNanos > 0) {
+			store(key, new Entry<>(value, now + ttlNanos), loadGeneration);
+		}
+		return value;
+	}
+
+	private synchronized long currentGeneration() {
+		return generation;
+	}
+
+	// A load that raced with a write would cache pre-commit numbers, so drop it
+	private synchronized void store(K key, Entry<V> entry, long loadGeneration) {
+		if (loadGeneration != generation) {
+			return;
+		}
+		if (entries.size() >= maxEntries) {
+			entries.clear();
+		}
+		entries.put(key, entry);
+	}
+
+	synchronized void invalidate() {
+		generation++;
+		entries.clear();
+	}
+}
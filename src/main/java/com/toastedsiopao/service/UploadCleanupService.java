@@ -0,0 +1,13 @@
+package com.toastedsiopao.service;
+
+public interface UploadCleanupService {
+
+	record CleanupResult(long scanned, long deleted, long bytesReclaimed) {
+	}
+
+	/**
+	 * Removes uploads that no product, order receipt, issue report or site
+	 * setting points at any more, once they are older than the grace period.
+	 */
+	CleanupResult collectOrphanedUploads();
+}
@@ -0,0 +1,138 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.SiteSettings;
+import com.toastedsiopao.repository.IssueReportRepository;
+import com.toastedsiopao.repository.OrderRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Service
+public class UploadCleanupServiceImpl implements UploadCleanupService {
+
+	private static final Logger log = LoggerFactory.getLogger(UploadCleanupServiceImpl.class);
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private IssueReportRepository issueReportRepository;
+
+	@Autowired
+	private SiteSettingsService siteSettingsService;
+
+	@Autowired
+	private ActivityLogService activityLogService;
+
+	@Autowired
+	private Clock clock;
+
+	@Value("${file.gc.grace-hours:24}")
+	private long graceHours;
+
+	@Value("${file.gc.batch-size:500}")
+	private int batchSize;
+
+	@Override
+	public CleanupResult collectOrphanedUploads() {
+		Instant cutoff = clock.instant().minus(Duration.ofHours(graceHours));
+		LocalDateTime storedBefore = LocalDateTime.ofInstant(cutoff, clock.getZone());
+		Set<String> siteImageUrls = collectSiteImageUrls();
+
+		// Candidates are buffered one batch at a time so the listing is never
+		// held in memory and each batch costs three IN queries.
+		Map<String, StorageBackend.ObjectInfo> batch = new LinkedHashMap<>();
+		long[] totals = new long[3]; // scanned, deleted, bytes reclaimed
+
+		try {
+			fileStorageService.forEachStoredObject((filename, info) -> {
+				totals[0]++;
+				if (info.lastModified() >= cutoff.toEpochMilli()) {
+					return;
+				}
+				batch.put(fileStorageService.toUploadUrl(filename), info);
+				if (batch.size() >= batchSize) {
+					purgeBatch(batch, siteImageUrls, storedBefore, totals);
+				}
+			});
+			purgeBatch(batch, siteImageUrls, storedBefore, totals);
+			totals[2] += fileStorageService.purgeStaleStagingFiles(cutoff);
+		} catch (IOException | UncheckedIOException e) {
+			log.error("Upload GC aborted after scanning {} file(s): {}", totals[0], e.getMessage(), e);
+		}
+
+		CleanupResult result = new CleanupResult(totals[0], totals[1], totals[2]);
+		log.info("Upload GC scanned {} file(s), deleted {} orphan(s), reclaimed {} bytes.", result.scanned(),
+				result.deleted(), result.bytesReclaimed());
+		if (result.deleted() > 0) {
+			activityLogService.logAdminAction("SYSTEM", "UPLOAD_GC", "Deleted " + result.deleted()
+					+ " orphaned upload(s), reclaimed " + result.bytesReclaimed() + " bytes.");
+		}
+		return result;
+	}
+
+	private void purgeBatch(Map<String, StorageBackend.ObjectInfo> batch, Set<String> siteImageUrls,
+			LocalDateTime storedBefore, long[] totals) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		List<String> urls = new ArrayList<>(batch.keySet());
+		Set<String> referenced = new HashSet<>(siteImageUrls);
+		referenced.addAll(productRepository.findReferencedImageUrls(urls));
+		referenced.addAll(orderRepository.findReferencedReceiptUrls(urls));
+		referenced.addAll(issueReportRepository.findReferencedImageUrls(urls));
+
+		for (Map.Entry<String, StorageBackend.ObjectInfo> entry : batch.entrySet()) {
+			if (referenced.contains(entry.getKey())) {
+				continue;
+			}
+			try {
+				if (fileStorageService.purgeOrphan(entry.getKey(), storedBefore)) {
+					totals[1]++;
+					totals[2] += entry.getValue().size();
+					log.info("Deleted orphaned upload: {}", entry.getKey());
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (RuntimeException e) {
+				log.warn("Could not delete orphaned upload {}: {}", entry.getKey(), e.getMessage());
+			}
+		}
+		batch.clear();
+	}
+
+	private Set<String> collectSiteImageUrls() {
+		SiteSettings settings = siteSettingsService.getSiteSettings();
+		Set<String> urls = new HashSet<>();
+		Stream.of(settings.getWebsiteLogo(), settings.getWebsiteFavicon(), settings.getCarouselImage1(),
+				settings.getCarouselImage2(), settings.getCarouselImage3(), settings.getFeatureCard1Image(),
+				settings.getFeatureCard2Image(), settings.getFeatureCard3Image(), settings.getFeatureCard4Image(),
+				settings.getWhyUsImage(), settings.getAboutImage(), settings.getGcashQrCodeImage())
+				.filter(Objects::nonNull).forEach(urls::add);
+		return urls;
+	}
+}
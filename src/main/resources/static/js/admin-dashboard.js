@@ -28,22 +28,14 @@ document.addEventListener('DOMContentLoaded', function() {
 		}).format(value);
 	};
 
-	const initSalesChart = () => {
+	const initSalesChart = (labels, data) => {
 		const ctx = document.getElementById('salesChart');
 		if (!ctx) {
 			console.log("Sales chart canvas not found.");
 			return;
 		}
 
-		const labels = getChartData(dashboardElement, 'salesLabels');
-		const data = getChartData(dashboardElement, 'salesData');
-
-		if (!labels || !data) {
-			console.warn("Missing data for Sales Chart.");
-			return;
-		}
-
-		new Chart(ctx, {
+		return new Chart(ctx, {
 			type: 'line',
 			data: {
 				labels: labels,
@@ -91,35 +83,27 @@ document.addEventListener('DOMContentLoaded', function() {
 		});
 	};
 
-	const initOrderStatusChart = () => {
+	const orderStatusColors = [
+		'rgba(17, 63, 103, 0.8)',   // PENDING (GCASH) - Primary Blue
+		'rgba(250, 173, 20, 0.8)',  // PENDING (COD) - Warning Yellow
+		'rgba(24, 144, 255, 0.8)', // PROCESSING - Info Blue
+		'rgba(19, 194, 194, 0.8)', // OUT FOR DELIVERY - Teal
+		'rgba(82, 196, 26, 0.8)',  // DELIVERED - Success Green
+		'rgba(245, 34, 45, 0.8)',  // CANCELLED - Danger Red
+		'rgba(245, 34, 45, 0.8)'   // REJECTED - Danger Red
+	];
+
+	const initOrderStatusChart = (labels, data) => {
 		const ctx = document.getElementById('orderStatusChart');
 		if (!ctx) {
 			console.log("Order status chart canvas not found.");
 			return;
 		}
 
-		const labels = getChartData(dashboardElement, 'orderStatusLabels');
-		const data = getChartData(dashboardElement, 'orderStatusData');
-
-		if (!labels || !data) {
-			console.warn("Missing data for Order Status Chart.");
-			return;
-		}
-
-		const themeColors = [
-			'rgba(17, 63, 103, 0.8)',   // PENDING (GCASH) - Primary Blue
-			'rgba(250, 173, 20, 0.8)',  // PENDING (COD) - Warning Yellow
-			'rgba(24, 144, 255, 0.8)', // PROCESSING - Info Blue
-			'rgba(19, 194, 194, 0.8)', // OUT FOR DELIVERY - Teal
-			'rgba(82, 196, 26, 0.8)',  // DELIVERED - Success Green
-			'rgba(245, 34, 45, 0.8)',  // CANCELLED - Danger Red
-			'rgba(245, 34, 45, 0.8)'   // REJECTED - Danger Red
-		];
-
 		// --- NEW: Handle Empty Data Gracefully ---
 		const totalCount = data.reduce((a, b) => a + b, 0);
 		let chartData = data;
-		let backgroundColors = themeColors;
+		let backgroundColors = orderStatusColors;
 		let chartLabels = labels;
 
 		if (totalCount === 0) {
@@ -128,7 +112,7 @@ document.addEventListener('DOMContentLoaded', function() {
 			chartLabels = ['No Data'];
 		}
 
-		new Chart(ctx, {
+		return new Chart(ctx, {
 			type: 'doughnut',
 			data: {
 				labels: chartLabels,
@@ -156,21 +140,13 @@ document.addEventListener('DOMContentLoaded', function() {
 		});
 	};
 
-	const initTopProductsChart = () => {
+	const initTopProductsChart = (labels, data) => {
 		const ctx = document.getElementById('topProductsChart');
 		if (!ctx) {
 			console.log("Top products chart canvas not found.");
 			return;
 		}
 
-		const labels = getChartData(dashboardElement, 'topProductsLabels');
-		const data = getChartData(dashboardElement, 'topProductsData');
-
-		if (!labels || !data) {
-			console.warn("Missing data for Top Products Chart.");
-			return;
-		}
-
 		// --- NEW: Handle Empty Data ---
 		if (labels.length === 0) {
 			// Render an empty state message on the canvas if possible, or just leave it blank but initialized
@@ -178,7 +154,7 @@ document.addEventListener('DOMContentLoaded', function() {
 			console.log("No top products data available.");
 		}
 
-		new Chart(ctx, {
+		return new Chart(ctx, {
 			type: 'bar',
 			data: {
 				labels: labels,
@@ -223,8 +199,362 @@ document.addEventListener('DOMContentLoaded', function() {
 		});
 	};
 
-	initSalesChart();
-	initOrderStatusChart();
-	initTopProductsChart();
+	const initValuationChart = (labels, data) => {
+		const ctx = document.getElementById('valuationChart');
+		if (!ctx) {
+			console.log("Valuation chart canvas not found.");
+			return;
+		}
+
+		return new Chart(ctx, {
+			type: 'line',
+			data: {
+				labels: labels,
+				datasets: [{
+					label: 'Stock Value',
+					data: data,
+					fill: true,
+					backgroundColor: 'rgba(17, 63, 103, 0.15)',
+					borderColor: 'rgba(17, 63, 103, 1)',
+					tension: 0.1,
+					pointRadius: 2,
+					pointBackgroundColor: 'rgba(17, 63, 103, 1)',
+				}]
+			},
+			options: {
+				responsive: true,
+				maintainAspectRatio: false,
+				scales: {
+					y: {
+						beginAtZero: true,
+						ticks: {
+							callback: function(value) {
+								return formatCurrency(value);
+							}
+						}
+					}
+				},
+				plugins: {
+					tooltip: {
+						callbacks: {
+							label: function(context) {
+								return (context.dataset.label || '') + ': ' + formatCurrency(context.parsed.y);
+							}
+						}
+					}
+				}
+			}
+		});
+	};
+
+	// --- Charts load from the JSON API after first paint ---
+	const chartsUrl = dashboardElement.dataset.chartsUrl;
+	const salesRange = document.getElementById('salesChartRange');
+	const salesCompare = document.getElementById('salesChartCompare');
+	const bucketLabels = { hour: 'Hourly Sales', day: 'Daily Sales', week: 'Weekly Sales', month: 'Monthly Sales' };
+
+	let salesChart = null;
+	let salesBucket = 'day';
+	let orderStatusChart = null;
+	let topProductsChart = null;
+	let orderStatusKeys = [];
+	let orderStatusLabels = [];
+	let orderStatusCounts = [];
+
+	const fetchChart = async (path, params) => {
+		const query = params ? '?' + new URLSearchParams(params) : '';
+		const response = await fetch(`${chartsUrl}/${path}${query}`, { headers: { 'Accept': 'application/json' } });
+		if (!response.ok) {
+			throw new Error(`Chart request failed: ${response.status}`);
+		}
+		return response.json();
+	};
+
+	const loadSalesChart = async () => {
+		const bucket = salesRange ? salesRange.value : 'day';
+		const compareYear = salesCompare ? salesCompare.checked : false;
+		try {
+			const chart = await fetchChart('sales', { bucket: bucket, compareYear: compareYear });
+			salesBucket = bucket;
+			if (!salesChart) {
+				salesChart = initSalesChart(chart.current.labels, chart.current.sales);
+				if (!salesChart) {
+					return;
+				}
+			}
+			salesChart.data.labels = chart.current.labels;
+			salesChart.data.datasets[0].label = bucketLabels[bucket] || 'Sales';
+			salesChart.data.datasets[0].data = chart.current.sales;
+			salesChart.data.datasets.length = 1;
+			if (chart.previous) {
+				salesChart.data.datasets.push({
+					label: 'Same Period Last Year',
+					data: chart.previous.sales,
+					fill: false,
+					borderColor: 'rgba(140, 140, 140, 0.9)',
+					borderDash: [6, 4],
+					tension: 0.1,
+					pointRadius: 0
+				});
+			}
+			salesChart.update();
+		} catch (e) {
+			console.error("Failed to load sales chart:", e);
+		}
+	};
+
+	const loadOrderStatusChart = async () => {
+		try {
+			const series = await fetchChart('order-status');
+			orderStatusKeys = series.keys;
+			orderStatusLabels = series.labels;
+			orderStatusCounts = series.data.slice();
+			orderStatusChart = initOrderStatusChart(series.labels, series.data);
+		} catch (e) {
+			console.error("Failed to load order status chart:", e);
+		}
+	};
+
+	const loadTopProductsChart = async () => {
+		try {
+			const series = await fetchChart('top-products', { limit: 5 });
+			topProductsChart = initTopProductsChart(series.labels, series.data);
+		} catch (e) {
+			console.error("Failed to load top products chart:", e);
+		}
+	};
+
+	const loadValuationChart = async () => {
+		try {
+			const series = await fetchChart('valuation', { days: 90 });
+			initValuationChart(series.labels, series.data);
+		} catch (e) {
+			console.error("Failed to load valuation chart:", e);
+		}
+	};
+
+	if (chartsUrl) {
+		// Let the counters paint first; the charts are below them anyway
+		requestAnimationFrame(() => {
+			loadSalesChart();
+			loadOrderStatusChart();
+			loadTopProductsChart();
+			loadValuationChart();
+		});
+		if (salesRange) {
+			salesRange.addEventListener('change', loadSalesChart);
+		}
+		if (salesCompare) {
+			salesCompare.addEventListener('change', loadSalesChart);
+		}
+	}
+
+	// --- Live updates: the server pushes deltas over SSE and we patch in place ---
+	const liveValues = getChartData(dashboardElement, 'liveValues') || {};
+	const openStatuses = ['PENDING', 'PENDING_VERIFICATION', 'PROCESSING', 'OUT_FOR_DELIVERY'];
+
+	const renderLive = (key) => {
+		const value = liveValues[key];
+		if (value === undefined) {
+			return;
+		}
+		document.querySelectorAll(`[data-live="${key}"]`).forEach(element => {
+			const text = element.dataset.liveFormat === 'currency' ? formatCurrency(value) : String(value);
+			element.textContent = (element.dataset.livePrefix || '') + text;
+		});
+	};
+
+	// Counts never go below zero, even if a delta lands on a baseline that already had it
+	const isCount = (key) => key === 'totalOrders' || key.startsWith('orders.');
+
+	const addLive = (key, amount) => {
+		if (liveValues[key] === undefined) {
+			return;
+		}
+		const value = Number(liveValues[key]) + amount;
+		liveValues[key] = isCount(key) ? Math.max(0, value) : value;
+		renderLive(key);
+	};
+
+	const updateOrderStatusChart = () => {
+		if (!orderStatusChart) {
+			return;
+		}
+		const total = orderStatusCounts.reduce((a, b) => a + b, 0);
+		const dataset = orderStatusChart.data.datasets[0];
+		orderStatusChart.data.labels = total > 0 ? orderStatusLabels : ['No Data'];
+		dataset.data = total > 0 ? orderStatusCounts.slice() : [1];
+		dataset.backgroundColor = total > 0 ? orderStatusColors : ['#e0e0e0'];
+		orderStatusChart.options.plugins.legend.display = total > 0;
+		orderStatusChart.options.plugins.tooltip.enabled = total > 0;
+		orderStatusChart.update();
+	};
+
+	// A replay onto a new baseline only touches the counters; the charts already have the delta
+	const applyOrderDelta = (delta, replay) => {
+		const amount = Number(delta.amount) || 0;
+		if (delta.previousStatus) {
+			addLive('orders.' + delta.previousStatus, -1);
+			const index = orderStatusKeys.indexOf(delta.previousStatus);
+			if (index >= 0) {
+				orderStatusCounts[index] = Math.max(0, orderStatusCounts[index] - 1);
+			}
+		} else {
+			addLive('totalOrders', 1);
+		}
+		addLive('orders.' + delta.status, 1);
+		const index = orderStatusKeys.indexOf(delta.status);
+		if (index >= 0) {
+			orderStatusCounts[index]++;
+		}
+		updateOrderStatusChart();
+
+		const wasOpen = openStatuses.includes(delta.previousStatus);
+		const isOpen = openStatuses.includes(delta.status);
+		if (wasOpen !== isOpen) {
+			addLive('potentialRevenue', isOpen ? amount : -amount);
+		}
+
+		if (delta.status !== 'DELIVERED') {
+			return;
+		}
+		const profit = amount - (Number(delta.cogs) || 0);
+		(delta.periods || []).forEach(period => {
+			if (period === 'today') {
+				addLive('salesToday', amount);
+				addLive('cogsToday', Number(delta.cogs) || 0);
+				addLive('grossProfitToday', profit);
+			} else if (period === 'week') {
+				addLive('salesThisWeek', amount);
+				addLive('grossProfitThisWeek', profit);
+			} else if (period === 'month') {
+				addLive('salesThisMonth', amount);
+				addLive('grossProfitThisMonth', profit);
+			}
+		});
+		liveValues.totalRevenue = Number(liveValues.totalRevenue || 0) + amount;
+		liveValues.totalTransactions = Number(liveValues.totalTransactions || 0) + 1;
+		liveValues.avgOrderValue = liveValues.totalRevenue / liveValues.totalTransactions;
+		renderLive('avgOrderValue');
+		if (replay) {
+			return;
+		}
+
+		// Hourly and weekly buckets need more than the order day; they catch up on reload
+		const salesLabel = salesBucket === 'day' ? delta.day : salesBucket === 'month' ? delta.day.slice(0, 7) : null;
+		if (salesChart && salesLabel) {
+			const dayIndex = salesChart.data.labels.indexOf(salesLabel);
+			if (dayIndex >= 0) {
+				const dataset = salesChart.data.datasets[0];
+				dataset.data[dayIndex] = Number(dataset.data[dayIndex]) + amount;
+				salesChart.update();
+			}
+		}
+		// Only products already in the top list move; a reload re-ranks them
+		if (topProductsChart && delta.items) {
+			let changed = false;
+			delta.items.forEach(item => {
+				const itemIndex = topProductsChart.data.labels.indexOf(item.name);
+				if (itemIndex >= 0) {
+					const dataset = topProductsChart.data.datasets[0];
+					dataset.data[itemIndex] = Number(dataset.data[itemIndex]) + item.quantity;
+					changed = true;
+				}
+			});
+			if (changed) {
+				topProductsChart.update();
+			}
+		}
+	};
+
+	const applyStockGauge = (gauge) => {
+		['low', 'critical', 'outOfStock'].forEach(level => {
+			const key = gauge.kind + '.' + level;
+			if (liveValues[key] !== undefined) {
+				liveValues[key] = gauge[level];
+				renderLive(key);
+			}
+		});
+	};
+
+	// --- Resync: the stream drops events while reconnecting and only carries this node's writes ---
+	const liveValuesUrl = dashboardElement.dataset.liveValuesUrl;
+	const resyncSeconds = Number(dashboardElement.dataset.resyncSeconds) || 60;
+	const MAX_RECENT_EVENTS = 500;
+	const recentEvents = [];
+	let baselineNode = null;
+	let baselineEventId = 0;
+	let resyncing = false;
+	let resyncAgain = false;
+
+	const resync = async (fresh) => {
+		if (resyncing) {
+			resyncAgain = resyncAgain || fresh;
+			return;
+		}
+		resyncing = true;
+		try {
+			const query = new URLSearchParams({ fresh: fresh });
+			const response = await fetch(`${liveValuesUrl}?${query}`, { headers: { 'Accept': 'application/json' } });
+			if (!response.ok) {
+				throw new Error(`Live values request failed: ${response.status}`);
+			}
+			const baseline = await response.json();
+			Object.assign(liveValues, baseline.values);
+			baselineNode = baseline.eventNode;
+			baselineEventId = Number(baseline.lastEventId) || 0;
+			orderStatusKeys.forEach((status, index) => {
+				orderStatusCounts[index] = Number(liveValues['orders.' + status]) || 0;
+			});
+			recentEvents.filter(event => event.node === baselineNode && event.id > baselineEventId)
+				.forEach(event => event.apply(event.data, true));
+			Object.keys(liveValues).forEach(renderLive);
+			updateOrderStatusChart();
+		} catch (e) {
+			console.error("Failed to resync dashboard values:", e);
+		} finally {
+			resyncing = false;
+		}
+		if (resyncAgain) {
+			resyncAgain = false;
+			resync(true);
+		}
+	};
+
+	const eventsUrl = dashboardElement.dataset.eventsUrl;
+	if (eventsUrl && window.EventSource) {
+		const source = new EventSource(eventsUrl);
+		const handle = (apply) => (event) => {
+			try {
+				// Ids look like "<node>-<n>" and only compare within one node
+				const separator = event.lastEventId.lastIndexOf('-');
+				const node = event.lastEventId.substring(0, separator);
+				const id = Number(event.lastEventId.substring(separator + 1)) || 0;
+				const data = JSON.parse(event.data);
+				recentEvents.push({ node: node, id: id, apply: apply, data: data });
+				if (recentEvents.length > MAX_RECENT_EVENTS) {
+					recentEvents.shift();
+				}
+				if (node !== baselineNode) {
+					// The baseline came from another node (no sticky session, or a restart):
+					// only a fresh one from the database says whether this write is in it
+					resync(true);
+				} else if (id > baselineEventId) {
+					// Otherwise it is already counted in the baseline we are showing
+					apply(data, false);
+				}
+			} catch (e) {
+				console.error("Failed to apply dashboard update:", e);
+			}
+		};
+		source.addEventListener('order', handle(applyOrderDelta));
+		source.addEventListener('stock', handle(applyStockGauge));
+		if (liveValuesUrl) {
+			// Fires on the first connect and on every reconnect
+			source.addEventListener('open', () => resync(true));
+			window.setInterval(() => resync(false), resyncSeconds * 1000);
+		}
+		window.addEventListener('beforeunload', () => source.close());
+	}
 
 });
\ No newline at end of file
@@ -369,4 +369,85 @@ document.addEventListener('DOMContentLoaded', function() {
 			}
 		});
 	}
-});
\ No newline at end of file
+
+	// --- importStockModal: upload a filled-in template, show the per-row report ---
+	const importStockModal = document.getElementById('importStockModal');
+	if (importStockModal) {
+		const importBtn = importStockModal.querySelector('#importStockBtn');
+		const fileInput = importStockModal.querySelector('#importStockFile');
+		const resultBox = importStockModal.querySelector('#importStockResult');
+		const summaryEl = importStockModal.querySelector('#importStockSummary');
+		const errorsTable = importStockModal.querySelector('#importStockErrors');
+		let stockChanged = false;
+
+		importBtn.addEventListener('click', async function() {
+			if (!fileInput.files.length) {
+				alert('Choose an .xlsx or .csv file first.');
+				return;
+			}
+
+			const formData = new FormData();
+			formData.append('file', fileInput.files[0]);
+			const csrfHeaderEl = document.querySelector('meta[name="_csrf_header"]');
+			const csrfTokenEl = document.querySelector('meta[name="_csrf"]');
+			const headers = {};
+			if (csrfHeaderEl && csrfTokenEl) {
+				headers[csrfHeaderEl.content] = csrfTokenEl.content;
+			}
+
+			importBtn.disabled = true;
+			importBtn.innerHTML = '<i class="fa-solid fa-spinner fa-spin me-1"></i> Importing...';
+			try {
+				const response = await fetch('/admin/inventory/stock/import', {
+					method: 'POST',
+					headers: headers,
+					body: formData
+				});
+				const result = await response.json();
+				if (!response.ok) {
+					throw new Error(result.error || 'Import failed.');
+				}
+
+				stockChanged = stockChanged || result.rowsApplied > 0;
+				summaryEl.className = 'alert mb-2 ' + (result.errorCount > 0 ? 'alert-warning' : 'alert-success');
+				summaryEl.textContent = `Applied ${result.rowsApplied} of ${result.rowsRead} row(s). `
+					+ `${result.rowsUnchanged} unchanged, ${result.errorCount} with errors.`;
+
+				const tbody = errorsTable.querySelector('tbody');
+				tbody.innerHTML = '';
+				result.errors.forEach(error => {
+					const tr = document.createElement('tr');
+					[error.rowNumber, error.itemName || '-', error.message].forEach(value => {
+						const td = document.createElement('td');
+						td.textContent = value;
+						tr.appendChild(td);
+					});
+					tbody.appendChild(tr);
+				});
+				if (result.errorCount > result.errors.length) {
+					const tr = document.createElement('tr');
+					const td = document.createElement('td');
+					td.colSpan = 3;
+					td.className = 'text-muted small';
+					td.textContent = `...and ${result.errorCount - result.errors.length} more.`;
+					tr.appendChild(td);
+					tbody.appendChild(tr);
+				}
+				errorsTable.style.display = result.errors.length ? '' : 'none';
+				resultBox.style.display = '';
+			} catch (error) {
+				console.error("Stock import failed:", error);
+				alert(error.message);
+			} finally {
+				importBtn.disabled = false;
+				importBtn.textContent = 'Import';
+			}
+		});
+
+		importStockModal.addEventListener('hidden.bs.modal', function() {
+			if (stockChanged) {
+				window.location.reload();
+			}
+		});
+	}
+});
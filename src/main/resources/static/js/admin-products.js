@@ -449,6 +449,12 @@ document.addEventListener('DOMContentLoaded', function() {
 
 		if (!row || !quantityInput || !productId) return;
 
+		// Precomputed for every product when the page was rendered
+		if (row.dataset.maxProducible !== undefined && row.dataset.maxProducible !== '') {
+			quantityInput.value = row.dataset.maxProducible;
+			return;
+		}
+
 		maxBtn.disabled = true;
 		maxBtn.innerHTML = '<i class="fa-solid fa-spinner fa-spin"></i>';
 
@@ -580,5 +586,54 @@ document.addEventListener('DOMContentLoaded', function() {
 		manageStockModal.addEventListener('hidden.bs.modal', function() {
 			mainElement.removeAttribute('data-show-manage-stock-modal');
 		});
+
+		// --- Production run: every "Production" row with a quantity, in one request ---
+		const productionRunBtn = document.getElementById('productionRunBtn');
+		if (productionRunBtn) {
+			productionRunBtn.addEventListener('click', async function() {
+				const items = [];
+				manageStockModal.querySelectorAll('tbody tr[data-product-id]').forEach(row => {
+					const qtyInput = row.querySelector('.stock-qty-input');
+					const reasonSelect = row.querySelector('.reason-category-select');
+					const quantity = qtyInput ? parseInt(qtyInput.value, 10) : NaN;
+					if (reasonSelect && reasonSelect.value === 'Production' && quantity > 0) {
+						items.push({ productId: parseInt(row.dataset.productId, 10), quantity: quantity });
+					}
+				});
+
+				if (items.length === 0) {
+					alert("Enter a quantity for at least one product set to 'Production'.");
+					return;
+				}
+
+				const csrfHeaderEl = document.querySelector('meta[name="_csrf_header"]');
+				const csrfTokenEl = document.querySelector('meta[name="_csrf"]');
+				const headers = { 'Content-Type': 'application/json' };
+				if (csrfHeaderEl && csrfTokenEl) {
+					headers[csrfHeaderEl.content] = csrfTokenEl.content;
+				}
+
+				productionRunBtn.disabled = true;
+				productionRunBtn.innerHTML = '<i class="fa-solid fa-spinner fa-spin me-1"></i> Producing...';
+
+				try {
+					const response = await fetch('/admin/products/stock/production-run', {
+						method: 'POST',
+						headers: headers,
+						body: JSON.stringify({ items: items })
+					});
+					const result = await response.json();
+					if (!response.ok) {
+						throw new Error(result.error || 'Production run failed.');
+					}
+					window.location.reload();
+				} catch (error) {
+					console.error("Production run failed:", error);
+					alert(error.message);
+					productionRunBtn.disabled = false;
+					productionRunBtn.textContent = 'Produce All';
+				}
+			});
+		}
 	}
 });
\ No newline at end of file
@@ -466,4 +466,98 @@ function showToastNotifications() {
 // --- END UPDATED FUNCTION ---
 
 // Run the toast notification handler on page load
-document.addEventListener('DOMContentLoaded', showToastNotifications);
\ No newline at end of file
+document.addEventListener('DOMContentLoaded', showToastNotifications);
+// --- Background report exports ---
+// Buttons/links marked with data-report-job run their /admin/reports/... export as a
+// job: submit, poll the status, then download the finished file. Same params as the
+// direct endpoint (URL query first, then the owning form's fields).
+const REPORT_JOB_POLL_MS = 1500;
+
+function formatReportBytes(bytes) {
+	if (!bytes) return '';
+	if (bytes < 1024 * 1024) return ` (${Math.max(1, Math.round(bytes / 1024))} KB)`;
+	return ` (${(bytes / (1024 * 1024)).toFixed(1)} MB)`;
+}
+
+function collectReportJobParams(trigger) {
+	const target = new URL(trigger.getAttribute('formaction') || trigger.getAttribute('href')
+		|| (trigger.form && trigger.form.getAttribute('action')), window.location.origin);
+	const params = new URLSearchParams(target.search);
+	if (trigger.form) {
+		new FormData(trigger.form).forEach((value, name) => {
+			if (typeof value === 'string') params.set(name, value);
+		});
+	}
+	// A named submit button contributes its own value, as in a normal form submit
+	if (trigger.name) params.set(trigger.name, trigger.value);
+	params.delete('_csrf');
+	params.set('report', target.pathname.replace(/^.*\/admin\/reports\//, ''));
+	return params;
+}
+
+function setReportJobLabel(trigger, text) {
+	trigger.innerHTML = `<span class="spinner-border spinner-border-sm me-2" role="status" aria-hidden="true"></span>${text}`;
+}
+
+function runReportJob(trigger) {
+	if (trigger.dataset.reportJobBusy) return;
+	trigger.dataset.reportJobBusy = 'true';
+	const originalHtml = trigger.innerHTML;
+	trigger.classList.add('disabled');
+	setReportJobLabel(trigger, 'Queued...');
+
+	const finish = (errorMessage) => {
+		trigger.innerHTML = originalHtml;
+		trigger.classList.remove('disabled');
+		delete trigger.dataset.reportJobBusy;
+		if (errorMessage) {
+			queueToast(errorMessage, true);
+			showToastNotifications();
+		}
+	};
+
+	const headers = { 'Content-Type': 'application/x-www-form-urlencoded' };
+	const csrfHeaderEl = document.querySelector('meta[name="_csrf_header"]');
+	const csrfTokenEl = document.querySelector('meta[name="_csrf"]');
+	if (csrfHeaderEl && csrfTokenEl) {
+		headers[csrfHeaderEl.getAttribute('content')] = csrfTokenEl.getAttribute('content');
+	}
+
+	const readJson = (response) => response.json().catch(() => ({})).then(body => {
+		if (!response.ok) throw new Error(body.error || `Report request failed (${response.status}).`);
+		return body;
+	});
+
+	const poll = (job) => {
+		if (job.status === 'DONE') {
+			window.location.href = `/admin/reports/jobs/${encodeURIComponent(job.id)}/file`;
+			finish();
+			return;
+		}
+		if (job.status === 'FAILED') {
+			finish(job.error || 'The report could not be generated.');
+			return;
+		}
+		setReportJobLabel(trigger, job.status === 'QUEUED'
+			? `Queued${job.queuePosition ? ' #' + job.queuePosition : ''}...`
+			: `Generating${formatReportBytes(job.bytesWritten)}...`);
+		setTimeout(() => {
+			fetch(`/admin/reports/jobs/${encodeURIComponent(job.id)}`, { headers: { 'Accept': 'application/json' } })
+				.then(readJson)
+				.then(poll)
+				.catch(err => finish(err.message));
+		}, REPORT_JOB_POLL_MS);
+	};
+
+	fetch('/admin/reports/jobs', { method: 'POST', headers: headers, body: collectReportJobParams(trigger) })
+		.then(readJson)
+		.then(poll)
+		.catch(err => finish(err.message));
+}
+
+document.addEventListener('click', (event) => {
+	const trigger = event.target.closest('[data-report-job]');
+	if (!trigger) return;
+	event.preventDefault();
+	runReportJob(trigger);
+});
@@ -0,0 +1,62 @@
+package com.toastedsiopao.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+	@Test
+	void readsWhatCsvWriterWrites() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CsvWriter writer = new CsvWriter(out);
+		writer.row("Item Name", "Note");
+		writer.text("Flour, all-purpose").text("Line one\nLine \"two\"").endRow();
+		writer.text("=SUM(A1)").number(new BigDecimal("-2.50")).endRow();
+		writer.flush();
+
+		try (CsvReader reader = reader(out.toByteArray())) {
+			assertThat(reader.next()).containsExactly("Item Name", "Note");
+			assertThat(reader.next()).containsExactly("Flour, all-purpose", "Line one\nLine \"two\"");
+			assertThat(reader.next()).containsExactly("=SUM(A1)", "-2.50");
+			assertThat(reader.next()).isNull();
+		}
+	}
+
+	@Test
+	void acceptsBareLineFeedsAndMissingFinalLineBreak() throws Exception {
+		try (CsvReader reader = reader("a,b\n\nc,\"d\r\ne\"".getBytes(StandardCharsets.UTF_8))) {
+			assertThat(reader.next()).containsExactly("a", "b");
+			assertThat(reader.next()).containsExactly("");
+			assertThat(reader.next()).containsExactly("c", "d\r\ne");
+			assertThat(reader.next()).isNull();
+		}
+	}
+
+	@Test
+	void keepsApostrophesThatAreNotFormulaGuards() throws Exception {
+		try (CsvReader reader = reader("'=x,\"'ok\",\"'\"".getBytes(StandardCharsets.UTF_8))) {
+			assertThat(reader.next()).containsExactly("'=x", "'ok", "'");
+		}
+	}
+
+	@Test
+	void rejectsUnclosedQuote() {
+		assertThatThrownBy(() -> {
+			try (CsvReader reader = reader("a\n\"open,b\n".getBytes(StandardCharsets.UTF_8))) {
+				reader.next();
+				reader.next();
+			}
+		}).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Line 2");
+	}
+
+	private static CsvReader reader(byte[] bytes) {
+		return new CsvReader(new ByteArrayInputStream(bytes));
+	}
+}
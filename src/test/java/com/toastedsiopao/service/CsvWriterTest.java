@@ -0,0 +1,83 @@
+package com.toastedsiopao.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	@Test
+	void startsWithAByteOrderMarkAndEndsRowsWithCrLf() throws Exception {
+		CsvWriter writer = new CsvWriter(out);
+		writer.row("a", "b").row("c");
+		writer.flush();
+
+		assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("\uFEFFa,b\r\nc\r\n");
+	}
+
+	@Test
+	void quotesSeparatorsQuotesAndLineBreaks() throws Exception {
+		assertThat(written(writer -> writer.text("Flour, all-purpose").text("6\" pan").text("Line one\nLine two")
+				.text("a\r\nb").text("plain").endRow()))
+				.isEqualTo("\"Flour, all-purpose\",\"6\"\" pan\",\"Line one\nLine two\",\"a\r\nb\",plain\r\n");
+	}
+
+	@Test
+	void guardsFormulaLikeCellsWithAnApostrophe() throws Exception {
+		assertThat(written(writer -> writer.text("=SUM(A1)").text("+63 912").text("-5").text("@cmd").text("\tx")
+				.text("\ry").endRow()))
+				.isEqualTo("\"'=SUM(A1)\",\"'+63 912\",\"'-5\",\"'@cmd\",\"'\tx\",\"'\ry\"\r\n");
+		// Only the first character counts
+		assertThat(written(writer -> writer.text("a=b").text("'=already").endRow())).isEqualTo("a=b,'=already\r\n");
+		// Quotes inside a guarded cell are still doubled
+		assertThat(written(writer -> writer.text("=\"x\"").endRow())).isEqualTo("\"'=\"\"x\"\"\"\r\n");
+	}
+
+	@Test
+	void leavesNullAndEmptyCellsBlank() throws Exception {
+		assertThat(written(writer -> writer.text(null).text("").number((Integer) null).number((BigDecimal) null)
+				.date(null, DateTimeFormatter.ISO_LOCAL_DATE).endRow())).isEqualTo(",,,,\r\n");
+	}
+
+	@Test
+	void writesLongsIncludingNegativesAndTheExtremes() throws Exception {
+		assertThat(written(writer -> writer.number(0L).number(7L).number(-42L).number(Long.MAX_VALUE)
+				.number(Long.MIN_VALUE).number(Integer.valueOf(-1)).endRow()))
+				.isEqualTo("0,7,-42,9223372036854775807,-9223372036854775808,-1\r\n");
+	}
+
+	@Test
+	void writesBigDecimalsInPlainNotationKeepingTheirScale() throws Exception {
+		assertThat(written(writer -> writer.number(new BigDecimal("2.50")).number(new BigDecimal("-0.05"))
+				.number(new BigDecimal("1E+3")).number(new BigDecimal("0.000")).number(new BigDecimal("12345678.9"))
+				.endRow())).isEqualTo("2.50,-0.05,1000,0.000,12345678.9\r\n");
+	}
+
+	@Test
+	void formatsDatesWithTheGivenPattern() throws Exception {
+		assertThat(written(writer -> writer.date(LocalDate.of(2024, 3, 5), DateTimeFormatter.ofPattern("yyyy-MM-dd"))
+				.endRow())).isEqualTo("2024-03-05\r\n");
+	}
+
+	private interface RowWriter {
+		void write(CsvWriter writer) throws IOException;
+	}
+
+	// Output without the byte order mark
+	private String written(RowWriter rows) throws IOException {
+		out.reset();
+		CsvWriter writer = new CsvWriter(out);
+		rows.write(writer);
+		writer.flush();
+		return out.toString(StandardCharsets.UTF_8).substring(1);
+	}
+}
@@ -0,0 +1,84 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.repository.DataVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DataVersionServiceImplTest {
+
+	private DataVersionRepository dataVersionRepository;
+	private DataVersionServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		dataVersionRepository = mock(DataVersionRepository.class);
+		service = new DataVersionServiceImpl();
+		ReflectionTestUtils.setField(service, "dataVersionRepository", dataVersionRepository);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void bumpsOncePerTypeAfterCommitInSortedOrder() {
+		TransactionSynchronizationManager.initSynchronization();
+
+		service.dataChanged(DataVersionService.DATA_PRODUCTS);
+		service.dataChanged(DataVersionService.DATA_INVENTORY);
+		service.dataChanged(DataVersionService.DATA_PRODUCTS);
+		verify(dataVersionRepository, never()).bump(anyString());
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		InOrder order = inOrder(dataVersionRepository);
+		order.verify(dataVersionRepository).bump(DataVersionService.DATA_INVENTORY);
+		order.verify(dataVersionRepository).bump(DataVersionService.DATA_PRODUCTS);
+		verify(dataVersionRepository, times(2)).bump(anyString());
+	}
+
+	@Test
+	void rollbackLeavesVersionsAlone() {
+		TransactionSynchronizationManager.initSynchronization();
+
+		service.dataChanged(DataVersionService.DATA_ORDERS);
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		verify(dataVersionRepository, never()).bump(anyString());
+	}
+
+	@Test
+	void bumpsRightAwayOutsideATransaction() {
+		service.dataChanged(DataVersionService.DATA_SETTINGS);
+
+		verify(dataVersionRepository).bump(DataVersionService.DATA_SETTINGS);
+	}
+
+	@Test
+	void failedBumpDoesNotReachTheCommittedWriter() {
+		when(dataVersionRepository.bump(anyString())).thenThrow(new IllegalStateException("lock wait timeout"));
+
+		service.dataChanged(DataVersionService.DATA_WASTE);
+
+		verify(dataVersionRepository).bump(DataVersionService.DATA_WASTE);
+	}
+}
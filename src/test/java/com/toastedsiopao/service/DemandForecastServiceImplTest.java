@@ -0,0 +1,181 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryItem;
+import com.toastedsiopao.model.ProductDemandForecast;
+import com.toastedsiopao.repository.OrderRepository;
+import com.toastedsiopao.repository.ProductDemandForecastRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import com.toastedsiopao.repository.RecipeIngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DemandForecastServiceImplTest {
+
+	private static final ZoneId MANILA = ZoneId.of("Asia/Manila");
+	// A Friday; yesterday is Thursday 2024-03-14
+	private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+	private static final Long SIOPAO = 1L;
+	private static final Long FLOUR = 100L;
+
+	private ProductDemandForecastRepository forecastRepository;
+	private OrderRepository orderRepository;
+	private DemandForecastServiceImpl service;
+	private final List<ProductDemandForecast> stored = new ArrayList<>();
+	private final List<LocalDate> queriedDays = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		forecastRepository = mock(ProductDemandForecastRepository.class);
+		orderRepository = mock(OrderRepository.class);
+		ProductRepository productRepository = mock(ProductRepository.class);
+		RecipeIngredientRepository recipeIngredientRepository = mock(RecipeIngredientRepository.class);
+
+		when(forecastRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(stored));
+		when(forecastRepository.saveAll(any())).thenAnswer(invocation -> {
+			stored.clear();
+			invocation.<Iterable<ProductDemandForecast>>getArgument(0).forEach(stored::add);
+			return new ArrayList<>(stored);
+		});
+		when(productRepository.findAllStockLevels()).thenReturn(rows(new Object[] { SIOPAO, 0 }));
+		when(recipeIngredientRepository.findAllRecipeLines())
+				.thenReturn(rows(new Object[] { SIOPAO, FLOUR, new BigDecimal("0.5") }));
+
+		service = new DemandForecastServiceImpl();
+		ReflectionTestUtils.setField(service, "forecastRepository", forecastRepository);
+		ReflectionTestUtils.setField(service, "productRepository", productRepository);
+		ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(service, "recipeIngredientRepository", recipeIngredientRepository);
+		ReflectionTestUtils.setField(service, "levelSmoothing", 0.2);
+		ReflectionTestUtils.setField(service, "seasonalSmoothing", 0.1);
+		ReflectionTestUtils.setField(service, "bootstrapDays", 56);
+		ReflectionTestUtils.setField(service, "leadTimeDays", 2);
+		ReflectionTestUtils.setField(service, "safetyFactor", 1.65);
+		setToday(TODAY);
+	}
+
+	@Test
+	void newProductIsSeededFromTheBootstrapWindow() {
+		deliveries(day -> 10L);
+
+		service.advanceForecasts();
+
+		ProductDemandForecast forecast = stored.get(0);
+		assertThat(queriedDays).hasSize(56).startsWith(TODAY.minusDays(56)).endsWith(TODAY.minusDays(1));
+		assertThat(forecast.getObservations()).isEqualTo(56);
+		assertThat(forecast.getLastObservedDate()).isEqualTo(TODAY.minusDays(1));
+		assertThat(forecast.getLevel()).isCloseTo(10.0, within(1e-9));
+		assertThat(forecast.getMeanAbsoluteError()).isCloseTo(0.0, within(1e-9));
+	}
+
+	@Test
+	void weeklyPatternShowsUpInDayOfWeekFactors() {
+		deliveries(day -> day.getDayOfWeek() == DayOfWeek.SATURDAY ? 40L : 10L);
+
+		service.advanceForecasts();
+
+		ProductDemandForecast forecast = stored.get(0);
+		assertThat(forecast.getFactor(DayOfWeek.SATURDAY)).isGreaterThan(1.5);
+		assertThat(forecast.getFactor(DayOfWeek.TUESDAY)).isLessThan(1.0);
+		double sum = 0;
+		for (DayOfWeek day : DayOfWeek.values()) {
+			sum += forecast.getFactor(day);
+		}
+		assertThat(sum).isCloseTo(7.0, within(1e-9));
+	}
+
+	@Test
+	void eachDeliveryDayIsFoldedExactlyOnce() {
+		stored.add(forecast(TODAY.minusDays(3), 10.0));
+		deliveries(day -> 10L);
+
+		service.advanceForecasts();
+		service.advanceForecasts();
+
+		assertThat(queriedDays).containsExactly(TODAY.minusDays(2), TODAY.minusDays(1));
+		assertThat(stored.get(0).getObservations()).isEqualTo(12);
+		assertThat(stored.get(0).getLastObservedDate()).isEqualTo(TODAY.minusDays(1));
+	}
+
+	@Test
+	void orderPlacedEarlierButDeliveredTodayIsFoldedTomorrow() {
+		stored.add(forecast(TODAY.minusDays(1), 10.0));
+		// Placed days ago and only delivered today: it belongs to today's bucket
+		Map<LocalDate, Long> delivered = new HashMap<>(Map.of(TODAY, 30L));
+		deliveries(day -> delivered.getOrDefault(day, 0L));
+
+		service.advanceForecasts();
+		verify(orderRepository, never()).sumDeliveredQuantityByProduct(any(), any());
+		assertThat(stored.get(0).getLevel()).isCloseTo(10.0, within(1e-9));
+
+		setToday(TODAY.plusDays(1));
+		service.advanceForecasts();
+
+		assertThat(queriedDays).containsExactly(TODAY);
+		// level = 0.2 x 30 + 0.8 x 10
+		assertThat(stored.get(0).getLevel()).isCloseTo(14.0, within(1e-9));
+	}
+
+	@Test
+	void usageFlowsThroughRecipesIntoReorderPoints() {
+		deliveries(day -> 10L);
+		service.advanceForecasts();
+
+		InventoryItem flour = new InventoryItem();
+		flour.setId(FLOUR);
+		flour.setCurrentStock(new BigDecimal("25"));
+		DemandForecastService.ItemForecast forecast = service.getItemForecasts(List.of(flour)).get(FLOUR);
+
+		// 10 siopao a day x 0.5 flour each, over a 2 day lead time with no error
+		assertThat(forecast.dailyUsage()).isEqualByComparingTo("5.00");
+		assertThat(forecast.reorderPoint()).isEqualByComparingTo("10.00");
+		assertThat(forecast.daysOfCover()).isEqualByComparingTo("5.0");
+	}
+
+	private void deliveries(Function<LocalDate, Long> quantityByDay) {
+		when(orderRepository.sumDeliveredQuantityByProduct(any(), any())).thenAnswer(invocation -> {
+			LocalDateTime start = invocation.getArgument(0);
+			LocalDateTime end = invocation.getArgument(1);
+			assertThat(end).isEqualTo(start.plusDays(1));
+			queriedDays.add(start.toLocalDate());
+			long quantity = quantityByDay.apply(start.toLocalDate());
+			return quantity > 0 ? rows(new Object[] { SIOPAO, quantity }) : List.of();
+		});
+	}
+
+	private void setToday(LocalDate today) {
+		ReflectionTestUtils.setField(service, "clock",
+				Clock.fixed(today.atTime(9, 0).atZone(MANILA).toInstant(), MANILA));
+	}
+
+	private static ProductDemandForecast forecast(LocalDate lastObserved, double level) {
+		ProductDemandForecast forecast = new ProductDemandForecast(SIOPAO, lastObserved);
+		forecast.setLevel(level);
+		forecast.setObservations(10);
+		return forecast;
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return new ArrayList<>(List.of(rows));
+	}
+}
@@ -0,0 +1,144 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.StoredFile;
+import com.toastedsiopao.repository.StoredFileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileStorageServiceImplTest {
+
+	private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-01T02:00:00Z"), ZoneId.of("Asia/Manila"));
+	private static final byte[] CONTENT = "siopao".getBytes(StandardCharsets.UTF_8);
+	// SHA-256 of CONTENT
+	private static final String HASH = "f075712e18963d0e47eab135983b10bde1374715915521e8b0b1bade4100a6d4";
+
+	@TempDir
+	Path uploadDir;
+
+	private StoredFileRepository storedFileRepository;
+	private StorageBackend storageBackend;
+	private FileStorageServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		storedFileRepository = mock(StoredFileRepository.class);
+		storageBackend = mock(StorageBackend.class);
+		service = new FileStorageServiceImpl();
+		ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+		ReflectionTestUtils.setField(service, "storedFileRepository", storedFileRepository);
+		ReflectionTestUtils.setField(service, "storageBackend", storageBackend);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "clock", CLOCK);
+		service.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void storeTakesReferenceAtomicallyAndUploadsOnce() throws Exception {
+		String filename = service.store(upload()).substring(FileStorageServiceImpl.UPLOAD_URL_PREFIX.length());
+		when(storageBackend.exists(filename)).thenReturn(true);
+		service.store(upload());
+
+		assertThat(filename).isEqualTo(HASH + ".jpg");
+		verify(storedFileRepository, times(2)).addReference(eq(filename), eq(HASH),
+				eq((long) CONTENT.length), eq(LocalDateTime.now(CLOCK)));
+		verify(storageBackend, times(1)).put(eq(filename), any(Path.class), anyString(), eq("image/jpeg"));
+		verify(storedFileRepository, never()).save(any());
+	}
+
+	@Test
+	void deleteKeepsFileWhileReferencesRemain() throws Exception {
+		StoredFile row = storedFile(2);
+		when(storedFileRepository.findByIdForUpdate(row.getFilename())).thenReturn(Optional.of(row));
+
+		service.delete(FileStorageServiceImpl.UPLOAD_URL_PREFIX + row.getFilename());
+
+		assertThat(row.getReferenceCount()).isEqualTo(1);
+		verify(storedFileRepository).save(row);
+		verify(storedFileRepository, never()).delete(any());
+		verify(storageBackend, never()).delete(anyString());
+	}
+
+	@Test
+	void lastReferenceDeletesFileOnlyAfterCommit() throws Exception {
+		StoredFile row = storedFile(1);
+		when(storedFileRepository.findByIdForUpdate(row.getFilename())).thenReturn(Optional.of(row), Optional.empty());
+		when(storageBackend.exists(row.getFilename())).thenReturn(true);
+		TransactionSynchronizationManager.initSynchronization();
+
+		service.delete(FileStorageServiceImpl.UPLOAD_URL_PREFIX + row.getFilename());
+
+		verify(storedFileRepository).delete(row);
+		verify(storageBackend, never()).delete(anyString());
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		verify(storageBackend).delete(row.getFilename());
+	}
+
+	@Test
+	void rolledBackDeleteKeepsFile() throws Exception {
+		StoredFile row = storedFile(1);
+		when(storedFileRepository.findByIdForUpdate(row.getFilename())).thenReturn(Optional.of(row));
+		TransactionSynchronizationManager.initSynchronization();
+
+		service.delete(FileStorageServiceImpl.UPLOAD_URL_PREFIX + row.getFilename());
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		verify(storageBackend, never()).delete(anyString());
+	}
+
+	@Test
+	void fileStoredAgainBeforeCommitIsKept() throws Exception {
+		StoredFile row = storedFile(1);
+		StoredFile restored = storedFile(1);
+		when(storedFileRepository.findByIdForUpdate(row.getFilename())).thenReturn(Optional.of(row),
+				Optional.of(restored));
+		TransactionSynchronizationManager.initSynchronization();
+
+		service.delete(FileStorageServiceImpl.UPLOAD_URL_PREFIX + row.getFilename());
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		verify(storageBackend, never()).delete(anyString());
+	}
+
+	private static MockMultipartFile upload() {
+		return new MockMultipartFile("image", "photo.JPG", "image/jpeg", CONTENT);
+	}
+
+	private static StoredFile storedFile(int references) {
+		StoredFile row = new StoredFile(HASH + ".jpg", HASH, CONTENT.length);
+		row.setReferenceCount(references);
+		return row;
+	}
+}
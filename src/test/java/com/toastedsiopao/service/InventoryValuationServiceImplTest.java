@@ -0,0 +1,141 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.model.InventoryValuationSnapshot;
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.InventoryValuationSnapshotRepository;
+import com.toastedsiopao.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryValuationServiceImplTest {
+
+	private static final ZoneId MANILA = ZoneId.of("Asia/Manila");
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 14, 23, 55);
+	private static final Long FLOUR = 1L;
+	private static final Long FILLINGS = 2L;
+
+	private InventoryValuationSnapshotRepository snapshotRepository;
+	private InventoryItemRepository inventoryItemRepository;
+	private StockMovementRepository stockMovementRepository;
+	private ResultSet lockResult;
+	private InventoryValuationServiceImpl service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		snapshotRepository = mock(InventoryValuationSnapshotRepository.class);
+		inventoryItemRepository = mock(InventoryItemRepository.class);
+		stockMovementRepository = mock(StockMovementRepository.class);
+
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		lockResult = mock(ResultSet.class);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeQuery()).thenReturn(lockResult);
+		when(lockResult.next()).thenReturn(true);
+		when(lockResult.getInt(1)).thenReturn(1);
+		when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+				.thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+
+		service = new InventoryValuationServiceImpl();
+		ReflectionTestUtils.setField(service, "snapshotRepository", snapshotRepository);
+		ReflectionTestUtils.setField(service, "inventoryItemRepository", inventoryItemRepository);
+		ReflectionTestUtils.setField(service, "stockMovementRepository", stockMovementRepository);
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "clock", Clock.fixed(NOW.atZone(MANILA).toInstant(), MANILA));
+		ReflectionTestUtils.setField(service, "lockWaitSeconds", 60);
+		ReflectionTestUtils.setField(service, "settleSeconds", 300);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void snapshotLeavesRecentMovementsToTheLiveDelta() {
+		// Movements 41 and up were written in the last five minutes
+		when(stockMovementRepository.findFirstIdMovedAfter(NOW.minusMinutes(5))).thenReturn(41L);
+		when(stockMovementRepository.sumItemDeltasByCategoryAfter(40L))
+				.thenReturn(rows(new Object[] { FLOUR, new BigDecimal("2.00"), new BigDecimal("10.00") }));
+		when(inventoryItemRepository.sumStockByCategory()).thenReturn(rows(
+				new Object[] { FLOUR, "Flour", 3L, new BigDecimal("12.00"), new BigDecimal("60.00") },
+				new Object[] { FILLINGS, "Fillings", 2L, new BigDecimal("5.00"), new BigDecimal("40.00") }));
+
+		service.recordDailySnapshot();
+
+		ArgumentCaptor<List<InventoryValuationSnapshot>> saved = ArgumentCaptor.forClass(List.class);
+		verify(snapshotRepository).deleteBySnapshotDate(LocalDate.of(2024, 3, 14));
+		verify(snapshotRepository).saveAll(saved.capture());
+		List<InventoryValuationSnapshot> snapshots = saved.getValue();
+		assertThat(snapshots).hasSize(3);
+		assertThat(snapshots.get(0).getTotalQuantity()).isEqualByComparingTo("10.00");
+		assertThat(snapshots.get(0).getTotalValue()).isEqualByComparingTo("50.00");
+		assertThat(snapshots.get(1).getTotalValue()).isEqualByComparingTo("40.00");
+		InventoryValuationSnapshot total = snapshots.get(2);
+		assertThat(total.isTotal()).isTrue();
+		assertThat(total.getTotalValue()).isEqualByComparingTo("90.00");
+		assertThat(total.getLastMovementId()).isEqualTo(40L);
+		assertThat(total.getCapturedAt()).isEqualTo(NOW.minusMinutes(5));
+	}
+
+	@Test
+	void currentValuationAddsMovementsAfterTheAnchor() {
+		InventoryValuationSnapshot snapshot = new InventoryValuationSnapshot(LocalDate.of(2024, 3, 13), null, null, 5L,
+				new BigDecimal("15.00"), new BigDecimal("90.00"), NOW.minusDays(1), 40L);
+		when(snapshotRepository.findFirstByCategoryIdIsNullOrderBySnapshotDateDesc()).thenReturn(Optional.of(snapshot));
+		when(stockMovementRepository.sumItemDeltasAfter(40L))
+				.thenReturn(rows(new Object[] { new BigDecimal("-3.00"), new BigDecimal("-15.00") }));
+
+		InventoryValuationService.Valuation valuation = service.getCurrentValuation();
+
+		assertThat(valuation.totalQuantity()).isEqualByComparingTo("12.00");
+		assertThat(valuation.totalValue()).isEqualByComparingTo("75.00");
+		assertThat(valuation.valueChange()).isEqualByComparingTo("-15.00");
+	}
+
+	@Test
+	void skipsTheSnapshotWhileAnotherNodeHoldsTheLock() throws Exception {
+		when(lockResult.getInt(1)).thenReturn(0);
+
+		service.recordDailySnapshot();
+
+		verify(inventoryItemRepository, never()).sumStockByCategory();
+		verify(snapshotRepository, never()).saveAll(any());
+	}
+
+	@Test
+	void startupLeavesASnapshotAnotherNodeJustTook() {
+		when(snapshotRepository.existsBySnapshotDate(LocalDate.of(2024, 3, 14))).thenReturn(false, true);
+
+		service.onApplicationReady();
+
+		verify(snapshotRepository, never()).deleteBySnapshotDate(any());
+		verify(snapshotRepository, never()).saveAll(any());
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return List.of(rows);
+	}
+}
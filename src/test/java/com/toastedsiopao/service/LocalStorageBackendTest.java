@@ -0,0 +1,54 @@
+package com.toastedsiopao.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalStorageBackendTest {
+
+	private static final byte[] CONTENT = "toasted siopao, asado and bola-bola".getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	Path uploadDir;
+
+	private LocalStorageBackend backend;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		backend = new LocalStorageBackend();
+		ReflectionTestUtils.setField(backend, "uploadDir", uploadDir.toString());
+		Files.write(uploadDir.resolve("photo.jpg"), CONTENT);
+	}
+
+	@Test
+	void rangedOpenStopsAtLength() throws Exception {
+		try (InputStream in = backend.open("photo.jpg", 8, 6)) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("siopao");
+		}
+		try (InputStream in = backend.open("photo.jpg", 8, 6)) {
+			assertThat(in.skip(100)).isEqualTo(6);
+			assertThat(in.read()).isEqualTo(-1);
+		}
+	}
+
+	@Test
+	void rangePastEndOfFileStopsAtEndOfFile() throws Exception {
+		try (InputStream in = backend.open("photo.jpg", CONTENT.length - 4, 100)) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("bola");
+		}
+	}
+
+	@Test
+	void keysCannotEscapeUploadDirectory() {
+		assertThatThrownBy(() -> backend.open("../secret.txt", 0, 1)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,152 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.model.Product;
+import com.toastedsiopao.repository.OrderRepository;
+import com.toastedsiopao.repository.ProductRepository;
+import com.toastedsiopao.repository.RecipeIngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProducibilityServiceImplTest {
+
+	private static final Long FLOUR = 1L;
+	private static final Long PORK = 2L;
+	private static final Long ASADO = 10L;
+
+	private RecipeIngredientRepository recipeIngredientRepository;
+	private InventoryItemRepository inventoryItemRepository;
+	private OrderRepository orderRepository;
+	private NotificationService notificationService;
+	private DataVersionService dataVersionService;
+	private ProducibilityServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		recipeIngredientRepository = mock(RecipeIngredientRepository.class);
+		inventoryItemRepository = mock(InventoryItemRepository.class);
+		orderRepository = mock(OrderRepository.class);
+		notificationService = mock(NotificationService.class);
+		dataVersionService = mock(DataVersionService.class);
+		when(orderRepository.findTopSellingProducts(any())).thenReturn(Page.empty());
+
+		service = new ProducibilityServiceImpl();
+		ReflectionTestUtils.setField(service, "recipeIngredientRepository", recipeIngredientRepository);
+		ReflectionTestUtils.setField(service, "inventoryItemRepository", inventoryItemRepository);
+		ReflectionTestUtils.setField(service, "orderRepository", orderRepository);
+		ReflectionTestUtils.setField(service, "productRepository", mock(ProductRepository.class));
+		ReflectionTestUtils.setField(service, "dataVersionService", dataVersionService);
+		ReflectionTestUtils.setField(service, "notificationService", notificationService);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(service, "bestSellerCount", 5);
+
+		when(inventoryItemRepository.findAllStockLevels())
+				.thenReturn(rows(new Object[] { FLOUR, new BigDecimal("10") }, new Object[] { PORK, new BigDecimal("3") }));
+		when(recipeIngredientRepository.findActiveRecipeLines()).thenReturn(rows(
+				new Object[] { ASADO, FLOUR, new BigDecimal("2") }, new Object[] { ASADO, PORK, new BigDecimal("1") }));
+		service.rebuild();
+	}
+
+	@Test
+	void rebuildUsesActiveRecipesOnly() {
+		assertThat(service.getMaxProducible(ASADO)).isEqualTo(3);
+		verify(recipeIngredientRepository).findActiveRecipeLines();
+	}
+
+	@Test
+	void stockChangeReadsCommittedStock() {
+		when(inventoryItemRepository.findStockLevels(Set.of(PORK)))
+				.thenReturn(rows(new Object[] { PORK, new BigDecimal("8") }));
+
+		service.stockChanged(PORK);
+
+		assertThat(service.getMaxProducible(ASADO)).isEqualTo(5);
+	}
+
+	@Test
+	void deactivatedProductLeavesIndexWithoutRebuild() {
+		when(recipeIngredientRepository.findActiveRecipeLinesByProduct(ASADO)).thenReturn(List.of());
+
+		service.productChanged(ASADO);
+
+		assertThat(service.getAllMaxProducible()).doesNotContainKey(ASADO);
+		// A later stock change on a former ingredient no longer touches the product
+		when(inventoryItemRepository.findStockLevels(Set.of(PORK)))
+				.thenReturn(rows(new Object[] { PORK, new BigDecimal("8") }));
+		service.stockChanged(PORK);
+		assertThat(service.getAllMaxProducible()).doesNotContainKey(ASADO);
+		verify(recipeIngredientRepository).findActiveRecipeLines();
+	}
+
+	@Test
+	void recipeEditRecomputesOnlyThatProduct() {
+		when(recipeIngredientRepository.findActiveRecipeLinesByProduct(ASADO))
+				.thenReturn(rows(new Object[] { FLOUR, new BigDecimal("5") }));
+		when(inventoryItemRepository.findStockLevels(Set.of(FLOUR)))
+				.thenReturn(rows(new Object[] { FLOUR, new BigDecimal("10") }));
+
+		service.productChanged(ASADO);
+
+		assertThat(service.getMaxProducible(ASADO)).isEqualTo(2);
+	}
+
+	@Test
+	void versionCheckRebuildsTheIndexOnlyAfterAWrite() {
+		service.rebuildIfChanged();
+		verify(recipeIngredientRepository, times(1)).findActiveRecipeLines();
+
+		when(dataVersionService.getVersions(anyCollection())).thenReturn(Map.of(DataVersionService.DATA_INVENTORY, 1L));
+		service.rebuildIfChanged();
+
+		verify(recipeIngredientRepository, times(2)).findActiveRecipeLines();
+		// Ranking sales is the nightly job's work, not every version check's
+		verify(orderRepository, times(1)).findTopSellingProducts(any());
+	}
+
+	@Test
+	void nightlyRefreshStartsAlertingForANewBestSeller() {
+		when(inventoryItemRepository.findStockLevels(Set.of(PORK)))
+				.thenReturn(rows(new Object[] { PORK, new BigDecimal("1") }));
+		service.stockChanged(PORK);
+		verify(notificationService, never()).createAdminNotification(anyString(), anyString());
+
+		Product asado = new Product();
+		asado.setId(ASADO);
+		asado.setName("Asado Siopao");
+		asado.setLowStockThreshold(3);
+		List<Object[]> ranking = rows(new Object[] { asado, 40L });
+		when(orderRepository.findTopSellingProducts(any())).thenReturn(new PageImpl<>(ranking));
+		service.refreshBestSellers();
+		when(inventoryItemRepository.findStockLevels(Set.of(PORK)))
+				.thenReturn(rows(new Object[] { PORK, new BigDecimal("5") }), rows(new Object[] { PORK, new BigDecimal("2") }));
+		service.stockChanged(PORK);
+		service.stockChanged(PORK);
+
+		verify(notificationService).createAdminNotification(contains("Asado Siopao"), anyString());
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return new ArrayList<>(List.of(rows));
+	}
+}
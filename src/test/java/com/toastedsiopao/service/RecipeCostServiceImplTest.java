@@ -0,0 +1,114 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.repository.InventoryItemRepository;
+import com.toastedsiopao.repository.RecipeIngredientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecipeCostServiceImplTest {
+
+	private static final Long SIOPAO = 1L;
+	private static final Long FLOUR = 100L;
+
+	private InventoryItemRepository inventoryItemRepository;
+	private DataVersionService dataVersionService;
+	private RecipeCostServiceImpl service;
+	private final Map<Long, BigDecimal> committedCosts = new HashMap<>();
+
+	@BeforeEach
+	void setUp() {
+		inventoryItemRepository = mock(InventoryItemRepository.class);
+		RecipeIngredientRepository recipeIngredientRepository = mock(RecipeIngredientRepository.class);
+		dataVersionService = mock(DataVersionService.class);
+
+		committedCosts.put(FLOUR, new BigDecimal("2.00"));
+		when(inventoryItemRepository.findAllCostsPerUnit()).thenAnswer(invocation -> costRows());
+		when(inventoryItemRepository.findCostsPerUnit(any())).thenAnswer(invocation -> costRows());
+		when(recipeIngredientRepository.findAllRecipeLines())
+				.thenReturn(rows(new Object[] { SIOPAO, FLOUR, new BigDecimal("0.5") }));
+		when(dataVersionService.getVersions(anyCollection())).thenReturn(Map.of(DataVersionService.DATA_INVENTORY, 1L));
+
+		service = new RecipeCostServiceImpl();
+		ReflectionTestUtils.setField(service, "inventoryItemRepository", inventoryItemRepository);
+		ReflectionTestUtils.setField(service, "recipeIngredientRepository", recipeIngredientRepository);
+		ReflectionTestUtils.setField(service, "dataVersionService", dataVersionService);
+		ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+		service.rebuild();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void costChangesApplyTheCommittedCostWhateverOrderTheyRunIn() {
+		assertThat(service.getUnitCost(SIOPAO)).isEqualByComparingTo("1.00");
+
+		// Two edits commit (3.00, then 4.00) but their callbacks run newest first
+		TransactionSynchronizationManager.initSynchronization();
+		service.costChanged(FLOUR);
+		service.costChanged(FLOUR);
+		committedCosts.put(FLOUR, new BigDecimal("4.00"));
+		List<TransactionSynchronization> callbacks = new ArrayList<>(
+				TransactionSynchronizationManager.getSynchronizations());
+		TransactionSynchronizationManager.clearSynchronization();
+		callbacks.get(1).afterCommit();
+		callbacks.get(0).afterCommit();
+
+		assertThat(service.getUnitCost(SIOPAO)).isEqualByComparingTo("2.00");
+	}
+
+	@Test
+	void rebuildsOnlyWhenAVersionMoved() {
+		service.rebuildIfChanged();
+		verify(inventoryItemRepository, times(1)).findAllCostsPerUnit();
+
+		// Another node raised the flour cost
+		committedCosts.put(FLOUR, new BigDecimal("6.00"));
+		when(dataVersionService.getVersions(anyCollection())).thenReturn(Map.of(DataVersionService.DATA_INVENTORY, 2L));
+		service.rebuildIfChanged();
+
+		verify(inventoryItemRepository, times(2)).findAllCostsPerUnit();
+		assertThat(service.getUnitCost(SIOPAO)).isEqualByComparingTo("3.00");
+	}
+
+	@Test
+	void reportsComputeCostsFromTheDatabase() {
+		committedCosts.put(FLOUR, new BigDecimal("10.00"));
+
+		assertThat(service.loadUnitCosts().get(SIOPAO)).isEqualByComparingTo("5.00");
+		assertThat(service.getUnitCost(SIOPAO)).isEqualByComparingTo("1.00");
+	}
+
+	private List<Object[]> costRows() {
+		List<Object[]> rows = new ArrayList<>();
+		committedCosts.forEach((id, cost) -> rows.add(new Object[] { id, cost }));
+		return rows;
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return List.of(rows);
+	}
+}
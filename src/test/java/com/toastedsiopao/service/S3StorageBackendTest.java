@@ -0,0 +1,116 @@
+package com.toastedsiopao.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class S3StorageBackendTest {
+
+	private static final String BUCKET = "mk-uploads";
+	private static final String KEY = "0123456789abcdef.jpg";
+	private static final byte[] CONTENT = "toasted siopao, asado and bola-bola".getBytes(StandardCharsets.UTF_8);
+
+	@Container
+	static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2023-09-04T19-57-37Z");
+
+	@TempDir
+	Path tempDir;
+
+	private S3StorageBackend backend;
+
+	@BeforeAll
+	static void createBucket() throws Exception {
+		run("mc", "alias", "set", "local", "http://localhost:9000", MINIO.getUserName(), MINIO.getPassword());
+		run("mc", "mb", "--ignore-existing", "local/" + BUCKET);
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		backend = new S3StorageBackend();
+		ReflectionTestUtils.setField(backend, "endpoint", MINIO.getS3URL());
+		ReflectionTestUtils.setField(backend, "region", "us-east-1");
+		ReflectionTestUtils.setField(backend, "bucket", BUCKET);
+		ReflectionTestUtils.setField(backend, "accessKey", MINIO.getUserName());
+		ReflectionTestUtils.setField(backend, "secretKey", MINIO.getPassword());
+		ReflectionTestUtils.setField(backend, "keyPrefix", "uploads/");
+		ReflectionTestUtils.setField(backend, "pathStyle", true);
+		backend.init();
+		backend.delete(KEY);
+	}
+
+	@Test
+	void putThenExistsAndStat() throws Exception {
+		assertThat(backend.exists(KEY)).isFalse();
+
+		backend.put(KEY, staged(), sha256(CONTENT), "image/jpeg");
+
+		assertThat(backend.exists(KEY)).isTrue();
+		StorageBackend.ObjectInfo info = backend.stat(KEY);
+		assertThat(info.size()).isEqualTo(CONTENT.length);
+		assertThat(info.lastModified()).isPositive();
+	}
+
+	@Test
+	void rangedOpenReturnsOnlyTheRequestedBytes() throws Exception {
+		backend.put(KEY, staged(), sha256(CONTENT), "image/jpeg");
+
+		try (InputStream in = backend.open(KEY, 8, 6)) {
+			assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("siopao");
+		}
+		try (InputStream in = backend.open(KEY, 0, CONTENT.length)) {
+			assertThat(in.readAllBytes()).isEqualTo(CONTENT);
+		}
+	}
+
+	@Test
+	void listingStripsThePrefix() throws Exception {
+		backend.put(KEY, staged(), sha256(CONTENT), "image/jpeg");
+
+		Map<String, StorageBackend.ObjectInfo> listed = new HashMap<>();
+		backend.forEachObject(listed::put);
+
+		assertThat(listed).containsKey(KEY);
+		assertThat(listed.get(KEY).size()).isEqualTo(CONTENT.length);
+	}
+
+	@Test
+	void deleteRemovesObjectAndToleratesMissingKeys() throws Exception {
+		backend.put(KEY, staged(), sha256(CONTENT), "image/jpeg");
+
+		backend.delete(KEY);
+		backend.delete(KEY);
+
+		assertThat(backend.exists(KEY)).isFalse();
+		assertThat(backend.stat(KEY)).isNull();
+	}
+
+	private Path staged() throws Exception {
+		return Files.write(tempDir.resolve("upload.tmp"), CONTENT);
+	}
+
+	private static String sha256(byte[] bytes) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+	}
+
+	private static void run(String... command) throws Exception {
+		org.testcontainers.containers.Container.ExecResult result = MINIO.execInContainer(command);
+		assertThat(result.getExitCode()).as(result.getStderr()).isZero();
+	}
+}
@@ -0,0 +1,133 @@
+package com.toastedsiopao.service;
+
+import com.toastedsiopao.repository.SalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SalesRollupServiceImplTest {
+
+	private SalesRollupRepository salesRollupRepository;
+	private SalesRollupServiceImpl service;
+	private final List<Object[]> rollups = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		salesRollupRepository = mock(SalesRollupRepository.class);
+		when(salesRollupRepository.findBuckets(any(), any())).thenAnswer(invocation -> {
+			LocalDateTime start = invocation.getArgument(0);
+			LocalDateTime end = invocation.getArgument(1);
+			return rollups.stream().filter(row -> {
+				LocalDateTime bucket = (LocalDateTime) row[0];
+				return !bucket.isBefore(start) && bucket.isBefore(end);
+			}).toList();
+		});
+		service = new SalesRollupServiceImpl();
+		ReflectionTestUtils.setField(service, "salesRollupRepository", salesRollupRepository);
+	}
+
+	@Test
+	void hourlyBucketsCoverBothDaysAndKeepEachHour() {
+		rollup(LocalDateTime.of(2024, 3, 14, 0, 0), 1, "100.00");
+		rollup(LocalDateTime.of(2024, 3, 15, 23, 0), 2, "250.50");
+
+		SalesRollupService.SalesSeries series = service.getSalesSeries(SalesRollupService.BUCKET_HOUR,
+				LocalDate.of(2024, 3, 14), LocalDate.of(2024, 3, 15));
+
+		assertThat(series.labels()).hasSize(48);
+		assertThat(series.labels().get(0)).isEqualTo("2024-03-14 00:00");
+		assertThat(series.labels().get(47)).isEqualTo("2024-03-15 23:00");
+		assertThat(series.sales().get(0)).isEqualByComparingTo("100.00");
+		assertThat(series.sales().get(47)).isEqualByComparingTo("250.50");
+		assertThat(series.orders().get(47)).isEqualTo(2L);
+		assertThat(series.sales().get(1)).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+
+	@Test
+	void dailyBucketsSumTheirHoursAndFillGapsWithZero() {
+		rollup(LocalDateTime.of(2024, 3, 1, 9, 0), 1, "80.00");
+		rollup(LocalDateTime.of(2024, 3, 1, 17, 0), 3, "120.00");
+		rollup(LocalDateTime.of(2024, 3, 3, 23, 0), 1, "45.00");
+
+		SalesRollupService.SalesSeries series = service.getSalesSeries(SalesRollupService.BUCKET_DAY,
+				LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 3));
+
+		assertThat(series.labels()).containsExactly("2024-03-01", "2024-03-02", "2024-03-03");
+		assertThat(series.sales()).usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("200.00"), BigDecimal.ZERO, new BigDecimal("45.00"));
+		assertThat(series.orders()).containsExactly(4L, 0L, 1L);
+	}
+
+	@Test
+	void weeklyBucketsStartOnTheMondayBeforeTheRange() {
+		// 2024-03-06 is a Wednesday; its week starts Monday 2024-03-04
+		rollup(LocalDateTime.of(2024, 3, 4, 10, 0), 1, "10.00");
+		rollup(LocalDateTime.of(2024, 3, 10, 22, 0), 1, "20.00");
+		rollup(LocalDateTime.of(2024, 3, 11, 8, 0), 1, "40.00");
+
+		SalesRollupService.SalesSeries series = service.getSalesSeries(SalesRollupService.BUCKET_WEEK,
+				LocalDate.of(2024, 3, 6), LocalDate.of(2024, 3, 12));
+
+		assertThat(series.labels()).containsExactly("2024-03-04", "2024-03-11");
+		assertThat(series.sales()).usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("30.00"), new BigDecimal("40.00"));
+		verify(salesRollupRepository).findBuckets(LocalDateTime.of(2024, 3, 4, 0, 0),
+				LocalDateTime.of(2024, 3, 13, 0, 0));
+	}
+
+	@Test
+	void monthlyBucketsCrossTheYear() {
+		rollup(LocalDateTime.of(2023, 12, 31, 23, 0), 1, "99.00");
+		rollup(LocalDateTime.of(2024, 1, 1, 0, 0), 1, "1.00");
+		rollup(LocalDateTime.of(2024, 2, 29, 12, 0), 2, "60.00");
+
+		SalesRollupService.SalesSeries series = service.getSalesSeries(SalesRollupService.BUCKET_MONTH,
+				LocalDate.of(2023, 12, 15), LocalDate.of(2024, 2, 29));
+
+		assertThat(series.labels()).containsExactly("2023-12", "2024-01", "2024-02");
+		assertThat(series.sales()).usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(new BigDecimal("99.00"), new BigDecimal("1.00"), new BigDecimal("60.00"));
+		assertThat(series.orders()).containsExactly(1L, 1L, 2L);
+	}
+
+	@Test
+	void singleDayRangeHasOneDailyBucket() {
+		SalesRollupService.SalesSeries series = service.getSalesSeries(SalesRollupService.BUCKET_DAY,
+				LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 1));
+
+		assertThat(series.labels()).containsExactly("2024-03-01");
+		assertThat(series.orders()).containsExactly(0L);
+	}
+
+	@Test
+	void rejectsUnknownBucketInvertedRangeAndTooManyBuckets() {
+		LocalDate day = LocalDate.of(2024, 3, 1);
+
+		assertThatThrownBy(() -> service.getSalesSeries("year", day, day))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> service.getSalesSeries(SalesRollupService.BUCKET_DAY, day, day.minusDays(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		// 84 days of hours is 2016 buckets, over the 2000 limit; 83 days is 1992
+		assertThatThrownBy(() -> service.getSalesSeries(SalesRollupService.BUCKET_HOUR, day, day.plusDays(83)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(service.getSalesSeries(SalesRollupService.BUCKET_HOUR, day, day.plusDays(82)).labels())
+				.hasSize(1992);
+	}
+
+	private void rollup(LocalDateTime bucketStart, long orders, String sales) {
+		rollups.add(new Object[] { bucketStart, orders, new BigDecimal(sales) });
+	}
+}